@@ -112,6 +112,10 @@ CREATE INDEX IF NOT EXISTS idx_gravacao_status_venda ON gravacao_call(status_ven
 CREATE INDEX IF NOT EXISTS idx_gravacao_status_processamento ON gravacao_call(status_processamento);
 CREATE INDEX IF NOT EXISTS idx_gravacao_data_gravacao ON gravacao_call(data_gravacao DESC);
 CREATE INDEX IF NOT EXISTS idx_gravacao_composite_status ON gravacao_call(status_venda, status_processamento);
+CREATE INDEX IF NOT EXISTS idx_gravacao_usuario_status_venda ON gravacao_call(id_usuario, status_venda);
+CREATE INDEX IF NOT EXISTS idx_gravacao_cliente_status_venda ON gravacao_call(id_cliente, status_venda);
+CREATE INDEX IF NOT EXISTS idx_gravacao_processamento_pendente ON gravacao_call(status_processamento, id)
+    WHERE status_processamento IN ('UPLOADING', 'PROCESSANDO');
 
 -- Comentários
 COMMENT ON TABLE gravacao_call IS 'Gravações de ligações de vendas';
@@ -151,6 +155,7 @@ CREATE INDEX IF NOT EXISTS idx_feedback_id_empresa ON feedback_ia(id_empresa);
 CREATE INDEX IF NOT EXISTS idx_feedback_categoria ON feedback_ia(categoria_ambiental);
 CREATE INDEX IF NOT EXISTS idx_feedback_sentiment ON feedback_ia(sentiment_score DESC);
 CREATE INDEX IF NOT EXISTS idx_feedback_probabilidade ON feedback_ia(probabilidade_fechamento DESC);
+CREATE INDEX IF NOT EXISTS idx_feedback_empresa_criado_em ON feedback_ia(id_empresa, criado_em DESC);
 
 -- Comentários
 COMMENT ON TABLE feedback_ia IS 'Análises e feedbacks gerados pela IA para cada gravação';
@@ -207,34 +212,357 @@ CREATE TRIGGER update_gravacao_call_atualizado_em
     FOR EACH ROW
     EXECUTE FUNCTION update_atualizado_em_column();
 
+-- ============================================
+-- TABELA: ESTATISTICAS_EMPRESA
+-- Contadores por empresa mantidos por triggers
+-- ============================================
+CREATE TABLE IF NOT EXISTS estatisticas_empresa (
+    id_empresa INTEGER PRIMARY KEY REFERENCES empresa(id) ON DELETE CASCADE,
+    total_usuarios BIGINT NOT NULL DEFAULT 0,
+    total_clientes BIGINT NOT NULL DEFAULT 0,
+    total_gravacoes BIGINT NOT NULL DEFAULT 0,
+    vendas_fechadas BIGINT NOT NULL DEFAULT 0,
+    atualizado_em TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Preenche empresas já existentes
+INSERT INTO estatisticas_empresa (id_empresa, total_usuarios, total_clientes, total_gravacoes, vendas_fechadas)
+SELECT
+    e.id,
+    (SELECT COUNT(*) FROM usuario u WHERE u.id_empresa = e.id),
+    (SELECT COUNT(*) FROM cliente c WHERE c.id_empresa = e.id),
+    (SELECT COUNT(*) FROM gravacao_call g INNER JOIN usuario u ON u.id = g.id_usuario
+        WHERE u.id_empresa = e.id),
+    (SELECT COUNT(*) FROM gravacao_call g INNER JOIN usuario u ON u.id = g.id_usuario
+        WHERE u.id_empresa = e.id AND g.status_venda = 'FECHADO')
+FROM empresa e
+ON CONFLICT (id_empresa) DO UPDATE SET
+    total_usuarios = EXCLUDED.total_usuarios,
+    total_clientes = EXCLUDED.total_clientes,
+    total_gravacoes = EXCLUDED.total_gravacoes,
+    vendas_fechadas = EXCLUDED.vendas_fechadas,
+    atualizado_em = CURRENT_TIMESTAMP;
+
+CREATE OR REPLACE FUNCTION estatisticas_ajustar(
+    p_id_empresa INTEGER, p_usuarios INTEGER, p_clientes INTEGER, p_gravacoes INTEGER, p_fechadas INTEGER)
+RETURNS VOID AS $$
+BEGIN
+    -- Empresa já removida (exclusão em cascata): não há contador a ajustar
+    IF p_id_empresa IS NULL THEN
+        RETURN;
+    END IF;
+
+    UPDATE estatisticas_empresa SET
+        total_usuarios = total_usuarios + p_usuarios,
+        total_clientes = total_clientes + p_clientes,
+        total_gravacoes = total_gravacoes + p_gravacoes,
+        vendas_fechadas = vendas_fechadas + p_fechadas,
+        atualizado_em = CURRENT_TIMESTAMP
+    WHERE id_empresa = p_id_empresa;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION estatisticas_empresa_inserir()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO estatisticas_empresa (id_empresa) VALUES (NEW.id)
+    ON CONFLICT (id_empresa) DO NOTHING;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION estatisticas_usuario_alterar()
+RETURNS TRIGGER AS $$
+DECLARE
+    v_gravacoes INTEGER := 0;
+    v_fechadas INTEGER := 0;
+BEGIN
+    IF TG_OP = 'UPDATE' THEN
+        -- As gravações do vendedor acompanham a mudança de empresa
+        SELECT COUNT(*), COUNT(*) FILTER (WHERE status_venda = 'FECHADO')
+        INTO v_gravacoes, v_fechadas
+        FROM gravacao_call WHERE id_usuario = NEW.id;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        PERFORM estatisticas_ajustar(NEW.id_empresa, 1, 0, v_gravacoes, v_fechadas);
+    END IF;
+    IF TG_OP IN ('DELETE', 'UPDATE') THEN
+        PERFORM estatisticas_ajustar(OLD.id_empresa, -1, 0, -v_gravacoes, -v_fechadas);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION estatisticas_cliente_alterar()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        PERFORM estatisticas_ajustar(NEW.id_empresa, 0, 1, 0, 0);
+    END IF;
+    IF TG_OP IN ('DELETE', 'UPDATE') THEN
+        PERFORM estatisticas_ajustar(OLD.id_empresa, 0, -1, 0, 0);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- A empresa da gravação vem do vendedor; se ele já foi removido (cascata), do cliente
+CREATE OR REPLACE FUNCTION estatisticas_empresa_da_gravacao(p_id_usuario INTEGER, p_id_cliente INTEGER)
+RETURNS INTEGER AS $$
+    SELECT COALESCE(
+        (SELECT id_empresa FROM usuario WHERE id = p_id_usuario),
+        (SELECT id_empresa FROM cliente WHERE id = p_id_cliente));
+$$ LANGUAGE sql STABLE;
+
+CREATE OR REPLACE FUNCTION estatisticas_gravacao_alterar()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        PERFORM estatisticas_ajustar(
+            estatisticas_empresa_da_gravacao(NEW.id_usuario, NEW.id_cliente), 0, 0, 1,
+            CASE WHEN NEW.status_venda = 'FECHADO' THEN 1 ELSE 0 END);
+    END IF;
+    IF TG_OP IN ('DELETE', 'UPDATE') THEN
+        PERFORM estatisticas_ajustar(
+            estatisticas_empresa_da_gravacao(OLD.id_usuario, OLD.id_cliente), 0, 0, -1,
+            CASE WHEN OLD.status_venda = 'FECHADO' THEN -1 ELSE 0 END);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS estatisticas_empresa_insert ON empresa;
+CREATE TRIGGER estatisticas_empresa_insert
+    AFTER INSERT ON empresa
+    FOR EACH ROW
+    EXECUTE FUNCTION estatisticas_empresa_inserir();
+
+DROP TRIGGER IF EXISTS estatisticas_usuario_insert_delete ON usuario;
+CREATE TRIGGER estatisticas_usuario_insert_delete
+    AFTER INSERT OR DELETE ON usuario
+    FOR EACH ROW
+    EXECUTE FUNCTION estatisticas_usuario_alterar();
+
+DROP TRIGGER IF EXISTS estatisticas_usuario_update ON usuario;
+CREATE TRIGGER estatisticas_usuario_update
+    AFTER UPDATE OF id_empresa ON usuario
+    FOR EACH ROW
+    WHEN (OLD.id_empresa IS DISTINCT FROM NEW.id_empresa)
+    EXECUTE FUNCTION estatisticas_usuario_alterar();
+
+DROP TRIGGER IF EXISTS estatisticas_cliente_insert_delete ON cliente;
+CREATE TRIGGER estatisticas_cliente_insert_delete
+    AFTER INSERT OR DELETE ON cliente
+    FOR EACH ROW
+    EXECUTE FUNCTION estatisticas_cliente_alterar();
+
+DROP TRIGGER IF EXISTS estatisticas_cliente_update ON cliente;
+CREATE TRIGGER estatisticas_cliente_update
+    AFTER UPDATE OF id_empresa ON cliente
+    FOR EACH ROW
+    WHEN (OLD.id_empresa IS DISTINCT FROM NEW.id_empresa)
+    EXECUTE FUNCTION estatisticas_cliente_alterar();
+
+DROP TRIGGER IF EXISTS estatisticas_gravacao_insert_delete ON gravacao_call;
+CREATE TRIGGER estatisticas_gravacao_insert_delete
+    AFTER INSERT OR DELETE ON gravacao_call
+    FOR EACH ROW
+    EXECUTE FUNCTION estatisticas_gravacao_alterar();
+
+-- Atualizações de status_processamento/transcrição não tocam o contador
+DROP TRIGGER IF EXISTS estatisticas_gravacao_update ON gravacao_call;
+CREATE TRIGGER estatisticas_gravacao_update
+    AFTER UPDATE OF status_venda, id_usuario ON gravacao_call
+    FOR EACH ROW
+    WHEN (OLD.status_venda IS DISTINCT FROM NEW.status_venda
+        OR OLD.id_usuario IS DISTINCT FROM NEW.id_usuario)
+    EXECUTE FUNCTION estatisticas_gravacao_alterar();
+
+-- ============================================
+-- TABELA: ROLLUP_GRAVACOES
+-- Séries diárias/semanais de gravações processadas
+-- ============================================
+-- Médias são derivadas de soma/quantidade para permitir ajustes incrementais
+CREATE TABLE IF NOT EXISTS rollup_gravacoes (
+    escopo VARCHAR(10) NOT NULL,
+    id_escopo INTEGER NOT NULL,
+    granularidade VARCHAR(10) NOT NULL,
+    inicio DATE NOT NULL,
+    id_empresa INTEGER NOT NULL REFERENCES empresa(id) ON DELETE CASCADE,
+    total_gravacoes BIGINT NOT NULL DEFAULT 0,
+    vendas_fechadas BIGINT NOT NULL DEFAULT 0,
+    soma_sentiment BIGINT NOT NULL DEFAULT 0,
+    qtd_sentiment BIGINT NOT NULL DEFAULT 0,
+    soma_probabilidade BIGINT NOT NULL DEFAULT 0,
+    qtd_probabilidade BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (escopo, id_escopo, granularidade, inicio)
+);
+
+-- Soma (p_sinal = 1) ou remove (p_sinal = -1) a contribuição de uma gravação processada
+CREATE OR REPLACE FUNCTION rollup_ajustar(
+    p_id_empresa INTEGER, p_id_usuario INTEGER, p_id_cliente INTEGER, p_data TIMESTAMP,
+    p_sinal INTEGER, p_fechada BOOLEAN, p_sentiment INTEGER, p_probabilidade INTEGER)
+RETURNS VOID AS $$
+BEGIN
+    -- Empresa removida (exclusão em cascata): os buckets são removidos junto
+    IF p_id_empresa IS NULL OR p_data IS NULL
+            OR NOT EXISTS (SELECT 1 FROM empresa WHERE id = p_id_empresa) THEN
+        RETURN;
+    END IF;
+
+    INSERT INTO rollup_gravacoes AS r (escopo, id_escopo, granularidade, inicio, id_empresa,
+        total_gravacoes, vendas_fechadas, soma_sentiment, qtd_sentiment, soma_probabilidade, qtd_probabilidade)
+    SELECT s.escopo, s.id_escopo, b.granularidade, b.inicio, p_id_empresa,
+        p_sinal,
+        CASE WHEN p_fechada THEN p_sinal ELSE 0 END,
+        p_sinal * COALESCE(p_sentiment, 0),
+        CASE WHEN p_sentiment IS NULL THEN 0 ELSE p_sinal END,
+        p_sinal * COALESCE(p_probabilidade, 0),
+        CASE WHEN p_probabilidade IS NULL THEN 0 ELSE p_sinal END
+    FROM (VALUES ('DIA', p_data::DATE), ('SEMANA', date_trunc('week', p_data)::DATE))
+        AS b(granularidade, inicio)
+    CROSS JOIN (VALUES ('EMPRESA', p_id_empresa), ('USUARIO', p_id_usuario), ('CLIENTE', p_id_cliente))
+        AS s(escopo, id_escopo)
+    WHERE s.id_escopo IS NOT NULL
+    ON CONFLICT (escopo, id_escopo, granularidade, inicio) DO UPDATE SET
+        total_gravacoes = r.total_gravacoes + EXCLUDED.total_gravacoes,
+        vendas_fechadas = r.vendas_fechadas + EXCLUDED.vendas_fechadas,
+        soma_sentiment = r.soma_sentiment + EXCLUDED.soma_sentiment,
+        qtd_sentiment = r.qtd_sentiment + EXCLUDED.qtd_sentiment,
+        soma_probabilidade = r.soma_probabilidade + EXCLUDED.soma_probabilidade,
+        qtd_probabilidade = r.qtd_probabilidade + EXCLUDED.qtd_probabilidade;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Uma gravação entra nas séries quando recebe feedback (fim do processAudioAsync)
+CREATE OR REPLACE FUNCTION rollup_feedback_alterar()
+RETURNS TRIGGER AS $$
+DECLARE
+    g RECORD;
+BEGIN
+    SELECT id_usuario, id_cliente, status_venda, COALESCE(data_gravacao, criado_em) AS data
+    INTO g
+    FROM gravacao_call
+    WHERE id = COALESCE(NEW.id_gravacao, OLD.id_gravacao);
+
+    -- Gravação já removida: a contribuição foi retirada pelo trigger de gravacao_call
+    IF NOT FOUND THEN
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP IN ('DELETE', 'UPDATE') THEN
+        PERFORM rollup_ajustar(OLD.id_empresa, g.id_usuario, g.id_cliente, g.data, -1,
+            g.status_venda = 'FECHADO', OLD.sentiment_score, OLD.probabilidade_fechamento);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        PERFORM rollup_ajustar(NEW.id_empresa, g.id_usuario, g.id_cliente, g.data, 1,
+            g.status_venda = 'FECHADO', NEW.sentiment_score, NEW.probabilidade_fechamento);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION rollup_gravacao_alterar()
+RETURNS TRIGGER AS $$
+DECLARE
+    f RECORD;
+BEGIN
+    SELECT id_empresa, sentiment_score, probabilidade_fechamento
+    INTO f
+    FROM feedback_ia
+    WHERE id_gravacao = OLD.id;
+
+    -- Gravações ainda não processadas não fazem parte das séries
+    IF NOT FOUND THEN
+        RETURN COALESCE(NEW, OLD);
+    END IF;
+
+    PERFORM rollup_ajustar(f.id_empresa, OLD.id_usuario, OLD.id_cliente,
+        COALESCE(OLD.data_gravacao, OLD.criado_em), -1,
+        OLD.status_venda = 'FECHADO', f.sentiment_score, f.probabilidade_fechamento);
+    IF TG_OP = 'UPDATE' THEN
+        PERFORM rollup_ajustar(f.id_empresa, NEW.id_usuario, NEW.id_cliente,
+            COALESCE(NEW.data_gravacao, NEW.criado_em), 1,
+            NEW.status_venda = 'FECHADO', f.sentiment_score, f.probabilidade_fechamento);
+    END IF;
+    RETURN COALESCE(NEW, OLD);
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS rollup_feedback ON feedback_ia;
+CREATE TRIGGER rollup_feedback
+    AFTER INSERT OR DELETE OR UPDATE OF sentiment_score, probabilidade_fechamento ON feedback_ia
+    FOR EACH ROW
+    EXECUTE FUNCTION rollup_feedback_alterar();
+
+-- BEFORE: o feedback ainda existe (a exclusão em cascata ocorre depois)
+DROP TRIGGER IF EXISTS rollup_gravacao_delete ON gravacao_call;
+CREATE TRIGGER rollup_gravacao_delete
+    BEFORE DELETE ON gravacao_call
+    FOR EACH ROW
+    EXECUTE FUNCTION rollup_gravacao_alterar();
+
+DROP TRIGGER IF EXISTS rollup_gravacao_update ON gravacao_call;
+CREATE TRIGGER rollup_gravacao_update
+    AFTER UPDATE OF status_venda, data_gravacao, id_usuario, id_cliente ON gravacao_call
+    FOR EACH ROW
+    WHEN (OLD.status_venda IS DISTINCT FROM NEW.status_venda
+        OR OLD.data_gravacao IS DISTINCT FROM NEW.data_gravacao
+        OR OLD.id_usuario IS DISTINCT FROM NEW.id_usuario
+        OR OLD.id_cliente IS DISTINCT FROM NEW.id_cliente)
+    EXECUTE FUNCTION rollup_gravacao_alterar();
+
+-- Preenche com as gravações já processadas
+INSERT INTO rollup_gravacoes (escopo, id_escopo, granularidade, inicio, id_empresa,
+    total_gravacoes, vendas_fechadas, soma_sentiment, qtd_sentiment, soma_probabilidade, qtd_probabilidade)
+SELECT s.escopo, s.id_escopo, b.granularidade, b.inicio, MIN(f.id_empresa),
+    COUNT(*),
+    COUNT(*) FILTER (WHERE g.status_venda = 'FECHADO'),
+    COALESCE(SUM(f.sentiment_score), 0),
+    COUNT(f.sentiment_score),
+    COALESCE(SUM(f.probabilidade_fechamento), 0),
+    COUNT(f.probabilidade_fechamento)
+FROM feedback_ia f
+INNER JOIN gravacao_call g ON g.id = f.id_gravacao
+CROSS JOIN LATERAL (VALUES
+        ('DIA', COALESCE(g.data_gravacao, g.criado_em)::DATE),
+        ('SEMANA', date_trunc('week', COALESCE(g.data_gravacao, g.criado_em))::DATE))
+    AS b(granularidade, inicio)
+CROSS JOIN LATERAL (VALUES ('EMPRESA', f.id_empresa), ('USUARIO', g.id_usuario), ('CLIENTE', g.id_cliente))
+    AS s(escopo, id_escopo)
+WHERE COALESCE(g.data_gravacao, g.criado_em) IS NOT NULL
+GROUP BY s.escopo, s.id_escopo, b.granularidade, b.inicio
+ON CONFLICT (escopo, id_escopo, granularidade, inicio) DO NOTHING;
+
+COMMENT ON TABLE rollup_gravacoes IS 'Buckets diários e semanais por empresa, vendedor e cliente - mantidos por triggers';
+
 -- ============================================
 -- VIEWS ÚTEIS
 -- ============================================
 
--- View: Estatísticas agregadas por empresa (usada pelo DashboardService)
-CREATE OR REPLACE VIEW v_estatisticas_empresa AS
-SELECT 
-    e.id AS id_empresa,
-    COUNT(DISTINCT u.id) AS total_usuarios,
-    COUNT(DISTINCT c.id) AS total_clientes,
-    COUNT(g.id) AS total_gravacoes,
-    COUNT(CASE WHEN g.status_venda = 'FECHADO' THEN 1 END) AS vendas_fechadas,
-    CASE 
-        WHEN COUNT(g.id) > 0 
-        THEN ROUND((COUNT(CASE WHEN g.status_venda = 'FECHADO' THEN 1 END)::NUMERIC / COUNT(g.id)::NUMERIC) * 100, 2)
+-- View: Estatísticas por empresa (uma linha da tabela de contadores)
+DROP VIEW IF EXISTS v_estatisticas_empresa;
+CREATE VIEW v_estatisticas_empresa AS
+SELECT
+    id_empresa,
+    total_usuarios,
+    total_clientes,
+    total_gravacoes,
+    vendas_fechadas,
+    CASE
+        WHEN total_gravacoes > 0
+        THEN ROUND((vendas_fechadas::NUMERIC / total_gravacoes::NUMERIC) * 100, 2)
         ELSE 0
     END AS taxa_conversao
-FROM empresa e
-LEFT JOIN usuario u ON u.id_empresa = e.id
-LEFT JOIN cliente c ON c.id_empresa = e.id
-LEFT JOIN gravacao_call g ON g.id_usuario = u.id
-GROUP BY e.id;
+FROM estatisticas_empresa;
 
-COMMENT ON VIEW v_estatisticas_empresa IS 'Estatísticas consolidadas por empresa - usada pelo DashboardService';
+COMMENT ON TABLE estatisticas_empresa IS 'Contadores por empresa mantidos por triggers - usados pelo DashboardService';
+COMMENT ON VIEW v_estatisticas_empresa IS 'Estatísticas consolidadas por empresa com taxa de conversão';
 
--- View: Performance individual de vendedores
-CREATE OR REPLACE VIEW v_performance_vendedores AS
-SELECT 
+-- Performance individual de vendedores (materializada, atualizada pela aplicação)
+DROP VIEW IF EXISTS v_performance_vendedores;
+CREATE MATERIALIZED VIEW IF NOT EXISTS mv_performance_vendedores AS
+SELECT
     u.id AS id_usuario,
     u.nome AS nome_usuario,
     u.email,
@@ -242,8 +570,8 @@ SELECT
     e.nome_empresa,
     COUNT(g.id) AS total_gravacoes,
     COUNT(CASE WHEN g.status_venda = 'FECHADO' THEN 1 END) AS vendas_fechadas,
-    CASE 
-        WHEN COUNT(g.id) > 0 
+    CASE
+        WHEN COUNT(g.id) > 0
         THEN ROUND((COUNT(CASE WHEN g.status_venda = 'FECHADO' THEN 1 END)::NUMERIC / COUNT(g.id)::NUMERIC) * 100, 2)
         ELSE 0
     END AS taxa_conversao,
@@ -255,6 +583,17 @@ LEFT JOIN gravacao_call g ON g.id_usuario = u.id
 LEFT JOIN feedback_ia f ON f.id_gravacao = g.id
 GROUP BY u.id, u.nome, u.email, e.id, e.nome_empresa;
 
+-- Índice único exigido pelo REFRESH ... CONCURRENTLY
+CREATE UNIQUE INDEX IF NOT EXISTS idx_mv_performance_vendedores_usuario
+    ON mv_performance_vendedores(id_usuario);
+CREATE INDEX IF NOT EXISTS idx_mv_performance_vendedores_ranking
+    ON mv_performance_vendedores(id_empresa, taxa_conversao DESC, vendas_fechadas DESC);
+
+-- View: Performance individual de vendedores
+CREATE VIEW v_performance_vendedores AS
+SELECT * FROM mv_performance_vendedores;
+
+COMMENT ON MATERIALIZED VIEW mv_performance_vendedores IS 'Métricas de performance de cada vendedor (snapshot periódico)';
 COMMENT ON VIEW v_performance_vendedores IS 'Métricas de performance de cada vendedor';
 
 -- View: Gravações completas com dados relacionados (JOINs pré-calculados)
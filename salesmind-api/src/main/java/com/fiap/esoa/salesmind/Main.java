@@ -1,16 +1,39 @@
 
 package com.fiap.esoa.salesmind;
 
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
+import com.fiap.esoa.salesmind.config.ConnectionAdmission;
+import com.fiap.esoa.salesmind.config.DatabaseConfig;
 import com.fiap.esoa.salesmind.config.EnvConfig;
 import com.fiap.esoa.salesmind.controller.*;
+import com.fiap.esoa.salesmind.filter.DbAdmissionFilter;
 import com.fiap.esoa.salesmind.filter.JwtAuthFilter;
+import com.fiap.esoa.salesmind.filter.LoadSheddingFilter;
+import com.fiap.esoa.salesmind.filter.ReadYourWritesFilter;
+import com.fiap.esoa.salesmind.model.*;
 import com.fiap.esoa.salesmind.repository.*;
 import com.fiap.esoa.salesmind.service.*;
+import com.fiap.esoa.salesmind.util.BcryptCalibrator;
+import com.fiap.esoa.salesmind.util.CacheManager;
+import com.fiap.esoa.salesmind.util.ClusterInvalidation;
+import com.fiap.esoa.salesmind.util.ConcurrencyLimiter;
+import com.fiap.esoa.salesmind.util.JwtClaimsCache;
 import com.fiap.esoa.salesmind.util.JwtKeyManager;
+import com.fiap.esoa.salesmind.util.PasswordUtil;
+import com.fiap.esoa.salesmind.util.WriteEvent;
+import com.fiap.esoa.salesmind.util.WriteEventBus;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.function.UnaryOperator;
 import javax.crypto.SecretKey;
 
 /**
@@ -20,7 +43,7 @@ import javax.crypto.SecretKey;
 public class Main {
 
     private static final int PORT = 8080;
-    private static final String HOST = "localhost";
+    private static final String HOST = EnvConfig.get("SERVER_HOST", "localhost");
     
     static {
         EnvConfig.load();
@@ -30,27 +53,208 @@ public class Main {
         return startServer(PORT);
     }
 
+    /**
+     * Se BCRYPT_TARGET_MS estiver configurada, calibra o custo do bcrypt
+     * para o hardware atual (sobrepõe BCRYPT_ROUNDS).
+     */
+    private static void calibrateBcrypt() {
+        long targetMillis = EnvConfig.getLong("BCRYPT_TARGET_MS", 0);
+        if (targetMillis > 0) {
+            int rounds = BcryptCalibrator.calibrate(targetMillis);
+            PasswordUtil.setRounds(rounds);
+            System.out.println("Custo do bcrypt calibrado para " + rounds + " (alvo: " + targetMillis + " ms)");
+        }
+    }
+
+    /**
+     * HttpServer que, ao parar, também libera o que startServer criou: inscrições no
+     * WriteEventBus (que mantêm serviços, caches e controllers vivos), threads dos
+     * serviços e o executor das requisições.
+     */
+    private static final class ManagedServer extends HttpServer {
+
+        private final HttpServer server;
+        private final List<Runnable> onStop;
+
+        ManagedServer(HttpServer server, List<Runnable> onStop) {
+            this.server = server;
+            this.onStop = onStop;
+        }
+
+        @Override
+        public void stop(int delay) {
+            server.stop(delay);
+            synchronized (onStop) {
+                // Ordem inversa da criação: primeiro quem depende dos demais
+                for (int i = onStop.size() - 1; i >= 0; i--) {
+                    try {
+                        onStop.get(i).run();
+                    } catch (RuntimeException e) {
+                        System.err.println("Falha ao liberar recurso do servidor: " + e.getMessage());
+                    }
+                }
+                onStop.clear();
+            }
+        }
+
+        @Override
+        public void bind(InetSocketAddress addr, int backlog) throws IOException {
+            server.bind(addr, backlog);
+        }
+
+        @Override
+        public void start() {
+            server.start();
+        }
+
+        @Override
+        public void setExecutor(Executor executor) {
+            server.setExecutor(executor);
+        }
+
+        @Override
+        public Executor getExecutor() {
+            return server.getExecutor();
+        }
+
+        @Override
+        public HttpContext createContext(String path, HttpHandler handler) {
+            return server.createContext(path, handler);
+        }
+
+        @Override
+        public HttpContext createContext(String path) {
+            return server.createContext(path);
+        }
+
+        @Override
+        public void removeContext(String path) {
+            server.removeContext(path);
+        }
+
+        @Override
+        public void removeContext(HttpContext context) {
+            server.removeContext(context);
+        }
+
+        @Override
+        public InetSocketAddress getAddress() {
+            return server.getAddress();
+        }
+    }
+
     public static HttpServer startServer(int port) throws IOException {
-        // Create HTTP server on specified port
-        HttpServer server = HttpServer.create(new InetSocketAddress(HOST, port), 0);
+        // Backlog 0 = padrão do sistema operacional
+        int backlog = EnvConfig.getInt("SERVER_BACKLOG", 0);
+        HttpServer server = HttpServer.create(new InetSocketAddress(HOST, port), backlog);
+        // Liberados em ManagedServer.stop
+        List<Runnable> onStop = new ArrayList<>();
+
+        // Limita requisições simultâneas; excedentes aguardam brevemente e recebem 503
+        ConcurrencyLimiter requestLimiter = new ConcurrencyLimiter("http",
+                EnvConfig.getInt("SERVER_MAX_IN_FLIGHT", 200),
+                EnvConfig.getLong("SERVER_QUEUE_TIMEOUT_MS", 100));
+
+        // O pool é dividido entre requisições (handlers, login, uploads) e tarefas em segundo
+        // plano. Requisições esperam pouco e recebem 503; tarefas em segundo plano esperam
+        // uma vaga da sua cota por um tempo limitado, bem abaixo do connectionTimeout do Hikari
+        int poolSize = DatabaseConfig.getMaximumPoolSize();
+        int backgroundConnections = Math.min(poolSize - 1,
+                EnvConfig.getInt("DB_BACKGROUND_CONNECTIONS", Math.max(2, poolSize / 4)));
+        ConcurrencyLimiter dbLimiter = new ConcurrencyLimiter("db",
+                EnvConfig.getInt("DB_MAX_CONCURRENT_HANDLERS", poolSize - backgroundConnections),
+                EnvConfig.getLong("DB_ADMISSION_TIMEOUT_MS", 250));
+        ConcurrencyLimiter dbBackgroundLimiter = new ConcurrencyLimiter("db-background",
+                Math.max(1, backgroundConnections),
+                Math.min(DatabaseConfig.getConnectionTimeoutMillis(),
+                        EnvConfig.getLong("DB_BACKGROUND_TIMEOUT_MS", 2000)));
+        ConnectionAdmission.configure(dbLimiter, dbBackgroundLimiter);
+
+        calibrateBcrypt();
 
         SecretKey jwtKey = JwtKeyManager.getSecretKey();
+        JwtParser jwtParser = Jwts.parser().verifyWith(jwtKey).build();
+        JwtClaimsCache jwtClaimsCache = new JwtClaimsCache();
+
+        UnaryOperator<HttpHandler> publicApi = controller ->
+            new LoadSheddingFilter(new DbAdmissionFilter(
+                new ReadYourWritesFilter(controller), dbLimiter), requestLimiter);
+        UnaryOperator<HttpHandler> protectedApi = controller ->
+            new LoadSheddingFilter(new JwtAuthFilter(new DbAdmissionFilter(
+                new ReadYourWritesFilter(controller), dbLimiter), jwtParser, jwtClaimsCache), requestLimiter);
 
         EmpresaRepository empresaRepository = new EmpresaRepository();
         UsuarioRepository usuarioRepository = new UsuarioRepository();
         ClienteRepository clienteRepository = new ClienteRepository();
         GravacaoCallRepository gravacaoRepository = new GravacaoCallRepository();
         FeedbackIARepository feedbackRepository = new FeedbackIARepository();
+        RollupRepository rollupRepository = new RollupRepository();
 
         GeminiService geminiService = new GeminiService();
-        EmpresaService empresaService = new EmpresaService(empresaRepository, usuarioRepository, clienteRepository, gravacaoRepository);
+        EmpresaService empresaService = new EmpresaService(empresaRepository);
+        onStop.add(empresaService::shutdown);
         UsuarioService usuarioService = new UsuarioService(usuarioRepository, gravacaoRepository);
+        onStop.add(usuarioService::shutdown);
         ClienteService clienteService = new ClienteService(clienteRepository, gravacaoRepository);
+        onStop.add(clienteService::shutdown);
         FeedbackIAService feedbackService = new FeedbackIAService(feedbackRepository);
         GravacaoCallService gravacaoService = new GravacaoCallService(
-                gravacaoRepository, usuarioRepository, feedbackService, geminiService);
+                gravacaoRepository, feedbackService, geminiService);
+        onStop.add(gravacaoService::shutdown);
         DashboardService dashboardService = new DashboardService(
-                empresaRepository, gravacaoRepository);
+                empresaRepository, gravacaoRepository, usuarioRepository, rollupRepository);
+
+        PerformanceRefreshScheduler performanceRefreshScheduler = new PerformanceRefreshScheduler(usuarioRepository);
+        gravacaoService.addProcessingListener(gravacao -> performanceRefreshScheduler.requestRefresh());
+        performanceRefreshScheduler.start();
+        onStop.add(performanceRefreshScheduler::shutdown);
+        LoginVerificationService loginVerificationService = new LoginVerificationService();
+        onStop.add(loginVerificationService::shutdown);
+        FeedbackIAController feedbackController = new FeedbackIAController(feedbackService, gravacaoService);
+
+        // Invalidação de caches a partir das escritas confirmadas nos repositórios
+        onStop.add(WriteEventBus.subscribe(FeedbackIA.class, event -> {
+            feedbackController.invalidateByGravacao(event.entidade().getIdGravacao());
+            gravacaoService.invalidateCache(event.entidade().getIdGravacao());
+        }));
+        onStop.add(WriteEventBus.subscribe(GravacaoCall.class, event -> {
+            dashboardService.invalidateClienteDashboard(event.entidade().getIdCliente());
+            if (event.operacao() == WriteEvent.Operacao.DELETE) {
+                feedbackController.invalidateByGravacao(event.id());
+            }
+        }));
+        onStop.add(WriteEventBus.subscribe(Cliente.class, event -> {
+            if (event.operacao() == WriteEvent.Operacao.DELETE) {
+                dashboardService.invalidateClienteDashboard(event.id());
+                feedbackController.invalidateAll();
+            }
+        }));
+        onStop.add(WriteEventBus.subscribe(Usuario.class, event -> {
+            if (event.operacao() == WriteEvent.Operacao.DELETE) {
+                dashboardService.invalidateAllClienteDashboards();
+                feedbackController.invalidateAll();
+            }
+        }));
+        onStop.add(WriteEventBus.subscribe(Empresa.class, event -> {
+            if (event.operacao() == WriteEvent.Operacao.DELETE) {
+                dashboardService.invalidateAllClienteDashboards();
+                feedbackController.invalidateAll();
+            }
+        }));
+
+        // Com várias instâncias, as escritas de cada uma invalidam os caches das outras
+        ClusterInvalidation clusterInvalidation = null;
+        if (EnvConfig.getBoolean("CACHE_CLUSTER_INVALIDATION", false)) {
+            clusterInvalidation = new ClusterInvalidation()
+                    .register(Empresa.class)
+                    .register(Usuario.class)
+                    .register(Cliente.class)
+                    .register(GravacaoCall.class, GravacaoCall::getIdCliente,
+                            (id, idCliente) -> new GravacaoCall(id, null, idCliente, null, null))
+                    .register(FeedbackIA.class, FeedbackIA::getIdGravacao, FeedbackIA::new);
+            clusterInvalidation.start();
+            onStop.add(clusterInvalidation::shutdown);
+        }
 
         // Endpoints públicos
         server.createContext("/health", exchange -> {
@@ -148,31 +352,52 @@ public class Main {
         });
         
         // Endpoint de autenticação (login/refresh)
-        server.createContext("/api/auth", new AuthController(jwtKey, usuarioService));
+        // (a verificação bcrypt tem pool e fila próprios; só as consultas ocupam vaga de banco)
+        server.createContext("/api/auth", new LoadSheddingFilter(DbAdmissionFilter.perConnection(
+            new ReadYourWritesFilter(new AuthController(jwtKey, usuarioService, loginVerificationService)),
+            dbLimiter), requestLimiter));
         
         // Endpoint de cadastro de empresa
-        server.createContext("/api/signup", new SignupController(empresaService, usuarioService));
+        server.createContext("/api/signup", publicApi.apply(
+            new SignupController(empresaService, usuarioService)));
 
         // Endpoints protegidos por JWT
         server.createContext("/api/empresas", 
-            new JwtAuthFilter(new EmpresaController(empresaService), jwtKey));
+            protectedApi.apply(new EmpresaController(empresaService)));
         server.createContext("/api/usuarios", 
-            new JwtAuthFilter(new UsuarioController(usuarioService), jwtKey));
+            protectedApi.apply(new UsuarioController(usuarioService)));
         server.createContext("/api/clientes", 
-            new JwtAuthFilter(new ClienteController(clienteService), jwtKey));
+            protectedApi.apply(new ClienteController(clienteService)));
         server.createContext("/api/gravacoes", 
-            new JwtAuthFilter(new GravacaoCallController(gravacaoService, clienteService), jwtKey));
+            protectedApi.apply(new GravacaoCallController(gravacaoService, clienteService)));
         server.createContext("/api/feedbacks", 
-            new JwtAuthFilter(new FeedbackIAController(feedbackService, gravacaoService), jwtKey));
+            protectedApi.apply(feedbackController));
         server.createContext("/api/dashboard", 
-            new JwtAuthFilter(new DashboardController(dashboardService), jwtKey));
+            protectedApi.apply(new DashboardController(dashboardService, clienteService)));
+
+        // Métricas operacionais (fora do limitador para permanecer acessível sob sobrecarga)
+        MetricsController metricsController = new MetricsController()
+                .register("http", requestLimiter::getMetrics)
+                .register("dbAdmission", dbLimiter::getMetrics)
+                .register("dbBackground", dbBackgroundLimiter::getMetrics)
+                .register("dbPool", DatabaseConfig::getPoolMetrics)
+                .register("performanceRefresh", performanceRefreshScheduler::getMetrics)
+                .register("login", loginVerificationService::getMetrics)
+                .register("caches", CacheManager::getAllMetrics);
+        if (clusterInvalidation != null) {
+            metricsController.register("clusterInvalidation", clusterInvalidation::getMetrics);
+        }
+        server.createContext("/api/admin/metrics",
+            new JwtAuthFilter(metricsController, jwtParser, jwtClaimsCache));
 
-        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        onStop.add(executor::shutdown);
 
         System.out.println("Iniciando servidor HTTP...");
         server.start();
 
-        return server;
+        return new ManagedServer(server, onStop);
     }
 
     public static void main(String[] args) throws IOException {
@@ -0,0 +1,149 @@
+package com.fiap.esoa.salesmind.config;
+
+import com.fiap.esoa.salesmind.util.ConcurrencyLimiter;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Divide o pool do primário entre requisições e trabalho em segundo plano.
+ * Requisições que passaram pelo DbAdmissionFilter já ocupam uma vaga do limitador
+ * de handlers. Login e uploads passam pelo filtro sem ocupar vaga (bcrypt e a leitura
+ * do corpo não usam o banco) e pegam uma vaga do mesmo limitador só enquanto cada
+ * conexão está aberta, com a mesma espera curta dos handlers. As demais conexões
+ * (tarefas em segundo plano, recarga de caches) ocupam uma vaga do limitador de
+ * segundo plano enquanto estão abertas. Como as duas cotas somam o tamanho do pool,
+ * nenhuma requisição espera no getConnection atrás de trabalho em segundo plano.
+ *
+ * Sem vaga dentro da espera do limitador, acquire lança {@link AdmissionRejectedException};
+ * os controllers respondem 503 com Retry-After (ver BaseController.sendIfPoolSaturated).
+ *
+ * Conexões abertas pela mesma thread enquanto ela já segura uma vaga não pegam outra,
+ * para que leituras aninhadas não esperem pela própria thread.
+ */
+public final class ConnectionAdmission {
+
+    @FunctionalInterface
+    public interface ConnectionSource {
+        Connection get() throws SQLException;
+    }
+
+    /**
+     * Falta de vaga na cota do pool; transitória, a requisição pode ser repetida.
+     */
+    public static class AdmissionRejectedException extends SQLTransientConnectionException {
+
+        private static final long serialVersionUID = 1L;
+
+        public AdmissionRejectedException(String message) {
+            super(message);
+        }
+    }
+
+    private enum Mode { BACKGROUND, PER_CONNECTION, ADMITTED }
+
+    private static final ThreadLocal<Mode> MODE = ThreadLocal.withInitial(() -> Mode.BACKGROUND);
+    private static final ThreadLocal<int[]> HELD = ThreadLocal.withInitial(() -> new int[1]);
+
+    private static volatile ConcurrencyLimiter handlers;
+    private static volatile ConcurrencyLimiter background;
+
+    private ConnectionAdmission() {
+    }
+
+    /**
+     * Cada limitador aplica a própria espera máxima (handlers: curta, para responder 503;
+     * segundo plano: limitada, bem abaixo do connectionTimeout do Hikari).
+     *
+     * @param handlerLimiter Vagas dos handlers, também usadas por conexão no login e em uploads
+     * @param backgroundLimiter Vagas do pool para conexões fora de requisições (null desliga)
+     */
+    public static void configure(ConcurrencyLimiter handlerLimiter, ConcurrencyLimiter backgroundLimiter) {
+        handlers = handlerLimiter;
+        background = backgroundLimiter;
+    }
+
+    /**
+     * Marca a thread como atendendo uma requisição que já ocupa vaga de handler.
+     */
+    public static void admit() {
+        MODE.set(Mode.ADMITTED);
+    }
+
+    /**
+     * Marca a thread como atendendo uma requisição sem vaga de handler (login, uploads):
+     * cada conexão ocupa uma vaga de handler enquanto está aberta.
+     */
+    public static void admitPerConnection() {
+        MODE.set(Mode.PER_CONNECTION);
+    }
+
+    public static void clear() {
+        MODE.remove();
+    }
+
+    /**
+     * @return true se a exceção (ou uma de suas causas) é falta de vaga no pool
+     */
+    public static boolean isRejection(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof AdmissionRejectedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Obtém uma conexão, ocupando uma vaga da cota da thread se ela ainda não segura uma.
+     *
+     * @throws AdmissionRejectedException se não houver vaga dentro do tempo de espera
+     */
+    public static Connection acquire(ConnectionSource source) throws SQLException {
+        Mode mode = MODE.get();
+        ConcurrencyLimiter limiter = mode == Mode.PER_CONNECTION ? handlers : background;
+        int[] held = HELD.get();
+        if (limiter == null || mode == Mode.ADMITTED || held[0] > 0) {
+            return source.get();
+        }
+
+        if (!limiter.tryAcquire()) {
+            throw new AdmissionRejectedException("Sem vaga no pool (" + limiter.getName() + ") após "
+                    + limiter.getMaxWaitMillis() + " ms");
+        }
+        held[0]++;
+        try {
+            return releasingOnClose(source.get(), limiter, held);
+        } catch (SQLException | RuntimeException e) {
+            held[0]--;
+            limiter.release();
+            throw e;
+        }
+    }
+
+    private static Connection releasingOnClose(Connection connection, ConcurrencyLimiter limiter, int[] held) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                        try {
+                            connection.close();
+                        } finally {
+                            held[0]--;
+                            limiter.release();
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -2,14 +2,24 @@ package com.fiap.esoa.salesmind.config;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.fiap.esoa.salesmind.util.LatencyHistogram;
 import javax.sql.DataSource;
 import java.sql.Connection;
+import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 public class DatabaseConfig {
 
     private static HikariDataSource dataSource;
+    private static HikariDataSource replicaDataSource;
+    private static final LatencyHistogram acquireHistogram = new LatencyHistogram();
+    private static final LatencyHistogram replicaAcquireHistogram = new LatencyHistogram();
+    private static final LongAdder replicaReads = new LongAdder();
+    private static final LongAdder primaryReads = new LongAdder();
 
     static {
         initializeDataSource();
@@ -38,181 +48,152 @@ public class DatabaseConfig {
         config.setJdbcUrl(dbUrl);
         config.setUsername(dbUser);
         config.setPassword(dbPassword);
-        config.setMaximumPoolSize(10);
-        config.setMinimumIdle(2);
-        config.setConnectionTimeout(30000);
-        config.setIdleTimeout(600000);
-        config.setMaxLifetime(1800000);
+        config.setPoolName("salesmind-primary");
+        configurePool(config, EnvConfig.getInt("DB_POOL_MAX_SIZE", 10));
+        configureDriver(config);
 
         dataSource = new HikariDataSource(config);
 
         System.out.println("Pool de conexões do banco de dados inicializado");
         initializeSchema();
+        initializeReplica(dbUser, dbPassword);
+    }
+
+    /**
+     * Pool opcional da réplica de leitura (DB_REPLICA_URL). Sem réplica, as leituras usam o primário.
+     */
+    private static void initializeReplica(String primaryUser, String primaryPassword) {
+        String replicaUrl = System.getProperty("DB_REPLICA_URL", System.getenv("DB_REPLICA_URL"));
+        if (replicaUrl == null || replicaUrl.isEmpty()) {
+            return;
+        }
+        String replicaUser = System.getProperty("DB_REPLICA_USER", System.getenv("DB_REPLICA_USER"));
+        String replicaPassword = System.getProperty("DB_REPLICA_PASSWORD", System.getenv("DB_REPLICA_PASSWORD"));
+
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(replicaUrl);
+        config.setUsername(replicaUser != null && !replicaUser.isEmpty() ? replicaUser : primaryUser);
+        config.setPassword(replicaPassword != null && !replicaPassword.isEmpty() ? replicaPassword : primaryPassword);
+        config.setPoolName("salesmind-replica");
+        config.setReadOnly(true);
+        configurePool(config, EnvConfig.getInt("DB_REPLICA_POOL_MAX_SIZE", dataSource.getMaximumPoolSize()));
+        configureDriver(config);
+
+        replicaDataSource = new HikariDataSource(config);
+        System.out.println("Pool de conexões da réplica de leitura inicializado");
+    }
+
+    /**
+     * Dimensionamento do pool Hikari.
+     */
+    private static void configurePool(HikariConfig config, int maximumPoolSize) {
+        config.setMaximumPoolSize(maximumPoolSize);
+        config.setMinimumIdle(EnvConfig.getInt("DB_POOL_MIN_IDLE", 2));
+        config.setConnectionTimeout(EnvConfig.getLong("DB_CONNECTION_TIMEOUT_MS", 30000));
+        config.setIdleTimeout(EnvConfig.getLong("DB_IDLE_TIMEOUT_MS", 600000));
+        config.setMaxLifetime(EnvConfig.getLong("DB_MAX_LIFETIME_MS", 1800000));
+    }
+
+    /**
+     * Ajustes do driver pgjdbc. Os repositórios preparam o SQL a cada chamada; com
+     * prepareThreshold baixo e o cache de statements por conexão, o driver reaproveita
+     * o statement já preparado no servidor e o planejamento não se repete.
+     */
+    private static void configureDriver(HikariConfig config) {
+        config.addDataSourceProperty("prepareThreshold", EnvConfig.getInt("DB_PREPARE_THRESHOLD", 1));
+        config.addDataSourceProperty("preparedStatementCacheQueries",
+                EnvConfig.getInt("DB_PREPARED_STATEMENT_CACHE_QUERIES", 256));
+        config.addDataSourceProperty("preparedStatementCacheSizeMiB",
+                EnvConfig.getInt("DB_PREPARED_STATEMENT_CACHE_SIZE_MIB", 5));
+        // Lotes de INSERT (ex.: ClienteRepository.saveAll) viram INSERTs multi-valores
+        config.addDataSourceProperty("reWriteBatchedInserts", EnvConfig.getBoolean("DB_REWRITE_BATCHED_INSERTS", true));
+        // Só tem efeito com autocommit desligado (dentro de transações); 0 = tudo de uma vez
+        config.addDataSourceProperty("defaultRowFetchSize", EnvConfig.getInt("DB_DEFAULT_ROW_FETCH_SIZE", 0));
     }
 
     public static DataSource getDataSource() {
         return dataSource;
     }
 
+    /**
+     * Conexão do primário, para escritas e leituras que precisam do estado mais recente.
+     * A partir daqui as leituras da mesma requisição também vão ao primário.
+     */
     public static Connection getConnection() throws SQLException {
-        return dataSource.getConnection();
+        ReadYourWrites.pinToPrimary();
+        long start = System.nanoTime();
+        try {
+            return ConnectionAdmission.acquire(dataSource::getConnection);
+        } finally {
+            acquireHistogram.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Conexão para consultas somente leitura: usa a réplica, se configurada, exceto
+     * quando a requisição já usou o primário (read-your-writes).
+     */
+    public static Connection getReadConnection() throws SQLException {
+        if (replicaDataSource == null || ReadYourWrites.isPinnedToPrimary()) {
+            primaryReads.increment();
+            return getConnection();
+        }
+
+        replicaReads.increment();
+        long start = System.nanoTime();
+        try {
+            return replicaDataSource.getConnection();
+        } finally {
+            replicaAcquireHistogram.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Conexão do primário fora do pool, para sessões longas (ex.: LISTEN) que não devem
+     * ocupar uma vaga do pool. Quem chama deve fechá-la.
+     */
+    public static Connection openDedicatedConnection() throws SQLException {
+        return DriverManager.getConnection(dataSource.getJdbcUrl(), dataSource.getUsername(), dataSource.getPassword());
+    }
+
+    public static int getMaximumPoolSize() {
+        return dataSource.getMaximumPoolSize();
+    }
+
+    public static long getConnectionTimeoutMillis() {
+        return dataSource.getConnectionTimeout();
+    }
+
+    /**
+     * @return Estado dos pools (primário e réplica) e histogramas do tempo de espera por conexão
+     */
+    public static Map<String, Object> getPoolMetrics() {
+        Map<String, Object> metrics = poolSnapshot(dataSource, acquireHistogram);
+        metrics.put("readsOnPrimary", primaryReads.sum());
+        metrics.put("readsOnReplica", replicaReads.sum());
+        if (replicaDataSource != null) {
+            metrics.put("replica", poolSnapshot(replicaDataSource, replicaAcquireHistogram));
+        }
+        return metrics;
+    }
+
+    private static Map<String, Object> poolSnapshot(HikariDataSource source, LatencyHistogram histogram) {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        HikariPoolMXBean pool = source.getHikariPoolMXBean();
+        metrics.put("maximumPoolSize", source.getMaximumPoolSize());
+        if (pool != null) {
+            metrics.put("activeConnections", pool.getActiveConnections());
+            metrics.put("idleConnections", pool.getIdleConnections());
+            metrics.put("totalConnections", pool.getTotalConnections());
+            metrics.put("threadsAwaitingConnection", pool.getThreadsAwaitingConnection());
+        }
+        metrics.put("connectionAcquire", histogram.snapshot());
+        return metrics;
     }
 
     private static void initializeSchema() {
-        String[] createTableStatements = {
-                """
-                        CREATE TABLE IF NOT EXISTS empresa (
-                            id SERIAL PRIMARY KEY,
-                            nome_empresa VARCHAR(255) NOT NULL,
-                            cnpj VARCHAR(18) UNIQUE NOT NULL,
-                            tipo_conta VARCHAR(50) NOT NULL,
-                            criado_em TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                            atualizado_em TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-                        )
-                        """,
-                """
-                        CREATE TABLE IF NOT EXISTS usuario (
-                            id SERIAL PRIMARY KEY,
-                            id_empresa INTEGER NOT NULL REFERENCES empresa(id) ON DELETE CASCADE,
-                            nome VARCHAR(255) NOT NULL,
-                            email VARCHAR(255) UNIQUE NOT NULL,
-                            senha VARCHAR(255),
-                            funcao VARCHAR(50) NOT NULL,
-                            criado_em TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                            atualizado_em TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-                        )
-                        """,
-                """
-                        CREATE TABLE IF NOT EXISTS cliente (
-                            id SERIAL PRIMARY KEY,
-                            id_empresa INTEGER NOT NULL REFERENCES empresa(id) ON DELETE CASCADE,
-                            nome VARCHAR(255) NOT NULL,
-                            cpf_cnpj VARCHAR(18),
-                            telefone VARCHAR(20),
-                            email VARCHAR(255),
-                            segmento VARCHAR(100),
-                            criado_em TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                            atualizado_em TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-                        )
-                        """,
-                """
-                        CREATE TABLE IF NOT EXISTS gravacao_call (
-                            id SERIAL PRIMARY KEY,
-                            id_usuario INTEGER NOT NULL REFERENCES usuario(id) ON DELETE CASCADE,
-                            id_cliente INTEGER NOT NULL REFERENCES cliente(id) ON DELETE CASCADE,
-                            audio_url VARCHAR(500),
-                            audio_filename VARCHAR(255),
-                            transcricao TEXT,
-                            resumo_ia TEXT,
-                            status_venda VARCHAR(50) DEFAULT 'PENDENTE',
-                            status_processamento VARCHAR(50) DEFAULT 'UPLOADING',
-                            duracao_segundos INTEGER,
-                            erro_processamento TEXT,
-                            data_gravacao TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                            criado_em TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                            atualizado_em TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-                        )
-                        """,
-                """
-                        CREATE TABLE IF NOT EXISTS feedback_ia (
-                            id SERIAL PRIMARY KEY,
-                            id_gravacao INTEGER NOT NULL REFERENCES gravacao_call(id) ON DELETE CASCADE,
-                            id_empresa INTEGER NOT NULL REFERENCES empresa(id) ON DELETE CASCADE,
-                            pontos_fortes TEXT[],
-                            pontos_fracos TEXT[],
-                            sugestoes TEXT[],
-                            sentiment_score INTEGER CHECK (sentiment_score >= 0 AND sentiment_score <= 100),
-                            probabilidade_fechamento INTEGER CHECK (probabilidade_fechamento >= 0 AND probabilidade_fechamento <= 100),
-                            categoria_ambiental VARCHAR(50),
-                            qualidade_atendimento INTEGER CHECK (qualidade_atendimento >= 0 AND qualidade_atendimento <= 100),
-                            aderencia_script INTEGER CHECK (aderencia_script >= 0 AND aderencia_script <= 100),
-                            gestao_objecoes INTEGER CHECK (gestao_objecoes >= 0 AND gestao_objecoes <= 100),
-                            objecoes_identificadas TEXT[],
-                            momentos_chave TEXT[],
-                            tipo_feedback VARCHAR(50) DEFAULT 'AUTOMATICO',
-                            criado_em TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                            UNIQUE(id_gravacao)
-                        )
-                        """,
-                """
-                        -- View: Estatísticas agregadas por empresa
-                        CREATE OR REPLACE VIEW v_estatisticas_empresa AS
-                        SELECT 
-                            e.id AS id_empresa,
-                            COUNT(DISTINCT u.id) AS total_usuarios,
-                            COUNT(DISTINCT c.id) AS total_clientes,
-                            COUNT(g.id) AS total_gravacoes,
-                            COUNT(CASE WHEN g.status_venda = 'FECHADO' THEN 1 END) AS vendas_fechadas,
-                            CASE 
-                                WHEN COUNT(g.id) > 0 
-                                THEN ROUND((COUNT(CASE WHEN g.status_venda = 'FECHADO' THEN 1 END)::NUMERIC / COUNT(g.id)::NUMERIC) * 100, 2)
-                                ELSE 0
-                            END AS taxa_conversao
-                        FROM empresa e
-                        LEFT JOIN usuario u ON u.id_empresa = e.id
-                        LEFT JOIN cliente c ON c.id_empresa = e.id
-                        LEFT JOIN gravacao_call g ON g.id_usuario = u.id
-                        GROUP BY e.id
-                        """,
-                """
-                        -- View: Performance individual de vendedores
-                        CREATE OR REPLACE VIEW v_performance_vendedores AS
-                        SELECT 
-                            u.id AS id_usuario,
-                            u.nome AS nome_usuario,
-                            u.email,
-                            e.id AS id_empresa,
-                            e.nome_empresa,
-                            COUNT(g.id) AS total_gravacoes,
-                            COUNT(CASE WHEN g.status_venda = 'FECHADO' THEN 1 END) AS vendas_fechadas,
-                            CASE 
-                                WHEN COUNT(g.id) > 0 
-                                THEN ROUND((COUNT(CASE WHEN g.status_venda = 'FECHADO' THEN 1 END)::NUMERIC / COUNT(g.id)::NUMERIC) * 100, 2)
-                                ELSE 0
-                            END AS taxa_conversao,
-                            ROUND(AVG(f.sentiment_score), 2) AS media_sentiment,
-                            ROUND(AVG(f.qualidade_atendimento), 2) AS media_qualidade
-                        FROM usuario u
-                        INNER JOIN empresa e ON e.id = u.id_empresa
-                        LEFT JOIN gravacao_call g ON g.id_usuario = u.id
-                        LEFT JOIN feedback_ia f ON f.id_gravacao = g.id
-                        GROUP BY u.id, u.nome, u.email, e.id, e.nome_empresa
-                        """,
-                """
-                        -- View: Gravações completas com dados relacionados
-                        CREATE OR REPLACE VIEW v_gravacoes_completas AS
-                        SELECT 
-                            g.id AS id_gravacao,
-                            g.data_gravacao,
-                            g.duracao_segundos,
-                            g.status_venda,
-                            g.status_processamento,
-                            u.id AS id_usuario,
-                            u.nome AS nome_usuario,
-                            u.email AS email_usuario,
-                            c.id AS id_cliente,
-                            c.nome AS nome_cliente,
-                            c.telefone AS telefone_cliente,
-                            e.id AS id_empresa,
-                            e.nome_empresa,
-                            f.id AS id_feedback,
-                            f.sentiment_score,
-                            f.probabilidade_fechamento,
-                            f.qualidade_atendimento,
-                            f.categoria_ambiental
-                        FROM gravacao_call g
-                        INNER JOIN usuario u ON u.id = g.id_usuario
-                        INNER JOIN cliente c ON c.id = g.id_cliente
-                        INNER JOIN empresa e ON e.id = u.id_empresa
-                        LEFT JOIN feedback_ia f ON f.id_gravacao = g.id
-                        """
-        };
-
-        try (Connection conn = getConnection(); Statement stmt = conn.createStatement()) {
-            for (String sql : createTableStatements) {
-                stmt.execute(sql);
-            }
-            
+        try {
+            SchemaMigrator.migrate(dataSource);
             System.out.println("Schema do banco de dados inicializado com sucesso");
         } catch (SQLException e) {
             System.err.println("Falha ao inicializar schema do banco de dados: " + e.getMessage());
@@ -221,6 +202,9 @@ public class DatabaseConfig {
     }
 
     public static void close() {
+        if (replicaDataSource != null && !replicaDataSource.isClosed()) {
+            replicaDataSource.close();
+        }
         if (dataSource != null && !dataSource.isClosed()) {
             dataSource.close();
             System.out.println("Pool de conexões do banco de dados fechado");
@@ -27,7 +27,15 @@ public class EnvConfig {
         // Apenas para garantir que o bloco static seja executado
     }
     
+    /**
+     * Propriedades de sistema (-D ou definidas em testes) têm precedência sobre o .env
+     * e as variáveis de ambiente, como em DatabaseConfig.
+     */
     public static String get(String key) {
+        String value = System.getProperty(key);
+        if (value != null) {
+            return value;
+        }
         return dotenv != null ? dotenv.get(key) : System.getenv(key);
     }
     
@@ -35,4 +43,38 @@ public class EnvConfig {
         String value = get(key);
         return value != null ? value : defaultValue;
     }
+    
+    public static int getInt(String key, int defaultValue) {
+        String value = get(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.out.println("AVISO: " + key + " inválida (" + value + "), usando padrão: " + defaultValue);
+            return defaultValue;
+        }
+    }
+    
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = get(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(value.trim());
+    }
+    
+    public static long getLong(String key, long defaultValue) {
+        String value = get(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.out.println("AVISO: " + key + " inválida (" + value + "), usando padrão: " + defaultValue);
+            return defaultValue;
+        }
+    }
 }
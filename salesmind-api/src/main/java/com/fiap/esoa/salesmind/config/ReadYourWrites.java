@@ -0,0 +1,47 @@
+package com.fiap.esoa.salesmind.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Consistência "read-your-writes" com a réplica de leitura.
+ * Depois que a thread usa uma conexão do primário, as leituras seguintes dela
+ * também vão ao primário, para não ler da réplica um estado anterior ao que
+ * acabou de ser gravado. O estado é por thread e é limpo a cada requisição
+ * pelo ReadYourWritesFilter.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PINNED = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private ReadYourWrites() {
+    }
+
+    public static void pinToPrimary() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PINNED.get();
+    }
+
+    public static void clear() {
+        PINNED.remove();
+    }
+
+    /**
+     * Executa a leitura no primário sem deixar a thread fixada depois.
+     * Para cargas de cache: um valor lido da réplica atrasada ficaria em cache
+     * até o TTL, mesmo após a invalidação pelo commit que o alterou.
+     */
+    public static <T> T onPrimary(Supplier<T> read) {
+        if (isPinnedToPrimary()) {
+            return read.get();
+        }
+        pinToPrimary();
+        try {
+            return read.get();
+        } finally {
+            clear();
+        }
+    }
+}
@@ -0,0 +1,801 @@
+package com.fiap.esoa.salesmind.config;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Migrações versionadas do schema.
+ * Cada migração é aplicada uma única vez, em transação, e registrada em schema_migrations.
+ * Migrações de índices são a exceção: rodam fora de transação com CREATE INDEX CONCURRENTLY,
+ * para não bloquear escritas nas tabelas durante o start.
+ * Alterações de schema devem ser adicionadas ao final de MIGRATIONS com a próxima versão,
+ * nunca editando uma migração já publicada.
+ */
+public class SchemaMigrator {
+
+    /** Chave do advisory lock que serializa migrações entre instâncias iniciando juntas */
+    static final long MIGRATION_LOCK_KEY = 5_312_001L;
+
+    /** Intervalo entre tentativas de obter o advisory lock */
+    private static final long LOCK_RETRY_MILLIS = 200;
+
+    private static final Pattern CONCURRENT_INDEX_NAME = Pattern.compile(
+            "CREATE\\s+(?:UNIQUE\\s+)?INDEX\\s+CONCURRENTLY\\s+IF\\s+NOT\\s+EXISTS\\s+(\\w+)",
+            Pattern.CASE_INSENSITIVE);
+
+    /**
+     * @param transactional false para migrações com CREATE INDEX CONCURRENTLY, que não pode rodar
+     *                      em transação; cada comando deve ser idempotente (IF NOT EXISTS)
+     */
+    record Migration(int version, String description, boolean transactional, String... statements) {
+
+        Migration(int version, String description, String... statements) {
+            this(version, description, true, statements);
+        }
+    }
+
+    static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "Schema inicial",
+                """
+                        CREATE TABLE IF NOT EXISTS empresa (
+                            id SERIAL PRIMARY KEY,
+                            nome_empresa VARCHAR(255) NOT NULL,
+                            cnpj VARCHAR(18) UNIQUE NOT NULL,
+                            tipo_conta VARCHAR(50) NOT NULL,
+                            criado_em TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                            atualizado_em TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                        )
+                        """,
+                """
+                        CREATE TABLE IF NOT EXISTS usuario (
+                            id SERIAL PRIMARY KEY,
+                            id_empresa INTEGER NOT NULL REFERENCES empresa(id) ON DELETE CASCADE,
+                            nome VARCHAR(255) NOT NULL,
+                            email VARCHAR(255) UNIQUE NOT NULL,
+                            senha VARCHAR(255),
+                            funcao VARCHAR(50) NOT NULL,
+                            criado_em TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                            atualizado_em TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                        )
+                        """,
+                """
+                        CREATE TABLE IF NOT EXISTS cliente (
+                            id SERIAL PRIMARY KEY,
+                            id_empresa INTEGER NOT NULL REFERENCES empresa(id) ON DELETE CASCADE,
+                            nome VARCHAR(255) NOT NULL,
+                            cpf_cnpj VARCHAR(18),
+                            telefone VARCHAR(20),
+                            email VARCHAR(255),
+                            segmento VARCHAR(100),
+                            criado_em TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                            atualizado_em TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                        )
+                        """,
+                """
+                        CREATE TABLE IF NOT EXISTS gravacao_call (
+                            id SERIAL PRIMARY KEY,
+                            id_usuario INTEGER NOT NULL REFERENCES usuario(id) ON DELETE CASCADE,
+                            id_cliente INTEGER NOT NULL REFERENCES cliente(id) ON DELETE CASCADE,
+                            audio_url VARCHAR(500),
+                            audio_filename VARCHAR(255),
+                            transcricao TEXT,
+                            resumo_ia TEXT,
+                            status_venda VARCHAR(50) DEFAULT 'PENDENTE',
+                            status_processamento VARCHAR(50) DEFAULT 'UPLOADING',
+                            duracao_segundos INTEGER,
+                            erro_processamento TEXT,
+                            data_gravacao TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                            criado_em TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                            atualizado_em TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                        )
+                        """,
+                """
+                        CREATE TABLE IF NOT EXISTS feedback_ia (
+                            id SERIAL PRIMARY KEY,
+                            id_gravacao INTEGER NOT NULL REFERENCES gravacao_call(id) ON DELETE CASCADE,
+                            id_empresa INTEGER NOT NULL REFERENCES empresa(id) ON DELETE CASCADE,
+                            pontos_fortes TEXT[],
+                            pontos_fracos TEXT[],
+                            sugestoes TEXT[],
+                            sentiment_score INTEGER CHECK (sentiment_score >= 0 AND sentiment_score <= 100),
+                            probabilidade_fechamento INTEGER CHECK (probabilidade_fechamento >= 0 AND probabilidade_fechamento <= 100),
+                            categoria_ambiental VARCHAR(50),
+                            qualidade_atendimento INTEGER CHECK (qualidade_atendimento >= 0 AND qualidade_atendimento <= 100),
+                            aderencia_script INTEGER CHECK (aderencia_script >= 0 AND aderencia_script <= 100),
+                            gestao_objecoes INTEGER CHECK (gestao_objecoes >= 0 AND gestao_objecoes <= 100),
+                            objecoes_identificadas TEXT[],
+                            momentos_chave TEXT[],
+                            tipo_feedback VARCHAR(50) DEFAULT 'AUTOMATICO',
+                            criado_em TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                            UNIQUE(id_gravacao)
+                        )
+                        """,
+                """
+                        -- View: Estatísticas agregadas por empresa
+                        CREATE OR REPLACE VIEW v_estatisticas_empresa AS
+                        SELECT
+                            e.id AS id_empresa,
+                            COUNT(DISTINCT u.id) AS total_usuarios,
+                            COUNT(DISTINCT c.id) AS total_clientes,
+                            COUNT(g.id) AS total_gravacoes,
+                            COUNT(CASE WHEN g.status_venda = 'FECHADO' THEN 1 END) AS vendas_fechadas,
+                            CASE
+                                WHEN COUNT(g.id) > 0
+                                THEN ROUND((COUNT(CASE WHEN g.status_venda = 'FECHADO' THEN 1 END)::NUMERIC / COUNT(g.id)::NUMERIC) * 100, 2)
+                                ELSE 0
+                            END AS taxa_conversao
+                        FROM empresa e
+                        LEFT JOIN usuario u ON u.id_empresa = e.id
+                        LEFT JOIN cliente c ON c.id_empresa = e.id
+                        LEFT JOIN gravacao_call g ON g.id_usuario = u.id
+                        GROUP BY e.id
+                        """,
+                """
+                        -- View: Performance individual de vendedores
+                        CREATE OR REPLACE VIEW v_performance_vendedores AS
+                        SELECT
+                            u.id AS id_usuario,
+                            u.nome AS nome_usuario,
+                            u.email,
+                            e.id AS id_empresa,
+                            e.nome_empresa,
+                            COUNT(g.id) AS total_gravacoes,
+                            COUNT(CASE WHEN g.status_venda = 'FECHADO' THEN 1 END) AS vendas_fechadas,
+                            CASE
+                                WHEN COUNT(g.id) > 0
+                                THEN ROUND((COUNT(CASE WHEN g.status_venda = 'FECHADO' THEN 1 END)::NUMERIC / COUNT(g.id)::NUMERIC) * 100, 2)
+                                ELSE 0
+                            END AS taxa_conversao,
+                            ROUND(AVG(f.sentiment_score), 2) AS media_sentiment,
+                            ROUND(AVG(f.qualidade_atendimento), 2) AS media_qualidade
+                        FROM usuario u
+                        INNER JOIN empresa e ON e.id = u.id_empresa
+                        LEFT JOIN gravacao_call g ON g.id_usuario = u.id
+                        LEFT JOIN feedback_ia f ON f.id_gravacao = g.id
+                        GROUP BY u.id, u.nome, u.email, e.id, e.nome_empresa
+                        """,
+                """
+                        -- View: Gravações completas com dados relacionados
+                        CREATE OR REPLACE VIEW v_gravacoes_completas AS
+                        SELECT
+                            g.id AS id_gravacao,
+                            g.data_gravacao,
+                            g.duracao_segundos,
+                            g.status_venda,
+                            g.status_processamento,
+                            u.id AS id_usuario,
+                            u.nome AS nome_usuario,
+                            u.email AS email_usuario,
+                            c.id AS id_cliente,
+                            c.nome AS nome_cliente,
+                            c.telefone AS telefone_cliente,
+                            e.id AS id_empresa,
+                            e.nome_empresa,
+                            f.id AS id_feedback,
+                            f.sentiment_score,
+                            f.probabilidade_fechamento,
+                            f.qualidade_atendimento,
+                            f.categoria_ambiental
+                        FROM gravacao_call g
+                        INNER JOIN usuario u ON u.id = g.id_usuario
+                        INNER JOIN cliente c ON c.id = g.id_cliente
+                        INNER JOIN empresa e ON e.id = u.id_empresa
+                        LEFT JOIN feedback_ia f ON f.id_gravacao = g.id
+                        """),
+            new Migration(2, "Índices de chaves estrangeiras e filtros", false,
+                """
+                        CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_usuario_id_empresa ON usuario(id_empresa)
+                        """,
+                """
+                        CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_cliente_id_empresa ON cliente(id_empresa)
+                        """,
+                """
+                        -- Atende id_usuario isolado (prefixo) e contagens por vendedor + status
+                        CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_gravacao_usuario_status_venda
+                            ON gravacao_call(id_usuario, status_venda)
+                        """,
+                """
+                        -- Atende id_cliente isolado (prefixo) e contagens por cliente + status
+                        CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_gravacao_cliente_status_venda
+                            ON gravacao_call(id_cliente, status_venda)
+                        """,
+                """
+                        CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_gravacao_status_venda ON gravacao_call(status_venda)
+                        """,
+                """
+                        -- Parcial: apenas gravações em andamento, uma fração pequena da tabela
+                        CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_gravacao_processamento_pendente
+                            ON gravacao_call(status_processamento, id)
+                            WHERE status_processamento IN ('UPLOADING', 'PROCESSANDO')
+                        """,
+                """
+                        CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_feedback_empresa_criado_em
+                            ON feedback_ia(id_empresa, criado_em DESC)
+                        """),
+            new Migration(3, "Contadores de estatísticas por empresa",
+                """
+                        -- Contadores por empresa mantidos por triggers (substitui a agregação da view)
+                        CREATE TABLE IF NOT EXISTS estatisticas_empresa (
+                            id_empresa INTEGER PRIMARY KEY REFERENCES empresa(id) ON DELETE CASCADE,
+                            total_usuarios BIGINT NOT NULL DEFAULT 0,
+                            total_clientes BIGINT NOT NULL DEFAULT 0,
+                            total_gravacoes BIGINT NOT NULL DEFAULT 0,
+                            vendas_fechadas BIGINT NOT NULL DEFAULT 0,
+                            atualizado_em TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                        )
+                        """,
+                """
+                        CREATE OR REPLACE FUNCTION estatisticas_ajustar(
+                            p_id_empresa INTEGER, p_usuarios INTEGER, p_clientes INTEGER, p_gravacoes INTEGER, p_fechadas INTEGER)
+                        RETURNS VOID AS $$
+                        BEGIN
+                            -- Empresa já removida (exclusão em cascata): não há contador a ajustar
+                            IF p_id_empresa IS NULL THEN
+                                RETURN;
+                            END IF;
+
+                            UPDATE estatisticas_empresa SET
+                                total_usuarios = total_usuarios + p_usuarios,
+                                total_clientes = total_clientes + p_clientes,
+                                total_gravacoes = total_gravacoes + p_gravacoes,
+                                vendas_fechadas = vendas_fechadas + p_fechadas,
+                                atualizado_em = CURRENT_TIMESTAMP
+                            WHERE id_empresa = p_id_empresa;
+                        END;
+                        $$ LANGUAGE plpgsql
+                        """,
+                """
+                        CREATE OR REPLACE FUNCTION estatisticas_empresa_inserir()
+                        RETURNS TRIGGER AS $$
+                        BEGIN
+                            INSERT INTO estatisticas_empresa (id_empresa) VALUES (NEW.id)
+                            ON CONFLICT (id_empresa) DO NOTHING;
+                            RETURN NULL;
+                        END;
+                        $$ LANGUAGE plpgsql
+                        """,
+                """
+                        CREATE OR REPLACE FUNCTION estatisticas_usuario_alterar()
+                        RETURNS TRIGGER AS $$
+                        DECLARE
+                            v_gravacoes INTEGER := 0;
+                            v_fechadas INTEGER := 0;
+                        BEGIN
+                            IF TG_OP = 'UPDATE' THEN
+                                -- As gravações do vendedor acompanham a mudança de empresa
+                                SELECT COUNT(*), COUNT(*) FILTER (WHERE status_venda = 'FECHADO')
+                                INTO v_gravacoes, v_fechadas
+                                FROM gravacao_call WHERE id_usuario = NEW.id;
+                            END IF;
+                            IF TG_OP IN ('INSERT', 'UPDATE') THEN
+                                PERFORM estatisticas_ajustar(NEW.id_empresa, 1, 0, v_gravacoes, v_fechadas);
+                            END IF;
+                            IF TG_OP IN ('DELETE', 'UPDATE') THEN
+                                PERFORM estatisticas_ajustar(OLD.id_empresa, -1, 0, -v_gravacoes, -v_fechadas);
+                            END IF;
+                            RETURN NULL;
+                        END;
+                        $$ LANGUAGE plpgsql
+                        """,
+                """
+                        CREATE OR REPLACE FUNCTION estatisticas_cliente_alterar()
+                        RETURNS TRIGGER AS $$
+                        BEGIN
+                            IF TG_OP IN ('INSERT', 'UPDATE') THEN
+                                PERFORM estatisticas_ajustar(NEW.id_empresa, 0, 1, 0, 0);
+                            END IF;
+                            IF TG_OP IN ('DELETE', 'UPDATE') THEN
+                                PERFORM estatisticas_ajustar(OLD.id_empresa, 0, -1, 0, 0);
+                            END IF;
+                            RETURN NULL;
+                        END;
+                        $$ LANGUAGE plpgsql
+                        """,
+                """
+                        -- A empresa da gravação vem do vendedor; se ele já foi removido (cascata), do cliente
+                        CREATE OR REPLACE FUNCTION estatisticas_empresa_da_gravacao(p_id_usuario INTEGER, p_id_cliente INTEGER)
+                        RETURNS INTEGER AS $$
+                            SELECT COALESCE(
+                                (SELECT id_empresa FROM usuario WHERE id = p_id_usuario),
+                                (SELECT id_empresa FROM cliente WHERE id = p_id_cliente));
+                        $$ LANGUAGE sql STABLE
+                        """,
+                """
+                        CREATE OR REPLACE FUNCTION estatisticas_gravacao_alterar()
+                        RETURNS TRIGGER AS $$
+                        BEGIN
+                            IF TG_OP IN ('INSERT', 'UPDATE') THEN
+                                PERFORM estatisticas_ajustar(
+                                    estatisticas_empresa_da_gravacao(NEW.id_usuario, NEW.id_cliente), 0, 0, 1,
+                                    CASE WHEN NEW.status_venda = 'FECHADO' THEN 1 ELSE 0 END);
+                            END IF;
+                            IF TG_OP IN ('DELETE', 'UPDATE') THEN
+                                PERFORM estatisticas_ajustar(
+                                    estatisticas_empresa_da_gravacao(OLD.id_usuario, OLD.id_cliente), 0, 0, -1,
+                                    CASE WHEN OLD.status_venda = 'FECHADO' THEN -1 ELSE 0 END);
+                            END IF;
+                            RETURN NULL;
+                        END;
+                        $$ LANGUAGE plpgsql
+                        """,
+                """
+                        DROP TRIGGER IF EXISTS estatisticas_empresa_insert ON empresa
+                        """,
+                """
+                        CREATE TRIGGER estatisticas_empresa_insert
+                            AFTER INSERT ON empresa
+                            FOR EACH ROW
+                            EXECUTE FUNCTION estatisticas_empresa_inserir()
+                        """,
+                """
+                        DROP TRIGGER IF EXISTS estatisticas_usuario_insert_delete ON usuario
+                        """,
+                """
+                        CREATE TRIGGER estatisticas_usuario_insert_delete
+                            AFTER INSERT OR DELETE ON usuario
+                            FOR EACH ROW
+                            EXECUTE FUNCTION estatisticas_usuario_alterar()
+                        """,
+                """
+                        DROP TRIGGER IF EXISTS estatisticas_usuario_update ON usuario
+                        """,
+                """
+                        CREATE TRIGGER estatisticas_usuario_update
+                            AFTER UPDATE OF id_empresa ON usuario
+                            FOR EACH ROW
+                            WHEN (OLD.id_empresa IS DISTINCT FROM NEW.id_empresa)
+                            EXECUTE FUNCTION estatisticas_usuario_alterar()
+                        """,
+                """
+                        DROP TRIGGER IF EXISTS estatisticas_cliente_insert_delete ON cliente
+                        """,
+                """
+                        CREATE TRIGGER estatisticas_cliente_insert_delete
+                            AFTER INSERT OR DELETE ON cliente
+                            FOR EACH ROW
+                            EXECUTE FUNCTION estatisticas_cliente_alterar()
+                        """,
+                """
+                        DROP TRIGGER IF EXISTS estatisticas_cliente_update ON cliente
+                        """,
+                """
+                        CREATE TRIGGER estatisticas_cliente_update
+                            AFTER UPDATE OF id_empresa ON cliente
+                            FOR EACH ROW
+                            WHEN (OLD.id_empresa IS DISTINCT FROM NEW.id_empresa)
+                            EXECUTE FUNCTION estatisticas_cliente_alterar()
+                        """,
+                """
+                        DROP TRIGGER IF EXISTS estatisticas_gravacao_insert_delete ON gravacao_call
+                        """,
+                """
+                        CREATE TRIGGER estatisticas_gravacao_insert_delete
+                            AFTER INSERT OR DELETE ON gravacao_call
+                            FOR EACH ROW
+                            EXECUTE FUNCTION estatisticas_gravacao_alterar()
+                        """,
+                """
+                        DROP TRIGGER IF EXISTS estatisticas_gravacao_update ON gravacao_call
+                        """,
+                """
+                        -- Atualizações de status_processamento/transcrição não tocam o contador
+                        CREATE TRIGGER estatisticas_gravacao_update
+                            AFTER UPDATE OF status_venda, id_usuario ON gravacao_call
+                            FOR EACH ROW
+                            WHEN (OLD.status_venda IS DISTINCT FROM NEW.status_venda
+                                OR OLD.id_usuario IS DISTINCT FROM NEW.id_usuario)
+                            EXECUTE FUNCTION estatisticas_gravacao_alterar()
+                        """,
+                """
+                        -- Após criar os triggers: as tabelas ficam bloqueadas para escrita até o commit,
+                        -- então nenhuma alteração concorrente escapa da contagem inicial
+                        INSERT INTO estatisticas_empresa (id_empresa, total_usuarios, total_clientes, total_gravacoes, vendas_fechadas)
+                        SELECT
+                            e.id,
+                            (SELECT COUNT(*) FROM usuario u WHERE u.id_empresa = e.id),
+                            (SELECT COUNT(*) FROM cliente c WHERE c.id_empresa = e.id),
+                            (SELECT COUNT(*) FROM gravacao_call g INNER JOIN usuario u ON u.id = g.id_usuario
+                                WHERE u.id_empresa = e.id),
+                            (SELECT COUNT(*) FROM gravacao_call g INNER JOIN usuario u ON u.id = g.id_usuario
+                                WHERE u.id_empresa = e.id AND g.status_venda = 'FECHADO')
+                        FROM empresa e
+                        ON CONFLICT (id_empresa) DO UPDATE SET
+                            total_usuarios = EXCLUDED.total_usuarios,
+                            total_clientes = EXCLUDED.total_clientes,
+                            total_gravacoes = EXCLUDED.total_gravacoes,
+                            vendas_fechadas = EXCLUDED.vendas_fechadas,
+                            atualizado_em = CURRENT_TIMESTAMP
+                        """,
+                """
+                        -- View mantida por compatibilidade, agora lendo uma única linha por empresa
+                        DROP VIEW IF EXISTS v_estatisticas_empresa
+                        """,
+                """
+                        CREATE VIEW v_estatisticas_empresa AS
+                        SELECT
+                            id_empresa,
+                            total_usuarios,
+                            total_clientes,
+                            total_gravacoes,
+                            vendas_fechadas,
+                            CASE
+                                WHEN total_gravacoes > 0
+                                THEN ROUND((vendas_fechadas::NUMERIC / total_gravacoes::NUMERIC) * 100, 2)
+                                ELSE 0
+                            END AS taxa_conversao
+                        FROM estatisticas_empresa
+                        """),
+            new Migration(4, "Performance de vendedores materializada",
+                """
+                        DROP VIEW IF EXISTS v_performance_vendedores
+                        """,
+                """
+                        -- Atualizada por REFRESH MATERIALIZED VIEW CONCURRENTLY (PerformanceRefreshScheduler)
+                        CREATE MATERIALIZED VIEW IF NOT EXISTS mv_performance_vendedores AS
+                        SELECT
+                            u.id AS id_usuario,
+                            u.nome AS nome_usuario,
+                            u.email,
+                            e.id AS id_empresa,
+                            e.nome_empresa,
+                            COUNT(g.id) AS total_gravacoes,
+                            COUNT(CASE WHEN g.status_venda = 'FECHADO' THEN 1 END) AS vendas_fechadas,
+                            CASE
+                                WHEN COUNT(g.id) > 0
+                                THEN ROUND((COUNT(CASE WHEN g.status_venda = 'FECHADO' THEN 1 END)::NUMERIC / COUNT(g.id)::NUMERIC) * 100, 2)
+                                ELSE 0
+                            END AS taxa_conversao,
+                            ROUND(AVG(f.sentiment_score), 2) AS media_sentiment,
+                            ROUND(AVG(f.qualidade_atendimento), 2) AS media_qualidade
+                        FROM usuario u
+                        INNER JOIN empresa e ON e.id = u.id_empresa
+                        LEFT JOIN gravacao_call g ON g.id_usuario = u.id
+                        LEFT JOIN feedback_ia f ON f.id_gravacao = g.id
+                        GROUP BY u.id, u.nome, u.email, e.id, e.nome_empresa
+                        """,
+                """
+                        -- Índice único exigido pelo REFRESH ... CONCURRENTLY
+                        CREATE UNIQUE INDEX IF NOT EXISTS idx_mv_performance_vendedores_usuario
+                            ON mv_performance_vendedores(id_usuario)
+                        """,
+                """
+                        CREATE INDEX IF NOT EXISTS idx_mv_performance_vendedores_ranking
+                            ON mv_performance_vendedores(id_empresa, taxa_conversao DESC, vendas_fechadas DESC)
+                        """,
+                """
+                        -- View mantida por compatibilidade, lendo o snapshot materializado
+                        CREATE VIEW v_performance_vendedores AS
+                        SELECT * FROM mv_performance_vendedores
+                        """),
+            new Migration(5, "Séries temporais de gravações",
+                """
+                        -- Séries temporais por empresa, vendedor e cliente (buckets diários e semanais)
+                        -- Médias são derivadas de soma/quantidade para permitir ajustes incrementais
+                        CREATE TABLE IF NOT EXISTS rollup_gravacoes (
+                            escopo VARCHAR(10) NOT NULL,
+                            id_escopo INTEGER NOT NULL,
+                            granularidade VARCHAR(10) NOT NULL,
+                            inicio DATE NOT NULL,
+                            id_empresa INTEGER NOT NULL REFERENCES empresa(id) ON DELETE CASCADE,
+                            total_gravacoes BIGINT NOT NULL DEFAULT 0,
+                            vendas_fechadas BIGINT NOT NULL DEFAULT 0,
+                            soma_sentiment BIGINT NOT NULL DEFAULT 0,
+                            qtd_sentiment BIGINT NOT NULL DEFAULT 0,
+                            soma_probabilidade BIGINT NOT NULL DEFAULT 0,
+                            qtd_probabilidade BIGINT NOT NULL DEFAULT 0,
+                            PRIMARY KEY (escopo, id_escopo, granularidade, inicio)
+                        )
+                        """,
+                """
+                        -- Soma (p_sinal = 1) ou remove (p_sinal = -1) a contribuição de uma gravação processada
+                        CREATE OR REPLACE FUNCTION rollup_ajustar(
+                            p_id_empresa INTEGER, p_id_usuario INTEGER, p_id_cliente INTEGER, p_data TIMESTAMP,
+                            p_sinal INTEGER, p_fechada BOOLEAN, p_sentiment INTEGER, p_probabilidade INTEGER)
+                        RETURNS VOID AS $$
+                        BEGIN
+                            -- Empresa removida (exclusão em cascata): os buckets são removidos junto
+                            IF p_id_empresa IS NULL OR p_data IS NULL
+                                    OR NOT EXISTS (SELECT 1 FROM empresa WHERE id = p_id_empresa) THEN
+                                RETURN;
+                            END IF;
+
+                            INSERT INTO rollup_gravacoes AS r (escopo, id_escopo, granularidade, inicio, id_empresa,
+                                total_gravacoes, vendas_fechadas, soma_sentiment, qtd_sentiment, soma_probabilidade, qtd_probabilidade)
+                            SELECT s.escopo, s.id_escopo, b.granularidade, b.inicio, p_id_empresa,
+                                p_sinal,
+                                CASE WHEN p_fechada THEN p_sinal ELSE 0 END,
+                                p_sinal * COALESCE(p_sentiment, 0),
+                                CASE WHEN p_sentiment IS NULL THEN 0 ELSE p_sinal END,
+                                p_sinal * COALESCE(p_probabilidade, 0),
+                                CASE WHEN p_probabilidade IS NULL THEN 0 ELSE p_sinal END
+                            FROM (VALUES ('DIA', p_data::DATE), ('SEMANA', date_trunc('week', p_data)::DATE))
+                                AS b(granularidade, inicio)
+                            CROSS JOIN (VALUES ('EMPRESA', p_id_empresa), ('USUARIO', p_id_usuario), ('CLIENTE', p_id_cliente))
+                                AS s(escopo, id_escopo)
+                            WHERE s.id_escopo IS NOT NULL
+                            ON CONFLICT (escopo, id_escopo, granularidade, inicio) DO UPDATE SET
+                                total_gravacoes = r.total_gravacoes + EXCLUDED.total_gravacoes,
+                                vendas_fechadas = r.vendas_fechadas + EXCLUDED.vendas_fechadas,
+                                soma_sentiment = r.soma_sentiment + EXCLUDED.soma_sentiment,
+                                qtd_sentiment = r.qtd_sentiment + EXCLUDED.qtd_sentiment,
+                                soma_probabilidade = r.soma_probabilidade + EXCLUDED.soma_probabilidade,
+                                qtd_probabilidade = r.qtd_probabilidade + EXCLUDED.qtd_probabilidade;
+                        END;
+                        $$ LANGUAGE plpgsql
+                        """,
+                """
+                        -- Uma gravação entra nas séries quando recebe feedback (fim do processAudioAsync)
+                        CREATE OR REPLACE FUNCTION rollup_feedback_alterar()
+                        RETURNS TRIGGER AS $$
+                        DECLARE
+                            g RECORD;
+                        BEGIN
+                            SELECT id_usuario, id_cliente, status_venda, COALESCE(data_gravacao, criado_em) AS data
+                            INTO g
+                            FROM gravacao_call
+                            WHERE id = COALESCE(NEW.id_gravacao, OLD.id_gravacao);
+
+                            -- Gravação já removida: a contribuição foi retirada pelo trigger de gravacao_call
+                            IF NOT FOUND THEN
+                                RETURN NULL;
+                            END IF;
+
+                            IF TG_OP IN ('DELETE', 'UPDATE') THEN
+                                PERFORM rollup_ajustar(OLD.id_empresa, g.id_usuario, g.id_cliente, g.data, -1,
+                                    g.status_venda = 'FECHADO', OLD.sentiment_score, OLD.probabilidade_fechamento);
+                            END IF;
+                            IF TG_OP IN ('INSERT', 'UPDATE') THEN
+                                PERFORM rollup_ajustar(NEW.id_empresa, g.id_usuario, g.id_cliente, g.data, 1,
+                                    g.status_venda = 'FECHADO', NEW.sentiment_score, NEW.probabilidade_fechamento);
+                            END IF;
+                            RETURN NULL;
+                        END;
+                        $$ LANGUAGE plpgsql
+                        """,
+                """
+                        CREATE OR REPLACE FUNCTION rollup_gravacao_alterar()
+                        RETURNS TRIGGER AS $$
+                        DECLARE
+                            f RECORD;
+                        BEGIN
+                            SELECT id_empresa, sentiment_score, probabilidade_fechamento
+                            INTO f
+                            FROM feedback_ia
+                            WHERE id_gravacao = OLD.id;
+
+                            -- Gravações ainda não processadas não fazem parte das séries
+                            IF NOT FOUND THEN
+                                RETURN COALESCE(NEW, OLD);
+                            END IF;
+
+                            PERFORM rollup_ajustar(f.id_empresa, OLD.id_usuario, OLD.id_cliente,
+                                COALESCE(OLD.data_gravacao, OLD.criado_em), -1,
+                                OLD.status_venda = 'FECHADO', f.sentiment_score, f.probabilidade_fechamento);
+                            IF TG_OP = 'UPDATE' THEN
+                                PERFORM rollup_ajustar(f.id_empresa, NEW.id_usuario, NEW.id_cliente,
+                                    COALESCE(NEW.data_gravacao, NEW.criado_em), 1,
+                                    NEW.status_venda = 'FECHADO', f.sentiment_score, f.probabilidade_fechamento);
+                            END IF;
+                            RETURN COALESCE(NEW, OLD);
+                        END;
+                        $$ LANGUAGE plpgsql
+                        """,
+                """
+                        DROP TRIGGER IF EXISTS rollup_feedback ON feedback_ia
+                        """,
+                """
+                        CREATE TRIGGER rollup_feedback
+                            AFTER INSERT OR DELETE OR UPDATE OF sentiment_score, probabilidade_fechamento ON feedback_ia
+                            FOR EACH ROW
+                            EXECUTE FUNCTION rollup_feedback_alterar()
+                        """,
+                """
+                        DROP TRIGGER IF EXISTS rollup_gravacao_delete ON gravacao_call
+                        """,
+                """
+                        -- BEFORE: o feedback ainda existe (a exclusão em cascata ocorre depois)
+                        CREATE TRIGGER rollup_gravacao_delete
+                            BEFORE DELETE ON gravacao_call
+                            FOR EACH ROW
+                            EXECUTE FUNCTION rollup_gravacao_alterar()
+                        """,
+                """
+                        DROP TRIGGER IF EXISTS rollup_gravacao_update ON gravacao_call
+                        """,
+                """
+                        CREATE TRIGGER rollup_gravacao_update
+                            AFTER UPDATE OF status_venda, data_gravacao, id_usuario, id_cliente ON gravacao_call
+                            FOR EACH ROW
+                            WHEN (OLD.status_venda IS DISTINCT FROM NEW.status_venda
+                                OR OLD.data_gravacao IS DISTINCT FROM NEW.data_gravacao
+                                OR OLD.id_usuario IS DISTINCT FROM NEW.id_usuario
+                                OR OLD.id_cliente IS DISTINCT FROM NEW.id_cliente)
+                            EXECUTE FUNCTION rollup_gravacao_alterar()
+                        """,
+                """
+                        -- Preenche com as gravações já processadas (após os triggers, ver V3)
+                        INSERT INTO rollup_gravacoes (escopo, id_escopo, granularidade, inicio, id_empresa,
+                            total_gravacoes, vendas_fechadas, soma_sentiment, qtd_sentiment, soma_probabilidade, qtd_probabilidade)
+                        SELECT s.escopo, s.id_escopo, b.granularidade, b.inicio, MIN(f.id_empresa),
+                            COUNT(*),
+                            COUNT(*) FILTER (WHERE g.status_venda = 'FECHADO'),
+                            COALESCE(SUM(f.sentiment_score), 0),
+                            COUNT(f.sentiment_score),
+                            COALESCE(SUM(f.probabilidade_fechamento), 0),
+                            COUNT(f.probabilidade_fechamento)
+                        FROM feedback_ia f
+                        INNER JOIN gravacao_call g ON g.id = f.id_gravacao
+                        CROSS JOIN LATERAL (VALUES
+                                ('DIA', COALESCE(g.data_gravacao, g.criado_em)::DATE),
+                                ('SEMANA', date_trunc('week', COALESCE(g.data_gravacao, g.criado_em))::DATE))
+                            AS b(granularidade, inicio)
+                        CROSS JOIN LATERAL (VALUES ('EMPRESA', f.id_empresa), ('USUARIO', g.id_usuario), ('CLIENTE', g.id_cliente))
+                            AS s(escopo, id_escopo)
+                        WHERE COALESCE(g.data_gravacao, g.criado_em) IS NOT NULL
+                        GROUP BY s.escopo, s.id_escopo, b.granularidade, b.inicio
+                        ON CONFLICT (escopo, id_escopo, granularidade, inicio) DO NOTHING
+                        """)
+    );
+
+    /**
+     * Aplica as migrações pendentes em ordem de versão.
+     *
+     * @throws SQLException se alguma migração falhar (a migração com erro é revertida)
+     */
+    public static void migrate(DataSource dataSource) throws SQLException {
+        migrate(dataSource, MIGRATIONS);
+    }
+
+    static void migrate(DataSource dataSource, List<Migration> migrations) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            // Com o lock antes do CREATE TABLE, instâncias subindo juntas num banco vazio
+            // não disputam a criação de schema_migrations (IF NOT EXISTS não é atômico)
+            acquireLock(conn);
+            try {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("""
+                            CREATE TABLE IF NOT EXISTS schema_migrations (
+                                versao INTEGER PRIMARY KEY,
+                                descricao VARCHAR(255) NOT NULL,
+                                aplicado_em TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                            )
+                            """);
+                }
+
+                Set<Integer> applied = findAppliedVersions(conn);
+                for (Migration migration : migrations) {
+                    if (applied.contains(migration.version())) {
+                        continue;
+                    }
+                    if (migration.transactional()) {
+                        apply(conn, migration);
+                    } else {
+                        applyConcurrently(conn, migration);
+                    }
+                }
+            } finally {
+                releaseLock(conn);
+            }
+        }
+    }
+
+    private static void apply(Connection conn, Migration migration) throws SQLException {
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : migration.statements()) {
+                stmt.execute(sql);
+            }
+
+            recordApplied(conn, migration);
+            conn.commit();
+            System.out.println("Migração V" + migration.version() + " aplicada: " + migration.description());
+        } catch (SQLException e) {
+            conn.rollback();
+            throw new SQLException("Erro na migração V" + migration.version() + ": " + e.getMessage(), e);
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Aplica uma migração em autocommit, comando a comando.
+     * Se o start anterior caiu no meio de um CREATE INDEX CONCURRENTLY, o índice ficou INVALID
+     * e o IF NOT EXISTS o ignoraria: ele é removido antes de ser recriado.
+     */
+    private static void applyConcurrently(Connection conn, Migration migration) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : migration.statements()) {
+                Matcher matcher = CONCURRENT_INDEX_NAME.matcher(sql);
+                if (matcher.find()) {
+                    dropInvalidIndex(conn, matcher.group(1));
+                }
+                stmt.execute(sql);
+            }
+
+            recordApplied(conn, migration);
+            System.out.println("Migração V" + migration.version() + " aplicada: " + migration.description());
+        } catch (SQLException e) {
+            throw new SQLException("Erro na migração V" + migration.version() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static void dropInvalidIndex(Connection conn, String indexName) throws SQLException {
+        boolean invalid;
+        try (PreparedStatement stmt = conn.prepareStatement("""
+                SELECT 1 FROM pg_index i
+                INNER JOIN pg_class c ON c.oid = i.indexrelid
+                WHERE c.relname = ? AND c.relnamespace = current_schema()::regnamespace
+                    AND NOT i.indisvalid
+                """)) {
+            stmt.setString(1, indexName);
+            try (ResultSet rs = stmt.executeQuery()) {
+                invalid = rs.next();
+            }
+        }
+        if (invalid) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("DROP INDEX CONCURRENTLY IF EXISTS " + indexName);
+            }
+        }
+    }
+
+    private static void recordApplied(Connection conn, Migration migration) throws SQLException {
+        try (PreparedStatement insert = conn.prepareStatement(
+                "INSERT INTO schema_migrations (versao, descricao) VALUES (?, ?)")) {
+            insert.setInt(1, migration.version());
+            insert.setString(2, migration.description());
+            insert.executeUpdate();
+        }
+    }
+
+    private static Set<Integer> findAppliedVersions(Connection conn) throws SQLException {
+        Set<Integer> versions = new HashSet<>();
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT versao FROM schema_migrations")) {
+            while (rs.next()) {
+                versions.add(rs.getInt("versao"));
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * Tenta o lock em intervalos em vez de bloquear em pg_advisory_lock: a sessão bloqueada
+     * manteria uma transação aberta, e o CREATE INDEX CONCURRENTLY da instância que detém o
+     * lock esperaria por ela (deadlock).
+     */
+    private static void acquireLock(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+            stmt.setLong(1, MIGRATION_LOCK_KEY);
+            while (true) {
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next() && rs.getBoolean(1)) {
+                        return;
+                    }
+                }
+                try {
+                    Thread.sleep(LOCK_RETRY_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrompido aguardando o lock de migração", e);
+                }
+            }
+        }
+    }
+
+    private static void releaseLock(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+            stmt.setLong(1, MIGRATION_LOCK_KEY);
+            stmt.execute();
+        }
+    }
+}
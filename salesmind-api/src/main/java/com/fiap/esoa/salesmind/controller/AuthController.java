@@ -3,14 +3,16 @@ package com.fiap.esoa.salesmind.controller;
 import com.fiap.esoa.salesmind.dto.request.LoginRequest;
 import com.fiap.esoa.salesmind.dto.request.RefreshTokenRequest;
 import com.fiap.esoa.salesmind.dto.response.LoginResponse;
+import com.fiap.esoa.salesmind.exception.BusinessException;
 import com.fiap.esoa.salesmind.model.Usuario;
+import com.fiap.esoa.salesmind.service.LoginVerificationService;
 import com.fiap.esoa.salesmind.service.UsuarioService;
 import com.fiap.esoa.salesmind.util.JsonUtil;
-import com.fiap.esoa.salesmind.util.PasswordUtil;
 import com.sun.net.httpserver.HttpExchange;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 
 import javax.crypto.SecretKey;
@@ -24,14 +26,19 @@ import java.util.Date;
 public class AuthController extends BaseController {
     
     private final SecretKey jwtKey;
+    private final JwtParser jwtParser;
     private final UsuarioService usuarioService;
+    private final LoginVerificationService loginVerificationService;
     
     private static final long ACCESS_TOKEN_EXPIRY_MS = 3600000L;  // 1 hora
     private static final long REFRESH_TOKEN_EXPIRY_MS = 2592000000L;  // 30 dias
 
-    public AuthController(SecretKey jwtKey, UsuarioService usuarioService) {
+    public AuthController(SecretKey jwtKey, UsuarioService usuarioService,
+            LoginVerificationService loginVerificationService) {
         this.jwtKey = jwtKey;
+        this.jwtParser = Jwts.parser().verifyWith(jwtKey).build();
         this.usuarioService = usuarioService;
+        this.loginVerificationService = loginVerificationService;
     }
 
     @Override
@@ -62,17 +69,27 @@ public class AuthController extends BaseController {
                 return;
             }
 
+            String clientIp = loginVerificationService.resolveClientIp(
+                    exchange.getRemoteAddress().getAddress().getHostAddress(),
+                    exchange.getRequestHeaders().getFirst("X-Forwarded-For"));
+            loginVerificationService.checkThrottle(request.email(), clientIp);
+
             Usuario usuario = usuarioService.findByEmail(request.email());
             if (usuario == null) {
+                loginVerificationService.recordFailure(request.email(), clientIp);
                 JsonUtil.sendErrorResponse(exchange, 401, "Email ou senha inválidos");
                 return;
             }
 
-            if (!PasswordUtil.checkPassword(request.senha(), usuario.getSenha())) {
+            if (!loginVerificationService.verify(request.senha(), usuario.getSenha())) {
+                loginVerificationService.recordFailure(request.email(), clientIp);
                 JsonUtil.sendErrorResponse(exchange, 401, "Email ou senha inválidos");
                 return;
             }
 
+            loginVerificationService.rehashIfNeeded(request.senha(), usuario.getSenha(),
+                    novoHash -> usuarioService.updatePasswordHash(usuario.getId(), novoHash));
+
             String accessToken = generateAccessToken(usuario);
             String refreshToken = generateRefreshToken(usuario);
 
@@ -93,7 +110,17 @@ public class AuthController extends BaseController {
 
             JsonUtil.sendJsonResponse(exchange, 200, response);
 
+        } catch (BusinessException e) {
+            if (e.getStatusCode() == 429) {
+                exchange.getResponseHeaders().set("Retry-After", "60");
+            } else if (e.getStatusCode() == 503) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+            }
+            JsonUtil.sendErrorResponse(exchange, e.getStatusCode(), e.getMessage());
         } catch (Exception e) {
+            if (sendIfPoolSaturated(exchange, e)) {
+                return;
+            }
             System.err.println("Erro durante login: " + e.getMessage());
             e.printStackTrace();
             JsonUtil.sendErrorResponse(exchange, 500, "Erro interno do servidor");
@@ -116,10 +143,7 @@ public class AuthController extends BaseController {
 
             Jws<Claims> claims;
             try {
-                claims = Jwts.parser()
-                    .verifyWith(jwtKey)
-                    .build()
-                    .parseSignedClaims(request.refreshToken());
+                claims = jwtParser.parseSignedClaims(request.refreshToken());
             } catch (JwtException e) {
                 JsonUtil.sendErrorResponse(exchange, 401, "Token de atualização inválido ou expirado");
                 return;
@@ -158,6 +182,9 @@ public class AuthController extends BaseController {
             JsonUtil.sendJsonResponse(exchange, 200, response);
 
         } catch (Exception e) {
+            if (sendIfPoolSaturated(exchange, e)) {
+                return;
+            }
             System.err.println("Erro durante atualização do token: " + e.getMessage());
             e.printStackTrace();
             JsonUtil.sendErrorResponse(exchange, 500, "Erro interno do servidor");
@@ -1,9 +1,12 @@
 package com.fiap.esoa.salesmind.controller;
 
+import com.fiap.esoa.salesmind.config.ConnectionAdmission;
+import com.fiap.esoa.salesmind.util.JsonUtil;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 
 public abstract class BaseController implements HttpHandler {
@@ -29,6 +32,20 @@ public abstract class BaseController implements HttpHandler {
         sendResponse(exchange, statusCode, errorJson);
     }
 
+    /**
+     * Responde 503 com Retry-After quando a falha foi falta de vaga no pool (ConnectionAdmission).
+     *
+     * @return true se a resposta foi enviada
+     */
+    protected boolean sendIfPoolSaturated(HttpExchange exchange, Exception e) throws IOException {
+        if (!ConnectionAdmission.isRejection(e)) {
+            return false;
+        }
+        exchange.getResponseHeaders().set("Retry-After", "1");
+        JsonUtil.sendErrorResponse(exchange, 503, "Servidor sobrecarregado. Tente novamente");
+        return true;
+    }
+
     protected String getRequestBody(HttpExchange exchange) throws IOException {
         return new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
     }
@@ -39,6 +56,24 @@ public abstract class BaseController implements HttpHandler {
         return (parts.length > index) ? parts[index] : null;
     }
 
+    /**
+     * @return Valor decodificado do parâmetro da query string ou null se ausente
+     */
+    protected String getQueryParameter(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq >= 0 ? pair.substring(0, eq) : pair, StandardCharsets.UTF_8);
+            if (key.equals(name)) {
+                return eq >= 0 ? URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8) : "";
+            }
+        }
+        return null;
+    }
+
     protected void addCorsHeaders(HttpExchange exchange) {
         exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
         exchange.getResponseHeaders().add("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
@@ -1,16 +1,23 @@
 package com.fiap.esoa.salesmind.controller;
 
+import com.fiap.esoa.salesmind.config.EnvConfig;
+import com.fiap.esoa.salesmind.dto.EntidadeComContagemDTO;
 import com.fiap.esoa.salesmind.dto.request.CreateClienteRequest;
 import com.fiap.esoa.salesmind.dto.request.UpdateClienteRequest;
+import com.fiap.esoa.salesmind.dto.response.BulkClienteResponse;
 import com.fiap.esoa.salesmind.model.Cliente;
 import com.fiap.esoa.salesmind.service.ClienteService;
 import com.fiap.esoa.salesmind.util.JsonUtil;
 import com.sun.net.httpserver.HttpExchange;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 public class ClienteController extends BaseController {
 
+    private static final int BULK_MAX_ITENS = EnvConfig.getInt("CLIENTE_BULK_MAX_ITENS", 10000);
+
     private final ClienteService service;
 
     public ClienteController(ClienteService service) {
@@ -30,6 +37,15 @@ public class ClienteController extends BaseController {
             return;
         }
 
+        if (pathParts.length == 4 && "bulk".equals(pathParts[3])) {
+            if ("POST".equals(method)) {
+                handleBulkPost(exchange);
+            } else {
+                sendError(exchange, 405, "Method not allowed");
+            }
+            return;
+        }
+
         switch (method) {
             case "GET" -> handleGet(exchange, id);
             case "POST" -> handlePost(exchange);
@@ -43,17 +59,13 @@ public class ClienteController extends BaseController {
         Long authenticatedEmpresaId = getAuthenticatedEmpresaId(exchange);
         
         if (id != null) {
-            Optional<Cliente> cliente = service.findById(id);
+            // Cliente de outra empresa é tratado como inexistente
+            Optional<Cliente> cliente = service.findByIdAndEmpresa(id, authenticatedEmpresaId);
             if (cliente.isEmpty()) {
                 JsonUtil.sendErrorResponse(exchange, 404, "Cliente não encontrado");
                 return;
             }
             
-            if (!validateEmpresaAccess(exchange, cliente.get().getIdEmpresa())) {
-                JsonUtil.sendErrorResponse(exchange, 403, "Acesso negado: Cliente pertence a outra empresa");
-                return;
-            }
-            
             JsonUtil.sendJsonResponse(exchange, 200, cliente.get());
         } else {
             JsonUtil.sendJsonResponse(exchange, 200, service.findByEmpresa(authenticatedEmpresaId));
@@ -94,22 +106,74 @@ public class ClienteController extends BaseController {
         }
     }
 
+    /**
+     * POST /api/clientes/bulk
+     * Recebe um array de CreateClienteRequest e insere todos em uma única transação.
+     */
+    private void handleBulkPost(HttpExchange exchange) throws IOException {
+        Long authenticatedEmpresaId = getAuthenticatedEmpresaId(exchange);
+
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType == null || !contentType.contains("application/json")) {
+            JsonUtil.sendErrorResponse(exchange, 415, "Content-Type deve ser application/json");
+            return;
+        }
+
+        CreateClienteRequest[] requests;
+        try {
+            requests = JsonUtil.fromJson(getRequestBody(exchange), CreateClienteRequest[].class);
+        } catch (Exception e) {
+            JsonUtil.sendErrorResponse(exchange, 400, "Invalid request body: " + e.getMessage());
+            return;
+        }
+
+        if (requests == null || requests.length == 0) {
+            JsonUtil.sendErrorResponse(exchange, 400, "Informe ao menos um cliente");
+            return;
+        }
+        if (requests.length > BULK_MAX_ITENS) {
+            JsonUtil.sendErrorResponse(exchange, 413, "Máximo de " + BULK_MAX_ITENS + " clientes por requisição");
+            return;
+        }
+
+        List<Cliente> clientes = new ArrayList<>(requests.length);
+        for (int i = 0; i < requests.length; i++) {
+            CreateClienteRequest request = requests[i];
+            if (request == null || !request.isValid()) {
+                String erro = request == null ? "Cliente vazio" : request.getValidationError();
+                JsonUtil.sendErrorResponse(exchange, 400, "Item " + i + ": " + erro);
+                return;
+            }
+
+            Cliente cliente = new Cliente();
+            cliente.setNome(request.nome());
+            cliente.setCpfCnpj(request.cpfCnpj());
+            cliente.setTelefone(request.telefone());
+            cliente.setEmail(request.email());
+            cliente.setSegmento(request.segmento());
+            cliente.setIdEmpresa(authenticatedEmpresaId);
+            clientes.add(cliente);
+        }
+
+        try {
+            long inseridos = service.createAll(clientes);
+            JsonUtil.sendJsonResponse(exchange, 201, new BulkClienteResponse((long) clientes.size(), inseridos));
+        } catch (IllegalArgumentException e) {
+            JsonUtil.sendErrorResponse(exchange, 409, e.getMessage());
+        }
+    }
+
     private void handlePut(HttpExchange exchange, Long id) throws IOException {
         if (id == null) {
             JsonUtil.sendErrorResponse(exchange, 400, "ID é obrigatório para atualização");
             return;
         }
 
-        Optional<Cliente> existing = service.findById(id);
+        Optional<Cliente> existing = service.findByIdAndEmpresa(id, getAuthenticatedEmpresaId(exchange));
         if (existing.isEmpty()) {
             JsonUtil.sendErrorResponse(exchange, 404, "Cliente não encontrado");
             return;
         }
-        
-        if (!validateEmpresaAccess(exchange, existing.get().getIdEmpresa())) {
-            JsonUtil.sendErrorResponse(exchange, 403, "Acesso negado: Cliente pertence a outra empresa");
-            return;
-        }
 
         try {
             String body = getRequestBody(exchange);
@@ -158,19 +222,15 @@ public class ClienteController extends BaseController {
             return;
         }
 
-        Optional<Cliente> existing = service.findById(id);
+        Optional<EntidadeComContagemDTO<Cliente>> existing = service.findByIdComGravacoes(id,
+                getAuthenticatedEmpresaId(exchange));
         if (existing.isEmpty()) {
             JsonUtil.sendErrorResponse(exchange, 404, "Cliente não encontrado");
             return;
         }
-        
-        if (!validateEmpresaAccess(exchange, existing.get().getIdEmpresa())) {
-            JsonUtil.sendErrorResponse(exchange, 403, "Acesso negado: Cliente pertence a outra empresa");
-            return;
-        }
 
         // Check if cliente has gravacoes
-        long gravacoes = service.countGravacoesByCliente(id);
+        long gravacoes = existing.get().contagem();
         if (gravacoes > 0) {
             JsonUtil.sendErrorResponse(exchange, 409, 
                 "Não é possível excluir o cliente: existem " + gravacoes + " gravação(ões) associada(s)");
@@ -1,24 +1,32 @@
 package com.fiap.esoa.salesmind.controller;
 
+import com.fiap.esoa.salesmind.dto.PerformanceVendedorDTO;
+import com.fiap.esoa.salesmind.dto.SeriePontoDTO;
 import com.fiap.esoa.salesmind.dto.response.EmpresaDashboardResponse;
-import com.fiap.esoa.salesmind.model.Cliente;
-import com.fiap.esoa.salesmind.repository.ClienteRepository;
-import com.fiap.esoa.salesmind.repository.GravacaoCallRepository;
+import com.fiap.esoa.salesmind.dto.EstatisticasClienteDTO;
 import com.fiap.esoa.salesmind.dto.response.ClienteDashboardResponse;
+import com.fiap.esoa.salesmind.enums.Granularidade;
 import com.fiap.esoa.salesmind.service.ClienteService;
 import com.fiap.esoa.salesmind.service.DashboardService;
 import com.fiap.esoa.salesmind.util.JsonUtil;
 import com.sun.net.httpserver.HttpExchange;
 import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 public class DashboardController extends BaseController {
 
+    private static final long MAX_SERIE_DAYS = 731;
+
     private final DashboardService service;
+    private final ClienteService clienteService;
 
-    public DashboardController(DashboardService service) {
+    public DashboardController(DashboardService service, ClienteService clienteService) {
         this.service = service;
+        this.clienteService = clienteService;
     }
 
     @Override
@@ -27,9 +35,15 @@ public class DashboardController extends BaseController {
         String[] pathParts = path.split("/");
 
         // GET /api/dashboard/empresa/{id}
+        // GET /api/dashboard/empresa/{id}/vendedores
+        // GET /api/dashboard/empresa/{id}/series?from=&to=&granularity=
         if (pathParts.length >= 5 && "empresa".equals(pathParts[3])) {
             Long id = parseLongOrNull(pathParts[4]);
-            if (id != null) {
+            if (id != null && pathParts.length >= 6 && "vendedores".equals(pathParts[5])) {
+                handlePerformanceVendedores(exchange, id);
+            } else if (id != null && pathParts.length >= 6 && "series".equals(pathParts[5])) {
+                handleSerie(exchange, id);
+            } else if (id != null) {
                 handleEmpresaDashboard(exchange, id);
             } else {
                 JsonUtil.sendErrorResponse(exchange, 400, "ID de empresa inválido");
@@ -49,7 +63,8 @@ public class DashboardController extends BaseController {
         }
 
         JsonUtil.sendErrorResponse(exchange, 404,
-                "Endpoint de dashboard não encontrado. Use /api/dashboard/empresa/{id} ou /api/dashboard/clientes/{id}");
+                "Endpoint de dashboard não encontrado. Use /api/dashboard/empresa/{id}, /api/dashboard/empresa/{id}/vendedores, " +
+                "/api/dashboard/empresa/{id}/series ou /api/dashboard/clientes/{id}");
     }
 
     private void handleEmpresaDashboard(HttpExchange exchange, Long id) throws IOException {
@@ -104,35 +119,105 @@ public class DashboardController extends BaseController {
         }
     }
 
+    private void handlePerformanceVendedores(HttpExchange exchange, Long id) throws IOException {
+        if (!isAdmin(exchange)) {
+            JsonUtil.sendErrorResponse(exchange, 403, "Acesso negado: Apenas administradores podem acessar a performance de vendedores");
+            return;
+        }
+
+        if (!validateEmpresaAccess(exchange, id)) {
+            JsonUtil.sendErrorResponse(exchange, 403, "Acesso negado: Não é possível acessar dados de outra empresa");
+            return;
+        }
+
+        try {
+            List<PerformanceVendedorDTO> ranking = service.getPerformanceVendedores(id);
+            JsonUtil.sendJsonResponse(exchange, 200, ranking);
+        } catch (Exception e) {
+            JsonUtil.sendErrorResponse(exchange, 500, "Erro ao buscar performance de vendedores: " + e.getMessage());
+        }
+    }
+
+    private void handleSerie(HttpExchange exchange, Long id) throws IOException {
+        if (!isAdmin(exchange)) {
+            JsonUtil.sendErrorResponse(exchange, 403, "Acesso negado: Apenas administradores podem acessar as séries da empresa");
+            return;
+        }
+
+        if (!validateEmpresaAccess(exchange, id)) {
+            JsonUtil.sendErrorResponse(exchange, 403, "Acesso negado: Não é possível acessar dados de outra empresa");
+            return;
+        }
+
+        Granularidade granularidade = parseGranularidade(getQueryParameter(exchange, "granularity"));
+        if (granularidade == null) {
+            JsonUtil.sendErrorResponse(exchange, 400, "Granularidade inválida. Use 'day' ou 'week'");
+            return;
+        }
+
+        LocalDate fim;
+        LocalDate inicio;
+        try {
+            String toParam = getQueryParameter(exchange, "to");
+            String fromParam = getQueryParameter(exchange, "from");
+            fim = toParam != null ? LocalDate.parse(toParam) : LocalDate.now();
+            inicio = fromParam != null ? LocalDate.parse(fromParam)
+                    : (granularidade == Granularidade.SEMANA ? fim.minusWeeks(12) : fim.minusDays(30));
+        } catch (DateTimeParseException e) {
+            JsonUtil.sendErrorResponse(exchange, 400, "Data inválida. Use o formato AAAA-MM-DD");
+            return;
+        }
+
+        if (inicio.isAfter(fim)) {
+            JsonUtil.sendErrorResponse(exchange, 400, "Parâmetro 'from' deve ser anterior ou igual a 'to'");
+            return;
+        }
+        if (ChronoUnit.DAYS.between(inicio, fim) > MAX_SERIE_DAYS) {
+            JsonUtil.sendErrorResponse(exchange, 400, "Intervalo máximo da série é de " + MAX_SERIE_DAYS + " dias");
+            return;
+        }
+
+        String usuarioParam = getQueryParameter(exchange, "idUsuario");
+        String clienteParam = getQueryParameter(exchange, "idCliente");
+        Long idUsuario = usuarioParam != null ? parseLongOrNull(usuarioParam) : null;
+        Long idCliente = clienteParam != null ? parseLongOrNull(clienteParam) : null;
+        if ((usuarioParam != null && idUsuario == null) || (clienteParam != null && idCliente == null)) {
+            JsonUtil.sendErrorResponse(exchange, 400, "ID de usuário ou cliente inválido");
+            return;
+        }
+
+        try {
+            List<SeriePontoDTO> serie = service.getSerie(id, idUsuario, idCliente, granularidade, inicio, fim);
+            JsonUtil.sendJsonResponse(exchange, 200, serie);
+        } catch (Exception e) {
+            JsonUtil.sendErrorResponse(exchange, 500, "Erro ao buscar série: " + e.getMessage());
+        }
+    }
+
+    private Granularidade parseGranularidade(String value) {
+        if (value == null || value.isEmpty()) {
+            return Granularidade.DIA;
+        }
+        return switch (value.toLowerCase()) {
+            case "day", "dia" -> Granularidade.DIA;
+            case "week", "semana" -> Granularidade.SEMANA;
+            default -> null;
+        };
+    }
+
     private void handleClienteDashboard(HttpExchange exchange, Long id) throws IOException {
         Long authenticatedEmpresaId = getAuthenticatedEmpresaId(exchange);
         
         try {
-            ClienteService clienteService = 
-                new ClienteService(
-                    new ClienteRepository(),
-                    new GravacaoCallRepository());
-            
-            Optional<Cliente> cliente = clienteService.findById(id);
-            if (cliente.isEmpty()) {
+            if (!clienteService.existsByIdAndEmpresa(id, authenticatedEmpresaId)) {
                 JsonUtil.sendErrorResponse(exchange, 404, "Cliente não encontrado");
                 return;
             }
             
-            if (!cliente.get().getIdEmpresa().equals(authenticatedEmpresaId)) {
-                JsonUtil.sendErrorResponse(exchange, 403, "Acesso negado: Cliente pertence a outra empresa");
-                return;
-            }
-            
-            Map<String, Object> dashboard = service.getClienteDashboard(id);
-
-            Integer totalGravacoes = (Integer) dashboard.get("totalGravacoes");
-            Integer vendasFechadas = (Integer) dashboard.get("vendasFechadas");
+            EstatisticasClienteDTO stats = service.getClienteDashboard(id);
 
             ClienteDashboardResponse response = new ClienteDashboardResponse(
-                    id,
-                    totalGravacoes != null ? totalGravacoes.longValue() : 0L,
-                    vendasFechadas != null ? vendasFechadas.longValue() : 0L);
+                    id, stats.totalGravacoes(), stats.vendasFechadas());
 
             JsonUtil.sendJsonResponse(exchange, 200, response);
         } catch (Exception e) {
@@ -1,14 +1,17 @@
 package com.fiap.esoa.salesmind.controller;
 
+import com.fiap.esoa.salesmind.config.EnvConfig;
+import com.fiap.esoa.salesmind.config.ReadYourWrites;
 import com.fiap.esoa.salesmind.dto.FeedbackIADTO;
 import com.fiap.esoa.salesmind.model.FeedbackIA;
 import com.fiap.esoa.salesmind.service.FeedbackIAService;
 import com.fiap.esoa.salesmind.service.GravacaoCallService;
-import com.fiap.esoa.salesmind.model.GravacaoCall;
 import com.fiap.esoa.salesmind.util.CacheManager;
+import com.fiap.esoa.salesmind.util.EncodedResponse;
 import com.fiap.esoa.salesmind.util.JsonUtil;
 import com.sun.net.httpserver.HttpExchange;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -17,12 +20,34 @@ public class FeedbackIAController extends BaseController {
 
     private final FeedbackIAService service;
     private final GravacaoCallService gravacaoService;
-    private final CacheManager<Long, FeedbackIADTO> cache;
+    // Guarda a resposta já serializada (e comprimida): um hit não passa pelo Jackson
+    private final CacheManager<Long, EncodedResponse> cache;
 
     public FeedbackIAController(FeedbackIAService service, GravacaoCallService gravacaoService) {
         this.service = service;
         this.gravacaoService = gravacaoService;
-        this.cache = new CacheManager<>(15);
+        this.cache = CacheManager.<Long, EncodedResponse>create("feedback",
+                Duration.ofMinutes(EnvConfig.getLong("FEEDBACK_CACHE_TTL_MIN", 720)),
+                EnvConfig.getLong("FEEDBACK_CACHE_MAX_ENTRIES", 5000),
+                EnvConfig.getLong("FEEDBACK_CACHE_MAX_BYTES", 32L * 1024 * 1024),
+                EncodedResponse::sizeBytes)
+                .refreshAhead(Duration.ofSeconds(EnvConfig.getLong("FEEDBACK_CACHE_REFRESH_AHEAD_S", 60)));
+    }
+
+    /**
+     * Descarta o feedback em cache da gravação (feedback gravado, alterado ou excluído).
+     */
+    public void invalidateByGravacao(Long gravacaoId) {
+        if (gravacaoId != null) {
+            cache.invalidate(gravacaoId);
+        }
+    }
+
+    /**
+     * Descarta todos os feedbacks em cache (exclusões em cascata de cliente, usuário ou empresa).
+     */
+    public void invalidateAll() {
+        cache.clear();
     }
 
     @Override
@@ -58,35 +83,20 @@ public class FeedbackIAController extends BaseController {
             String path = exchange.getRequestURI().getPath();
             Long gravacaoId = Long.parseLong(path.substring(path.lastIndexOf('/') + 1));
 
-            Optional<GravacaoCall> gravacao = gravacaoService.findById(gravacaoId);
-            if (gravacao.isEmpty()) {
+            if (!gravacaoService.existsByIdAndUsuario(gravacaoId, authenticatedUserId)) {
                 JsonUtil.sendErrorResponse(exchange, 404, "Gravação não encontrada");
                 return;
             }
-            if (!gravacao.get().getIdUsuario().equals(authenticatedUserId)) {
-                JsonUtil.sendErrorResponse(exchange, 403, "Acesso negado: Gravação pertence a outro usuário");
-                return;
-            }
 
-            FeedbackIADTO cachedDto = cache.get(gravacaoId);
-            if (cachedDto != null) {
-                System.out.println("Cache hit for gravacao: " + gravacaoId);
-                JsonUtil.sendJsonResponse(exchange, 200, cachedDto);
-                return;
-            }
-
-            Optional<FeedbackIA> feedback = service.findByGravacao(gravacaoId);
-            if (feedback.isEmpty()) {
+            // Carga (inclusive o refresh-ahead) no primário: o valor fica em cache por horas
+            EncodedResponse response = cache.get(gravacaoId, id -> ReadYourWrites.onPrimary(() -> service.findByGravacao(id)
+                    .map(feedback -> EncodedResponse.of(FeedbackIADTO.fromEntity(feedback))).orElse(null)));
+            if (response == null) {
                 JsonUtil.sendErrorResponse(exchange, 404, "Feedback not found for gravacao: " + gravacaoId);
                 return;
             }
 
-            FeedbackIADTO dto = FeedbackIADTO.fromEntity(feedback.get());
-            
-            cache.put(gravacaoId, dto);
-            System.out.println("Cached feedback for gravacao: " + gravacaoId);
-
-            JsonUtil.sendJsonResponse(exchange, 200, dto);
+            JsonUtil.sendEncodedResponse(exchange, 200, response);
 
         } catch (NumberFormatException e) {
             JsonUtil.sendErrorResponse(exchange, 400, "Invalid gravacao ID");
@@ -104,18 +114,13 @@ public class FeedbackIAController extends BaseController {
             String path = exchange.getRequestURI().getPath();
             Long id = Long.parseLong(path.substring(path.lastIndexOf('/') + 1));
 
-            Optional<FeedbackIA> feedback = service.findById(id);
+            // Feedback de gravação de outro vendedor é tratado como inexistente
+            Optional<FeedbackIA> feedback = service.findByIdAndUsuario(id, authenticatedUserId);
             if (feedback.isEmpty()) {
                 JsonUtil.sendErrorResponse(exchange, 404, "Feedback não encontrado");
                 return;
             }
 
-            Optional<GravacaoCall> gravacao = gravacaoService.findById(feedback.get().getIdGravacao());
-            if (gravacao.isEmpty() || !gravacao.get().getIdUsuario().equals(authenticatedUserId)) {
-                JsonUtil.sendErrorResponse(exchange, 403, "Acesso negado: Feedback pertence a outro usuário");
-                return;
-            }
-
             FeedbackIADTO dto = FeedbackIADTO.fromEntity(feedback.get());
             JsonUtil.sendJsonResponse(exchange, 200, dto);
 
@@ -6,7 +6,6 @@ import com.fiap.esoa.salesmind.dto.request.UpdateGravacaoRequest;
 import com.fiap.esoa.salesmind.enums.StatusProcessamento;
 import com.fiap.esoa.salesmind.enums.StatusVenda;
 import com.fiap.esoa.salesmind.model.GravacaoCall;
-import com.fiap.esoa.salesmind.model.Cliente;
 import com.fiap.esoa.salesmind.service.GravacaoCallService;
 import com.fiap.esoa.salesmind.service.ClienteService;
 import com.fiap.esoa.salesmind.util.FileUploadUtil;
@@ -66,17 +65,13 @@ public class GravacaoCallController extends BaseController {
         Long authenticatedUserId = getAuthenticatedUserId(exchange);
         
         if (id != null) {
-            Optional<GravacaoCall> gravacao = service.findById(id);
+            // Gravação de outro vendedor é tratada como inexistente
+            Optional<GravacaoCall> gravacao = service.findByIdAndUsuario(id, authenticatedUserId);
             if (gravacao.isEmpty()) {
                 JsonUtil.sendErrorResponse(exchange, 404, "Gravação não encontrada");
                 return;
             }
             
-            if (!gravacao.get().getIdUsuario().equals(authenticatedUserId)) {
-                JsonUtil.sendErrorResponse(exchange, 403, "Acesso negado: Gravação pertence a outro usuário");
-                return;
-            }
-            
             GravacaoCallDTO dto = GravacaoCallDTO.fromEntity(gravacao.get());
             JsonUtil.sendJsonResponse(exchange, 200, dto);
         } else {
@@ -107,15 +102,10 @@ public class GravacaoCallController extends BaseController {
                 return;
             }
 
-            Optional<Cliente> cliente = clienteService.findById(request.idCliente());
-            if (cliente.isEmpty()) {
+            if (!clienteService.existsByIdAndEmpresa(request.idCliente(), authenticatedEmpresaId)) {
                 JsonUtil.sendErrorResponse(exchange, 404, "Cliente não encontrado");
                 return;
             }
-            if (!cliente.get().getIdEmpresa().equals(authenticatedEmpresaId)) {
-                JsonUtil.sendErrorResponse(exchange, 403, "Acesso negado: Cliente pertence a outra empresa");
-                return;
-            }
 
             GravacaoCall gravacao = new GravacaoCall();
             gravacao.setIdUsuario(authenticatedUserId);
@@ -140,18 +130,13 @@ public class GravacaoCallController extends BaseController {
         }
 
         Long authenticatedUserId = getAuthenticatedUserId(exchange);
-        Optional<GravacaoCall> existing = service.findById(id);
+        Optional<GravacaoCall> existing = service.findByIdAndUsuario(id, authenticatedUserId);
 
         if (existing.isEmpty()) {
             JsonUtil.sendErrorResponse(exchange, 404, "Gravação não encontrada");
             return;
         }
 
-        if (!existing.get().getIdUsuario().equals(authenticatedUserId)) {
-            JsonUtil.sendErrorResponse(exchange, 403, "Acesso negado: Gravação pertence a outro usuário");
-            return;
-        }
-
         try {
             String body = getRequestBody(exchange);
             UpdateGravacaoRequest request = JsonUtil.fromJson(body, UpdateGravacaoRequest.class);
@@ -208,15 +193,10 @@ public class GravacaoCallController extends BaseController {
                 return;
             }
 
-            Optional<Cliente> cliente = clienteService.findById(idCliente);
-            if (cliente.isEmpty()) {
+            if (!clienteService.existsByIdAndEmpresa(idCliente, authenticatedEmpresaId)) {
                 JsonUtil.sendErrorResponse(exchange, 404, "Cliente not found");
                 return;
             }
-            if (!cliente.get().getIdEmpresa().equals(authenticatedEmpresaId)) {
-                JsonUtil.sendErrorResponse(exchange, 403, "Access denied: Cliente belongs to another empresa");
-                return;
-            }
 
             Long idUsuario = authenticatedUserId;
 
@@ -264,6 +244,9 @@ public class GravacaoCallController extends BaseController {
             JsonUtil.sendJsonResponse(exchange, 202, response);
 
         } catch (Exception e) {
+            if (sendIfPoolSaturated(exchange, e)) {
+                return;
+            }
             e.printStackTrace();
             JsonUtil.sendErrorResponse(exchange, 500, "Upload failed: " + e.getMessage());
         }
@@ -271,17 +254,12 @@ public class GravacaoCallController extends BaseController {
 
     private void handleStatus(HttpExchange exchange, Long id) throws IOException {
         Long authenticatedUserId = getAuthenticatedUserId(exchange);
-        Optional<GravacaoCall> gravacao = service.findById(id);
+        Optional<GravacaoCall> gravacao = service.findByIdAndUsuario(id, authenticatedUserId);
 
         if (gravacao.isEmpty()) {
             JsonUtil.sendErrorResponse(exchange, 404, "Gravação não encontrada");
             return;
         }
-        
-        if (!gravacao.get().getIdUsuario().equals(authenticatedUserId)) {
-            JsonUtil.sendErrorResponse(exchange, 403, "Acesso negado: Gravação pertence a outro usuário");
-            return;
-        }
 
         GravacaoCall g = gravacao.get();
         Map<String, Object> status = new HashMap<>();
@@ -0,0 +1,43 @@
+package com.fiap.esoa.salesmind.controller;
+
+import com.fiap.esoa.salesmind.util.JsonUtil;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * GET /api/admin/metrics
+ * Expõe métricas operacionais (fila de requisições, pools, caches) para administradores.
+ */
+public class MetricsController extends BaseController {
+
+    private final Map<String, Supplier<Map<String, Object>>> sources = new LinkedHashMap<>();
+
+    /**
+     * @param name Nome da seção no JSON de resposta
+     * @param source Fornece um snapshot das métricas a cada requisição
+     */
+    public MetricsController register(String name, Supplier<Map<String, Object>> source) {
+        sources.put(name, source);
+        return this;
+    }
+
+    @Override
+    protected void handleRequest(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            sendError(exchange, 405, "Method not allowed");
+            return;
+        }
+
+        if (!isAdmin(exchange)) {
+            JsonUtil.sendErrorResponse(exchange, 403, "Acesso negado: Apenas administradores podem acessar métricas");
+            return;
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        sources.forEach((name, source) -> response.put(name, source.get()));
+        JsonUtil.sendJsonResponse(exchange, 200, response);
+    }
+}
@@ -1,5 +1,6 @@
 package com.fiap.esoa.salesmind.controller;
 
+import com.fiap.esoa.salesmind.dto.EntidadeComContagemDTO;
 import com.fiap.esoa.salesmind.dto.UsuarioDTO;
 import com.fiap.esoa.salesmind.dto.request.CreateUsuarioRequest;
 import com.fiap.esoa.salesmind.dto.request.UpdateUsuarioRequest;
@@ -48,15 +49,12 @@ public class UsuarioController extends BaseController {
         Long authenticatedEmpresaId = getAuthenticatedEmpresaId(exchange);
 
         if (id != null) {
-            Optional<Usuario> usuario = service.findById(id);
+            // Usuário de outra empresa é tratado como inexistente
+            Optional<Usuario> usuario = service.findByIdAndEmpresa(id, authenticatedEmpresaId);
             if (usuario.isEmpty()) {
                 JsonUtil.sendErrorResponse(exchange, 404, "Usuário não encontrado");
                 return;
             }
-            if (!usuario.get().getIdEmpresa().equals(authenticatedEmpresaId)) {
-                JsonUtil.sendErrorResponse(exchange, 403, "Acesso negado: Usuário pertence a outra empresa");
-                return;
-            }
             UsuarioDTO dto = UsuarioDTO.fromEntity(usuario.get());
             JsonUtil.sendJsonResponse(exchange, 200, dto);
         } else {
@@ -122,18 +120,13 @@ public class UsuarioController extends BaseController {
         }
 
         Long authenticatedEmpresaId = getAuthenticatedEmpresaId(exchange);
-        Optional<Usuario> existing = service.findById(id);
+        Optional<Usuario> existing = service.findByIdAndEmpresa(id, authenticatedEmpresaId);
 
         if (existing.isEmpty()) {
             JsonUtil.sendErrorResponse(exchange, 404, "Usuário não encontrado");
             return;
         }
 
-        if (!existing.get().getIdEmpresa().equals(authenticatedEmpresaId)) {
-            JsonUtil.sendErrorResponse(exchange, 403, "Acesso negado: Usuário pertence a outra empresa");
-            return;
-        }
-
         try {
             String body = getRequestBody(exchange);
             UpdateUsuarioRequest request = JsonUtil.fromJson(body, UpdateUsuarioRequest.class);
@@ -177,19 +170,14 @@ public class UsuarioController extends BaseController {
 
     private void handleStats(HttpExchange exchange, Long id) throws IOException {
         Long authenticatedEmpresaId = getAuthenticatedEmpresaId(exchange);
-        Optional<Usuario> usuario = service.findById(id);
+        Optional<EntidadeComContagemDTO<Usuario>> usuario = service.findByIdComVendasFechadas(id, authenticatedEmpresaId);
 
         if (usuario.isEmpty()) {
             JsonUtil.sendErrorResponse(exchange, 404, "Usuário não encontrado");
             return;
         }
 
-        if (!usuario.get().getIdEmpresa().equals(authenticatedEmpresaId)) {
-            JsonUtil.sendErrorResponse(exchange, 403, "Acesso negado: Usuário pertence a outra empresa");
-            return;
-        }
-
-        long vendasFechadas = service.getVendasFechadas(id);
+        long vendasFechadas = usuario.get().contagem();
         UsuarioStatsResponse response = new UsuarioStatsResponse(id, vendasFechadas);
         JsonUtil.sendJsonResponse(exchange, 200, response);
     }
@@ -206,24 +194,19 @@ public class UsuarioController extends BaseController {
         }
 
         Long authenticatedEmpresaId = getAuthenticatedEmpresaId(exchange);
-        Optional<Usuario> existing = service.findById(id);
+        Optional<EntidadeComContagemDTO<Usuario>> existing = service.findByIdComGravacoes(id, authenticatedEmpresaId);
 
         if (existing.isEmpty()) {
             JsonUtil.sendErrorResponse(exchange, 404, "Usuário não encontrado");
             return;
         }
 
-        if (!existing.get().getIdEmpresa().equals(authenticatedEmpresaId)) {
-            JsonUtil.sendErrorResponse(exchange, 403, "Acesso negado: Usuário pertence a outra empresa");
-            return;
-        }
-
-        if (Funcao.ADMIN.equals(existing.get().getFuncao())) {
+        if (Funcao.ADMIN.equals(existing.get().entidade().getFuncao())) {
             JsonUtil.sendErrorResponse(exchange, 400, "Não é possível deletar o usuário ADMIN da empresa");
             return;
         }
 
-        long gravacoes = service.countGravacoesByUsuario(id);
+        long gravacoes = existing.get().contagem();
         if (gravacoes > 0) {
             JsonUtil.sendErrorResponse(exchange, 409, 
                 "Não é possível excluir o usuário: existem " + gravacoes + " gravação(ões) associada(s)");
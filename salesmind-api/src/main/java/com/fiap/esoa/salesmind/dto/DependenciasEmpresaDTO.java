@@ -0,0 +1,13 @@
+package com.fiap.esoa.salesmind.dto;
+
+public record DependenciasEmpresaDTO(
+        Long idEmpresa,
+        boolean possuiUsuarios,
+        boolean possuiClientes,
+        boolean possuiGravacoes
+) {
+
+    public boolean possuiAlguma() {
+        return possuiUsuarios || possuiClientes || possuiGravacoes;
+    }
+}
@@ -0,0 +1,11 @@
+package com.fiap.esoa.salesmind.dto;
+
+/**
+ * Entidade acompanhada de uma contagem relacionada (ex.: gravações do cliente),
+ * lidas juntas na mesma conexão.
+ */
+public record EntidadeComContagemDTO<T>(
+        T entidade,
+        long contagem
+) {
+}
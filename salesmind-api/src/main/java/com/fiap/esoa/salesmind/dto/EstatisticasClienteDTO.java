@@ -0,0 +1,8 @@
+package com.fiap.esoa.salesmind.dto;
+
+public record EstatisticasClienteDTO(
+        Long idCliente,
+        Long totalGravacoes,
+        Long vendasFechadas
+) {
+}
@@ -0,0 +1,13 @@
+package com.fiap.esoa.salesmind.dto;
+
+public record PerformanceVendedorDTO(
+        Long idUsuario,
+        String nomeUsuario,
+        String email,
+        Long totalGravacoes,
+        Long vendasFechadas,
+        Double taxaConversao,
+        Double mediaSentiment,
+        Double mediaQualidade
+) {
+}
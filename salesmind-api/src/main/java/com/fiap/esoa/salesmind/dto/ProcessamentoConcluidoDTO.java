@@ -0,0 +1,13 @@
+package com.fiap.esoa.salesmind.dto;
+
+import com.fiap.esoa.salesmind.model.GravacaoCall;
+
+/**
+ * Gravação atualizada ao concluir o processamento, com a empresa do vendedor
+ * obtida no mesmo UPDATE ... RETURNING.
+ */
+public record ProcessamentoConcluidoDTO(
+        GravacaoCall gravacao,
+        Long idEmpresa
+) {
+}
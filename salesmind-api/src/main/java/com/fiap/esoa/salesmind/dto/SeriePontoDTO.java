@@ -0,0 +1,12 @@
+package com.fiap.esoa.salesmind.dto;
+
+import java.time.LocalDate;
+
+public record SeriePontoDTO(
+        LocalDate inicio,
+        Long totalGravacoes,
+        Long vendasFechadas,
+        Double mediaSentiment,
+        Double mediaProbabilidadeFechamento
+) {
+}
@@ -0,0 +1,6 @@
+package com.fiap.esoa.salesmind.dto.response;
+
+public record BulkClienteResponse(
+        Long recebidos,
+        Long inseridos) {
+}
@@ -0,0 +1,6 @@
+package com.fiap.esoa.salesmind.enums;
+
+public enum Granularidade {
+    DIA,
+    SEMANA
+}
@@ -0,0 +1,67 @@
+package com.fiap.esoa.salesmind.filter;
+
+import com.fiap.esoa.salesmind.config.ConnectionAdmission;
+import com.fiap.esoa.salesmind.util.ConcurrencyLimiter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+
+/**
+ * Limita os handlers que usam o banco ao número de vagas reservadas a eles no pool.
+ * Uploads multipart passam sem ocupar vaga: o corpo pode levar muito tempo para
+ * chegar, então cada consulta do upload ocupa uma vaga só enquanto a conexão
+ * está aberta (ConnectionAdmission). O mesmo vale para todas as requisições de
+ * um filtro criado com {@link #perConnection}, usado no login, em que o bcrypt
+ * domina o tempo da requisição.
+ */
+public class DbAdmissionFilter extends LoadSheddingFilter {
+
+    private final boolean perConnection;
+
+    public DbAdmissionFilter(HttpHandler delegate, ConcurrencyLimiter limiter) {
+        this(delegate, limiter, false);
+    }
+
+    private DbAdmissionFilter(HttpHandler delegate, ConcurrencyLimiter limiter, boolean perConnection) {
+        super(delegate, limiter);
+        this.perConnection = perConnection;
+    }
+
+    /**
+     * Filtro em que nenhuma requisição ocupa vaga durante todo o processamento;
+     * cada conexão aberta ocupa uma vaga de {@code limiter} até ser fechada.
+     */
+    public static DbAdmissionFilter perConnection(HttpHandler delegate, ConcurrencyLimiter limiter) {
+        return new DbAdmissionFilter(delegate, limiter, true);
+    }
+
+    @Override
+    protected boolean requiresPermit(HttpExchange exchange) {
+        if (perConnection) {
+            return false;
+        }
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        return contentType == null || !contentType.toLowerCase().startsWith("multipart/");
+    }
+
+    @Override
+    protected void handleWithoutPermit(HttpExchange exchange) throws IOException {
+        ConnectionAdmission.admitPerConnection();
+        try {
+            super.handleWithoutPermit(exchange);
+        } finally {
+            ConnectionAdmission.clear();
+        }
+    }
+
+    @Override
+    protected void handleAdmitted(HttpExchange exchange) throws IOException {
+        ConnectionAdmission.admit();
+        try {
+            super.handleAdmitted(exchange);
+        } finally {
+            ConnectionAdmission.clear();
+        }
+    }
+}
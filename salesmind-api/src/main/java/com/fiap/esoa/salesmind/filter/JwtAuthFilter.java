@@ -2,9 +2,10 @@ package com.fiap.esoa.salesmind.filter;
 
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import com.fiap.esoa.salesmind.util.JwtClaimsCache;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 
 import javax.crypto.SecretKey;
@@ -14,12 +15,23 @@ import java.io.OutputStream;
 public class JwtAuthFilter implements HttpHandler {
     
     private final HttpHandler delegate;
-    private final SecretKey jwtKey;
+    private final JwtParser jwtParser;
+    private final JwtClaimsCache claimsCache;
     private final String[] publicPaths;
 
     public JwtAuthFilter(HttpHandler delegate, SecretKey jwtKey, String... publicPaths) {
+        this(delegate, Jwts.parser().verifyWith(jwtKey).build(), new JwtClaimsCache(), publicPaths);
+    }
+
+    /**
+     * Permite compartilhar o parser e o cache de tokens verificados entre os filtros
+     * de todos os contextos, já que o mesmo token é usado em qualquer endpoint.
+     */
+    public JwtAuthFilter(HttpHandler delegate, JwtParser jwtParser, JwtClaimsCache claimsCache,
+            String... publicPaths) {
         this.delegate = delegate;
-        this.jwtKey = jwtKey;
+        this.jwtParser = jwtParser;
+        this.claimsCache = claimsCache;
         this.publicPaths = publicPaths != null ? publicPaths : new String[0];
     }
 
@@ -53,17 +65,17 @@ public class JwtAuthFilter implements HttpHandler {
         }
 
         try {
-            Jws<Claims> jws = Jwts.parser()
-                .verifyWith(jwtKey)
-                .build()
-                .parseSignedClaims(token);
-            
-            Claims claims = jws.getPayload();
-            
-            String tokenType = claims.get("type", String.class);
-            if ("refresh".equals(tokenType)) {
-                sendUnauthorized(exchange, "Não é possível usar token de atualização para acesso à API");
-                return;
+            Claims claims = claimsCache.get(token);
+            if (claims == null) {
+                claims = jwtParser.parseSignedClaims(token).getPayload();
+
+                String tokenType = claims.get("type", String.class);
+                if ("refresh".equals(tokenType)) {
+                    sendUnauthorized(exchange, "Não é possível usar token de atualização para acesso à API");
+                    return;
+                }
+
+                claimsCache.put(token, claims);
             }
             
             exchange.setAttribute("userId", claims.get("userId", Long.class));
@@ -0,0 +1,80 @@
+package com.fiap.esoa.salesmind.filter;
+
+import com.fiap.esoa.salesmind.util.ConcurrencyLimiter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Limita requisições simultâneas em processamento.
+ * Acima do limite (após uma espera curta) responde 503 imediatamente,
+ * em vez de acumular threads disputando o pool de conexões.
+ */
+public class LoadSheddingFilter implements HttpHandler {
+
+    private final HttpHandler delegate;
+    private final ConcurrencyLimiter limiter;
+
+    public LoadSheddingFilter(HttpHandler delegate, ConcurrencyLimiter limiter) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!requiresPermit(exchange)) {
+            handleWithoutPermit(exchange);
+            return;
+        }
+        if (!limiter.tryAcquire()) {
+            sendServiceUnavailable(exchange);
+            return;
+        }
+
+        try {
+            handleAdmitted(exchange);
+        } finally {
+            limiter.release();
+        }
+    }
+
+    /**
+     * @return false para requisições que passam sem ocupar uma vaga
+     */
+    protected boolean requiresPermit(HttpExchange exchange) {
+        return true;
+    }
+
+    /**
+     * Executado para requisições que passam sem ocupar uma vaga.
+     */
+    protected void handleWithoutPermit(HttpExchange exchange) throws IOException {
+        delegate.handle(exchange);
+    }
+
+    /**
+     * Executado enquanto a requisição ocupa uma vaga.
+     */
+    protected void handleAdmitted(HttpExchange exchange) throws IOException {
+        delegate.handle(exchange);
+    }
+
+    private void sendServiceUnavailable(HttpExchange exchange) throws IOException {
+        byte[] bytes = "{\"error\":\"Servidor sobrecarregado. Tente novamente\",\"status\":503}"
+                .getBytes(StandardCharsets.UTF_8);
+
+        exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.getResponseHeaders().set("Retry-After", "1");
+        exchange.sendResponseHeaders(503, bytes.length);
+
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        } finally {
+            exchange.close();
+        }
+    }
+}
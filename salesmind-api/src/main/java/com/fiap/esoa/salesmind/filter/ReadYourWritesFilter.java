@@ -0,0 +1,36 @@
+package com.fiap.esoa.salesmind.filter;
+
+import com.fiap.esoa.salesmind.config.ReadYourWrites;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+
+/**
+ * Delimita o escopo de read-your-writes a uma requisição.
+ * GET/HEAD começam lendo da réplica; os demais métodos escrevem, e as leituras
+ * que fazem antes disso (ex.: buscar o registro a atualizar, checar unicidade)
+ * precisam do estado atual, então vão inteiras ao primário.
+ */
+public class ReadYourWritesFilter implements HttpHandler {
+
+    private final HttpHandler delegate;
+
+    public ReadYourWritesFilter(HttpHandler delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        ReadYourWrites.clear();
+        String method = exchange.getRequestMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            ReadYourWrites.pinToPrimary();
+        }
+        try {
+            delegate.handle(exchange);
+        } finally {
+            ReadYourWrites.clear();
+        }
+    }
+}
@@ -35,6 +35,23 @@ public class Cliente {
         this.segmento = segmento;
     }
 
+    /**
+     * Cópia usada pelo cache de entidades, para que alterações de quem recebe o
+     * objeto não afetem a instância em cache.
+     */
+    public Cliente(Cliente other) {
+        this.id = other.id;
+        this.idEmpresa = other.idEmpresa;
+        this.nome = other.nome;
+        this.cpfCnpj = other.cpfCnpj;
+        this.telefone = other.telefone;
+        this.email = other.email;
+        this.segmento = other.segmento;
+        this.criadoEm = other.criadoEm;
+        this.atualizadoEm = other.atualizadoEm;
+        this.gravacoes = other.gravacoes != null ? new ArrayList<>(other.gravacoes) : new ArrayList<>();
+    }
+
     public Long getId() {
         return id;
     }
@@ -28,6 +28,20 @@ public class Empresa {
         this.cnpj = cnpj;
     }
 
+    /**
+     * Cópia usada pelo cache de entidades, para que alterações de quem recebe o
+     * objeto não afetem a instância em cache.
+     */
+    public Empresa(Empresa other) {
+        this.id = other.id;
+        this.nomeEmpresa = other.nomeEmpresa;
+        this.cnpj = other.cnpj;
+        this.criadoEm = other.criadoEm;
+        this.atualizadoEm = other.atualizadoEm;
+        this.usuarios = other.usuarios != null ? new ArrayList<>(other.usuarios) : new ArrayList<>();
+        this.clientes = other.clientes != null ? new ArrayList<>(other.clientes) : new ArrayList<>();
+    }
+
     public Long getId() {
         return id;
     }
@@ -46,6 +46,31 @@ public class FeedbackIA {
         this.idEmpresa = idEmpresa;
     }
 
+    /**
+     * Cópia independente, inclusive das listas.
+     */
+    public FeedbackIA(FeedbackIA other) {
+        this.id = other.id;
+        this.idGravacao = other.idGravacao;
+        this.idEmpresa = other.idEmpresa;
+        this.pontosFortes = copiar(other.pontosFortes);
+        this.pontosFracos = copiar(other.pontosFracos);
+        this.sugestoes = copiar(other.sugestoes);
+        this.sentimentScore = other.sentimentScore;
+        this.probabilidadeFechamento = other.probabilidadeFechamento;
+        this.categoriaAmbiental = other.categoriaAmbiental;
+        this.qualidadeAtendimento = other.qualidadeAtendimento;
+        this.aderenciaScript = other.aderenciaScript;
+        this.gestaoObjecoes = other.gestaoObjecoes;
+        this.objecoesIdentificadas = copiar(other.objecoesIdentificadas);
+        this.momentosChave = copiar(other.momentosChave);
+        this.criadoEm = other.criadoEm;
+    }
+
+    private static List<String> copiar(List<String> lista) {
+        return lista != null ? new ArrayList<>(lista) : null;
+    }
+
     public CategoriaAmbiental getCategoriaAmbientalCalculada() {
         if (categoriaAmbiental != null) {
             return categoriaAmbiental;
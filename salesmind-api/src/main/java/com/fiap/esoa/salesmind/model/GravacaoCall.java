@@ -39,6 +39,28 @@ public class GravacaoCall {
         this.audioFilename = audioFilename;
     }
 
+    /**
+     * Cópia independente: o feedback também é copiado, já que a cópia pode ser alterada
+     * por quem a recebeu do cache.
+     */
+    public GravacaoCall(GravacaoCall other) {
+        this.id = other.id;
+        this.idUsuario = other.idUsuario;
+        this.idCliente = other.idCliente;
+        this.audioUrl = other.audioUrl;
+        this.audioFilename = other.audioFilename;
+        this.transcricao = other.transcricao;
+        this.resumoIA = other.resumoIA;
+        this.statusVenda = other.statusVenda;
+        this.statusProcessamento = other.statusProcessamento;
+        this.duracaoSegundos = other.duracaoSegundos;
+        this.erroProcessamento = other.erroProcessamento;
+        this.dataGravacao = other.dataGravacao;
+        this.criadoEm = other.criadoEm;
+        this.atualizadoEm = other.atualizadoEm;
+        this.feedback = other.feedback != null ? new FeedbackIA(other.feedback) : null;
+    }
+
     public Long getId() {
         return id;
     }
@@ -32,6 +32,22 @@ public class Usuario {
         this.funcao = funcao;
     }
 
+    /**
+     * Cópia usada pelo cache de entidades, para que alterações de quem recebe o
+     * objeto não afetem a instância em cache.
+     */
+    public Usuario(Usuario other) {
+        this.id = other.id;
+        this.idEmpresa = other.idEmpresa;
+        this.nome = other.nome;
+        this.email = other.email;
+        this.senha = other.senha;
+        this.funcao = other.funcao;
+        this.criadoEm = other.criadoEm;
+        this.atualizadoEm = other.atualizadoEm;
+        this.gravacoes = other.gravacoes != null ? new ArrayList<>(other.gravacoes) : new ArrayList<>();
+    }
+
     public Long getId() {
         return id;
     }
@@ -3,12 +3,17 @@ package com.fiap.esoa.salesmind.repository;
 import com.fiap.esoa.salesmind.config.DatabaseConfig;
 import com.fiap.esoa.salesmind.model.Cliente;
 import com.fiap.esoa.salesmind.util.TransactionManager;
+import com.fiap.esoa.salesmind.util.WriteEventBus;
+import java.io.StringReader;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.*;
+import org.postgresql.PGConnection;
 
 public class ClienteRepository {
 
+    private static final int BATCH_SIZE = 500;
+
     public Cliente save(Cliente cliente) {
         if (cliente.getId() == null) {
             return insert(cliente);
@@ -42,6 +47,7 @@ public class ClienteRepository {
                     cliente.setId(rs.getLong("id"));
                 }
 
+                WriteEventBus.publishSave(Cliente.class, cliente.getId(), cliente);
                 return cliente;
 
             } catch (SQLException e) {
@@ -69,6 +75,7 @@ public class ClienteRepository {
                 stmt.setLong(8, cliente.getId());
 
                 stmt.executeUpdate();
+                WriteEventBus.publishSave(Cliente.class, cliente.getId(), cliente);
                 return cliente;
 
             } catch (SQLException e) {
@@ -77,11 +84,147 @@ public class ClienteRepository {
         });
     }
 
+    /**
+     * Insere vários clientes novos em uma transação, enviando os INSERTs em lotes
+     * (addBatch/executeBatch) e preenchendo os ids gerados.
+     */
+    public List<Cliente> saveAll(List<Cliente> clientes) {
+        return TransactionManager.executeTransaction(conn -> {
+            String sql = "INSERT INTO cliente (id_empresa, nome, cpf_cnpj, telefone, email, segmento, " +
+                    "criado_em, atualizado_em) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql, new String[] { "id" })) {
+
+                LocalDateTime now = LocalDateTime.now();
+                int inicioLote = 0;
+
+                for (int i = 0; i < clientes.size(); i++) {
+                    Cliente cliente = clientes.get(i);
+                    if (cliente.getId() != null) {
+                        throw new IllegalArgumentException("saveAll aceita apenas clientes novos");
+                    }
+                    cliente.setCriadoEm(now);
+                    cliente.setAtualizadoEm(now);
+
+                    stmt.setLong(1, cliente.getIdEmpresa());
+                    stmt.setString(2, cliente.getNome());
+                    stmt.setString(3, cliente.getCpfCnpj());
+                    stmt.setString(4, cliente.getTelefone());
+                    stmt.setString(5, cliente.getEmail());
+                    stmt.setString(6, cliente.getSegmento());
+                    stmt.setTimestamp(7, Timestamp.valueOf(now));
+                    stmt.setTimestamp(8, Timestamp.valueOf(now));
+                    stmt.addBatch();
+
+                    if (i + 1 - inicioLote == BATCH_SIZE || i == clientes.size() - 1) {
+                        stmt.executeBatch();
+                        try (ResultSet keys = stmt.getGeneratedKeys()) {
+                            int index = inicioLote;
+                            while (keys.next()) {
+                                clientes.get(index++).setId(keys.getLong(1));
+                            }
+                        }
+                        inicioLote = i + 1;
+                    }
+                }
+
+                return clientes;
+
+            } catch (SQLException e) {
+                throw new RuntimeException("Erro ao inserir clientes em lote: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Carga de grandes volumes via COPY FROM STDIN (CSV). Muito mais rápido que INSERTs,
+     * mas não devolve os ids gerados.
+     *
+     * @return Quantidade de linhas inseridas
+     */
+    public long copyAll(List<Cliente> clientes) {
+        return TransactionManager.executeTransaction(conn -> {
+            String sql = "COPY cliente (id_empresa, nome, cpf_cnpj, telefone, email, segmento, " +
+                    "criado_em, atualizado_em) FROM STDIN WITH (FORMAT csv)";
+
+            String now = Timestamp.valueOf(LocalDateTime.now()).toString();
+            StringBuilder csv = new StringBuilder(clientes.size() * 128);
+            for (Cliente cliente : clientes) {
+                csv.append(cliente.getIdEmpresa()).append(',');
+                appendCsv(csv, cliente.getNome()).append(',');
+                appendCsv(csv, cliente.getCpfCnpj()).append(',');
+                appendCsv(csv, cliente.getTelefone()).append(',');
+                appendCsv(csv, cliente.getEmail()).append(',');
+                appendCsv(csv, cliente.getSegmento()).append(',');
+                csv.append(now).append(',').append(now).append('\n');
+            }
+
+            try {
+                return conn.unwrap(PGConnection.class).getCopyAPI()
+                        .copyIn(sql, new StringReader(csv.toString()));
+            } catch (Exception e) {
+                throw new RuntimeException("Erro ao copiar clientes em lote: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Em CSV do COPY, campo vazio sem aspas é NULL; valores vão entre aspas com aspas duplicadas.
+     */
+    private static StringBuilder appendCsv(StringBuilder csv, String value) {
+        if (value == null) {
+            return csv;
+        }
+        return csv.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    /**
+     * Retorna, em uma única consulta, os CPF/CNPJ, emails e telefones informados
+     * que já pertencem a algum cliente.
+     */
+    public Set<String> findIdentificadoresExistentes(Collection<String> cpfCnpjs, Collection<String> emails,
+            Collection<String> telefones) {
+        String sql = "SELECT cpf_cnpj, email, telefone FROM cliente " +
+                "WHERE cpf_cnpj = ANY(?) OR email = ANY(?) OR telefone = ANY(?)";
+
+        try (Connection conn = DatabaseConfig.getReadConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setArray(1, conn.createArrayOf("VARCHAR", cpfCnpjs.toArray()));
+            stmt.setArray(2, conn.createArrayOf("VARCHAR", emails.toArray()));
+            stmt.setArray(3, conn.createArrayOf("VARCHAR", telefones.toArray()));
+            ResultSet rs = stmt.executeQuery();
+
+            Set<String> existentes = new HashSet<>();
+            while (rs.next()) {
+                String cpfCnpj = rs.getString("cpf_cnpj");
+                if (cpfCnpj != null && cpfCnpjs.contains(cpfCnpj)) {
+                    existentes.add(cpfCnpj);
+                }
+                String email = rs.getString("email");
+                if (email != null && emails.contains(email)) {
+                    existentes.add(email);
+                }
+                String telefone = rs.getString("telefone");
+                if (telefone != null && telefones.contains(telefone)) {
+                    existentes.add(telefone);
+                }
+            }
+            return existentes;
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao verificar clientes existentes: " + e.getMessage(), e);
+        }
+    }
+
     public Optional<Cliente> findById(Long id) {
+        return TransactionManager.executeWithConnection(conn -> findByIdWithConnection(conn, id));
+    }
+
+    public Optional<Cliente> findByIdWithConnection(Connection conn, Long id) {
         String sql = "SELECT * FROM cliente WHERE id = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setLong(1, id);
             ResultSet rs = stmt.executeQuery();
@@ -96,11 +239,61 @@ public class ClienteRepository {
         }
     }
 
+    /**
+     * Busca o cliente apenas se pertencer à empresa (tenancy no WHERE).
+     * Para outra empresa o resultado é vazio, sem trazer a linha.
+     */
+    public Optional<Cliente> findByIdAndEmpresa(Long id, Long idEmpresa) {
+        return TransactionManager.executeWithConnection(conn -> findByIdAndEmpresaWithConnection(conn, id, idEmpresa));
+    }
+
+    public Optional<Cliente> findByIdAndEmpresaWithConnection(Connection conn, Long id, Long idEmpresa) {
+        String sql = "SELECT * FROM cliente WHERE id = ? AND id_empresa = ?";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setLong(1, id);
+            stmt.setLong(2, idEmpresa);
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                return Optional.of(mapResultSetToCliente(rs));
+            }
+            return Optional.empty();
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao buscar cliente por id e empresa: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Checagem de posse sem trazer a linha (busca pela chave primária).
+     */
+    public boolean existsByIdAndEmpresa(Long id, Long idEmpresa) {
+        String sql = "SELECT EXISTS(SELECT 1 FROM cliente WHERE id = ? AND id_empresa = ?)";
+
+        try (Connection conn = DatabaseConfig.getReadConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setLong(1, id);
+            stmt.setLong(2, idEmpresa);
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                return rs.getBoolean(1);
+            }
+            return false;
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao verificar cliente da empresa: " + e.getMessage(), e);
+        }
+    }
+
     public List<Cliente> findAll() {
         String sql = "SELECT * FROM cliente ORDER BY id";
         List<Cliente> clientes = new ArrayList<>();
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
 
@@ -118,7 +311,7 @@ public class ClienteRepository {
         String sql = "SELECT * FROM cliente WHERE id_empresa = ? ORDER BY id";
         List<Cliente> clientes = new ArrayList<>();
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setLong(1, idEmpresa);
@@ -137,7 +330,7 @@ public class ClienteRepository {
     public Optional<Cliente> findByCpfCnpj(String cpfCnpj) {
         String sql = "SELECT * FROM cliente WHERE cpf_cnpj = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, cpfCnpj);
@@ -157,7 +350,7 @@ public class ClienteRepository {
         String sql = "SELECT * FROM cliente WHERE segmento = ? ORDER BY id";
         List<Cliente> clientes = new ArrayList<>();
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, segmento);
@@ -176,7 +369,7 @@ public class ClienteRepository {
     public Optional<Cliente> findByEmail(String email) {
         String sql = "SELECT * FROM cliente WHERE email = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, email);
@@ -195,7 +388,7 @@ public class ClienteRepository {
     public Optional<Cliente> findByTelefone(String telefone) {
         String sql = "SELECT * FROM cliente WHERE telefone = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, telefone);
@@ -213,10 +406,13 @@ public class ClienteRepository {
 
     public void deleteById(Long id) {
         TransactionManager.executeTransactionVoid(conn -> {
-            String sql = "DELETE FROM cliente WHERE id = ?";
+            String sql = "DELETE FROM cliente WHERE id = ? RETURNING *";
             try (PreparedStatement stmt = conn.prepareStatement(sql)) {
                 stmt.setLong(1, id);
-                stmt.executeUpdate();
+                ResultSet rs = stmt.executeQuery();
+                if (rs.next()) {
+                    WriteEventBus.publishDelete(Cliente.class, id, mapResultSetToCliente(rs));
+                }
             } catch (SQLException e) {
                 throw new RuntimeException("Erro ao excluir cliente: " + e.getMessage(), e);
             }
@@ -226,7 +422,7 @@ public class ClienteRepository {
     public boolean existsById(Long id) {
         String sql = "SELECT EXISTS(SELECT 1 FROM cliente WHERE id = ?)";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setLong(1, id);
@@ -245,7 +441,7 @@ public class ClienteRepository {
     public long count() {
         String sql = "SELECT COUNT(*) FROM cliente";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
 
@@ -262,7 +458,7 @@ public class ClienteRepository {
     public long countByEmpresa(Long idEmpresa) {
         String sql = "SELECT COUNT(*) FROM cliente WHERE id_empresa = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setLong(1, idEmpresa);
@@ -1,9 +1,11 @@
 package com.fiap.esoa.salesmind.repository;
 
 import com.fiap.esoa.salesmind.config.DatabaseConfig;
+import com.fiap.esoa.salesmind.dto.DependenciasEmpresaDTO;
 import com.fiap.esoa.salesmind.dto.EstatisticasEmpresaDTO;
 import com.fiap.esoa.salesmind.model.Empresa;
 import com.fiap.esoa.salesmind.util.TransactionManager;
+import com.fiap.esoa.salesmind.util.WriteEventBus;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -39,6 +41,7 @@ public class EmpresaRepository {
                     empresa.setId(rs.getLong("id"));
                 }
 
+                WriteEventBus.publishSave(Empresa.class, empresa.getId(), empresa);
                 return empresa;
 
             } catch (SQLException e) {
@@ -62,6 +65,7 @@ public class EmpresaRepository {
                 stmt.setLong(4, empresa.getId());
 
                 stmt.executeUpdate();
+                WriteEventBus.publishSave(Empresa.class, empresa.getId(), empresa);
                 return empresa;
 
             } catch (SQLException e) {
@@ -73,7 +77,7 @@ public class EmpresaRepository {
     public Optional<Empresa> findById(Long id) {
         String sql = "SELECT * FROM empresa WHERE id = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setLong(1, id);
@@ -93,7 +97,7 @@ public class EmpresaRepository {
         String sql = "SELECT * FROM empresa ORDER BY id";
         List<Empresa> empresas = new ArrayList<>();
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
 
@@ -110,7 +114,7 @@ public class EmpresaRepository {
     public Optional<Empresa> findByCnpj(String cnpj) {
         String sql = "SELECT * FROM empresa WHERE cnpj = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, cnpj);
@@ -126,12 +130,45 @@ public class EmpresaRepository {
         }
     }
 
+    /**
+     * Verifica em uma única consulta (EXISTS, sem contar linhas) se a empresa
+     * possui usuários, clientes ou gravações.
+     */
+    public DependenciasEmpresaDTO findDependencias(Long idEmpresa) {
+        String sql = "SELECT " +
+                "EXISTS (SELECT 1 FROM usuario WHERE id_empresa = ?) AS possui_usuarios, " +
+                "EXISTS (SELECT 1 FROM cliente WHERE id_empresa = ?) AS possui_clientes, " +
+                "EXISTS (SELECT 1 FROM gravacao_call g INNER JOIN usuario u ON g.id_usuario = u.id " +
+                "WHERE u.id_empresa = ?) AS possui_gravacoes";
+
+        try (Connection conn = DatabaseConfig.getReadConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setLong(1, idEmpresa);
+            stmt.setLong(2, idEmpresa);
+            stmt.setLong(3, idEmpresa);
+            ResultSet rs = stmt.executeQuery();
+
+            rs.next();
+            return new DependenciasEmpresaDTO(idEmpresa,
+                    rs.getBoolean("possui_usuarios"),
+                    rs.getBoolean("possui_clientes"),
+                    rs.getBoolean("possui_gravacoes"));
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao verificar dependências da empresa: " + e.getMessage(), e);
+        }
+    }
+
     public void deleteById(Long id) {
         TransactionManager.executeTransactionVoid(conn -> {
-            String sql = "DELETE FROM empresa WHERE id = ?";
+            String sql = "DELETE FROM empresa WHERE id = ? RETURNING *";
             try (PreparedStatement stmt = conn.prepareStatement(sql)) {
                 stmt.setLong(1, id);
-                stmt.executeUpdate();
+                ResultSet rs = stmt.executeQuery();
+                if (rs.next()) {
+                    WriteEventBus.publishDelete(Empresa.class, id, mapResultSetToEmpresa(rs));
+                }
             } catch (SQLException e) {
                 throw new RuntimeException("Erro ao excluir empresa: " + e.getMessage(), e);
             }
@@ -141,7 +178,7 @@ public class EmpresaRepository {
     public boolean existsById(Long id) {
         String sql = "SELECT EXISTS(SELECT 1 FROM empresa WHERE id = ?)";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setLong(1, id);
@@ -160,7 +197,7 @@ public class EmpresaRepository {
     public long count() {
         String sql = "SELECT COUNT(*) FROM empresa";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
 
@@ -174,12 +211,17 @@ public class EmpresaRepository {
         }
     }
 
+    /**
+     * Lê os contadores mantidos por trigger em estatisticas_empresa (uma linha por empresa).
+     */
     public EstatisticasEmpresaDTO getEstatisticas(Long idEmpresa) {
-        String sql = "SELECT id_empresa, total_usuarios, total_clientes, total_gravacoes, " +
-                     "vendas_fechadas, taxa_conversao " +
-                     "FROM v_estatisticas_empresa WHERE id_empresa = ?";
+        String sql = "SELECT id_empresa, total_usuarios, total_clientes, total_gravacoes, vendas_fechadas, " +
+                     "CASE WHEN total_gravacoes > 0 " +
+                     "THEN ROUND((vendas_fechadas::NUMERIC / total_gravacoes::NUMERIC) * 100, 2) " +
+                     "ELSE 0 END AS taxa_conversao " +
+                     "FROM estatisticas_empresa WHERE id_empresa = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, idEmpresa);
@@ -4,6 +4,7 @@ import com.fiap.esoa.salesmind.config.DatabaseConfig;
 import com.fiap.esoa.salesmind.enums.CategoriaAmbiental;
 import com.fiap.esoa.salesmind.model.FeedbackIA;
 import com.fiap.esoa.salesmind.util.TransactionManager;
+import com.fiap.esoa.salesmind.util.WriteEventBus;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -74,6 +75,7 @@ public class FeedbackIARepository {
                     feedback.setId(rs.getLong("id"));
                 }
 
+                WriteEventBus.publishSave(FeedbackIA.class, feedback.getId(), feedback);
                 return feedback;
 
             } catch (SQLException e) {
@@ -129,6 +131,7 @@ public class FeedbackIARepository {
                 feedback.setId(rs.getLong("id"));
             }
 
+            WriteEventBus.publishSave(FeedbackIA.class, feedback.getId(), feedback);
             return feedback;
 
         } catch (SQLException e) {
@@ -177,6 +180,7 @@ public class FeedbackIARepository {
                 stmt.setLong(14, feedback.getId());
 
                 stmt.executeUpdate();
+                WriteEventBus.publishSave(FeedbackIA.class, feedback.getId(), feedback);
                 return feedback;
 
             } catch (SQLException e) {
@@ -225,6 +229,7 @@ public class FeedbackIARepository {
             stmt.setLong(14, feedback.getId());
 
             stmt.executeUpdate();
+            WriteEventBus.publishSave(FeedbackIA.class, feedback.getId(), feedback);
             return feedback;
 
         } catch (SQLException e) {
@@ -235,7 +240,7 @@ public class FeedbackIARepository {
     public Optional<FeedbackIA> findById(Long id) {
         String sql = "SELECT * FROM feedback_ia WHERE id = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setLong(1, id);
@@ -251,10 +256,34 @@ public class FeedbackIARepository {
         }
     }
 
+    /**
+     * Busca o feedback apenas se a gravação for do vendedor (join pelas chaves primárias).
+     */
+    public Optional<FeedbackIA> findByIdAndUsuario(Long id, Long idUsuario) {
+        String sql = "SELECT f.* FROM feedback_ia f JOIN gravacao_call g ON g.id = f.id_gravacao " +
+                "WHERE f.id = ? AND g.id_usuario = ?";
+
+        try (Connection conn = DatabaseConfig.getReadConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setLong(1, id);
+            stmt.setLong(2, idUsuario);
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                return Optional.of(mapResultSetToFeedbackIA(rs));
+            }
+            return Optional.empty();
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao buscar feedback por id e usuário: " + e.getMessage(), e);
+        }
+    }
+
     public Optional<FeedbackIA> findByGravacaoId(Long idGravacao) {
         String sql = "SELECT * FROM feedback_ia WHERE id_gravacao = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setLong(1, idGravacao);
@@ -274,7 +303,7 @@ public class FeedbackIARepository {
         String sql = "SELECT * FROM feedback_ia ORDER BY id";
         List<FeedbackIA> feedbacks = new ArrayList<>();
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
 
@@ -291,7 +320,7 @@ public class FeedbackIARepository {
     public Optional<FeedbackIA> findByGravacao(Long idGravacao) {
         String sql = "SELECT * FROM feedback_ia WHERE id_gravacao = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setLong(1, idGravacao);
@@ -311,7 +340,7 @@ public class FeedbackIARepository {
         String sql = "SELECT * FROM feedback_ia WHERE id_empresa = ? ORDER BY criado_em DESC";
         List<FeedbackIA> feedbacks = new ArrayList<>();
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setLong(1, idEmpresa);
@@ -331,7 +360,7 @@ public class FeedbackIARepository {
         String sql = "SELECT * FROM feedback_ia WHERE sentiment_score >= ? ORDER BY sentiment_score DESC";
         List<FeedbackIA> feedbacks = new ArrayList<>();
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, minScore);
@@ -352,7 +381,7 @@ public class FeedbackIARepository {
                 "ORDER BY probabilidade_fechamento DESC";
         List<FeedbackIA> feedbacks = new ArrayList<>();
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, minProbabilidade);
@@ -370,10 +399,13 @@ public class FeedbackIARepository {
 
     public void deleteById(Long id) {
         TransactionManager.executeTransactionVoid(conn -> {
-            String sql = "DELETE FROM feedback_ia WHERE id = ?";
+            String sql = "DELETE FROM feedback_ia WHERE id = ? RETURNING *";
             try (PreparedStatement stmt = conn.prepareStatement(sql)) {
                 stmt.setLong(1, id);
-                stmt.executeUpdate();
+                ResultSet rs = stmt.executeQuery();
+                if (rs.next()) {
+                    WriteEventBus.publishDelete(FeedbackIA.class, id, mapResultSetToFeedbackIA(rs));
+                }
             } catch (SQLException e) {
                 throw new RuntimeException("Erro ao excluir feedback: " + e.getMessage(), e);
             }
@@ -383,7 +415,7 @@ public class FeedbackIARepository {
     public boolean existsById(Long id) {
         String sql = "SELECT EXISTS(SELECT 1 FROM feedback_ia WHERE id = ?)";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setLong(1, id);
@@ -402,7 +434,7 @@ public class FeedbackIARepository {
     public long count() {
         String sql = "SELECT COUNT(*) FROM feedback_ia";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
 
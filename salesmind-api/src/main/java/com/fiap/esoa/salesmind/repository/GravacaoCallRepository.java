@@ -1,10 +1,13 @@
 package com.fiap.esoa.salesmind.repository;
 
 import com.fiap.esoa.salesmind.config.DatabaseConfig;
+import com.fiap.esoa.salesmind.dto.EstatisticasClienteDTO;
+import com.fiap.esoa.salesmind.dto.ProcessamentoConcluidoDTO;
 import com.fiap.esoa.salesmind.model.GravacaoCall;
 import com.fiap.esoa.salesmind.enums.StatusVenda;
 import com.fiap.esoa.salesmind.enums.StatusProcessamento;
 import com.fiap.esoa.salesmind.util.TransactionManager;
+import com.fiap.esoa.salesmind.util.WriteEventBus;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -59,6 +62,7 @@ public class GravacaoCallRepository {
                     gravacao.setId(rs.getLong("id"));
                 }
 
+                WriteEventBus.publishSave(GravacaoCall.class, gravacao.getId(), gravacao);
                 return gravacao;
 
             } catch (SQLException e) {
@@ -98,6 +102,7 @@ public class GravacaoCallRepository {
                 gravacao.setId(rs.getLong("id"));
             }
 
+            WriteEventBus.publishSave(GravacaoCall.class, gravacao.getId(), gravacao);
             return gravacao;
 
         } catch (SQLException e) {
@@ -131,6 +136,7 @@ public class GravacaoCallRepository {
                 stmt.setLong(13, gravacao.getId());
 
                 stmt.executeUpdate();
+                WriteEventBus.publishSave(GravacaoCall.class, gravacao.getId(), gravacao);
                 return gravacao;
 
             } catch (SQLException e) {
@@ -164,6 +170,7 @@ public class GravacaoCallRepository {
             stmt.setLong(13, gravacao.getId());
 
             stmt.executeUpdate();
+            WriteEventBus.publishSave(GravacaoCall.class, gravacao.getId(), gravacao);
             return gravacao;
 
         } catch (SQLException e) {
@@ -171,10 +178,93 @@ public class GravacaoCallRepository {
         }
     }
 
+    /**
+     * Marca a gravação como PROCESSANDO e devolve a linha atualizada (sem feedback)
+     * em uma única ida ao banco.
+     */
+    public Optional<GravacaoCall> markProcessando(Long id) {
+        String sql = "UPDATE gravacao_call SET status_processamento = ?, erro_processamento = NULL, " +
+                "atualizado_em = ? WHERE id = ? RETURNING *";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, StatusProcessamento.PROCESSANDO.name());
+            stmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+            stmt.setLong(3, id);
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                GravacaoCall gravacao = mapRow(rs);
+                WriteEventBus.publishSave(GravacaoCall.class, id, gravacao);
+                return Optional.of(gravacao);
+            }
+            return Optional.empty();
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao marcar gravação como em processamento: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Grava o resultado da análise e marca a gravação como CONCLUIDO.
+     * O UPDATE já devolve a linha final e a empresa do vendedor (join com usuario),
+     * dispensando releituras antes de inserir o feedback.
+     */
+    public Optional<ProcessamentoConcluidoDTO> concluirProcessamentoWithConnection(Connection conn, Long id,
+            String transcricao, String resumoIA, StatusVenda statusVenda) throws SQLException {
+        String sql = "UPDATE gravacao_call g SET transcricao = ?, resumo_ia = ?, status_venda = ?, " +
+                "status_processamento = ?, erro_processamento = NULL, atualizado_em = ? " +
+                "FROM usuario u WHERE g.id = ? AND u.id = g.id_usuario " +
+                "RETURNING g.*, u.id_empresa AS id_empresa_usuario";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, transcricao);
+            stmt.setString(2, resumoIA);
+            stmt.setString(3, statusVenda.name());
+            stmt.setString(4, StatusProcessamento.CONCLUIDO.name());
+            stmt.setTimestamp(5, Timestamp.valueOf(LocalDateTime.now()));
+            stmt.setLong(6, id);
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                GravacaoCall gravacao = mapRow(rs);
+                WriteEventBus.publishSave(GravacaoCall.class, id, gravacao);
+                return Optional.of(new ProcessamentoConcluidoDTO(gravacao, rs.getLong("id_empresa_usuario")));
+            }
+            return Optional.empty();
+
+        } catch (SQLException e) {
+            throw new SQLException("Erro ao concluir processamento da gravação: " + e.getMessage(), e);
+        }
+    }
+
+    public void markErro(Long id, String erroProcessamento) {
+        String sql = "UPDATE gravacao_call SET status_processamento = ?, erro_processamento = ?, " +
+                "atualizado_em = ? WHERE id = ? RETURNING *";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, StatusProcessamento.ERRO.name());
+            stmt.setString(2, erroProcessamento);
+            stmt.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+            stmt.setLong(4, id);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                WriteEventBus.publishSave(GravacaoCall.class, id, mapRow(rs));
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao registrar falha de processamento: " + e.getMessage(), e);
+        }
+    }
+
     public Optional<GravacaoCall> findById(Long id) {
         String sql = "SELECT * FROM gravacao_call WHERE id = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setLong(1, id);
@@ -190,11 +280,57 @@ public class GravacaoCallRepository {
         }
     }
 
+    /**
+     * Busca a gravação apenas se pertencer ao vendedor (tenancy no WHERE).
+     */
+    public Optional<GravacaoCall> findByIdAndUsuario(Long id, Long idUsuario) {
+        String sql = "SELECT * FROM gravacao_call WHERE id = ? AND id_usuario = ?";
+
+        try (Connection conn = DatabaseConfig.getReadConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setLong(1, id);
+            stmt.setLong(2, idUsuario);
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                return Optional.of(mapResultSetToGravacaoCall(rs));
+            }
+            return Optional.empty();
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao buscar gravação por id e usuário: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Checagem de posse sem trazer a linha (busca pela chave primária).
+     */
+    public boolean existsByIdAndUsuario(Long id, Long idUsuario) {
+        String sql = "SELECT EXISTS(SELECT 1 FROM gravacao_call WHERE id = ? AND id_usuario = ?)";
+
+        try (Connection conn = DatabaseConfig.getReadConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setLong(1, id);
+            stmt.setLong(2, idUsuario);
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                return rs.getBoolean(1);
+            }
+            return false;
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao verificar gravação do usuário: " + e.getMessage(), e);
+        }
+    }
+
     public List<GravacaoCall> findAll() {
         String sql = "SELECT * FROM gravacao_call ORDER BY id";
         List<GravacaoCall> gravacoes = new ArrayList<>();
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
 
@@ -212,7 +348,7 @@ public class GravacaoCallRepository {
         String sql = "SELECT * FROM gravacao_call WHERE id_usuario = ? ORDER BY id";
         List<GravacaoCall> gravacoes = new ArrayList<>();
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setLong(1, idUsuario);
@@ -232,7 +368,7 @@ public class GravacaoCallRepository {
         String sql = "SELECT * FROM gravacao_call WHERE id_cliente = ? ORDER BY id";
         List<GravacaoCall> gravacoes = new ArrayList<>();
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setLong(1, idCliente);
@@ -252,7 +388,7 @@ public class GravacaoCallRepository {
         String sql = "SELECT * FROM gravacao_call WHERE status_venda = ? ORDER BY id";
         List<GravacaoCall> gravacoes = new ArrayList<>();
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, status.name());
@@ -272,7 +408,7 @@ public class GravacaoCallRepository {
         String sql = "SELECT * FROM gravacao_call WHERE status_processamento = ? ORDER BY id";
         List<GravacaoCall> gravacoes = new ArrayList<>();
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, status.name());
@@ -289,10 +425,13 @@ public class GravacaoCallRepository {
     }
 
     public long countVendasFechadasByUsuario(Long idUsuario) {
+        return TransactionManager.executeWithConnection(conn -> countVendasFechadasByUsuarioWithConnection(conn, idUsuario));
+    }
+
+    public long countVendasFechadasByUsuarioWithConnection(Connection conn, Long idUsuario) {
         String sql = "SELECT COUNT(*) FROM gravacao_call WHERE id_usuario = ? AND status_venda = 'FECHADO'";
 
-        try (Connection conn = DatabaseConfig.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setLong(1, idUsuario);
             ResultSet rs = stmt.executeQuery();
@@ -307,10 +446,35 @@ public class GravacaoCallRepository {
         }
     }
 
+    /**
+     * Total de gravações e vendas fechadas do cliente em uma única consulta
+     * (atendida pelo índice em (id_cliente, status_venda)).
+     */
+    public EstatisticasClienteDTO getEstatisticasByCliente(Long idCliente) {
+        String sql = "SELECT COUNT(*) AS total_gravacoes, " +
+                "COUNT(*) FILTER (WHERE status_venda = 'FECHADO') AS vendas_fechadas " +
+                "FROM gravacao_call WHERE id_cliente = ?";
+
+        try (Connection conn = DatabaseConfig.getReadConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setLong(1, idCliente);
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                return new EstatisticasClienteDTO(idCliente, rs.getLong("total_gravacoes"), rs.getLong("vendas_fechadas"));
+            }
+            return new EstatisticasClienteDTO(idCliente, 0L, 0L);
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao buscar estatísticas do cliente: " + e.getMessage(), e);
+        }
+    }
+
     public long countVendasFechadasByCliente(Long idCliente) {
         String sql = "SELECT COUNT(*) FROM gravacao_call WHERE id_cliente = ? AND status_venda = 'FECHADO'";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setLong(1, idCliente);
@@ -328,10 +492,13 @@ public class GravacaoCallRepository {
 
     public void deleteById(Long id) {
         TransactionManager.executeTransactionVoid(conn -> {
-            String sql = "DELETE FROM gravacao_call WHERE id = ?";
+            String sql = "DELETE FROM gravacao_call WHERE id = ? RETURNING *";
             try (PreparedStatement stmt = conn.prepareStatement(sql)) {
                 stmt.setLong(1, id);
-                stmt.executeUpdate();
+                ResultSet rs = stmt.executeQuery();
+                if (rs.next()) {
+                    WriteEventBus.publishDelete(GravacaoCall.class, id, mapRow(rs));
+                }
             } catch (SQLException e) {
                 throw new RuntimeException("Erro ao excluir gravação: " + e.getMessage(), e);
             }
@@ -341,7 +508,7 @@ public class GravacaoCallRepository {
     public boolean existsById(Long id) {
         String sql = "SELECT EXISTS(SELECT 1 FROM gravacao_call WHERE id = ?)";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setLong(1, id);
@@ -360,7 +527,7 @@ public class GravacaoCallRepository {
     public long count() {
         String sql = "SELECT COUNT(*) FROM gravacao_call";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
 
@@ -375,9 +542,9 @@ public class GravacaoCallRepository {
     }
 
     public long countVendasFechadas() {
-        String sql = "SELECT COUNT(*) FROM gravacao_call WHERE status_venda = 'FECHADA'";
+        String sql = "SELECT COUNT(*) FROM gravacao_call WHERE status_venda = 'FECHADO'";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
 
@@ -396,7 +563,7 @@ public class GravacaoCallRepository {
                 "INNER JOIN usuario u ON g.id_usuario = u.id " +
                 "WHERE u.id_empresa = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setLong(1, idEmpresa);
@@ -415,9 +582,9 @@ public class GravacaoCallRepository {
     public long countVendasFechadasByEmpresa(Long idEmpresa) {
         String sql = "SELECT COUNT(*) FROM gravacao_call g " +
                 "INNER JOIN usuario u ON g.id_usuario = u.id " +
-                "WHERE u.id_empresa = ? AND g.status_venda = 'FECHADA'";
+                "WHERE u.id_empresa = ? AND g.status_venda = 'FECHADO'";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setLong(1, idEmpresa);
@@ -434,10 +601,13 @@ public class GravacaoCallRepository {
     }
 
     public long countByUsuario(Long idUsuario) {
+        return TransactionManager.executeWithConnection(conn -> countByUsuarioWithConnection(conn, idUsuario));
+    }
+
+    public long countByUsuarioWithConnection(Connection conn, Long idUsuario) {
         String sql = "SELECT COUNT(*) FROM gravacao_call WHERE id_usuario = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setLong(1, idUsuario);
             ResultSet rs = stmt.executeQuery();
@@ -453,10 +623,13 @@ public class GravacaoCallRepository {
     }
 
     public long countByCliente(Long idCliente) {
+        return TransactionManager.executeWithConnection(conn -> countByClienteWithConnection(conn, idCliente));
+    }
+
+    public long countByClienteWithConnection(Connection conn, Long idCliente) {
         String sql = "SELECT COUNT(*) FROM gravacao_call WHERE id_cliente = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setLong(1, idCliente);
             ResultSet rs = stmt.executeQuery();
@@ -472,6 +645,18 @@ public class GravacaoCallRepository {
     }
 
     private GravacaoCall mapResultSetToGravacaoCall(ResultSet rs) throws SQLException {
+        GravacaoCall gravacao = mapRow(rs);
+
+        Long gravacaoId = gravacao.getId();
+        if (gravacaoId != null) {
+            FeedbackIARepository feedbackRepo = new FeedbackIARepository();
+            feedbackRepo.findByGravacaoId(gravacaoId).ifPresent(gravacao::setFeedback);
+        }
+
+        return gravacao;
+    }
+
+    private GravacaoCall mapRow(ResultSet rs) throws SQLException {
         GravacaoCall gravacao = new GravacaoCall();
         gravacao.setId(rs.getLong("id"));
         gravacao.setIdUsuario(rs.getLong("id_usuario"));
@@ -490,13 +675,6 @@ public class GravacaoCallRepository {
         gravacao.setDataGravacao(rs.getTimestamp("data_gravacao").toLocalDateTime());
         gravacao.setCriadoEm(rs.getTimestamp("criado_em").toLocalDateTime());
         gravacao.setAtualizadoEm(rs.getTimestamp("atualizado_em").toLocalDateTime());
-
-        Long gravacaoId = gravacao.getId();
-        if (gravacaoId != null) {
-            FeedbackIARepository feedbackRepo = new FeedbackIARepository();
-            feedbackRepo.findByGravacaoId(gravacaoId).ifPresent(gravacao::setFeedback);
-        }
-
         return gravacao;
     }
 }
@@ -0,0 +1,68 @@
+package com.fiap.esoa.salesmind.repository;
+
+import com.fiap.esoa.salesmind.config.DatabaseConfig;
+import com.fiap.esoa.salesmind.dto.SeriePontoDTO;
+import com.fiap.esoa.salesmind.enums.Granularidade;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Leitura das séries em rollup_gravacoes.
+ * Os buckets são mantidos por triggers no banco (migração V5); aqui só há leitura,
+ * com custo proporcional ao número de buckets retornados.
+ */
+public class RollupRepository {
+
+    public static final String ESCOPO_EMPRESA = "EMPRESA";
+    public static final String ESCOPO_USUARIO = "USUARIO";
+    public static final String ESCOPO_CLIENTE = "CLIENTE";
+
+    /**
+     * @param escopo ESCOPO_EMPRESA, ESCOPO_USUARIO ou ESCOPO_CLIENTE
+     * @param idEscopo ID da empresa, do usuário ou do cliente
+     * @param idEmpresa Empresa dona dos dados (restringe o acesso entre empresas)
+     * @return Buckets existentes no intervalo (dias sem gravações processadas não aparecem)
+     */
+    public List<SeriePontoDTO> findSerie(String escopo, Long idEscopo, Long idEmpresa,
+            Granularidade granularidade, LocalDate inicio, LocalDate fim) {
+        String sql = "SELECT inicio, total_gravacoes, vendas_fechadas, " +
+                "CASE WHEN qtd_sentiment > 0 THEN ROUND(soma_sentiment::NUMERIC / qtd_sentiment, 2) END AS media_sentiment, " +
+                "CASE WHEN qtd_probabilidade > 0 THEN ROUND(soma_probabilidade::NUMERIC / qtd_probabilidade, 2) END AS media_probabilidade " +
+                "FROM rollup_gravacoes " +
+                "WHERE escopo = ? AND id_escopo = ? AND granularidade = ? AND inicio BETWEEN ? AND ? " +
+                "AND id_empresa = ? AND total_gravacoes > 0 " +
+                "ORDER BY inicio";
+        List<SeriePontoDTO> serie = new ArrayList<>();
+
+        try (Connection conn = DatabaseConfig.getReadConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, escopo);
+            stmt.setLong(2, idEscopo);
+            stmt.setString(3, granularidade.name());
+            stmt.setDate(4, java.sql.Date.valueOf(inicio));
+            stmt.setDate(5, java.sql.Date.valueOf(fim));
+            stmt.setLong(6, idEmpresa);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                serie.add(new SeriePontoDTO(
+                        rs.getDate("inicio").toLocalDate(),
+                        rs.getLong("total_gravacoes"),
+                        rs.getLong("vendas_fechadas"),
+                        getNullableDouble(rs, "media_sentiment"),
+                        getNullableDouble(rs, "media_probabilidade")));
+            }
+            return serie;
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao buscar série de gravações: " + e.getMessage(), e);
+        }
+    }
+
+    private Double getNullableDouble(ResultSet rs, String column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? null : value;
+    }
+}
@@ -1,9 +1,11 @@
 package com.fiap.esoa.salesmind.repository;
 
 import com.fiap.esoa.salesmind.config.DatabaseConfig;
+import com.fiap.esoa.salesmind.dto.PerformanceVendedorDTO;
 import com.fiap.esoa.salesmind.enums.Funcao;
 import com.fiap.esoa.salesmind.model.Usuario;
 import com.fiap.esoa.salesmind.util.TransactionManager;
+import com.fiap.esoa.salesmind.util.WriteEventBus;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -42,6 +44,7 @@ public class UsuarioRepository {
                     usuario.setId(rs.getLong("id"));
                 }
 
+                WriteEventBus.publishSave(Usuario.class, usuario.getId(), usuario);
                 return usuario;
 
             } catch (SQLException e) {
@@ -68,6 +71,7 @@ public class UsuarioRepository {
                 stmt.setLong(7, usuario.getId());
 
                 stmt.executeUpdate();
+                WriteEventBus.publishSave(Usuario.class, usuario.getId(), usuario);
                 return usuario;
 
             } catch (SQLException e) {
@@ -76,11 +80,29 @@ public class UsuarioRepository {
         });
     }
 
+    public void updateSenha(Long id, String senhaHash) {
+        TransactionManager.executeTransactionVoid(conn -> {
+            String sql = "UPDATE usuario SET senha = ?, atualizado_em = ? WHERE id = ?";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, senhaHash);
+                stmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+                stmt.setLong(3, id);
+                stmt.executeUpdate();
+                WriteEventBus.publishSave(Usuario.class, id, null);
+            } catch (SQLException e) {
+                throw new RuntimeException("Erro ao atualizar senha do usuário: " + e.getMessage(), e);
+            }
+        });
+    }
+
     public Optional<Usuario> findById(Long id) {
+        return TransactionManager.executeWithConnection(conn -> findByIdWithConnection(conn, id));
+    }
+
+    public Optional<Usuario> findByIdWithConnection(Connection conn, Long id) {
         String sql = "SELECT * FROM usuario WHERE id = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setLong(1, id);
             ResultSet rs = stmt.executeQuery();
@@ -95,11 +117,61 @@ public class UsuarioRepository {
         }
     }
 
+    /**
+     * Busca o usuário apenas se pertencer à empresa (tenancy no WHERE).
+     * Para outra empresa o resultado é vazio, sem trazer a linha.
+     */
+    public Optional<Usuario> findByIdAndEmpresa(Long id, Long idEmpresa) {
+        return TransactionManager.executeWithConnection(conn -> findByIdAndEmpresaWithConnection(conn, id, idEmpresa));
+    }
+
+    public Optional<Usuario> findByIdAndEmpresaWithConnection(Connection conn, Long id, Long idEmpresa) {
+        String sql = "SELECT * FROM usuario WHERE id = ? AND id_empresa = ?";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setLong(1, id);
+            stmt.setLong(2, idEmpresa);
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                return Optional.of(mapResultSetToUsuario(rs));
+            }
+            return Optional.empty();
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao buscar usuário por id e empresa: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Checagem de posse sem trazer a linha (busca pela chave primária).
+     */
+    public boolean existsByIdAndEmpresa(Long id, Long idEmpresa) {
+        String sql = "SELECT EXISTS(SELECT 1 FROM usuario WHERE id = ? AND id_empresa = ?)";
+
+        try (Connection conn = DatabaseConfig.getReadConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setLong(1, id);
+            stmt.setLong(2, idEmpresa);
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                return rs.getBoolean(1);
+            }
+            return false;
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao verificar usuário da empresa: " + e.getMessage(), e);
+        }
+    }
+
     public List<Usuario> findAll() {
         String sql = "SELECT * FROM usuario ORDER BY id";
         List<Usuario> usuarios = new ArrayList<>();
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
 
@@ -117,7 +189,7 @@ public class UsuarioRepository {
         String sql = "SELECT * FROM usuario WHERE id_empresa = ? ORDER BY id";
         List<Usuario> usuarios = new ArrayList<>();
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setLong(1, idEmpresa);
@@ -136,7 +208,7 @@ public class UsuarioRepository {
     public Optional<Usuario> findByEmail(String email) {
         String sql = "SELECT * FROM usuario WHERE email = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, email);
@@ -156,7 +228,7 @@ public class UsuarioRepository {
         String sql = "SELECT * FROM usuario WHERE funcao = ? ORDER BY id";
         List<Usuario> usuarios = new ArrayList<>();
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, funcao.name());
@@ -174,10 +246,13 @@ public class UsuarioRepository {
 
     public void deleteById(Long id) {
         TransactionManager.executeTransactionVoid(conn -> {
-            String sql = "DELETE FROM usuario WHERE id = ?";
+            String sql = "DELETE FROM usuario WHERE id = ? RETURNING *";
             try (PreparedStatement stmt = conn.prepareStatement(sql)) {
                 stmt.setLong(1, id);
-                stmt.executeUpdate();
+                ResultSet rs = stmt.executeQuery();
+                if (rs.next()) {
+                    WriteEventBus.publishDelete(Usuario.class, id, mapResultSetToUsuario(rs));
+                }
             } catch (SQLException e) {
                 throw new RuntimeException("Erro ao excluir usuário: " + e.getMessage(), e);
             }
@@ -187,7 +262,7 @@ public class UsuarioRepository {
     public boolean existsById(Long id) {
         String sql = "SELECT EXISTS(SELECT 1 FROM usuario WHERE id = ?)";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setLong(1, id);
@@ -206,7 +281,7 @@ public class UsuarioRepository {
     public long count() {
         String sql = "SELECT COUNT(*) FROM usuario";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
 
@@ -223,7 +298,7 @@ public class UsuarioRepository {
     public long countByEmpresa(Long idEmpresa) {
         String sql = "SELECT COUNT(*) FROM usuario WHERE id_empresa = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getReadConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setLong(1, idEmpresa);
@@ -239,6 +314,60 @@ public class UsuarioRepository {
         }
     }
 
+    /**
+     * Ranking de vendedores da empresa a partir do snapshot materializado
+     * (pode estar defasado até o próximo refresh).
+     */
+    public List<PerformanceVendedorDTO> findPerformanceByEmpresa(Long idEmpresa) {
+        String sql = "SELECT id_usuario, nome_usuario, email, total_gravacoes, vendas_fechadas, " +
+                "taxa_conversao, media_sentiment, media_qualidade " +
+                "FROM mv_performance_vendedores WHERE id_empresa = ? " +
+                "ORDER BY taxa_conversao DESC, vendas_fechadas DESC";
+        List<PerformanceVendedorDTO> ranking = new ArrayList<>();
+
+        try (Connection conn = DatabaseConfig.getReadConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setLong(1, idEmpresa);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                ranking.add(new PerformanceVendedorDTO(
+                        rs.getLong("id_usuario"),
+                        rs.getString("nome_usuario"),
+                        rs.getString("email"),
+                        rs.getLong("total_gravacoes"),
+                        rs.getLong("vendas_fechadas"),
+                        rs.getDouble("taxa_conversao"),
+                        getNullableDouble(rs, "media_sentiment"),
+                        getNullableDouble(rs, "media_qualidade")));
+            }
+            return ranking;
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao buscar performance de vendedores: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Recalcula mv_performance_vendedores sem bloquear leituras concorrentes.
+     */
+    public void refreshPerformanceVendedores() {
+        String sql = "REFRESH MATERIALIZED VIEW CONCURRENTLY mv_performance_vendedores";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+                Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao atualizar performance de vendedores: " + e.getMessage(), e);
+        }
+    }
+
+    private Double getNullableDouble(ResultSet rs, String column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? null : value;
+    }
+
     private Usuario mapResultSetToUsuario(ResultSet rs) throws SQLException {
         Usuario usuario = new Usuario();
         usuario.setId(rs.getLong("id"));
@@ -1,15 +1,25 @@
 package com.fiap.esoa.salesmind.service;
 
+import com.fiap.esoa.salesmind.config.EnvConfig;
+import com.fiap.esoa.salesmind.dto.EntidadeComContagemDTO;
 import com.fiap.esoa.salesmind.model.Cliente;
+import com.fiap.esoa.salesmind.model.Empresa;
 import com.fiap.esoa.salesmind.repository.ClienteRepository;
 import com.fiap.esoa.salesmind.repository.GravacaoCallRepository;
+import com.fiap.esoa.salesmind.util.EntityCache;
+import com.fiap.esoa.salesmind.util.TransactionManager;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public class ClienteService {
 
     private final ClienteRepository repository;
     private final GravacaoCallRepository gravacaoRepository;
+    private final int copyThreshold = EnvConfig.getInt("CLIENTE_BULK_COPY_THRESHOLD", 1000);
+    private final EntityCache<Cliente> cache = EntityCache.create("cliente", Cliente.class, Cliente::new,
+            Empresa.class);
 
     public ClienteService(ClienteRepository repository, GravacaoCallRepository gravacaoRepository) {
         this.repository = repository;
@@ -41,8 +51,60 @@ public class ClienteService {
         return repository.save(cliente);
     }
 
+    /**
+     * Importa clientes em lote com as mesmas regras de unicidade do cadastro individual,
+     * verificadas em uma única consulta. Lotes pequenos usam INSERT em batch;
+     * a partir de CLIENTE_BULK_COPY_THRESHOLD usa COPY.
+     *
+     * @return Quantidade de clientes inseridos
+     * @throws IllegalArgumentException se houver CPF/CNPJ, email ou telefone repetido
+     */
+    public long createAll(List<Cliente> clientes) {
+        Set<String> cpfCnpjs = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        Set<String> telefones = new HashSet<>();
+
+        for (Cliente cliente : clientes) {
+            addUnico(cpfCnpjs, cliente.getCpfCnpj(), "CPF/CNPJ");
+            addUnico(emails, cliente.getEmail(), "Email");
+            addUnico(telefones, cliente.getTelefone(), "Telefone");
+        }
+
+        Set<String> existentes = repository.findIdentificadoresExistentes(cpfCnpjs, emails, telefones);
+        if (!existentes.isEmpty()) {
+            throw new IllegalArgumentException("Já cadastrado(s): " + String.join(", ", existentes));
+        }
+
+        if (clientes.size() >= copyThreshold) {
+            return repository.copyAll(clientes);
+        }
+        return repository.saveAll(clientes).size();
+    }
+
+    private void addUnico(Set<String> valores, String valor, String campo) {
+        if (valor != null && !valor.trim().isEmpty() && !valores.add(valor)) {
+            throw new IllegalArgumentException(campo + " repetido no lote: " + valor);
+        }
+    }
+
     public Optional<Cliente> findById(Long id) {
-        return repository.findById(id);
+        return cache.findById(id, repository::findById);
+    }
+
+    /**
+     * @return Cliente se pertencer à empresa; vazio se não existir ou for de outra empresa
+     */
+    public Optional<Cliente> findByIdAndEmpresa(Long id, Long idEmpresa) {
+        return cache.findScoped(id, cliente -> cliente.getIdEmpresa().equals(idEmpresa),
+                key -> repository.findByIdAndEmpresa(key, idEmpresa));
+    }
+
+    /**
+     * Checagem de posse para quem só precisa saber se o cliente é da empresa.
+     */
+    public boolean existsByIdAndEmpresa(Long id, Long idEmpresa) {
+        return cache.existsScoped(id, cliente -> cliente.getIdEmpresa().equals(idEmpresa),
+                key -> repository.existsByIdAndEmpresa(key, idEmpresa));
     }
     
     public List<Cliente> findByEmpresa(Long idEmpresa) {
@@ -53,11 +115,23 @@ public class ClienteService {
         return repository.findAll();
     }
 
-    public long countGravacoesByCliente(Long idCliente) {
-        return gravacaoRepository.countByCliente(idCliente);
+    /**
+     * Busca o cliente da empresa e conta suas gravações na mesma conexão.
+     */
+    public Optional<EntidadeComContagemDTO<Cliente>> findByIdComGravacoes(Long id, Long idEmpresa) {
+        return TransactionManager.executeWithConnection(conn -> repository.findByIdAndEmpresaWithConnection(conn, id, idEmpresa)
+                .map(cliente -> new EntidadeComContagemDTO<>(cliente,
+                        gravacaoRepository.countByClienteWithConnection(conn, id))));
     }
-    
+
     public void deleteById(Long id) {
         repository.deleteById(id);
     }
+
+    /**
+     * Cancela as inscrições do cache no WriteEventBus (servidor parado).
+     */
+    public void shutdown() {
+        cache.close();
+    }
 }
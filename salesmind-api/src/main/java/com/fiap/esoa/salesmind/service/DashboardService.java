@@ -1,20 +1,42 @@
 package com.fiap.esoa.salesmind.service;
 
+import com.fiap.esoa.salesmind.config.EnvConfig;
+import com.fiap.esoa.salesmind.config.ReadYourWrites;
+import com.fiap.esoa.salesmind.dto.EstatisticasClienteDTO;
 import com.fiap.esoa.salesmind.dto.EstatisticasEmpresaDTO;
+import com.fiap.esoa.salesmind.dto.PerformanceVendedorDTO;
+import com.fiap.esoa.salesmind.dto.SeriePontoDTO;
+import com.fiap.esoa.salesmind.enums.Granularidade;
 import com.fiap.esoa.salesmind.repository.EmpresaRepository;
 import com.fiap.esoa.salesmind.repository.GravacaoCallRepository;
+import com.fiap.esoa.salesmind.repository.RollupRepository;
+import com.fiap.esoa.salesmind.repository.UsuarioRepository;
+import com.fiap.esoa.salesmind.util.CacheManager;
+import java.time.Duration;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class DashboardService {
 
     private final EmpresaRepository empresaRepository;
     private final GravacaoCallRepository gravacaoRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final RollupRepository rollupRepository;
+    private final CacheManager<Long, EstatisticasClienteDTO> clienteCache = CacheManager.create("dashboardCliente",
+            Duration.ofSeconds(EnvConfig.getLong("DASHBOARD_CLIENTE_CACHE_TTL_S", 600)));
 
     public DashboardService(EmpresaRepository empresaRepository,
-            GravacaoCallRepository gravacaoRepository) {
+            GravacaoCallRepository gravacaoRepository,
+            UsuarioRepository usuarioRepository,
+            RollupRepository rollupRepository) {
         this.empresaRepository = empresaRepository;
         this.gravacaoRepository = gravacaoRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.rollupRepository = rollupRepository;
     }
 
     public Map<String, Object> getEmpresaDashboard(Long idEmpresa) {
@@ -35,10 +57,58 @@ public class DashboardService {
         return dashboard;
     }
 
-    public Map<String, Object> getClienteDashboard(Long idCliente) {
-        Map<String, Object> dashboard = new HashMap<>();
-        dashboard.put("totalGravacoes", gravacaoRepository.findByCliente(idCliente).size());
-        dashboard.put("vendasFechadas", gravacaoRepository.countVendasFechadasByCliente(idCliente));
-        return dashboard;
+    public List<PerformanceVendedorDTO> getPerformanceVendedores(Long idEmpresa) {
+        return usuarioRepository.findPerformanceByEmpresa(idEmpresa);
+    }
+
+    /**
+     * Série temporal da empresa, ou de um vendedor/cliente dela quando informado.
+     * Em granularidade semanal o início é alinhado à segunda-feira da semana de {@code inicio}.
+     */
+    public List<SeriePontoDTO> getSerie(Long idEmpresa, Long idUsuario, Long idCliente,
+            Granularidade granularidade, LocalDate inicio, LocalDate fim) {
+        if (granularidade == Granularidade.SEMANA) {
+            inicio = inicio.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+
+        if (idUsuario != null) {
+            return rollupRepository.findSerie(RollupRepository.ESCOPO_USUARIO, idUsuario, idEmpresa,
+                    granularidade, inicio, fim);
+        }
+        if (idCliente != null) {
+            return rollupRepository.findSerie(RollupRepository.ESCOPO_CLIENTE, idCliente, idEmpresa,
+                    granularidade, inicio, fim);
+        }
+        return rollupRepository.findSerie(RollupRepository.ESCOPO_EMPRESA, idEmpresa, idEmpresa,
+                granularidade, inicio, fim);
+    }
+
+    public EstatisticasClienteDTO getClienteDashboard(Long idCliente) {
+        EstatisticasClienteDTO cached = clienteCache.get(idCliente);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Lida no primário: vinda da réplica, uma contagem anterior à invalidação ficaria em cache até o TTL
+        EstatisticasClienteDTO stats = ReadYourWrites.onPrimary(() -> gravacaoRepository.getEstatisticasByCliente(idCliente));
+        clienteCache.put(idCliente, stats);
+        return stats;
+    }
+
+    /**
+     * Descarta as contagens em cache do cliente após alterações em suas gravações.
+     */
+    public void invalidateClienteDashboard(Long idCliente) {
+        if (idCliente != null) {
+            clienteCache.invalidate(idCliente);
+        }
+    }
+
+    /**
+     * Descarta todas as contagens em cache (ex.: exclusão de empresa, que remove
+     * clientes e gravações em cascata sem eventos individuais).
+     */
+    public void invalidateAllClienteDashboards() {
+        clienteCache.clear();
     }
 }
@@ -2,25 +2,17 @@ package com.fiap.esoa.salesmind.service;
 
 import com.fiap.esoa.salesmind.model.Empresa;
 import com.fiap.esoa.salesmind.repository.EmpresaRepository;
-import com.fiap.esoa.salesmind.repository.UsuarioRepository;
-import com.fiap.esoa.salesmind.repository.ClienteRepository;
-import com.fiap.esoa.salesmind.repository.GravacaoCallRepository;
+import com.fiap.esoa.salesmind.util.EntityCache;
 import java.util.List;
 import java.util.Optional;
 
 public class EmpresaService {
 
     private final EmpresaRepository repository;
-    private final UsuarioRepository usuarioRepository;
-    private final ClienteRepository clienteRepository;
-    private final GravacaoCallRepository gravacaoRepository;
+    private final EntityCache<Empresa> cache = EntityCache.create("empresa", Empresa.class, Empresa::new);
 
-    public EmpresaService(EmpresaRepository repository, UsuarioRepository usuarioRepository, 
-                         ClienteRepository clienteRepository, GravacaoCallRepository gravacaoRepository) {
+    public EmpresaService(EmpresaRepository repository) {
         this.repository = repository;
-        this.usuarioRepository = usuarioRepository;
-        this.clienteRepository = clienteRepository;
-        this.gravacaoRepository = gravacaoRepository;
     }
 
     public Empresa create(Empresa empresa) {
@@ -28,7 +20,7 @@ public class EmpresaService {
     }
 
     public Optional<Empresa> findById(Long id) {
-        return repository.findById(id);
+        return cache.findById(id, repository::findById);
     }
 
     public Optional<Empresa> findByCnpj(String cnpj) {
@@ -40,14 +32,17 @@ public class EmpresaService {
     }
 
     public boolean hasDependencies(Long empresaId) {
-        long usuarios = usuarioRepository.countByEmpresa(empresaId);
-        long clientes = clienteRepository.countByEmpresa(empresaId);
-        long gravacoes = gravacaoRepository.countByEmpresa(empresaId);
-        
-        return usuarios > 0 || clientes > 0 || gravacoes > 0;
+        return repository.findDependencias(empresaId).possuiAlguma();
     }
 
     public void delete(Long id) {
         repository.deleteById(id);
     }
+
+    /**
+     * Cancela as inscrições do cache no WriteEventBus (servidor parado).
+     */
+    public void shutdown() {
+        cache.close();
+    }
 }
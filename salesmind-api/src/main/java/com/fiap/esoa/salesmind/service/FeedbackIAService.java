@@ -27,6 +27,13 @@ public class FeedbackIAService {
         return repository.findById(id);
     }
 
+    /**
+     * @return Feedback se a gravação for do vendedor; vazio caso contrário
+     */
+    public Optional<FeedbackIA> findByIdAndUsuario(Long id, Long idUsuario) {
+        return repository.findByIdAndUsuario(id, idUsuario);
+    }
+
     public List<FeedbackIA> findAll() {
         return repository.findAll();
     }
@@ -1,36 +1,57 @@
 package com.fiap.esoa.salesmind.service;
 
+import com.fiap.esoa.salesmind.config.EnvConfig;
+import com.fiap.esoa.salesmind.dto.ProcessamentoConcluidoDTO;
 import com.fiap.esoa.salesmind.exception.NotFoundException;
+import com.fiap.esoa.salesmind.model.Cliente;
+import com.fiap.esoa.salesmind.model.Empresa;
 import com.fiap.esoa.salesmind.model.FeedbackIA;
 import com.fiap.esoa.salesmind.model.GravacaoCall;
 import com.fiap.esoa.salesmind.model.Usuario;
-import com.fiap.esoa.salesmind.enums.StatusProcessamento;
 import com.fiap.esoa.salesmind.enums.StatusVenda;
 import com.fiap.esoa.salesmind.repository.GravacaoCallRepository;
-import com.fiap.esoa.salesmind.repository.UsuarioRepository;
+import com.fiap.esoa.salesmind.util.TieredEntityCache;
 import com.fiap.esoa.salesmind.util.TransactionManager;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 public class GravacaoCallService {
 
     private final GravacaoCallRepository repository;
-    private final UsuarioRepository usuarioRepository;
     private final FeedbackIAService feedbackService;
     private final GeminiService geminiService;
+    private final List<Consumer<GravacaoCall>> processingListeners = new CopyOnWriteArrayList<>();
+
+    // Transcrição e resumo ficam fora do heap; desligado enquanto GRAVACAO_CACHE_OFFHEAP_MB = 0
+    private final TieredEntityCache<GravacaoCall> cache = TieredEntityCache.create("gravacao",
+            Duration.ofMinutes(EnvConfig.getLong("GRAVACAO_CACHE_TTL_MIN", 60)),
+            EnvConfig.getLong("GRAVACAO_CACHE_MAX_ENTRIES", 100_000),
+            EnvConfig.getLong("GRAVACAO_CACHE_OFFHEAP_MB", 0) << 20,
+            GravacaoCall.class, GravacaoCall::new, new TextosSeparador(),
+            Usuario.class, Cliente.class, Empresa.class);
 
     public GravacaoCallService(GravacaoCallRepository repository,
-            UsuarioRepository usuarioRepository,
             FeedbackIAService feedbackService,
             GeminiService geminiService) {
         this.repository = repository;
-        this.usuarioRepository = usuarioRepository;
         this.feedbackService = feedbackService;
         this.geminiService = geminiService;
     }
 
+    /**
+     * Registra um listener chamado após o commit de cada processamento concluído com sucesso.
+     */
+    public void addProcessingListener(Consumer<GravacaoCall> listener) {
+        processingListeners.add(listener);
+    }
+
     public GravacaoCall save(GravacaoCall gravacao) {
         return repository.save(gravacao);
     }
@@ -38,6 +59,77 @@ public class GravacaoCallService {
     public Optional<GravacaoCall> findById(Long id) {
         return repository.findById(id);
     }
+
+    /**
+     * @return Gravação se for do vendedor; vazio se não existir ou for de outro vendedor
+     */
+    public Optional<GravacaoCall> findByIdAndUsuario(Long id, Long idUsuario) {
+        return cache.findScoped(id, gravacao -> gravacao.getIdUsuario().equals(idUsuario),
+                key -> repository.findByIdAndUsuario(key, idUsuario));
+    }
+
+    public boolean existsByIdAndUsuario(Long id, Long idUsuario) {
+        return cache.existsScoped(id, gravacao -> gravacao.getIdUsuario().equals(idUsuario),
+                key -> repository.existsByIdAndUsuario(key, idUsuario));
+    }
+
+    /**
+     * Remove a gravação do cache (ex.: o feedback embutido nela mudou).
+     */
+    public void invalidateCache(Long id) {
+        cache.invalidate(id);
+    }
+
+    /**
+     * Transcrição e resumo em UTF-8, cada um precedido do tamanho (-1 para null).
+     */
+    static final class TextosSeparador implements TieredEntityCache.Separador<GravacaoCall> {
+
+        @Override
+        public byte[] separar(GravacaoCall gravacao) {
+            byte[] transcricao = utf8(gravacao.getTranscricao());
+            byte[] resumo = utf8(gravacao.getResumoIA());
+            gravacao.setTranscricao(null);
+            gravacao.setResumoIA(null);
+
+            ByteBuffer buffer = ByteBuffer.allocate(2 * Integer.BYTES + tamanho(transcricao) + tamanho(resumo));
+            escrever(buffer, transcricao);
+            escrever(buffer, resumo);
+            return buffer.array();
+        }
+
+        @Override
+        public void restaurar(GravacaoCall gravacao, ByteBuffer dados) {
+            gravacao.setTranscricao(ler(dados));
+            gravacao.setResumoIA(ler(dados));
+        }
+
+        private static byte[] utf8(String texto) {
+            return texto != null ? texto.getBytes(StandardCharsets.UTF_8) : null;
+        }
+
+        private static int tamanho(byte[] bytes) {
+            return bytes != null ? bytes.length : 0;
+        }
+
+        private static void escrever(ByteBuffer buffer, byte[] bytes) {
+            buffer.putInt(bytes != null ? bytes.length : -1);
+            if (bytes != null) {
+                buffer.put(bytes);
+            }
+        }
+
+        private static String ler(ByteBuffer dados) {
+            int length = dados.getInt();
+            if (length < 0) {
+                return null;
+            }
+            String texto = new String(dados.array(), dados.arrayOffset() + dados.position(), length,
+                    StandardCharsets.UTF_8);
+            dados.position(dados.position() + length);
+            return texto;
+        }
+    }
     
     public List<GravacaoCall> findByUsuario(Long idUsuario) {
         return repository.findByUsuario(idUsuario);
@@ -50,34 +142,28 @@ public class GravacaoCallService {
     public CompletableFuture<Void> processAudioAsync(Long gravacaoId) {
         return CompletableFuture.runAsync(() -> {
             try {
-                GravacaoCall gravacao = repository.findById(gravacaoId)
+                GravacaoCall gravacao = repository.markProcessando(gravacaoId)
                         .orElseThrow(() -> new NotFoundException("Gravacao not found: " + gravacaoId));
 
-                gravacao.setStatusProcessamento(StatusProcessamento.PROCESSANDO);
-                repository.save(gravacao);
-
                 String transcription = geminiService.transcribeAudio(gravacao.getAudioUrl());
                 GeminiService.GeminiAnalysisResult analysis = geminiService.analyzeCall(transcription);
 
                 final String finalTranscription = transcription;
                 final GeminiService.GeminiAnalysisResult finalAnalysis = analysis;
                 final Long finalGravacaoId = gravacaoId;
+                final StatusVenda statusVenda = statusVendaPorProbabilidade(analysis.probabilidadeFechamento);
 
-                TransactionManager.executeTransactionVoid(conn -> {
+                // Uma conexão, duas instruções: UPDATE ... RETURNING (com a empresa) e INSERT do feedback
+                GravacaoCall processada = TransactionManager.executeTransaction(conn -> {
                     try {
-                        GravacaoCall txGravacao = repository.findById(finalGravacaoId)
+                        ProcessamentoConcluidoDTO concluido = repository.concluirProcessamentoWithConnection(
+                                conn, finalGravacaoId, finalTranscription, finalAnalysis.resumo, statusVenda)
                                 .orElseThrow(() -> new RuntimeException("Gravacao not found in transaction"));
-
-                        Usuario usuario = usuarioRepository.findById(txGravacao.getIdUsuario())
-                                .orElseThrow(() -> new RuntimeException("Usuario not found"));
-                        Long empresaId = usuario.getIdEmpresa();
-
-                        txGravacao.setTranscricao(finalTranscription);
-                        repository.saveWithConnection(conn, txGravacao);
+                        GravacaoCall txGravacao = concluido.gravacao();
 
                         FeedbackIA feedback = new FeedbackIA();
                         feedback.setIdGravacao(finalGravacaoId);
-                        feedback.setIdEmpresa(empresaId);
+                        feedback.setIdEmpresa(concluido.idEmpresa());
                         feedback.setPontosFortes(Arrays.asList(finalAnalysis.pontosFortes));
                         feedback.setPontosFracos(Arrays.asList(finalAnalysis.pontosFracos));
                         feedback.setSugestoes(Arrays.asList(finalAnalysis.sugestoes));
@@ -91,38 +177,49 @@ public class GravacaoCallService {
                         feedback.setMomentosChave(Arrays.asList(finalAnalysis.momentosChave));
 
                         FeedbackIA savedFeedback = feedbackService.saveWithConnection(conn, feedback);
-
-                        txGravacao.setResumoIA(finalAnalysis.resumo);
                         txGravacao.setFeedback(savedFeedback);
-                        txGravacao.setStatusProcessamento(StatusProcessamento.CONCLUIDO);
-
-                        if (finalAnalysis.probabilidadeFechamento >= 70) {
-                            txGravacao.setStatusVenda(StatusVenda.QUALIFICADO);
-                        } else if (finalAnalysis.probabilidadeFechamento >= 40) {
-                            txGravacao.setStatusVenda(StatusVenda.PROPOSTA_ENVIADA);
-                        } else {
-                            txGravacao.setStatusVenda(StatusVenda.PENDENTE);
-                        }
-
-                        repository.saveWithConnection(conn, txGravacao);
+                        return txGravacao;
 
                     } catch (Exception txError) {
                         throw new RuntimeException("Falha na transação durante operações de banco", txError);
                     }
                 });
 
+                notifyListeners(processingListeners, processada);
+
             } catch (Exception e) {
                 try {
-                    GravacaoCall errorGravacao = repository.findById(gravacaoId).orElse(null);
-                    if (errorGravacao != null) {
-                        errorGravacao.setStatusProcessamento(StatusProcessamento.ERRO);
-                        errorGravacao.setErroProcessamento(e.getMessage());
-                        repository.save(errorGravacao);
-                    }
+                    repository.markErro(gravacaoId, e.getMessage());
                 } catch (Exception saveError) {
                     System.err.println("Falha ao salvar status de erro: " + saveError.getMessage());
                 }
             }
         });
     }
+
+    private StatusVenda statusVendaPorProbabilidade(double probabilidadeFechamento) {
+        if (probabilidadeFechamento >= 70) {
+            return StatusVenda.QUALIFICADO;
+        } else if (probabilidadeFechamento >= 40) {
+            return StatusVenda.PROPOSTA_ENVIADA;
+        }
+        return StatusVenda.PENDENTE;
+    }
+
+    private void notifyListeners(List<Consumer<GravacaoCall>> listeners, GravacaoCall gravacao) {
+        for (Consumer<GravacaoCall> listener : listeners) {
+            try {
+                listener.accept(gravacao);
+            } catch (Exception e) {
+                System.err.println("Falha em listener de gravação: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Cancela as inscrições do cache no WriteEventBus (servidor parado).
+     */
+    public void shutdown() {
+        cache.close();
+    }
 }
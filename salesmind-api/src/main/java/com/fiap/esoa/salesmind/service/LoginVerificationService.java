@@ -0,0 +1,306 @@
+package com.fiap.esoa.salesmind.service;
+
+import com.fiap.esoa.salesmind.config.EnvConfig;
+import com.fiap.esoa.salesmind.exception.BusinessException;
+import com.fiap.esoa.salesmind.util.PasswordUtil;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Verificação de senhas (bcrypt) em pool dedicado e limitado.
+ * Isola o custo de CPU do login das demais requisições da API e
+ * limita tentativas malsucedidas por conta e por IP em janelas de tempo fixas.
+ *
+ * Janelas vencidas são removidas periodicamente em segundo plano; com o limite de
+ * chaves atingido, falhas de chaves novas deixam de ser contadas (as chaves já
+ * rastreadas, como o IP de quem está tentando, continuam valendo).
+ */
+public class LoginVerificationService {
+
+    private static final int MAX_TRACKED_KEYS = 50000;
+
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService pruner;
+    private final Set<String> trustedProxies;
+    private final long verifyTimeoutMillis;
+    private final int maxFailuresPerAccount;
+    private final int maxFailuresPerIp;
+    private final long windowMillis;
+
+    private final Map<String, AttemptWindow> attempts = new ConcurrentHashMap<>();
+
+    private final LongAdder verifications = new LongAdder();
+    private final LongAdder rejectedSaturated = new LongAdder();
+    private final LongAdder rejectedThrottled = new LongAdder();
+    private final LongAdder rehashes = new LongAdder();
+    private final LongAdder untrackedFailures = new LongAdder();
+    private final LongAdder totalQueueNanos = new LongAdder();
+    private final LongAdder totalVerifyNanos = new LongAdder();
+    private final AtomicLong maxQueueNanos = new AtomicLong();
+
+    private static class AttemptWindow {
+        private final long startMillis;
+        private final AtomicInteger count = new AtomicInteger();
+
+        public AttemptWindow(long startMillis) {
+            this.startMillis = startMillis;
+        }
+    }
+
+    public LoginVerificationService() {
+        this(
+                EnvConfig.getInt("LOGIN_VERIFY_THREADS", Math.max(1, Runtime.getRuntime().availableProcessors() / 2)),
+                EnvConfig.getInt("LOGIN_VERIFY_QUEUE", 100),
+                EnvConfig.getLong("LOGIN_VERIFY_TIMEOUT_MS", 10000),
+                EnvConfig.getInt("LOGIN_MAX_FAILURES_ACCOUNT", 10),
+                EnvConfig.getInt("LOGIN_MAX_FAILURES_IP", 50),
+                EnvConfig.getLong("LOGIN_ATTEMPT_WINDOW_MS", 60000),
+                EnvConfig.get("TRUSTED_PROXIES", ""));
+    }
+
+    /**
+     * @param threads Threads dedicadas ao bcrypt
+     * @param queueCapacity Verificações aguardando antes de rejeitar com 503
+     * @param verifyTimeoutMillis Tempo máximo de espera (fila + verificação)
+     * @param maxFailuresPerAccount Falhas por email dentro da janela
+     * @param maxFailuresPerIp Falhas por IP dentro da janela
+     * @param windowMillis Duração da janela de contagem
+     * @param trustedProxies IPs dos proxies/balanceadores (separados por vírgula) cujo
+     *                       X-Forwarded-For é usado para identificar o cliente
+     */
+    public LoginVerificationService(int threads, int queueCapacity, long verifyTimeoutMillis,
+            int maxFailuresPerAccount, int maxFailuresPerIp, long windowMillis, String trustedProxies) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "login-bcrypt-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.verifyTimeoutMillis = verifyTimeoutMillis;
+        this.maxFailuresPerAccount = maxFailuresPerAccount;
+        this.maxFailuresPerIp = maxFailuresPerIp;
+        this.windowMillis = windowMillis;
+        this.trustedProxies = Arrays.stream(trustedProxies.split(","))
+                .map(String::trim)
+                .filter(ip -> !ip.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+
+        this.pruner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "login-attempts-pruner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Map<String, AttemptWindow> tracked = attempts;
+        pruner.scheduleWithFixedDelay(() -> pruneExpired(tracked, windowMillis),
+                windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * IP usado no limite de tentativas. Atrás de um proxy confiável, todas as conexões
+     * chegam do mesmo endereço; nesse caso vale o último IP do X-Forwarded-For que não
+     * seja de um proxy confiável (os anteriores podem ter sido forjados pelo cliente).
+     *
+     * @param remoteAddress Endereço da conexão TCP
+     * @param forwardedFor Valor do cabeçalho X-Forwarded-For (pode ser null)
+     */
+    public String resolveClientIp(String remoteAddress, String forwardedFor) {
+        if (forwardedFor == null || !trustedProxies.contains(remoteAddress)) {
+            return remoteAddress;
+        }
+        String[] hops = forwardedFor.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (!hop.isEmpty() && !trustedProxies.contains(hop)) {
+                return hop;
+            }
+        }
+        return remoteAddress;
+    }
+
+    /**
+     * Rejeita com 429 se a conta ou o IP excederam o limite de falhas
+     * da janela atual, antes de gastar CPU com bcrypt.
+     */
+    public void checkThrottle(String email, String clientIp) {
+        long now = System.currentTimeMillis();
+        boolean accountExceeded = email != null
+                && currentFailures(accountKey(email), now) >= maxFailuresPerAccount;
+        boolean ipExceeded = clientIp != null
+                && currentFailures(ipKey(clientIp), now) >= maxFailuresPerIp;
+
+        if (accountExceeded || ipExceeded) {
+            rejectedThrottled.increment();
+            throw new BusinessException("Muitas tentativas de login. Tente novamente mais tarde", 429);
+        }
+    }
+
+    /**
+     * Registra uma tentativa de login malsucedida para a conta e o IP.
+     */
+    public void recordFailure(String email, String clientIp) {
+        long now = System.currentTimeMillis();
+        if (email != null) {
+            registerFailure(accountKey(email), now);
+        }
+        if (clientIp != null) {
+            registerFailure(ipKey(clientIp), now);
+        }
+    }
+
+    /**
+     * Verifica a senha no pool dedicado.
+     *
+     * @return true se a senha confere com o hash
+     * @throws BusinessException 503 se o pool estiver saturado ou a verificação exceder o tempo limite
+     */
+    public boolean verify(String plainPassword, String hashedPassword) {
+        long submittedAt = System.nanoTime();
+        Future<Boolean> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                recordQueueTime(startedAt - submittedAt);
+                try {
+                    return PasswordUtil.checkPassword(plainPassword, hashedPassword);
+                } finally {
+                    totalVerifyNanos.add(System.nanoTime() - startedAt);
+                    verifications.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedSaturated.increment();
+            throw new BusinessException("Serviço de autenticação sobrecarregado. Tente novamente", 503);
+        }
+
+        try {
+            return future.get(verifyTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedSaturated.increment();
+            throw new BusinessException("Tempo limite de autenticação excedido", 503);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Autenticação interrompida", 503);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Erro ao verificar senha: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Gera um novo hash no pool dedicado quando o hash armazenado usa custo menor
+     * que o configurado. Executa em segundo plano; se o pool estiver cheio a migração
+     * fica para o próximo login.
+     *
+     * @param onRehash Recebe o novo hash para persistência
+     */
+    public void rehashIfNeeded(String plainPassword, String hashedPassword, Consumer<String> onRehash) {
+        if (!PasswordUtil.needsRehash(hashedPassword)) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    onRehash.accept(PasswordUtil.hashPassword(plainPassword));
+                    rehashes.increment();
+                } catch (Exception e) {
+                    System.err.println("Falha ao atualizar hash de senha: " + e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Pool saturado: a migração será tentada no próximo login
+        }
+    }
+
+    /**
+     * @return Métricas do pool de verificação (tempos em milissegundos)
+     */
+    public Map<String, Object> getMetrics() {
+        long count = verifications.sum();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("poolSize", executor.getPoolSize());
+        metrics.put("activeVerifications", executor.getActiveCount());
+        metrics.put("queuedVerifications", executor.getQueue().size());
+        metrics.put("completedVerifications", count);
+        metrics.put("rejectedSaturated", rejectedSaturated.sum());
+        metrics.put("rejectedThrottled", rejectedThrottled.sum());
+        metrics.put("rehashes", rehashes.sum());
+        metrics.put("trackedKeys", attempts.size());
+        metrics.put("untrackedFailures", untrackedFailures.sum());
+        metrics.put("bcryptRounds", PasswordUtil.getRounds());
+        metrics.put("avgQueueTimeMs", count > 0 ? totalQueueNanos.sum() / count / 1_000_000.0 : 0.0);
+        metrics.put("maxQueueTimeMs", maxQueueNanos.get() / 1_000_000.0);
+        metrics.put("avgVerifyTimeMs", count > 0 ? totalVerifyNanos.sum() / count / 1_000_000.0 : 0.0);
+        return metrics;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+        pruner.shutdownNow();
+    }
+
+    private int currentFailures(String key, long now) {
+        AttemptWindow window = attempts.get(key);
+        if (window == null || now - window.startMillis >= windowMillis) {
+            return 0;
+        }
+        return window.count.get();
+    }
+
+    private void registerFailure(String key, long now) {
+        if (attempts.size() >= MAX_TRACKED_KEYS && !attempts.containsKey(key)) {
+            untrackedFailures.increment();
+            return;
+        }
+        AttemptWindow window = attempts.compute(key, (k, current) ->
+                current == null || now - current.startMillis >= windowMillis ? new AttemptWindow(now) : current);
+        window.count.incrementAndGet();
+    }
+
+    private static void pruneExpired(Map<String, AttemptWindow> attempts, long windowMillis) {
+        long now = System.currentTimeMillis();
+        attempts.values().removeIf(window -> now - window.startMillis >= windowMillis);
+    }
+
+    /**
+     * Executa a remoção de janelas vencidas imediatamente (testes).
+     */
+    void pruneExpired() {
+        pruneExpired(attempts, windowMillis);
+    }
+
+    private static String accountKey(String email) {
+        return "account:" + email.toLowerCase();
+    }
+
+    private static String ipKey(String clientIp) {
+        return "ip:" + clientIp;
+    }
+
+    private void recordQueueTime(long queueNanos) {
+        totalQueueNanos.add(queueNanos);
+        maxQueueNanos.accumulateAndGet(queueNanos, Math::max);
+    }
+}
@@ -0,0 +1,97 @@
+package com.fiap.esoa.salesmind.service;
+
+import com.fiap.esoa.salesmind.config.EnvConfig;
+import com.fiap.esoa.salesmind.repository.UsuarioRepository;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Atualiza mv_performance_vendedores em segundo plano.
+ * Executa periodicamente e, após conclusões de processamento, agenda um refresh
+ * com atraso curto; pedidos dentro desse atraso são agrupados em um único refresh.
+ */
+public class PerformanceRefreshScheduler {
+
+    private final UsuarioRepository usuarioRepository;
+    private final ScheduledExecutorService scheduler;
+    private final long intervalSeconds;
+    private final long debounceMillis;
+
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final AtomicLong lastRefreshNanos = new AtomicLong();
+    private volatile LocalDateTime lastRefreshAt;
+
+    public PerformanceRefreshScheduler(UsuarioRepository usuarioRepository) {
+        this(usuarioRepository,
+                EnvConfig.getLong("PERFORMANCE_REFRESH_INTERVAL_S", 300),
+                EnvConfig.getLong("PERFORMANCE_REFRESH_DEBOUNCE_MS", 5000));
+    }
+
+    /**
+     * @param intervalSeconds Intervalo do refresh periódico
+     * @param debounceMillis Atraso para agrupar pedidos de refresh sob demanda
+     */
+    public PerformanceRefreshScheduler(UsuarioRepository usuarioRepository,
+            long intervalSeconds, long debounceMillis) {
+        this.usuarioRepository = usuarioRepository;
+        this.intervalSeconds = intervalSeconds;
+        this.debounceMillis = debounceMillis;
+        // Uma única thread: dois REFRESH CONCURRENTLY da mesma view não rodam em paralelo
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "performance-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::refresh, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Solicita um refresh em breve. Chamadas repetidas antes da execução não geram refreshes extras.
+     */
+    public void requestRefresh() {
+        if (refreshPending.compareAndSet(false, true)) {
+            scheduler.schedule(this::refresh, debounceMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void refresh() {
+        refreshPending.set(false);
+        long start = System.nanoTime();
+        try {
+            usuarioRepository.refreshPerformanceVendedores();
+            refreshes.increment();
+            lastRefreshNanos.set(System.nanoTime() - start);
+            lastRefreshAt = LocalDateTime.now();
+        } catch (Exception e) {
+            failures.increment();
+            System.err.println("Falha ao atualizar performance de vendedores: " + e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("refreshes", refreshes.sum());
+        metrics.put("failures", failures.sum());
+        metrics.put("refreshPending", refreshPending.get());
+        metrics.put("lastRefreshMs", lastRefreshNanos.get() / 1_000_000.0);
+        metrics.put("lastRefreshAt", lastRefreshAt != null ? lastRefreshAt.toString() : null);
+        return metrics;
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
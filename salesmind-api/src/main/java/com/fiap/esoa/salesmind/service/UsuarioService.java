@@ -1,9 +1,13 @@
 package com.fiap.esoa.salesmind.service;
 
+import com.fiap.esoa.salesmind.dto.EntidadeComContagemDTO;
+import com.fiap.esoa.salesmind.model.Empresa;
 import com.fiap.esoa.salesmind.model.Usuario;
 import com.fiap.esoa.salesmind.repository.UsuarioRepository;
 import com.fiap.esoa.salesmind.repository.GravacaoCallRepository;
+import com.fiap.esoa.salesmind.util.EntityCache;
 import com.fiap.esoa.salesmind.util.PasswordUtil;
+import com.fiap.esoa.salesmind.util.TransactionManager;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,6 +15,8 @@ public class UsuarioService {
 
     private final UsuarioRepository repository;
     private final GravacaoCallRepository gravacaoRepository;
+    private final EntityCache<Usuario> cache = EntityCache.create("usuario", Usuario.class, Usuario::new,
+            Empresa.class);
 
     public UsuarioService(UsuarioRepository repository, GravacaoCallRepository gravacaoRepository) {
         this.repository = repository;
@@ -24,8 +30,23 @@ public class UsuarioService {
         return repository.save(usuario);
     }
 
+    /**
+     * Substitui o hash de senha armazenado (ex.: migração de custo do bcrypt)
+     */
+    public void updatePasswordHash(Long idUsuario, String senhaHash) {
+        repository.updateSenha(idUsuario, senhaHash);
+    }
+
     public Optional<Usuario> findById(Long id) {
-        return repository.findById(id);
+        return cache.findById(id, repository::findById);
+    }
+
+    /**
+     * @return Usuário se pertencer à empresa; vazio se não existir ou for de outra empresa
+     */
+    public Optional<Usuario> findByIdAndEmpresa(Long id, Long idEmpresa) {
+        return cache.findScoped(id, usuario -> usuario.getIdEmpresa().equals(idEmpresa),
+                key -> repository.findByIdAndEmpresa(key, idEmpresa));
     }
     
     public Usuario findByEmail(String email) {
@@ -40,15 +61,32 @@ public class UsuarioService {
         return repository.findByEmpresa(idEmpresa);
     }
 
-    public long getVendasFechadas(Long idUsuario) {
-        return gravacaoRepository.countVendasFechadasByUsuario(idUsuario);
+    /**
+     * Busca o usuário da empresa e conta suas gravações na mesma conexão.
+     */
+    public Optional<EntidadeComContagemDTO<Usuario>> findByIdComGravacoes(Long id, Long idEmpresa) {
+        return TransactionManager.executeWithConnection(conn -> repository.findByIdAndEmpresaWithConnection(conn, id, idEmpresa)
+                .map(usuario -> new EntidadeComContagemDTO<>(usuario,
+                        gravacaoRepository.countByUsuarioWithConnection(conn, id))));
     }
 
-    public long countGravacoesByUsuario(Long idUsuario) {
-        return gravacaoRepository.countByUsuario(idUsuario);
+    /**
+     * Busca o usuário da empresa e conta suas vendas fechadas na mesma conexão.
+     */
+    public Optional<EntidadeComContagemDTO<Usuario>> findByIdComVendasFechadas(Long id, Long idEmpresa) {
+        return TransactionManager.executeWithConnection(conn -> repository.findByIdAndEmpresaWithConnection(conn, id, idEmpresa)
+                .map(usuario -> new EntidadeComContagemDTO<>(usuario,
+                        gravacaoRepository.countVendasFechadasByUsuarioWithConnection(conn, id))));
     }
 
     public void deleteById(Long id) {
         repository.deleteById(id);
     }
+
+    /**
+     * Cancela as inscrições do cache no WriteEventBus (servidor parado).
+     */
+    public void shutdown() {
+        cache.close();
+    }
 }
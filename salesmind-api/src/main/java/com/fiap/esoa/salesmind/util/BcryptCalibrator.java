@@ -0,0 +1,78 @@
+package com.fiap.esoa.salesmind.util;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.util.Arrays;
+
+/**
+ * Calibra o custo do bcrypt para o hardware atual.
+ * Mede a mediana do tempo de verificação para cada custo (após aquecimento)
+ * e escolhe o maior custo cujo tempo fica dentro do alvo, nunca abaixo de
+ * MIN_CALIBRATED_ROUNDS: uma medição feita com a máquina ocupada não pode
+ * enfraquecer os hashes gerados pela instância.
+ *
+ * Uso via CLI:
+ * mvn exec:java -Dexec.mainClass=com.fiap.esoa.salesmind.util.BcryptCalibrator -Dexec.args="250"
+ */
+public class BcryptCalibrator {
+
+    public static final int MIN_CALIBRATED_ROUNDS = 10;
+
+    private static final String SAMPLE_PASSWORD = "calibracao-bcrypt";
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASURED_ITERATIONS = 5;
+
+    /**
+     * @param targetMillis Tempo alvo de verificação em milissegundos
+     * @return Maior custo cujo tempo mediano de verificação não excede o alvo
+     *         (MIN_CALIBRATED_ROUNDS se nem esse couber)
+     */
+    public static int calibrate(long targetMillis) {
+        int chosen = MIN_CALIBRATED_ROUNDS;
+
+        for (int cost = MIN_CALIBRATED_ROUNDS; cost <= PasswordUtil.MAX_BCRYPT_ROUNDS; cost++) {
+            double medianMillis = measureVerifyMillis(cost);
+            if (medianMillis > targetMillis) {
+                break;
+            }
+            chosen = cost;
+            // Cada incremento dobra o custo; evita medir um custo que certamente excede o alvo
+            if (medianMillis * 2 > targetMillis * 1.5) {
+                break;
+            }
+        }
+
+        return chosen;
+    }
+
+    /**
+     * @return Mediana em milissegundos do tempo de BCrypt.checkpw para o custo informado
+     */
+    public static double measureVerifyMillis(int cost) {
+        String hash = BCrypt.hashpw(SAMPLE_PASSWORD, BCrypt.gensalt(cost));
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            BCrypt.checkpw(SAMPLE_PASSWORD, hash);
+        }
+
+        long[] samples = new long[MEASURED_ITERATIONS];
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            long start = System.nanoTime();
+            BCrypt.checkpw(SAMPLE_PASSWORD, hash);
+            samples[i] = System.nanoTime() - start;
+        }
+
+        Arrays.sort(samples);
+        return samples[MEASURED_ITERATIONS / 2] / 1_000_000.0;
+    }
+
+    public static void main(String[] args) {
+        long targetMillis = args.length > 0 ? Long.parseLong(args[0]) : 250;
+
+        System.out.println("Calibrando bcrypt para verificação em até " + targetMillis + " ms...");
+        int cost = calibrate(targetMillis);
+        System.out.println(String.format("Custo recomendado: %d (%.1f ms por verificação)",
+                cost, measureVerifyMillis(cost)));
+        System.out.println("Configure BCRYPT_ROUNDS=" + cost + " ou BCRYPT_TARGET_MS=" + targetMillis);
+    }
+}
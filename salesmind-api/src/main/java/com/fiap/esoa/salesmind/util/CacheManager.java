@@ -1,45 +1,245 @@
 package com.fiap.esoa.salesmind.util;
 
-import java.time.LocalDateTime;
+import com.fiap.esoa.salesmind.config.EnvConfig;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
 
 /**
- * Cache em memória com suporte a TTL (Time To Live).
- * Thread-safe usando ConcurrentHashMap.
- * 
+ * Cache em memória com suporte a TTL (Time To Live) e tamanho limitado.
+ * Leituras não bloqueiam (ConcurrentHashMap); a ordem de acesso e a frequência
+ * são atualizadas sob um lock, descartando a atualização se ele estiver ocupado.
+ *
+ * Ao exceder o limite de entradas ou de peso, a remoção segue W-TinyLFU: novas
+ * entradas passam por uma janela LRU pequena (1%) e, ao sair dela, só entram na
+ * área principal se forem mais frequentes (FrequencySketch) que a entrada menos
+ * recente de lá. Entradas expiradas são removidas por um sweeper em segundo plano.
+ *
+ * A expiração usa o relógio monotônico de CoarseClock (nanos em long), sem alocar
+ * nem consultar fuso horário a cada get/put.
+ *
+ * get(key, loader) agrupa misses simultâneos da mesma chave em uma única carga
+ * (single-flight) e, com refreshAhead, recarrega em segundo plano entradas lidas
+ * perto de expirar, devolvendo o valor atual enquanto isso.
+ *
+ * Caches com nome registram hits, misses, remoções e tempo de carga (LongAdder, sem
+ * contenção entre leitores) e aparecem em getAllMetrics() (/api/admin/metrics).
+ *
  * @param <K> Tipo da chave
  * @param <V> Tipo do valor
  */
 public class CacheManager<K, V> {
 
-    private final Map<K, CacheEntry<V>> cache;
-    private final long ttlMillis;
+    public static final long DEFAULT_MAXIMUM_SIZE = 10_000;
 
-    private static class CacheEntry<V> {
+    private static final Set<CacheManager<?, ?>> CACHES =
+            Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+    private static final ScheduledExecutorService SWEEPER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final ExecutorService REFRESHER = Executors.newVirtualThreadPerTaskExecutor();
+
+    static {
+        long interval = EnvConfig.getLong("CACHE_SWEEP_INTERVAL_S", 60);
+        SWEEPER.scheduleWithFixedDelay(CacheManager::sweepAll, interval, interval, TimeUnit.SECONDS);
+    }
+
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final AccessOrderQueue<K, V> window = new AccessOrderQueue<>();
+    private final AccessOrderQueue<K, V> main = new AccessOrderQueue<>();
+    private final FrequencySketch sketch;
+    private final long ttlNanos;
+    private final long maximumSize;
+    private final long maximumWeight;
+    private final long windowMaximum;
+    private final ToLongFunction<V> weigher;
+    private final String name;
+    private volatile long refreshAheadNanos;
+    private long weightedSize;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder totalLoadNanos = new LongAdder();
+    private final LongAdder coalescedLoads = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+
+    private static final class Node<K, V> {
+        private final K key;
         private final V value;
-        private final LocalDateTime expiresAt;
+        private final long expiresAtNanos;
+        private final long weight;
+        private boolean inWindow;
+        private Node<K, V> prev;
+        private Node<K, V> next;
 
-        public CacheEntry(V value, LocalDateTime expiresAt) {
+        private Node(K key, V value, long expiresAtNanos, long weight) {
+            this.key = key;
             this.value = value;
-            this.expiresAt = expiresAt;
+            this.expiresAtNanos = expiresAtNanos;
+            this.weight = weight;
+        }
+
+        /**
+         * Compara pela diferença para continuar correto se nanoTime der a volta.
+         */
+        boolean isExpired(long nowNanos) {
+            return nowNanos - expiresAtNanos > 0;
+        }
+    }
+
+    /**
+     * Lista duplamente encadeada em ordem de acesso: first = menos recente.
+     */
+    private static final class AccessOrderQueue<K, V> {
+        private Node<K, V> first;
+        private Node<K, V> last;
+        private long size;
+
+        void linkLast(Node<K, V> node) {
+            node.prev = last;
+            node.next = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+            size++;
+        }
+
+        void unlink(Node<K, V> node) {
+            if (node.prev == null) {
+                first = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                last = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            size--;
         }
 
-        public V getValue() {
-            return value;
+        void moveToBack(Node<K, V> node) {
+            if (node != last) {
+                unlink(node);
+                linkLast(node);
+            }
         }
 
-        public boolean isExpired() {
-            return LocalDateTime.now().isAfter(expiresAt);
+        void clear() {
+            first = null;
+            last = null;
+            size = 0;
         }
     }
 
+    private CacheManager(String name, Duration ttl, long maximumSize, long maximumWeight, ToLongFunction<V> weigher) {
+        this.name = name;
+        this.ttlNanos = saturatedNanos(ttl);
+        this.maximumSize = maximumSize;
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.windowMaximum = Math.max(1, maximumSize / 100);
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
     /**
      * @param ttlMinutes Tempo de vida em minutos
      */
-    public CacheManager(long ttlMinutes) {
-        this.cache = new ConcurrentHashMap<>();
-        this.ttlMillis = ttlMinutes * 60 * 1000;
+    public static <K, V> CacheManager<K, V> create(long ttlMinutes) {
+        return create(Duration.ofMinutes(ttlMinutes));
+    }
+
+    /**
+     * @param ttl Tempo de vida (para TTLs menores que um minuto)
+     */
+    public static <K, V> CacheManager<K, V> create(Duration ttl) {
+        return create(ttl, DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * @param ttl Tempo de vida
+     * @param maximumSize Número máximo de entradas
+     */
+    public static <K, V> CacheManager<K, V> create(Duration ttl, long maximumSize) {
+        return create(ttl, maximumSize, Long.MAX_VALUE, value -> 1);
+    }
+
+    /**
+     * @param ttl Tempo de vida
+     * @param maximumSize Número máximo de entradas
+     * @param maximumWeight Peso total máximo (ex.: bytes estimados)
+     * @param weigher Estima o peso de um valor
+     */
+    public static <K, V> CacheManager<K, V> create(Duration ttl, long maximumSize, long maximumWeight,
+            ToLongFunction<V> weigher) {
+        return create(null, ttl, maximumSize, maximumWeight, weigher);
+    }
+
+    /**
+     * @param name Nome do cache nas métricas
+     * @param ttl Tempo de vida
+     */
+    public static <K, V> CacheManager<K, V> create(String name, Duration ttl) {
+        return create(name, ttl, DEFAULT_MAXIMUM_SIZE, Long.MAX_VALUE, value -> 1);
+    }
+
+    /**
+     * Cria o cache já registrado para o sweeper, clearAll() e getAllMetrics().
+     *
+     * @param name Nome do cache nas métricas (null para não aparecer em getAllMetrics)
+     * @param ttl Tempo de vida
+     * @param maximumSize Número máximo de entradas
+     * @param maximumWeight Peso total máximo (ex.: bytes estimados)
+     * @param weigher Estima o peso de um valor
+     */
+    public static <K, V> CacheManager<K, V> create(String name, Duration ttl, long maximumSize, long maximumWeight,
+            ToLongFunction<V> weigher) {
+        CacheManager<K, V> cache = new CacheManager<>(name, ttl, maximumSize, maximumWeight, weigher);
+        CACHES.add(cache);
+        return cache;
+    }
+
+    /**
+     * Ativa o refresh-ahead: um get(key, loader) que encontre a entrada a menos de
+     * beforeExpiry de expirar dispara a recarga em segundo plano.
+     *
+     * @param beforeExpiry Antecedência em relação à expiração (zero desativa)
+     * @return O próprio cache
+     */
+    public CacheManager<K, V> refreshAhead(Duration beforeExpiry) {
+        this.refreshAheadNanos = Math.min(saturatedNanos(beforeExpiry), ttlNanos);
+        return this;
     }
 
     /**
@@ -47,8 +247,39 @@ public class CacheManager<K, V> {
      * @param value Valor a ser armazenado
      */
     public void put(K key, V value) {
-        LocalDateTime expiresAt = LocalDateTime.now().plusSeconds(ttlMillis / 1000);
-        cache.put(key, new CacheEntry<>(value, expiresAt));
+        evictionLock.lock();
+        try {
+            // Uma carga em andamento não deve sobrescrever o valor gravado agora
+            inFlight.remove(key);
+            putLocked(key, value);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void putLocked(K key, V value) {
+        Node<K, V> node = new Node<>(key, value, CoarseClock.nanoTime() + ttlNanos, weigher.applyAsLong(value));
+        sketch.increment(key);
+        Node<K, V> old = data.put(key, node);
+        Node<K, V> candidate = null;
+
+        if (old != null) {
+            node.inWindow = old.inWindow;
+            queueOf(old).unlink(old);
+            weightedSize -= old.weight;
+            queueOf(node).linkLast(node);
+        } else {
+            node.inWindow = true;
+            window.linkLast(node);
+            while (window.size > windowMaximum) {
+                candidate = window.first;
+                window.unlink(candidate);
+                candidate.inWindow = false;
+                main.linkLast(candidate);
+            }
+        }
+        weightedSize += node.weight;
+        evict(candidate);
     }
 
     /**
@@ -56,42 +287,325 @@ public class CacheManager<K, V> {
      * @return Valor armazenado ou null se não encontrado ou expirado
      */
     public V get(K key) {
-        CacheEntry<V> entry = cache.get(key);
-        if (entry == null) {
-            return null;
+        Node<K, V> node = getNode(key);
+        return node != null ? node.value : null;
+    }
+
+    /**
+     * Retorna o valor em cache ou o carrega e armazena. Misses simultâneos da mesma
+     * chave esperam a carga em andamento em vez de chamar o loader de novo.
+     * Resultados null não são armazenados; exceções do loader chegam a todos os que esperam.
+     *
+     * @param key Chave do cache
+     * @param loader Carrega o valor em caso de miss
+     * @return Valor em cache, carregado ou null
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        Node<K, V> node = getNode(key);
+        if (node != null) {
+            long refreshWindow = refreshAheadNanos;
+            if (refreshWindow > 0 && node.expiresAtNanos - CoarseClock.nanoTime() < refreshWindow) {
+                refreshAsync(key, loader);
+            }
+            return node.value;
+        }
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalescedLoads.increment();
+            return await(existing);
+        }
+
+        // Outra thread pode ter concluído a carga entre o miss e o registro acima
+        Node<K, V> loaded = data.get(key);
+        if (loaded != null && !loaded.isExpired(CoarseClock.nanoTime())) {
+            inFlight.remove(key, future);
+            future.complete(loaded.value);
+            return loaded.value;
+        }
+        return load(key, loader, future);
+    }
+
+    private void refreshAsync(K key, Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, future) != null) {
+            return;
+        }
+        refreshes.increment();
+        REFRESHER.execute(() -> {
+            try {
+                load(key, loader, future);
+            } catch (RuntimeException e) {
+                System.err.println("Falha ao recarregar entrada do cache " + name + ": " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Executa o loader para a carga registrada em inFlight. O valor só é armazenado se
+     * a chave não foi invalidada durante a carga, para não gravar um valor antigo.
+     */
+    private V load(K key, Function<? super K, ? extends V> loader, CompletableFuture<V> future) {
+        long start = System.nanoTime();
+        V value;
+        try {
+            value = loader.apply(key);
+        } catch (RuntimeException | Error e) {
+            totalLoadNanos.add(System.nanoTime() - start);
+            loadFailures.increment();
+            inFlight.remove(key, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+        totalLoadNanos.add(System.nanoTime() - start);
+        loads.increment();
+
+        evictionLock.lock();
+        try {
+            if (inFlight.remove(key, future) && value != null) {
+                putLocked(key, value);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+        future.complete(value);
+        return value;
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
         }
+    }
 
-        if (entry.isExpired()) {
-            cache.remove(key);
-            return null;
+    private Node<K, V> getNode(K key) {
+        Node<K, V> node = data.get(key);
+        if (node != null && node.isExpired(CoarseClock.nanoTime())) {
+            evictionLock.lock();
+            try {
+                removeNode(node);
+            } finally {
+                evictionLock.unlock();
+            }
+            expirations.increment();
+            node = null;
         }
 
-        return entry.getValue();
+        (node != null ? hits : misses).increment();
+        afterRead(key, node);
+        return node;
+    }
+
+    /**
+     * Registra o acesso (inclusive misses, que contam para a admissão).
+     * Se o lock estiver ocupado o registro é descartado em vez de bloquear a leitura.
+     */
+    private void afterRead(K key, Node<K, V> node) {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            sketch.increment(key);
+            if (node != null && data.get(key) == node) {
+                queueOf(node).moveToBack(node);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Remove entradas até voltar aos limites. A candidata recém-saída da janela
+     * disputa com a vítima da área principal e fica a de maior frequência.
+     */
+    private void evict(Node<K, V> candidate) {
+        while (data.size() > maximumSize || weightedSize > maximumWeight) {
+            Node<K, V> victim = main.first;
+            if (victim == null) {
+                victim = window.first;
+            } else if (candidate != null && candidate != victim && data.get(candidate.key) == candidate
+                    && sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+                victim = candidate;
+            }
+
+            if (victim == null) {
+                return;
+            }
+            removeNode(victim);
+            evictions.increment();
+        }
+    }
+
+    private void removeNode(Node<K, V> node) {
+        if (data.remove(node.key, node)) {
+            queueOf(node).unlink(node);
+            weightedSize -= node.weight;
+        }
+    }
+
+    private AccessOrderQueue<K, V> queueOf(Node<K, V> node) {
+        return node.inWindow ? window : main;
     }
 
     /**
      * @param key Chave a ser invalidada
      */
     public void invalidate(K key) {
-        cache.remove(key);
+        evictionLock.lock();
+        try {
+            inFlight.remove(key);
+            Node<K, V> node = data.get(key);
+            if (node != null) {
+                removeNode(node);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
     }
 
     public void clear() {
-        cache.clear();
+        evictionLock.lock();
+        try {
+            inFlight.clear();
+            data.clear();
+            window.clear();
+            main.clear();
+            weightedSize = 0;
+        } finally {
+            evictionLock.unlock();
+        }
     }
 
     /**
-     * Remove entradas expiradas. Deve ser chamado periodicamente.
+     * Remove entradas expiradas. Executado periodicamente pelo sweeper
+     * (CACHE_SWEEP_INTERVAL_S) para todos os caches.
      */
     public void evictExpired() {
-        cache.entrySet().removeIf(entry -> entry.getValue().isExpired());
+        long now = CoarseClock.nanoTime();
+        evictionLock.lock();
+        try {
+            for (Node<K, V> node : new ArrayList<>(data.values())) {
+                if (node.isExpired(now)) {
+                    removeNode(node);
+                    expirations.increment();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
     }
 
     /**
-     * @return Número de entradas no cache (incluindo expiradas)
+     * TTLs muito longos ficam limitados a ~146 anos para não estourar a soma com nanoTime.
+     */
+    private static long saturatedNanos(Duration ttl) {
+        try {
+            return Math.min(ttl.toNanos(), Long.MAX_VALUE / 2);
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE / 2;
+        }
+    }
+
+    /**
+     * Esvazia todos os caches, para quando invalidações podem ter sido perdidas
+     * (ex.: ClusterInvalidation reconectando ao banco).
+     */
+    public static void clearAll() {
+        List<CacheManager<?, ?>> caches;
+        synchronized (CACHES) {
+            caches = new ArrayList<>(CACHES);
+        }
+        for (CacheManager<?, ?> cache : caches) {
+            cache.clear();
+        }
+    }
+
+    private static void sweepAll() {
+        List<CacheManager<?, ?>> caches;
+        synchronized (CACHES) {
+            caches = new ArrayList<>(CACHES);
+        }
+        for (CacheManager<?, ?> cache : caches) {
+            try {
+                cache.evictExpired();
+            } catch (Exception e) {
+                System.err.println("Falha ao remover entradas expiradas do cache: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return Métricas de todos os caches com nome (inclusive os OffHeapStore), ordenadas pelo nome
+     */
+    public static Map<String, Object> getAllMetrics() {
+        List<CacheManager<?, ?>> caches;
+        synchronized (CACHES) {
+            caches = new ArrayList<>(CACHES);
+        }
+        Map<String, Object> metrics = new TreeMap<>();
+        for (CacheManager<?, ?> cache : caches) {
+            if (cache.name != null) {
+                metrics.put(cache.name, cache.getMetrics());
+            }
+        }
+        metrics.putAll(OffHeapStore.getAllMetrics());
+        return metrics;
+    }
+
+    /**
+     * @return Contadores acumulados desde a criação do cache (tempos em milissegundos)
+     */
+    public Map<String, Object> getMetrics() {
+        long hitCount = hits.sum();
+        long requests = hitCount + misses.sum();
+        long loadCount = loads.sum() + loadFailures.sum();
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("size", size());
+        metrics.put("maximumSize", maximumSize);
+        if (maximumWeight != Long.MAX_VALUE) {
+            metrics.put("weightedSize", weightedSize());
+            metrics.put("maximumWeight", maximumWeight);
+        }
+        metrics.put("hits", hitCount);
+        metrics.put("misses", requests - hitCount);
+        metrics.put("hitRate", requests > 0 ? (double) hitCount / requests : 0.0);
+        metrics.put("evictions", evictions.sum());
+        metrics.put("expirations", expirations.sum());
+        metrics.put("loads", loads.sum());
+        metrics.put("loadFailures", loadFailures.sum());
+        metrics.put("coalescedLoads", coalescedLoads.sum());
+        metrics.put("refreshes", refreshes.sum());
+        metrics.put("avgLoadTimeMs", loadCount > 0 ? totalLoadNanos.sum() / loadCount / 1_000_000.0 : 0.0);
+        return metrics;
+    }
+
+    /**
+     * @return Número de entradas no cache (incluindo expiradas ainda não removidas)
      */
     public int size() {
-        return cache.size();
+        return data.size();
+    }
+
+    /**
+     * @return Soma dos pesos das entradas (igual a size() quando não há weigher)
+     */
+    public long weightedSize() {
+        evictionLock.lock();
+        try {
+            return weightedSize;
+        } finally {
+            evictionLock.unlock();
+        }
     }
 
     /**
@@ -0,0 +1,299 @@
+package com.fiap.esoa.salesmind.util;
+
+import com.fiap.esoa.salesmind.config.DatabaseConfig;
+import com.fiap.esoa.salesmind.config.EnvConfig;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+/**
+ * Propaga os eventos de escrita entre instâncias da API via LISTEN/NOTIFY do PostgreSQL,
+ * para que cada instância invalide os próprios caches quando outra grava.
+ *
+ * Cada escrita local confirmada (WriteEventBus) vira uma notificação "nó|tipo|operação|id|ref"
+ * no canal; as notificações são agrupadas e enviadas por uma thread própria, sem atrasar
+ * a requisição que gravou. Outra thread mantém uma conexão fora do pool em LISTEN e
+ * republica o que chega com WriteEventBus.publishRemote, ignorando as do próprio nó.
+ * Eventos remotos levam só o ID e, por tipo, uma chave extra (ref) usada pelos listeners
+ * (ex.: idGravacao do feedback), remontada numa entidade parcial.
+ *
+ * A entrega é "no máximo uma vez": se a conexão do LISTEN cair, notificações podem se
+ * perder, então ao reconectar todos os caches são esvaziados (CacheManager.clearAll).
+ * Do lado de quem envia, notificações descartadas (fila cheia) ou cujo envio falhou são
+ * substituídas por um aviso de limpeza geral ("nó|*|CLEAR||"), enviado assim que o banco
+ * aceitar: as outras instâncias também esvaziam todos os caches.
+ * Os TTLs continuam valendo como rede de segurança.
+ */
+public class ClusterInvalidation {
+
+    private static final int MAX_LOTE = 500;
+    private static final String TODOS = "*";
+    private static final String LIMPAR_TUDO = TODOS + "|CLEAR||";
+
+    private record Tipo<T>(Class<T> classe, Function<T, Long> ref, BiFunction<Long, Long, T> parcial) {
+
+        String codificar(WriteEvent<?> event) {
+            Long valor = event.entidade() != null && ref != null ? ref.apply(classe.cast(event.entidade())) : null;
+            return classe.getSimpleName() + "|" + event.operacao() + "|" + texto(event.id()) + "|" + texto(valor);
+        }
+
+        void publicar(WriteEvent.Operacao operacao, Long id, Long valor) {
+            T entidade = parcial != null ? parcial.apply(id, valor) : null;
+            WriteEventBus.publishRemote(classe, operacao, id, entidade);
+        }
+    }
+
+    private final String canal;
+    private final String no = UUID.randomUUID().toString();
+    private final long pollMillis;
+    private final Map<String, Tipo<?>> tipos = new ConcurrentHashMap<>();
+    private final List<Runnable> inscricoes = new ArrayList<>();
+    private final BlockingQueue<String> pendentes;
+    // Alguma notificação se perdeu desde o último envio bem-sucedido
+    private final AtomicBoolean limpezaPendente = new AtomicBoolean();
+    private volatile boolean running;
+    private Thread sender;
+    private Thread listener;
+
+    private final LongAdder enviadas = new LongAdder();
+    private final LongAdder recebidas = new LongAdder();
+    private final LongAdder descartadas = new LongAdder();
+    private final LongAdder falhas = new LongAdder();
+    private final LongAdder reconexoes = new LongAdder();
+    private final LongAdder limpezasEnviadas = new LongAdder();
+    private final LongAdder limpezasRecebidas = new LongAdder();
+
+    public ClusterInvalidation() {
+        this(EnvConfig.get("CACHE_CLUSTER_CHANNEL", "salesmind_cache"),
+                EnvConfig.getLong("CACHE_CLUSTER_POLL_MS", 500),
+                EnvConfig.getInt("CACHE_CLUSTER_QUEUE", 10_000));
+    }
+
+    /**
+     * @param canal Canal do NOTIFY/LISTEN (o mesmo em todas as instâncias)
+     * @param pollMillis Espera máxima por notificações antes de checar a conexão
+     * @param capacidadeFila Notificações pendentes de envio; excedentes viram uma limpeza geral
+     */
+    public ClusterInvalidation(String canal, long pollMillis, int capacidadeFila) {
+        if (!canal.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Canal inválido: " + canal);
+        }
+        this.canal = canal;
+        this.pollMillis = pollMillis;
+        this.pendentes = new LinkedBlockingQueue<>(capacidadeFila);
+    }
+
+    /**
+     * Propaga as escritas do tipo; as instâncias remotas recebem eventos só com o ID.
+     */
+    public <T> ClusterInvalidation register(Class<T> tipo) {
+        return register(tipo, null, null);
+    }
+
+    /**
+     * @param ref Chave extra enviada junto com o ID (ex.: FeedbackIA::getIdGravacao)
+     * @param parcial Monta, na instância remota, a entidade parcial a partir do ID e da ref
+     */
+    public <T> ClusterInvalidation register(Class<T> tipo, Function<T, Long> ref, BiFunction<Long, Long, T> parcial) {
+        Tipo<T> registro = new Tipo<>(tipo, ref, parcial);
+        tipos.put(tipo.getSimpleName(), registro);
+        synchronized (inscricoes) {
+            inscricoes.add(WriteEventBus.subscribe(tipo, event -> {
+                if (!event.remoto()) {
+                    enfileirar(registro.codificar(event));
+                }
+            }));
+        }
+        return this;
+    }
+
+    public void start() {
+        running = true;
+        sender = Thread.ofPlatform().daemon().name("cache-notify-sender").start(this::enviarLoop);
+        listener = Thread.ofPlatform().daemon().name("cache-notify-listener").start(this::escutarLoop);
+    }
+
+    public void shutdown() {
+        synchronized (inscricoes) {
+            inscricoes.forEach(Runnable::run);
+            inscricoes.clear();
+        }
+        running = false;
+        if (sender != null) {
+            sender.interrupt();
+        }
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    private void enfileirar(String payload) {
+        if (!pendentes.offer(no + "|" + payload)) {
+            // Fila cheia (banco fora do ar): as outras instâncias serão avisadas para limpar tudo
+            descartadas.increment();
+            limpezaPendente.set(true);
+        }
+    }
+
+    private void enviarLoop() {
+        List<String> lote = new ArrayList<>();
+        while (running) {
+            try {
+                if (limpezaPendente.getAndSet(false)) {
+                    lote.add(no + "|" + LIMPAR_TUDO);
+                    enviar(lote);
+                    limpezasEnviadas.increment();
+                    lote.clear();
+                }
+
+                String primeira = pendentes.poll(pollMillis, TimeUnit.MILLISECONDS);
+                if (primeira == null) {
+                    continue;
+                }
+                lote.add(primeira);
+                pendentes.drainTo(lote, MAX_LOTE - 1);
+                enviar(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                falhas.increment();
+                descartadas.add(lote.size());
+                limpezaPendente.set(true);
+                System.err.println("Falha ao enviar invalidações de cache: " + e.getMessage());
+                try {
+                    Thread.sleep(pollMillis);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    /**
+     * Um único comando para o lote inteiro.
+     */
+    private void enviar(List<String> lote) throws SQLException {
+        String sql = "SELECT pg_notify(?, payload) FROM unnest(?::text[]) AS payload";
+
+        try (Connection conn = DatabaseConfig.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, canal);
+            stmt.setArray(2, conn.createArrayOf("text", lote.toArray()));
+            stmt.execute();
+            enviadas.add(lote.size());
+        }
+    }
+
+    private void escutarLoop() {
+        long espera = 1000;
+        boolean desconectado = false;
+        while (running) {
+            try (Connection conn = DatabaseConfig.openDedicatedConnection()) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("LISTEN " + canal);
+                }
+                if (desconectado) {
+                    // Escritas de outras instâncias durante a queda não foram recebidas
+                    reconexoes.increment();
+                    CacheManager.clearAll();
+                    desconectado = false;
+                }
+                espera = 1000;
+
+                PGConnection pg = conn.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notificacoes = pg.getNotifications((int) pollMillis);
+                    if (notificacoes != null) {
+                        for (PGNotification notificacao : notificacoes) {
+                            receber(notificacao.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                falhas.increment();
+                desconectado = true;
+                System.err.println("Conexão de invalidação de cache perdida: " + e.getMessage());
+                try {
+                    Thread.sleep(espera);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                espera = Math.min(espera * 2, 30_000);
+            }
+        }
+    }
+
+    /**
+     * @param payload "nó|tipo|operação|id|ref"
+     */
+    void receber(String payload) {
+        String[] partes = payload.split("\\|", -1);
+        if (partes.length != 5 || partes[0].equals(no)) {
+            return;
+        }
+        if (partes[1].equals(TODOS)) {
+            // O outro nó perdeu notificações: não há como saber quais entradas ficaram antigas
+            CacheManager.clearAll();
+            limpezasRecebidas.increment();
+            return;
+        }
+        Tipo<?> tipo = tipos.get(partes[1]);
+        if (tipo == null) {
+            return;
+        }
+        try {
+            tipo.publicar(WriteEvent.Operacao.valueOf(partes[2]), numero(partes[3]), numero(partes[4]));
+            recebidas.increment();
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalidação de cache inválida ignorada: " + payload);
+        }
+    }
+
+    private static String texto(Long valor) {
+        return valor != null ? valor.toString() : "";
+    }
+
+    private static Long numero(String texto) {
+        return texto.isEmpty() ? null : Long.valueOf(texto);
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("node", no);
+        metrics.put("channel", canal);
+        metrics.put("sent", enviadas.sum());
+        metrics.put("received", recebidas.sum());
+        metrics.put("pending", pendentes.size());
+        metrics.put("dropped", descartadas.sum());
+        metrics.put("failures", falhas.sum());
+        metrics.put("reconnects", reconexoes.sum());
+        metrics.put("clearPending", limpezaPendente.get());
+        metrics.put("clearsSent", limpezasEnviadas.sum());
+        metrics.put("clearsReceived", limpezasRecebidas.sum());
+        return metrics;
+    }
+}
@@ -0,0 +1,42 @@
+package com.fiap.esoa.salesmind.util;
+
+import com.fiap.esoa.salesmind.config.EnvConfig;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Relógio monotônico de baixa resolução para expiração de caches. Uma thread
+ * daemon atualiza System.nanoTime() a cada CACHE_CLOCK_RESOLUTION_MS, então a
+ * leitura no caminho quente é só um campo volatile (sem chamada ao SO nem alocação).
+ * A precisão da expiração fica limitada à resolução do relógio.
+ */
+final class CoarseClock {
+
+    private static final long RESOLUTION_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(Math.max(1, EnvConfig.getLong("CACHE_CLOCK_RESOLUTION_MS", 10)));
+
+    private static volatile long now = System.nanoTime();
+
+    static {
+        Thread ticker = new Thread(CoarseClock::tick, "cache-clock");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    private CoarseClock() {
+    }
+
+    /**
+     * @return Valor de System.nanoTime() da última atualização (só serve para diferenças)
+     */
+    static long nanoTime() {
+        return now;
+    }
+
+    private static void tick() {
+        while (true) {
+            LockSupport.parkNanos(RESOLUTION_NANOS);
+            now = System.nanoTime();
+        }
+    }
+}
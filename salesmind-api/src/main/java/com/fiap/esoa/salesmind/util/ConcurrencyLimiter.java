@@ -0,0 +1,102 @@
+package com.fiap.esoa.salesmind.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limitador de concorrência com espera curta e rejeição rápida.
+ * Quando todas as permissões estão em uso, a chamada espera até
+ * maxWaitMillis; depois disso é rejeitada em vez de acumular threads.
+ */
+public class ConcurrencyLimiter {
+
+    private final String name;
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final long maxWaitMillis;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LatencyHistogram waitHistogram = new LatencyHistogram();
+
+    /**
+     * @param name Nome usado nas métricas
+     * @param maxConcurrent Execuções simultâneas permitidas
+     * @param maxWaitMillis Tempo máximo de espera por uma permissão
+     */
+    public ConcurrencyLimiter(String name, int maxConcurrent, long maxWaitMillis) {
+        this.name = name;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    /**
+     * @return true se obteve permissão; nesse caso {@link #release()} deve ser chamado
+     */
+    public boolean tryAcquire() {
+        return tryAcquire(maxWaitMillis);
+    }
+
+    /**
+     * @param maxWaitMillis Espera máxima para esta chamada (ex.: tarefas em segundo plano
+     *                      podem esperar mais que requisições)
+     * @return true se obteve permissão; nesse caso {@link #release()} deve ser chamado
+     */
+    public boolean tryAcquire(long maxWaitMillis) {
+        long start = System.nanoTime();
+        boolean acquired = permits.tryAcquire();
+
+        if (!acquired && maxWaitMillis > 0) {
+            waiting.incrementAndGet();
+            try {
+                acquired = permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+
+        waitHistogram.record(System.nanoTime() - start);
+
+        if (acquired) {
+            admitted.increment();
+        } else {
+            rejected.increment();
+        }
+        return acquired;
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    /**
+     * @return Métricas do limitador (tempos em milissegundos)
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("maxConcurrent", maxConcurrent);
+        metrics.put("inFlight", maxConcurrent - permits.availablePermits());
+        metrics.put("waiting", waiting.get());
+        metrics.put("admitted", admitted.sum());
+        metrics.put("rejected", rejected.sum());
+        metrics.put("maxWaitConfiguredMs", maxWaitMillis);
+        metrics.put("wait", waitHistogram.snapshot());
+        return metrics;
+    }
+}
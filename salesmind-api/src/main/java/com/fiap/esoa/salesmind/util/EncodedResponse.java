@@ -0,0 +1,58 @@
+package com.fiap.esoa.salesmind.util;
+
+import com.fiap.esoa.salesmind.config.EnvConfig;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Resposta JSON já codificada, para cachear o payload final em vez do DTO: um hit
+ * vira uma única escrita de bytes, sem passar pelo Jackson nem comprimir de novo.
+ * Enviada por JsonUtil.sendEncodedResponse, que escolhe a versão gzip quando o
+ * cliente aceita e responde 304 quando o If-None-Match bate com o ETag.
+ *
+ * @param json Corpo em UTF-8
+ * @param gzip Corpo comprimido, ou null se pequeno demais ou se a compressão não reduziu o tamanho
+ * @param etag ETag fraco derivado do conteúdo (W/"...")
+ */
+public record EncodedResponse(byte[] json, byte[] gzip, String etag) {
+
+    private static final int GZIP_MIN_BYTES = EnvConfig.getInt("RESPONSE_GZIP_MIN_BYTES", 1024);
+
+    public static EncodedResponse of(Object data) {
+        byte[] json = JsonUtil.toJsonBytes(data);
+        byte[] gzip = json.length >= GZIP_MIN_BYTES ? gzip(json) : null;
+        return new EncodedResponse(json, gzip != null && gzip.length < json.length ? gzip : null, etag(json));
+    }
+
+    /**
+     * @return Bytes mantidos em memória (peso no cache)
+     */
+    public long sizeBytes() {
+        return 64L + json.length + (gzip != null ? gzip.length : 0) + etag.length();
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao comprimir resposta", e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String etag(byte[] json) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(json);
+            return "W/\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.fiap.esoa.salesmind.util;
+
+import com.fiap.esoa.salesmind.config.EnvConfig;
+import com.fiap.esoa.salesmind.config.ReadYourWrites;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Cache read-through de entidades por ID, na frente do findById dos repositórios.
+ * Cada escrita confirmada da entidade (WriteEventBus) invalida o ID; exclusões das
+ * entidades "pai" informadas em cascadeFrom limpam o cache inteiro, já que o banco
+ * remove os filhos em cascata sem eventos individuais.
+ * Quem chama recebe sempre uma cópia, então pode alterá-la antes de salvar.
+ *
+ * As cargas vão sempre ao primário: vinda da réplica atrasada, uma versão anterior à
+ * invalidação ficaria em cache até ENTITY_CACHE_TTL_MIN. Requisições fixadas no primário
+ * (escritas, ver ReadYourWritesFilter) não leem do cache: o registro buscado para
+ * atualizar é regravado por inteiro no save, e uma cópia desatualizada desfaria
+ * escritas já confirmadas.
+ *
+ * @param <T> Tipo da entidade
+ */
+public class EntityCache<T> {
+
+    private final CacheManager<Long, T> cache;
+    private final UnaryOperator<T> copier;
+    private final List<Runnable> inscricoes = new ArrayList<>();
+    private long invalidacoes;
+
+    private EntityCache(String name, UnaryOperator<T> copier) {
+        this.cache = CacheManager.create(name,
+                Duration.ofMinutes(EnvConfig.getLong("ENTITY_CACHE_TTL_MIN", 10)),
+                EnvConfig.getLong("ENTITY_CACHE_MAX_ENTRIES", 10_000), Long.MAX_VALUE, value -> 1);
+        this.copier = copier;
+    }
+
+    /**
+     * Cria o cache já inscrito nas escritas do WriteEventBus; close() cancela as inscrições.
+     *
+     * @param name Nome do cache nas métricas
+     * @param tipo Entidade cujas escritas invalidam o cache
+     * @param copier Cria a cópia entregue a quem chama (ex.: construtor de cópia)
+     * @param cascadeFrom Entidades cuja exclusão remove esta em cascata
+     */
+    public static <T> EntityCache<T> create(String name, Class<T> tipo, UnaryOperator<T> copier,
+            Class<?>... cascadeFrom) {
+        EntityCache<T> entityCache = new EntityCache<>(name, copier);
+        entityCache.subscribe(tipo, cascadeFrom);
+        return entityCache;
+    }
+
+    private synchronized void subscribe(Class<T> tipo, Class<?>... cascadeFrom) {
+        inscricoes.add(WriteEventBus.subscribe(tipo, event -> invalidate(event.id())));
+        for (Class<?> pai : cascadeFrom) {
+            inscricoes.add(WriteEventBus.subscribe(pai, event -> {
+                if (event.operacao() == WriteEvent.Operacao.DELETE) {
+                    clear();
+                }
+            }));
+        }
+    }
+
+    /**
+     * @param id ID da entidade
+     * @param loader Busca no banco em caso de miss (normalmente repository::findById)
+     * @return Cópia da entidade ou vazio se não existir
+     */
+    public Optional<T> findById(Long id, Function<Long, Optional<T>> loader) {
+        if (id == null) {
+            return loader.apply(null);
+        }
+        if (ReadYourWrites.isPinnedToPrimary()) {
+            return findScoped(id, entidade -> true, loader);
+        }
+        return Optional.ofNullable(cache.get(id, key -> ReadYourWrites.onPrimary(() -> loader.apply(key).orElse(null))))
+                .map(copier);
+    }
+
+    /**
+     * Busca restrita ao dono. Em cache, o escopo é conferido em memória; fora dele, a
+     * consulta já filtra no SQL (ex.: findByIdAndEmpresa) e só resultados autorizados
+     * entram no cache. Não usa a carga compartilhada do CacheManager porque o resultado
+     * depende de quem pede.
+     *
+     * @param id ID da entidade
+     * @param escopo Confere a posse de uma entidade em cache
+     * @param scopedLoader Consulta já restrita ao dono
+     * @return Cópia da entidade ou vazio se não existir ou pertencer a outro dono
+     */
+    public Optional<T> findScoped(Long id, Predicate<T> escopo, Function<Long, Optional<T>> scopedLoader) {
+        T cached = id != null && !ReadYourWrites.isPinnedToPrimary() ? cache.get(id) : null;
+        if (cached != null) {
+            return escopo.test(cached) ? Optional.of(copier.apply(cached)) : Optional.empty();
+        }
+
+        long versao;
+        synchronized (this) {
+            versao = invalidacoes;
+        }
+        Optional<T> loaded = ReadYourWrites.onPrimary(() -> scopedLoader.apply(id));
+        if (loaded.isPresent() && id != null) {
+            synchronized (this) {
+                // Uma escrita confirmada durante a consulta pode ter tornado o resultado antigo
+                if (invalidacoes == versao) {
+                    cache.put(id, loaded.get());
+                }
+            }
+        }
+        return loaded.map(copier);
+    }
+
+    /**
+     * Checagem de posse: em cache, confere em memória; senão usa a consulta de existência
+     * restrita ao dono (ex.: existsByIdAndEmpresa), sem trazer a linha.
+     */
+    public boolean existsScoped(Long id, Predicate<T> escopo, Predicate<Long> scopedExists) {
+        T cached = id != null && !ReadYourWrites.isPinnedToPrimary() ? cache.get(id) : null;
+        return cached != null ? escopo.test(cached) : scopedExists.test(id);
+    }
+
+    public synchronized void invalidate(Long id) {
+        invalidacoes++;
+        if (id != null) {
+            cache.invalidate(id);
+        }
+    }
+
+    public synchronized void clear() {
+        invalidacoes++;
+        cache.clear();
+    }
+
+    /**
+     * Cancela as inscrições no WriteEventBus e esvazia o cache (ex.: servidor parado).
+     */
+    public synchronized void close() {
+        inscricoes.forEach(Runnable::run);
+        inscricoes.clear();
+        clear();
+    }
+}
@@ -0,0 +1,83 @@
+package com.fiap.esoa.salesmind.util;
+
+/**
+ * Estimativa aproximada da frequência de acesso das chaves (Count-Min Sketch de
+ * 4 linhas com contadores de 4 bits), usada pela política de admissão TinyLFU do
+ * CacheManager. Periodicamente os contadores são divididos por dois, para que
+ * chaves populares no passado percam peso com o tempo.
+ * Não é thread-safe; o CacheManager só o acessa sob seu lock.
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+    private static final int MAX_COUNT = 15;
+
+    private final byte[][] rows;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * @param capacity Número esperado de entradas no cache
+     */
+    FrequencySketch(long capacity) {
+        int width = Integer.highestOneBit((int) Math.max(16, Math.min(capacity, 1 << 20)) - 1) << 1;
+        this.rows = new byte[SEEDS.length][width];
+        this.mask = width - 1;
+        this.sampleSize = 10 * width;
+    }
+
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < rows.length; i++) {
+            frequency = Math.min(frequency, rows[i][indexOf(hash, i)]);
+        }
+        return frequency;
+    }
+
+    /**
+     * Incrementa apenas os contadores no valor mínimo (conservative update), o que
+     * reduz a superestimação causada por colisões.
+     */
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        int minimum = frequency(key);
+        if (minimum == MAX_COUNT) {
+            return;
+        }
+
+        for (int i = 0; i < rows.length; i++) {
+            int index = indexOf(hash, i);
+            if (rows[i][index] == minimum) {
+                rows[i][index]++;
+            }
+        }
+
+        if (++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (byte[] row : rows) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] = (byte) (row[i] >>> 1);
+            }
+        }
+        additions /= 2;
+    }
+
+    private int indexOf(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return (int) h & mask;
+    }
+
+    private static int spread(int hash) {
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+}
@@ -26,6 +26,14 @@ public class JsonUtil {
         }
     }
     
+    public static byte[] toJsonBytes(Object object) {
+        try {
+            return MAPPER.writeValueAsBytes(object);
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao serializar objeto para JSON", e);
+        }
+    }
+    
     public static <T> T fromJson(String json, Class<T> clazz) {
         try {
             return MAPPER.readValue(json, clazz);
@@ -38,10 +46,7 @@ public class JsonUtil {
         String json = toJson(data);
         byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
         
-        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
-        exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
-        exchange.getResponseHeaders().set("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
-        exchange.getResponseHeaders().set("Access-Control-Allow-Headers", "Content-Type, Authorization");
+        setJsonHeaders(exchange);
         exchange.sendResponseHeaders(statusCode, bytes.length);
         
         try (OutputStream os = exchange.getResponseBody()) {
@@ -49,6 +54,80 @@ public class JsonUtil {
         }
     }
     
+    /**
+     * Envia uma resposta já codificada: 304 sem corpo se o If-None-Match bater com o ETag,
+     * a versão gzip se o cliente aceitar, ou o JSON original.
+     */
+    public static void sendEncodedResponse(HttpExchange exchange, int statusCode, EncodedResponse response) throws IOException {
+        setJsonHeaders(exchange);
+        exchange.getResponseHeaders().set("ETag", response.etag());
+        exchange.getResponseHeaders().set("Cache-Control", "private, no-cache");
+        exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+        
+        if (matchesEtag(exchange.getRequestHeaders().getFirst("If-None-Match"), response.etag())) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        
+        byte[] bytes = response.json();
+        if (response.gzip() != null && acceptsGzip(exchange.getRequestHeaders().getFirst("Accept-Encoding"))) {
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            bytes = response.gzip();
+        }
+        exchange.sendResponseHeaders(statusCode, bytes.length);
+        
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+    
+    private static void setJsonHeaders(HttpExchange exchange) {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
+        exchange.getResponseHeaders().set("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
+        exchange.getResponseHeaders().set("Access-Control-Allow-Headers", "Content-Type, Authorization");
+    }
+    
+    /**
+     * Comparação fraca (RFC 9110): ignora o prefixo W/ dos dois lados.
+     */
+    static boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaque = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidato : ifNoneMatch.split(",")) {
+            String tag = candidato.trim();
+            if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String item : acceptEncoding.split(",")) {
+            String[] partes = item.trim().split(";");
+            String codificacao = partes[0].trim();
+            if (!codificacao.equalsIgnoreCase("gzip") && !codificacao.equals("*")) {
+                continue;
+            }
+            boolean recusado = false;
+            for (int i = 1; i < partes.length; i++) {
+                String parametro = partes[i].trim().replace(" ", "");
+                if (parametro.matches("q=0(\\.0*)?")) {
+                    recusado = true;
+                }
+            }
+            return !recusado;
+        }
+        return false;
+    }
+    
     public static void sendErrorResponse(HttpExchange exchange, int statusCode, String message) throws IOException {
         ErrorResponse error = new ErrorResponse(statusCode, message);
         sendJsonResponse(exchange, statusCode, error);
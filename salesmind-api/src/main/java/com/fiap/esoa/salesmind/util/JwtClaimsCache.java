@@ -0,0 +1,116 @@
+package com.fiap.esoa.salesmind.util;
+
+import io.jsonwebtoken.Claims;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Cache de tokens JWT já verificados.
+ * A chave é o hash SHA-256 do token (o token em si não fica em memória)
+ * e cada entrada expira no instante do claim "exp".
+ * O limite de entradas é mantido pelo CacheManager (W-TinyLFU): com o cache cheio,
+ * um token novo entra sem varrer as demais entradas.
+ */
+public class JwtClaimsCache {
+
+    private static final int DEFAULT_MAX_ENTRIES = 10000;
+    // Limite superior da permanência; cada entrada vale até o próprio "exp" (tokens de acesso: 1 h)
+    private static final Duration MAX_TTL = Duration.ofHours(1);
+
+    private final CacheManager<String, CacheEntry> cache;
+
+    private static class CacheEntry {
+        private final Claims claims;
+        private final long expiresAtMillis;
+
+        public CacheEntry(Claims claims, long expiresAtMillis) {
+            this.claims = claims;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        public boolean isExpired(long nowMillis) {
+            return nowMillis >= expiresAtMillis;
+        }
+    }
+
+    public JwtClaimsCache() {
+        this("jwtClaims", DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * @param maxEntries Número máximo de tokens mantidos no cache
+     */
+    public JwtClaimsCache(int maxEntries) {
+        this(null, maxEntries);
+    }
+
+    private JwtClaimsCache(String name, int maxEntries) {
+        this.cache = CacheManager.create(name, MAX_TTL, maxEntries, Long.MAX_VALUE, entry -> 1);
+    }
+
+    /**
+     * @param token Token JWT compacto
+     * @return Claims verificados ou null se ausente ou expirado
+     */
+    public Claims get(String token) {
+        String key = hash(token);
+        CacheEntry entry = cache.get(key);
+        if (entry == null) {
+            return null;
+        }
+
+        if (entry.isExpired(System.currentTimeMillis())) {
+            cache.invalidate(key);
+            return null;
+        }
+
+        return entry.claims;
+    }
+
+    /**
+     * Armazena os claims de um token cuja assinatura já foi verificada.
+     * Tokens sem "exp" ou já expirados não são armazenados.
+     *
+     * @param token Token JWT compacto
+     * @param claims Claims verificados
+     */
+    public void put(String token, Claims claims) {
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            return;
+        }
+
+        CacheEntry entry = new CacheEntry(claims, expiration.getTime());
+        if (entry.isExpired(System.currentTimeMillis())) {
+            return;
+        }
+
+        cache.put(hash(token), entry);
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * @return Número de entradas no cache (incluindo expiradas)
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = digest.digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+}
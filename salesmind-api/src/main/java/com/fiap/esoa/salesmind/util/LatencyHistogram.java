@@ -0,0 +1,58 @@
+package com.fiap.esoa.salesmind.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latência com faixas fixas em milissegundos.
+ * Seguro para uso concorrente; registrar uma amostra não bloqueia.
+ */
+public class LatencyHistogram {
+
+    private static final long[] BUCKET_LIMITS_MS = {1, 5, 10, 25, 50, 100, 250, 500, 1000, 5000};
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_LIMITS_MS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        long millis = nanos / 1_000_000;
+        int index = 0;
+        while (index < BUCKET_LIMITS_MS.length && millis >= BUCKET_LIMITS_MS[index]) {
+            index++;
+        }
+        buckets[index].increment();
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * @return Contagem, média, máximo e amostras por faixa ("<1ms", "<5ms", ..., ">=5000ms")
+     */
+    public Map<String, Object> snapshot() {
+        long samples = count.sum();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("count", samples);
+        snapshot.put("avgMs", samples > 0 ? totalNanos.sum() / samples / 1_000_000.0 : 0.0);
+        snapshot.put("maxMs", maxNanos.get() / 1_000_000.0);
+
+        Map<String, Long> distribution = new LinkedHashMap<>();
+        for (int i = 0; i < BUCKET_LIMITS_MS.length; i++) {
+            distribution.put("<" + BUCKET_LIMITS_MS[i] + "ms", buckets[i].sum());
+        }
+        distribution.put(">=" + BUCKET_LIMITS_MS[BUCKET_LIMITS_MS.length - 1] + "ms",
+                buckets[BUCKET_LIMITS_MS.length].sum());
+        snapshot.put("buckets", distribution);
+        return snapshot;
+    }
+}
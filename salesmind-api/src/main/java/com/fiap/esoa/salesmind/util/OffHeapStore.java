@@ -0,0 +1,313 @@
+package com.fiap.esoa.salesmind.util;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+
+/**
+ * Armazenamento de bytes fora do heap (ByteBuffer direto), para valores grandes que
+ * pressionariam o GC se ficassem no CacheManager (ex.: transcrições em UTF-8).
+ *
+ * A memória é dividida em blocos de tamanho fixo, alocados sob demanda em páginas de
+ * até 64 MiB; cada valor ocupa uma lista de blocos, então não há fragmentação externa
+ * e um bloco liberado serve para qualquer valor. No heap fica só o índice (chave e
+ * números dos blocos). Sem espaço, remove os valores menos recentemente usados.
+ *
+ * Leituras copiam o valor para um byte[] novo, de vida curta. Valores maiores que 1/4
+ * da capacidade não são armazenados, para não esvaziar o cache inteiro de uma vez.
+ * A memória direta é limitada por -XX:MaxDirectMemorySize (padrão: tamanho máximo do heap).
+ *
+ * @param <K> Tipo da chave
+ */
+public class OffHeapStore<K> {
+
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+    private static final int PAGE_SIZE = 64 << 20;
+
+    private static final Set<OffHeapStore<?>> STORES =
+            Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    private record Entry(int[] blocks, int length) {
+    }
+
+    private final String name;
+    private final int blockSize;
+    private final int blocksPerPage;
+    private final IntFunction<ByteBuffer> pageAllocator;
+    private final List<ByteBuffer> pages = new ArrayList<>();
+    private final int[] freeBlocks;
+    private final LinkedHashMap<K, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    // Reduzidos às páginas já alocadas se a memória direta acabar (ver allocateBlock)
+    private volatile int totalBlocks;
+    private int maxEntryBlocks;
+    private int freeCount;
+    private int nextUnused;
+    private long storedBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private OffHeapStore(String name, long capacityBytes, int blockSize, IntFunction<ByteBuffer> pageAllocator) {
+        if (blockSize <= 0 || blockSize > PAGE_SIZE || Integer.bitCount(blockSize) != 1) {
+            throw new IllegalArgumentException("Tamanho de bloco inválido: " + blockSize);
+        }
+        this.name = name;
+        this.blockSize = blockSize;
+        this.blocksPerPage = PAGE_SIZE / blockSize;
+        this.pageAllocator = pageAllocator;
+        this.totalBlocks = (int) Math.min(Math.max(capacityBytes, 0) / blockSize, Integer.MAX_VALUE - 8);
+        this.maxEntryBlocks = Math.max(1, totalBlocks / 4);
+        this.freeBlocks = new int[totalBlocks];
+    }
+
+    /**
+     * Cria o armazenamento já registrado em getAllMetrics().
+     *
+     * @param name Nome nas métricas (null para não aparecer em getAllMetrics)
+     * @param capacityBytes Memória direta máxima usada pelos blocos
+     * @param blockSize Tamanho do bloco em bytes (potência de 2, até 64 MiB)
+     */
+    public static <K> OffHeapStore<K> create(String name, long capacityBytes, int blockSize) {
+        return create(name, capacityBytes, blockSize, ByteBuffer::allocateDirect);
+    }
+
+    /**
+     * @param pageAllocator Aloca uma página com o tamanho pedido (testes simulam falta de memória)
+     */
+    static <K> OffHeapStore<K> create(String name, long capacityBytes, int blockSize,
+            IntFunction<ByteBuffer> pageAllocator) {
+        OffHeapStore<K> store = new OffHeapStore<>(name, capacityBytes, blockSize, pageAllocator);
+        STORES.add(store);
+        return store;
+    }
+
+    /**
+     * Armazena uma cópia do valor, substituindo o anterior da chave.
+     *
+     * @return false se o valor não coube (maior que o limite por entrada ou sem memória direta)
+     */
+    public boolean put(K key, byte[] value) {
+        int needed = Math.max(1, (value.length + blockSize - 1) / blockSize);
+
+        lock.lock();
+        try {
+            removeLocked(key);
+            if (needed > maxEntryBlocks || needed > totalBlocks) {
+                rejected.increment();
+                return false;
+            }
+            while (freeCount + (totalBlocks - nextUnused) < needed) {
+                Iterator<Map.Entry<K, Entry>> eldest = entries.entrySet().iterator();
+                Entry evicted = eldest.next().getValue();
+                eldest.remove();
+                release(evicted);
+                evictions.increment();
+            }
+
+            int[] blocks = new int[needed];
+            for (int i = 0; i < needed; i++) {
+                int block = allocateBlock();
+                if (block < 0) {
+                    release(new Entry(Arrays.copyOf(blocks, i), 0));
+                    rejected.increment();
+                    return false;
+                }
+                blocks[i] = block;
+            }
+
+            int offset = 0;
+            for (int block : blocks) {
+                int length = Math.min(blockSize, value.length - offset);
+                if (length > 0) {
+                    page(block).put(offsetInPage(block), value, offset, length);
+                    offset += length;
+                }
+            }
+            entries.put(key, new Entry(blocks, value.length));
+            storedBytes += value.length;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Cópia do valor no heap, ou null se ausente
+     */
+    public byte[] get(K key) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+
+            byte[] value = new byte[entry.length()];
+            int offset = 0;
+            for (int block : entry.blocks()) {
+                int length = Math.min(blockSize, value.length - offset);
+                if (length > 0) {
+                    page(block).get(offsetInPage(block), value, offset, length);
+                    offset += length;
+                }
+            }
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(K key) {
+        lock.lock();
+        try {
+            removeLocked(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove todos os valores. As páginas já alocadas são mantidas para reuso.
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            for (Entry entry : entries.values()) {
+                release(entry);
+            }
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Bytes dos valores armazenados (sem o desperdício do último bloco de cada valor)
+     */
+    public long storedBytes() {
+        lock.lock();
+        try {
+            return storedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removeLocked(K key) {
+        Entry previous = entries.remove(key);
+        if (previous != null) {
+            release(previous);
+        }
+    }
+
+    private void release(Entry entry) {
+        for (int block : entry.blocks()) {
+            freeBlocks[freeCount++] = block;
+        }
+        storedBytes -= entry.length();
+    }
+
+    /**
+     * @return Número do bloco, ou -1 se a memória direta acabou ao alocar uma nova página
+     */
+    private int allocateBlock() {
+        if (freeCount > 0) {
+            return freeBlocks[--freeCount];
+        }
+        int block = nextUnused;
+        int pageIndex = block / blocksPerPage;
+        if (pageIndex == pages.size()) {
+            if (block >= totalBlocks) {
+                return -1;
+            }
+            long remaining = (long) (totalBlocks - pageIndex * blocksPerPage) * blockSize;
+            try {
+                pages.add(pageAllocator.apply((int) Math.min(PAGE_SIZE, remaining)));
+            } catch (OutOfMemoryError e) {
+                // A capacidade passa a ser a das páginas já alocadas; sem isso a remoção
+                // contaria blocos que nunca existirão como livres e o cache deixaria de aceitar valores
+                totalBlocks = block;
+                maxEntryBlocks = Math.max(1, totalBlocks / 4);
+                System.err.println("Memória direta esgotada no cache off-heap " + name
+                        + "; capacidade reduzida para " + (long) totalBlocks * blockSize
+                        + " bytes. Ajuste -XX:MaxDirectMemorySize ou reduza a capacidade: " + e.getMessage());
+                return -1;
+            }
+        }
+        nextUnused++;
+        return block;
+    }
+
+    private ByteBuffer page(int block) {
+        return pages.get(block / blocksPerPage);
+    }
+
+    private int offsetInPage(int block) {
+        return (block % blocksPerPage) * blockSize;
+    }
+
+    /**
+     * @return Métricas de todos os armazenamentos com nome, ordenadas pelo nome
+     */
+    public static Map<String, Object> getAllMetrics() {
+        List<OffHeapStore<?>> stores;
+        synchronized (STORES) {
+            stores = new ArrayList<>(STORES);
+        }
+        Map<String, Object> metrics = new TreeMap<>();
+        for (OffHeapStore<?> store : stores) {
+            if (store.name != null) {
+                metrics.put(store.name, store.getMetrics());
+            }
+        }
+        return metrics;
+    }
+
+    public Map<String, Object> getMetrics() {
+        long hitCount = hits.sum();
+        long requests = hitCount + misses.sum();
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            metrics.put("size", entries.size());
+            metrics.put("storedBytes", storedBytes);
+            metrics.put("usedBlockBytes", (long) (nextUnused - freeCount) * blockSize);
+            metrics.put("allocatedBytes", pages.stream().mapToLong(ByteBuffer::capacity).sum());
+        } finally {
+            lock.unlock();
+        }
+        metrics.put("capacityBytes", (long) totalBlocks * blockSize);
+        metrics.put("hits", hitCount);
+        metrics.put("misses", requests - hitCount);
+        metrics.put("hitRate", requests > 0 ? (double) hitCount / requests : 0.0);
+        metrics.put("evictions", evictions.sum());
+        metrics.put("rejected", rejected.sum());
+        return metrics;
+    }
+}
@@ -1,27 +1,73 @@
 package com.fiap.esoa.salesmind.util;
 
+import com.fiap.esoa.salesmind.config.EnvConfig;
 import org.mindrot.jbcrypt.BCrypt;
 
 public class PasswordUtil {
-    
-    private static final int BCRYPT_ROUNDS = 10;
+
+    public static final int MIN_BCRYPT_ROUNDS = 4;
+    public static final int MAX_BCRYPT_ROUNDS = 16;
+    private static final int DEFAULT_BCRYPT_ROUNDS = 10;
+
+    private static volatile int bcryptRounds = clampRounds(EnvConfig.getInt("BCRYPT_ROUNDS", DEFAULT_BCRYPT_ROUNDS));
 
     public static String hashPassword(String plainPassword) {
         if (plainPassword == null || plainPassword.isEmpty()) {
             throw new IllegalArgumentException("Senha não pode ser nula ou vazia");
         }
-        return BCrypt.hashpw(plainPassword, BCrypt.gensalt(BCRYPT_ROUNDS));
+        return BCrypt.hashpw(plainPassword, BCrypt.gensalt(bcryptRounds));
     }
 
     public static boolean checkPassword(String plainPassword, String hashedPassword) {
         if (plainPassword == null || hashedPassword == null) {
             return false;
         }
-        
+
         try {
             return BCrypt.checkpw(plainPassword, hashedPassword);
         } catch (IllegalArgumentException e) {
             return false;
         }
     }
+
+    /**
+     * Indica se o hash foi gerado com custo menor que o configurado
+     * e deve ser refeito no próximo login bem-sucedido.
+     * Hashes mais fortes são mantidos: instâncias com custos diferentes
+     * (ex.: calibrados em hardware diferente) não reescrevem a senha a cada login.
+     */
+    public static boolean needsRehash(String hashedPassword) {
+        int cost = getCost(hashedPassword);
+        return cost > 0 && cost < bcryptRounds;
+    }
+
+    /**
+     * @return Custo (log rounds) do hash bcrypt ou -1 se o formato for inválido
+     */
+    public static int getCost(String hashedPassword) {
+        if (hashedPassword == null || hashedPassword.length() < 7 || !hashedPassword.startsWith("$2")) {
+            return -1;
+        }
+        int costStart = hashedPassword.indexOf('$', 1) + 1;
+        if (costStart <= 0 || costStart + 2 > hashedPassword.length()) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(hashedPassword.substring(costStart, costStart + 2));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public static int getRounds() {
+        return bcryptRounds;
+    }
+
+    public static void setRounds(int rounds) {
+        bcryptRounds = clampRounds(rounds);
+    }
+
+    private static int clampRounds(int rounds) {
+        return Math.max(MIN_BCRYPT_ROUNDS, Math.min(MAX_BCRYPT_ROUNDS, rounds));
+    }
 }
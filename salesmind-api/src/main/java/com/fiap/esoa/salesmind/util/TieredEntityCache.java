@@ -0,0 +1,192 @@
+package com.fiap.esoa.salesmind.util;
+
+import com.fiap.esoa.salesmind.config.ReadYourWrites;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Cache de entidades em dois níveis: a parte pequena da entidade fica no heap
+ * (CacheManager) e os campos grandes, serializados, ficam fora do heap (OffHeapStore).
+ * Assim é possível manter gigabytes de texto em cache sem aumentar as pausas do GC.
+ *
+ * As duas partes são gravadas juntas sob o mesmo lock, e só se nenhuma escrita da
+ * entidade foi confirmada durante a consulta (mesmo controle de versão do EntityCache).
+ * Cada carga leva um número de sequência gravado nos dois níveis, para que uma leitura
+ * nunca junte a parte do heap de uma carga com os bytes de outra. Se o off-heap tiver
+ * descartado os bytes, a entidade é recarregada do banco.
+ * Como no EntityCache, as cargas vão ao primário e requisições fixadas no primário
+ * (escritas) não leem do cache.
+ * Com capacidade off-heap zero o cache fica desligado e toda busca vai ao banco.
+ *
+ * @param <T> Tipo da entidade
+ */
+public class TieredEntityCache<T> {
+
+    /**
+     * Separa os campos grandes da entidade e os devolve depois.
+     */
+    public interface Separador<T> {
+
+        /**
+         * Serializa os campos grandes e os remove da entidade (que ficará no heap).
+         */
+        byte[] separar(T entidade);
+
+        /**
+         * Preenche os campos grandes de uma cópia da entidade.
+         *
+         * @param dados Bytes produzidos por separar, a partir da posição atual
+         */
+        void restaurar(T entidade, ByteBuffer dados);
+    }
+
+    private record Entrada<T>(T parte, long sequencia) {
+    }
+
+    private final CacheManager<Long, Entrada<T>> heap;
+    private final OffHeapStore<Long> offHeap;
+    private final UnaryOperator<T> copier;
+    private final Separador<T> separador;
+    private final List<Runnable> inscricoes = new ArrayList<>();
+    private long invalidacoes;
+    private long sequencia;
+
+    private TieredEntityCache(String name, Duration ttl, long maximumSize, long offHeapBytes,
+            UnaryOperator<T> copier, Separador<T> separador) {
+        this.copier = copier;
+        this.separador = separador;
+        if (offHeapBytes <= 0) {
+            this.heap = null;
+            this.offHeap = null;
+            return;
+        }
+        this.heap = CacheManager.create(name, ttl, maximumSize, Long.MAX_VALUE, value -> 1);
+        this.offHeap = OffHeapStore.create(name + "OffHeap", offHeapBytes, OffHeapStore.DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Cria o cache já inscrito nas escritas do WriteEventBus; close() cancela as inscrições.
+     *
+     * @param name Nome dos dois níveis nas métricas (name e name + "OffHeap")
+     * @param ttl Validade da parte no heap (rede de segurança; escritas invalidam antes)
+     * @param maximumSize Entidades mantidas no heap
+     * @param offHeapBytes Memória direta para os campos grandes (0 desliga o cache)
+     * @param tipo Entidade cujas escritas invalidam o cache
+     * @param copier Cria a cópia entregue a quem chama (ex.: construtor de cópia)
+     * @param separador Separa e restaura os campos grandes
+     * @param cascadeFrom Entidades cuja exclusão remove esta em cascata
+     */
+    public static <T> TieredEntityCache<T> create(String name, Duration ttl, long maximumSize, long offHeapBytes,
+            Class<T> tipo, UnaryOperator<T> copier, Separador<T> separador, Class<?>... cascadeFrom) {
+        TieredEntityCache<T> tiered = new TieredEntityCache<>(name, ttl, maximumSize, offHeapBytes, copier, separador);
+        if (tiered.isEnabled()) {
+            tiered.subscribe(tipo, cascadeFrom);
+        }
+        return tiered;
+    }
+
+    private synchronized void subscribe(Class<T> tipo, Class<?>... cascadeFrom) {
+        inscricoes.add(WriteEventBus.subscribe(tipo, event -> invalidate(event.id())));
+        for (Class<?> pai : cascadeFrom) {
+            inscricoes.add(WriteEventBus.subscribe(pai, event -> {
+                if (event.operacao() == WriteEvent.Operacao.DELETE) {
+                    clear();
+                }
+            }));
+        }
+    }
+
+    public boolean isEnabled() {
+        return heap != null;
+    }
+
+    /**
+     * Busca restrita ao dono, como EntityCache.findScoped: em cache, o escopo é conferido
+     * em memória; fora dele, a consulta já filtra no SQL.
+     *
+     * @return Cópia completa da entidade ou vazio se não existir ou pertencer a outro dono
+     */
+    public Optional<T> findScoped(Long id, Predicate<T> escopo, Function<Long, Optional<T>> scopedLoader) {
+        if (!isEnabled() || id == null) {
+            return scopedLoader.apply(id);
+        }
+
+        Entrada<T> cached = ReadYourWrites.isPinnedToPrimary() ? null : heap.get(id);
+        if (cached != null) {
+            if (!escopo.test(cached.parte())) {
+                return Optional.empty();
+            }
+            byte[] dados = offHeap.get(id);
+            ByteBuffer buffer = dados != null ? ByteBuffer.wrap(dados) : null;
+            if (buffer != null && buffer.getLong() == cached.sequencia()) {
+                T copia = copier.apply(cached.parte());
+                separador.restaurar(copia, buffer);
+                return Optional.of(copia);
+            }
+        }
+
+        long versao;
+        synchronized (this) {
+            versao = invalidacoes;
+        }
+        Optional<T> loaded = ReadYourWrites.onPrimary(() -> scopedLoader.apply(id));
+        if (loaded.isPresent()) {
+            T parteHeap = copier.apply(loaded.get());
+            byte[] campos = separador.separar(parteHeap);
+            synchronized (this) {
+                // Uma escrita confirmada durante a consulta pode ter tornado o resultado antigo
+                if (invalidacoes == versao) {
+                    long atual = ++sequencia;
+                    byte[] dados = ByteBuffer.allocate(Long.BYTES + campos.length).putLong(atual).put(campos).array();
+                    if (offHeap.put(id, dados)) {
+                        heap.put(id, new Entrada<>(parteHeap, atual));
+                    }
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Checagem de posse: em cache, confere em memória; senão usa a consulta de existência.
+     */
+    public boolean existsScoped(Long id, Predicate<T> escopo, Predicate<Long> scopedExists) {
+        Entrada<T> cached = isEnabled() && id != null && !ReadYourWrites.isPinnedToPrimary() ? heap.get(id) : null;
+        return cached != null ? escopo.test(cached.parte()) : scopedExists.test(id);
+    }
+
+    public synchronized void invalidate(Long id) {
+        if (!isEnabled()) {
+            return;
+        }
+        invalidacoes++;
+        if (id != null) {
+            heap.invalidate(id);
+            offHeap.invalidate(id);
+        }
+    }
+
+    public synchronized void clear() {
+        if (!isEnabled()) {
+            return;
+        }
+        invalidacoes++;
+        heap.clear();
+        offHeap.clear();
+    }
+
+    /**
+     * Cancela as inscrições no WriteEventBus e esvazia os dois níveis (ex.: servidor parado).
+     */
+    public synchronized void close() {
+        inscricoes.forEach(Runnable::run);
+        inscricoes.clear();
+        clear();
+    }
+}
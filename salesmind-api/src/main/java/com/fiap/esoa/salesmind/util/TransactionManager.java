@@ -3,11 +3,13 @@ package com.fiap.esoa.salesmind.util;
 import com.fiap.esoa.salesmind.config.DatabaseConfig;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
  * Gerenciador de transações com commit/rollback automático.
+ * Eventos do WriteEventBus publicados dentro da transação são entregues após o commit.
  */
 public class TransactionManager {
     
@@ -21,6 +23,8 @@ public class TransactionManager {
      */
     public static <T> T executeTransaction(Function<Connection, T> operation) {
         Connection conn = null;
+        List<WriteEvent<?>> outerEvents = WriteEventBus.beginTransaction();
+        boolean committed = false;
         try {
             conn = DatabaseConfig.getConnection();
             conn.setAutoCommit(false);
@@ -28,6 +32,7 @@ public class TransactionManager {
             T result = operation.apply(conn);
             
             conn.commit();
+            committed = true;
             return result;
             
         } catch (Exception e) {
@@ -50,6 +55,7 @@ public class TransactionManager {
                     System.err.println("Failed to close connection: " + e.getMessage());
                 }
             }
+            WriteEventBus.endTransaction(outerEvents, committed);
         }
     }
     
@@ -66,6 +72,24 @@ public class TransactionManager {
         });
     }
     
+    /**
+     * Executa várias leituras na mesma conexão do pool, sem abrir transação.
+     * Um fluxo que faz N consultas passa a emprestar uma conexão em vez de N.
+     * Usa a conexão de leitura (réplica, salvo read-your-writes).
+     * 
+     * @param <T> Tipo de retorno
+     * @param operation Função que recebe Connection e retorna resultado
+     * @return Resultado da operação
+     * @throws RuntimeException se a conexão não puder ser obtida
+     */
+    public static <T> T executeWithConnection(Function<Connection, T> operation) {
+        try (Connection conn = DatabaseConfig.getReadConnection()) {
+            return operation.apply(conn);
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao obter conexão: " + e.getMessage(), e);
+        }
+    }
+    
     /**
      * Executa operações com tratamento customizado de exceções.
      * 
@@ -79,6 +103,8 @@ public class TransactionManager {
             Consumer<Exception> onError) {
         
         Connection conn = null;
+        List<WriteEvent<?>> outerEvents = WriteEventBus.beginTransaction();
+        boolean committed = false;
         try {
             conn = DatabaseConfig.getConnection();
             conn.setAutoCommit(false);
@@ -86,6 +112,7 @@ public class TransactionManager {
             T result = operation.apply(conn);
             
             conn.commit();
+            committed = true;
             return result;
             
         } catch (Exception e) {
@@ -112,6 +139,7 @@ public class TransactionManager {
                     System.err.println("Failed to close connection: " + e.getMessage());
                 }
             }
+            WriteEventBus.endTransaction(outerEvents, committed);
         }
     }
 }
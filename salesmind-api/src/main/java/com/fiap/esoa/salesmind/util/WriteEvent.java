@@ -0,0 +1,24 @@
+package com.fiap.esoa.salesmind.util;
+
+/**
+ * Escrita confirmada no banco, publicada pelos repositórios no WriteEventBus.
+ *
+ * @param <T> Tipo da entidade
+ * @param tipo Classe da entidade alterada
+ * @param operacao SAVE (insert/update) ou DELETE
+ * @param id ID da entidade
+ * @param entidade Estado gravado ou excluído; null quando o repositório só conhece o ID
+ * @param remoto true se a escrita ocorreu em outra instância (ClusterInvalidation); nesse
+ *        caso a entidade, se houver, só tem o ID e as chaves usadas nas invalidações
+ */
+public record WriteEvent<T>(Class<T> tipo, Operacao operacao, Long id, T entidade, boolean remoto) {
+
+    public WriteEvent(Class<T> tipo, Operacao operacao, Long id, T entidade) {
+        this(tipo, operacao, id, entidade, false);
+    }
+
+    public enum Operacao {
+        SAVE,
+        DELETE
+    }
+}
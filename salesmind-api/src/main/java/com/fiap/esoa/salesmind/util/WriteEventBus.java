@@ -0,0 +1,106 @@
+package com.fiap.esoa.salesmind.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Barramento de eventos de escrita dos repositórios, usado para invalidar caches.
+ * Eventos publicados dentro de TransactionManager.executeTransaction só são entregues
+ * após o commit (e descartados no rollback); fora de transação, na hora.
+ * Os listeners rodam na thread que fez a escrita, então quem grava já lê o cache
+ * invalidado na requisição seguinte.
+ * Escritas de outras instâncias chegam por publishRemote (ver ClusterInvalidation).
+ */
+public final class WriteEventBus {
+
+    private static final Map<Class<?>, List<Consumer<WriteEvent<?>>>> LISTENERS = new ConcurrentHashMap<>();
+    private static final ThreadLocal<List<WriteEvent<?>>> PENDING = new ThreadLocal<>();
+
+    private WriteEventBus() {
+    }
+
+    /**
+     * @param tipo Classe da entidade observada
+     * @param listener Chamado para cada escrita confirmada dessa entidade
+     * @return Cancela a inscrição
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Runnable subscribe(Class<T> tipo, Consumer<WriteEvent<T>> listener) {
+        Consumer<WriteEvent<?>> untyped = event -> listener.accept((WriteEvent<T>) event);
+        List<Consumer<WriteEvent<?>>> listeners = LISTENERS.computeIfAbsent(tipo, key -> new CopyOnWriteArrayList<>());
+        listeners.add(untyped);
+        return () -> listeners.remove(untyped);
+    }
+
+    public static <T> void publishSave(Class<T> tipo, Long id, T entidade) {
+        publish(new WriteEvent<>(tipo, WriteEvent.Operacao.SAVE, id, entidade));
+    }
+
+    public static <T> void publishDelete(Class<T> tipo, Long id, T entidade) {
+        publish(new WriteEvent<>(tipo, WriteEvent.Operacao.DELETE, id, entidade));
+    }
+
+    /**
+     * Entrega uma escrita confirmada em outra instância aos listeners locais.
+     */
+    public static <T> void publishRemote(Class<T> tipo, WriteEvent.Operacao operacao, Long id, T entidade) {
+        dispatch(new WriteEvent<>(tipo, operacao, id, entidade, true));
+    }
+
+    private static void publish(WriteEvent<?> event) {
+        List<WriteEvent<?>> pending = PENDING.get();
+        if (pending != null) {
+            pending.add(event);
+        } else {
+            dispatch(event);
+        }
+    }
+
+    /**
+     * Passa a acumular os eventos da thread até endTransaction.
+     *
+     * @return Eventos da transação externa (se houver), a restaurar em endTransaction
+     */
+    static List<WriteEvent<?>> beginTransaction() {
+        List<WriteEvent<?>> outer = PENDING.get();
+        PENDING.set(new ArrayList<>());
+        return outer;
+    }
+
+    /**
+     * @param outer Valor devolvido por beginTransaction
+     * @param committed true para entregar os eventos acumulados, false para descartá-los
+     */
+    static void endTransaction(List<WriteEvent<?>> outer, boolean committed) {
+        List<WriteEvent<?>> pending = PENDING.get();
+        if (outer != null) {
+            PENDING.set(outer);
+        } else {
+            PENDING.remove();
+        }
+
+        if (committed && pending != null) {
+            for (WriteEvent<?> event : pending) {
+                dispatch(event);
+            }
+        }
+    }
+
+    private static void dispatch(WriteEvent<?> event) {
+        List<Consumer<WriteEvent<?>>> listeners = LISTENERS.get(event.tipo());
+        if (listeners == null) {
+            return;
+        }
+        for (Consumer<WriteEvent<?>> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (Exception e) {
+                System.err.println("Falha em listener de escrita de " + event.tipo().getSimpleName() + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.fiap.esoa.salesmind.config;
+
+import com.fiap.esoa.salesmind.util.ConcurrencyLimiter;
+import org.junit.jupiter.api.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do ConnectionAdmission (cotas do pool para conexões fora de requisições admitidas)
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ConnectionAdmissionTest {
+
+    private ConcurrencyLimiter handlers;
+    private ConcurrencyLimiter limiter;
+    private AtomicInteger fechadas;
+
+    @BeforeEach
+    void setup() {
+        handlers = new ConcurrencyLimiter("db", 1, 0);
+        limiter = new ConcurrencyLimiter("teste", 1, 50);
+        fechadas = new AtomicInteger();
+        ConnectionAdmission.configure(handlers, limiter);
+    }
+
+    @AfterEach
+    void cleanup() {
+        ConnectionAdmission.configure(null, null);
+        ConnectionAdmission.clear();
+    }
+
+    private Connection conexaoFalsa() {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "close" -> {
+                        fechadas.incrementAndGet();
+                        yield null;
+                    }
+                    case "isClosed" -> fechadas.get() > 0;
+                    default -> null;
+                });
+    }
+
+    private int emUso() {
+        return (int) limiter.getMetrics().get("inFlight");
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. Conexão fora de requisição ocupa uma vaga até ser fechada")
+    void testVagaAteFechar() throws SQLException {
+        Connection conn = ConnectionAdmission.acquire(this::conexaoFalsa);
+        assertEquals(1, emUso());
+
+        conn.close();
+        conn.close();
+        assertEquals(0, emUso());
+        assertTrue(fechadas.get() >= 1);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Sem vaga, outra thread recebe erro transitório após a espera")
+    void testSemVaga() throws Exception {
+        try (Connection conn = ConnectionAdmission.acquire(this::conexaoFalsa)) {
+            assertFalse(conn.isClosed());
+            Thread outra = Thread.ofVirtual().start(() ->
+                    assertThrows(ConnectionAdmission.AdmissionRejectedException.class,
+                            () -> ConnectionAdmission.acquire(this::conexaoFalsa)));
+            outra.join();
+            assertEquals(1L, limiter.getMetrics().get("rejected"));
+        }
+        assertEquals(0, emUso());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Conexão aninhada na mesma thread não pega outra vaga")
+    void testAninhada() throws SQLException {
+        try (Connection externa = ConnectionAdmission.acquire(this::conexaoFalsa)) {
+            try (Connection interna = ConnectionAdmission.acquire(this::conexaoFalsa)) {
+                assertNotSame(externa, interna);
+                assertEquals(1, emUso());
+            }
+            assertEquals(1, emUso());
+        }
+        assertEquals(0, emUso());
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. Requisição admitida usa a própria vaga de handler")
+    void testAdmitida() throws SQLException {
+        ConnectionAdmission.admit();
+        try (Connection conn = ConnectionAdmission.acquire(this::conexaoFalsa)) {
+            assertFalse(conn.isClosed());
+            assertEquals(0, emUso());
+        }
+        assertEquals(0L, limiter.getMetrics().get("admitted"));
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("5. Falha ao obter a conexão devolve a vaga")
+    void testFalhaDevolveVaga() {
+        SQLException e = assertThrows(SQLException.class, () -> ConnectionAdmission.acquire(() -> {
+            throw new SQLException("pool fechado");
+        }));
+        assertFalse(ConnectionAdmission.isRejection(e));
+        assertEquals(0, emUso());
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("6. Login e uploads ocupam vaga de handler por conexão e falham rápido sem vaga")
+    void testPorConexao() throws Exception {
+        ConnectionAdmission.admitPerConnection();
+        Connection conn = ConnectionAdmission.acquire(this::conexaoFalsa);
+        assertEquals(1, (int) handlers.getMetrics().get("inFlight"));
+        assertEquals(0, emUso());
+
+        AtomicReference<Throwable> erro = new AtomicReference<>();
+        Thread outra = Thread.ofVirtual().start(() -> {
+            ConnectionAdmission.admitPerConnection();
+            try {
+                ConnectionAdmission.acquire(this::conexaoFalsa).close();
+            } catch (SQLException e) {
+                erro.set(new RuntimeException("Erro ao buscar usuário", e));
+            }
+        });
+        outra.join();
+        assertTrue(ConnectionAdmission.isRejection(erro.get()));
+        assertEquals(1L, handlers.getMetrics().get("rejected"));
+
+        conn.close();
+        assertEquals(0, (int) handlers.getMetrics().get("inFlight"));
+    }
+}
@@ -0,0 +1,127 @@
+package com.fiap.esoa.salesmind.config;
+
+import com.fiap.esoa.salesmind.filter.ReadYourWritesFilter;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do ReadYourWrites e do ReadYourWritesFilter (quais leituras ficam fixadas no primário,
+ * inclusive as leituras com escopo usadas nas cargas de cache)
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ReadYourWritesTest {
+
+    private static HttpServer server;
+    private static HttpClient client;
+    private static String baseUrl;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api", new ReadYourWritesFilter(exchange -> {
+            boolean fixadaNaEntrada = ReadYourWrites.isPinnedToPrimary();
+            // Simula a leitura de um registro antes da resposta: não pode desfixar a requisição
+            ReadYourWrites.pinToPrimary();
+            exchange.getResponseHeaders().set("X-Primario", String.valueOf(fixadaNaEntrada));
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        }));
+        // Uma única thread: a requisição seguinte roda na mesma thread da anterior
+        server.setExecutor(Executors.newSingleThreadExecutor());
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        server.stop(0);
+    }
+
+    @AfterEach
+    void cleanup() {
+        ReadYourWrites.clear();
+    }
+
+    private static boolean fixadaNoPrimario(String method) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(baseUrl + "/api/x"))
+                .method(method, HttpRequest.BodyPublishers.noBody()).build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        assertEquals(204, response.statusCode());
+        return Boolean.parseBoolean(response.headers().firstValue("X-Primario").orElseThrow());
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. pinToPrimary fixa a thread até clear")
+    void testPinAteClear() {
+        assertFalse(ReadYourWrites.isPinnedToPrimary());
+
+        ReadYourWrites.pinToPrimary();
+        assertTrue(ReadYourWrites.isPinnedToPrimary());
+
+        ReadYourWrites.clear();
+        assertFalse(ReadYourWrites.isPinnedToPrimary());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. GET e HEAD começam na réplica, mesmo após uma requisição fixada na mesma thread")
+    void testLeituraComecaNaReplica() throws Exception {
+        assertFalse(fixadaNoPrimario("GET"));
+        assertFalse(fixadaNoPrimario("GET"), "A fixação da requisição anterior não pode vazar");
+        assertFalse(fixadaNoPrimario("HEAD"));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Métodos de escrita leem do primário desde o início")
+    void testEscritaFixadaNoPrimario() throws Exception {
+        assertTrue(fixadaNoPrimario("POST"));
+        assertTrue(fixadaNoPrimario("PUT"));
+        assertTrue(fixadaNoPrimario("DELETE"));
+        assertFalse(fixadaNoPrimario("GET"));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. onPrimary fixa no primário só durante a leitura")
+    void testOnPrimaryDesfixaAoFinal() {
+        boolean durante = ReadYourWrites.onPrimary(ReadYourWrites::isPinnedToPrimary);
+
+        assertTrue(durante);
+        assertFalse(ReadYourWrites.isPinnedToPrimary(), "A requisição não pode continuar fixada no primário");
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("5. onPrimary mantém a fixação de uma escrita anterior")
+    void testOnPrimaryMantemFixacaoAnterior() {
+        ReadYourWrites.pinToPrimary();
+
+        ReadYourWrites.onPrimary(() -> null);
+
+        assertTrue(ReadYourWrites.isPinnedToPrimary());
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("6. onPrimary desfixa mesmo quando a leitura falha")
+    void testOnPrimaryDesfixaComErro() {
+        assertThrows(IllegalStateException.class, () -> ReadYourWrites.onPrimary(() -> {
+            throw new IllegalStateException("falha");
+        }));
+
+        assertFalse(ReadYourWrites.isPinnedToPrimary());
+    }
+}
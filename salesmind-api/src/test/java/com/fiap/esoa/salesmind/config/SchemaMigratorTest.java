@@ -0,0 +1,200 @@
+package com.fiap.esoa.salesmind.config;
+
+import com.fiap.esoa.salesmind.repository.TestDataBuilder;
+import org.junit.jupiter.api.*;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes de integração para SchemaMigrator com PostgreSQL
+ * As migrações de teste usam versões a partir de 9001 e são removidas ao final de cada teste
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class SchemaMigratorTest {
+
+    private static DataSource dataSource;
+
+    @BeforeAll
+    static void setupAll() {
+        TestDataBuilder.configureTestDatabase();
+        dataSource = DatabaseConfig.getDataSource();
+    }
+
+    @AfterEach
+    void cleanup() throws SQLException {
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS migracao_teste");
+            stmt.execute("DELETE FROM schema_migrations WHERE versao > 9000");
+        }
+    }
+
+    private static List<Integer> versoesAplicadas() throws SQLException {
+        List<Integer> versoes = new ArrayList<>();
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT versao FROM schema_migrations ORDER BY versao")) {
+            while (rs.next()) {
+                versoes.add(rs.getInt("versao"));
+            }
+        }
+        return versoes;
+    }
+
+    private static Timestamp aplicadoEm(int versao) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(
+                        "SELECT aplicado_em FROM schema_migrations WHERE versao = ?")) {
+            stmt.setInt(1, versao);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getTimestamp("aplicado_em") : null;
+            }
+        }
+    }
+
+    private static Boolean indiceValido(String nome) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement stmt = conn.prepareStatement("""
+                        SELECT i.indisvalid FROM pg_index i
+                        INNER JOIN pg_class c ON c.oid = i.indexrelid
+                        WHERE c.relname = ?
+                        """)) {
+            stmt.setString(1, nome);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getBoolean(1) : null;
+            }
+        }
+    }
+
+    private static void executar(String sql) throws SQLException {
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. Todas as versões publicadas ficam registradas em schema_migrations")
+    void testVersoesRegistradas() throws SQLException {
+        List<Integer> esperadas = SchemaMigrator.MIGRATIONS.stream().map(SchemaMigrator.Migration::version).toList();
+
+        assertEquals(esperadas, versoesAplicadas());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Rodar de novo não reaplica nem altera o registro das migrações")
+    void testIdempotente() throws SQLException {
+        List<Integer> antes = versoesAplicadas();
+        Timestamp v1 = aplicadoEm(1);
+
+        SchemaMigrator.migrate(dataSource);
+
+        assertEquals(antes, versoesAplicadas());
+        assertEquals(v1, aplicadoEm(1));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Migração nova é aplicada uma única vez")
+    void testMigracaoNovaAplicadaUmaVez() throws SQLException {
+        List<SchemaMigrator.Migration> migracoes = List.of(new SchemaMigrator.Migration(9001, "Teste",
+                "CREATE TABLE migracao_teste (id INTEGER)",
+                "INSERT INTO migracao_teste VALUES (1)"));
+
+        SchemaMigrator.migrate(dataSource, migracoes);
+        SchemaMigrator.migrate(dataSource, migracoes);
+
+        assertTrue(versoesAplicadas().contains(9001));
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM migracao_teste")) {
+            assertTrue(rs.next());
+            assertEquals(1, rs.getInt(1));
+        }
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. Migração com erro é revertida e não é registrada")
+    void testMigracaoComErroRevertida() throws SQLException {
+        List<SchemaMigrator.Migration> migracoes = List.of(new SchemaMigrator.Migration(9002, "Com erro",
+                "CREATE TABLE migracao_teste (id INTEGER)",
+                "INSERT INTO tabela_inexistente VALUES (1)"));
+
+        assertThrows(SQLException.class, () -> SchemaMigrator.migrate(dataSource, migracoes));
+
+        assertFalse(versoesAplicadas().contains(9002));
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT to_regclass('migracao_teste') IS NULL")) {
+            assertTrue(rs.next());
+            assertTrue(rs.getBoolean(1));
+        }
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("5. Migração espera o advisory lock de outra instância")
+    void testEsperaAdvisoryLock() throws Exception {
+        List<SchemaMigrator.Migration> migracoes = List.of(new SchemaMigrator.Migration(9003, "Com lock",
+                "CREATE TABLE migracao_teste (id INTEGER)"));
+
+        try (Connection outraInstancia = dataSource.getConnection()) {
+            try (PreparedStatement lock = outraInstancia.prepareStatement("SELECT pg_advisory_lock(?)")) {
+                lock.setLong(1, SchemaMigrator.MIGRATION_LOCK_KEY);
+                lock.execute();
+            }
+
+            CompletableFuture<Void> migracao = CompletableFuture.runAsync(() -> {
+                try {
+                    SchemaMigrator.migrate(dataSource, migracoes);
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+
+            Thread.sleep(500);
+            assertFalse(migracao.isDone(), "Migração não pode rodar enquanto outra instância detém o lock");
+            assertFalse(versoesAplicadas().contains(9003));
+
+            try (PreparedStatement unlock = outraInstancia.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+                unlock.setLong(1, SchemaMigrator.MIGRATION_LOCK_KEY);
+                unlock.execute();
+            }
+
+            migracao.get(5, TimeUnit.SECONDS);
+        }
+
+        assertTrue(versoesAplicadas().contains(9003));
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("6. Índice concorrente deixado INVALID por falha anterior é recriado")
+    void testIndiceConcorrenteInvalidoRecriado() throws SQLException {
+        executar("CREATE TABLE migracao_teste (codigo INTEGER)");
+        executar("INSERT INTO migracao_teste VALUES (1), (1)");
+        List<SchemaMigrator.Migration> migracoes = List.of(new SchemaMigrator.Migration(9004, "Índice", false,
+                "CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS idx_migracao_teste_codigo ON migracao_teste(codigo)"));
+
+        // Duplicata faz o CREATE INDEX CONCURRENTLY falhar e deixar o índice INVALID
+        assertThrows(SQLException.class, () -> SchemaMigrator.migrate(dataSource, migracoes));
+        assertFalse(versoesAplicadas().contains(9004));
+        assertEquals(Boolean.FALSE, indiceValido("idx_migracao_teste_codigo"));
+
+        executar("DELETE FROM migracao_teste");
+        SchemaMigrator.migrate(dataSource, migracoes);
+
+        assertTrue(versoesAplicadas().contains(9004));
+        assertEquals(Boolean.TRUE, indiceValido("idx_migracao_teste_codigo"));
+    }
+}
@@ -0,0 +1,162 @@
+package com.fiap.esoa.salesmind.filter;
+
+import com.fiap.esoa.salesmind.config.ConnectionAdmission;
+import com.fiap.esoa.salesmind.util.ConcurrencyLimiter;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do DbAdmissionFilter com servidor HTTP local (porta efêmera)
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class DbAdmissionFilterTest {
+
+    private static HttpServer server;
+    private static HttpClient client;
+    private static ConcurrencyLimiter handlers;
+    private static ConcurrencyLimiter background;
+    private static String baseUrl;
+    private static volatile CountDownLatch liberar = new CountDownLatch(0);
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        handlers = new ConcurrencyLimiter("db", 1, 50);
+        background = new ConcurrencyLimiter("db-background", 1, 0);
+        ConnectionAdmission.configure(handlers, background);
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api", new DbAdmissionFilter(handler(true), handlers));
+        server.createContext("/auth", DbAdmissionFilter.perConnection(handler(false), handlers));
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        server.stop(0);
+        ConnectionAdmission.configure(null, null);
+    }
+
+    /**
+     * Responde "vagas de handler em uso na entrada:usos da cota de segundo plano"
+     * depois de abrir e fechar uma conexão; 503 se a conexão foi recusada por falta de vaga.
+     */
+    private static HttpHandler handler(boolean aguardaLiberar) {
+        return exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            String emUso = String.valueOf(handlers.getMetrics().get("inFlight"));
+            try {
+                if (aguardaLiberar) {
+                    liberar.await(10, TimeUnit.SECONDS);
+                }
+                Connection conn = ConnectionAdmission.acquire(DbAdmissionFilterTest::conexaoFalsa);
+                conn.close();
+                byte[] bytes = (emUso + ":" + background.getMetrics().get("admitted")).getBytes();
+                exchange.sendResponseHeaders(200, bytes.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(bytes);
+                }
+            } catch (Exception e) {
+                exchange.sendResponseHeaders(ConnectionAdmission.isRejection(e) ? 503 : 500, -1);
+            }
+        };
+    }
+
+    private static Connection conexaoFalsa() {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, method, args) -> null);
+    }
+
+    private static CompletableFuture<HttpResponse<String>> post(String contentType) {
+        return post("/api/gravacoes", contentType);
+    }
+
+    private static CompletableFuture<HttpResponse<String>> post(String path, String contentType) {
+        return client.sendAsync(HttpRequest.newBuilder()
+                        .uri(URI.create(baseUrl + path))
+                        .header("Content-Type", contentType)
+                        .POST(HttpRequest.BodyPublishers.ofString("corpo"))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. Requisição admitida não usa a cota de segundo plano")
+    void testAdmitida() throws Exception {
+        HttpResponse<String> response = post("application/json").get(10, TimeUnit.SECONDS);
+
+        assertEquals(200, response.statusCode());
+        assertEquals("1:0", response.body());
+        assertEquals(1L, handlers.getMetrics().get("admitted"));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Com as vagas de handler ocupadas, responde 503")
+    void testSobrecarga() throws Exception {
+        liberar = new CountDownLatch(1);
+        CompletableFuture<HttpResponse<String>> ocupando = post("application/json");
+        while ((int) handlers.getMetrics().get("inFlight") == 0) {
+            Thread.sleep(5);
+        }
+
+        assertEquals(503, post("application/json").get(10, TimeUnit.SECONDS).statusCode());
+
+        liberar.countDown();
+        assertEquals(200, ocupando.get(10, TimeUnit.SECONDS).statusCode());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Upload multipart passa sem vaga de handler e ocupa uma só enquanto a conexão está aberta")
+    void testMultipart() throws Exception {
+        long admitidas = (long) handlers.getMetrics().get("admitted");
+
+        HttpResponse<String> response = post("multipart/form-data; boundary=x").get(10, TimeUnit.SECONDS);
+
+        assertEquals(200, response.statusCode());
+        assertEquals("0:0", response.body());
+        assertEquals(admitidas + 1, handlers.getMetrics().get("admitted"));
+        assertEquals(0, (int) handlers.getMetrics().get("inFlight"));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. Login com as vagas de handler ocupadas falha rápido com 503, sem usar a cota de segundo plano")
+    void testLoginSemVaga() throws Exception {
+        liberar = new CountDownLatch(1);
+        CompletableFuture<HttpResponse<String>> ocupando = post("application/json");
+        while ((int) handlers.getMetrics().get("inFlight") == 0) {
+            Thread.sleep(5);
+        }
+
+        assertEquals(503, post("/auth/login", "application/json").get(10, TimeUnit.SECONDS).statusCode());
+        assertEquals(0L, background.getMetrics().get("admitted"));
+
+        liberar.countDown();
+        assertEquals(200, ocupando.get(10, TimeUnit.SECONDS).statusCode());
+        HttpResponse<String> response = post("/auth/login", "application/json").get(10, TimeUnit.SECONDS);
+        assertEquals(200, response.statusCode());
+        assertEquals("0:0", response.body());
+    }
+}
@@ -0,0 +1,120 @@
+package com.fiap.esoa.salesmind.filter;
+
+import com.fiap.esoa.salesmind.util.JwtClaimsCache;
+import com.sun.net.httpserver.HttpServer;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.*;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do JwtAuthFilter com servidor HTTP local (porta efêmera)
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class JwtAuthFilterTest {
+
+    private static final SecretKey KEY = Jwts.SIG.HS256.key().build();
+
+    private static HttpServer server;
+    private static HttpClient client;
+    private static JwtClaimsCache claimsCache;
+    private static String baseUrl;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        claimsCache = new JwtClaimsCache();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api", new JwtAuthFilter(exchange -> {
+            byte[] bytes = String.valueOf(exchange.getAttribute("email")).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        }, Jwts.parser().verifyWith(KEY).build(), claimsCache));
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        server.stop(0);
+    }
+
+    @BeforeEach
+    void setup() {
+        claimsCache.clear();
+    }
+
+    private static String token(String type) {
+        return Jwts.builder()
+                .subject("vendedor@empresa.com")
+                .claim("userId", 1L)
+                .claim("empresaId", 2L)
+                .claim("role", "VENDEDOR")
+                .claim("type", type)
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(KEY)
+                .compact();
+    }
+
+    private static HttpResponse<String> get(String token) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder().uri(URI.create(baseUrl + "/api/clientes")).GET();
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. Token de acesso válido é aceito e armazenado no cache")
+    void testAccessToken() throws Exception {
+        String token = token("access");
+
+        HttpResponse<String> response = get(token);
+
+        assertEquals(200, response.statusCode());
+        assertEquals("vendedor@empresa.com", response.body());
+        assertNotNull(claimsCache.get(token));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Token de atualização é recusado e não entra no cache")
+    void testRefreshToken() throws Exception {
+        String token = token("refresh");
+
+        assertEquals(401, get(token).statusCode());
+        assertEquals(401, get(token).statusCode());
+        assertNull(claimsCache.get(token));
+        assertEquals(0, claimsCache.size());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Token ausente, malformado ou com assinatura inválida retorna 401")
+    void testInvalidos() throws Exception {
+        String outraChave = Jwts.builder()
+                .subject("x")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Jwts.SIG.HS256.key().build())
+                .compact();
+
+        assertEquals(401, get(null).statusCode());
+        assertEquals(401, get("abc").statusCode());
+        assertEquals(401, get(outraChave).statusCode());
+        assertEquals(0, claimsCache.size());
+    }
+}
@@ -0,0 +1,94 @@
+package com.fiap.esoa.salesmind.filter;
+
+import com.fiap.esoa.salesmind.util.ConcurrencyLimiter;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do LoadSheddingFilter com servidor HTTP local (porta efêmera)
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class LoadSheddingFilterTest {
+
+    private static HttpServer server;
+    private static HttpClient client;
+    private static ConcurrencyLimiter limiter;
+    private static String baseUrl;
+    private static volatile CountDownLatch liberar = new CountDownLatch(0);
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        limiter = new ConcurrencyLimiter("teste", 1, 50);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api", new LoadSheddingFilter(exchange -> {
+            try {
+                liberar.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, 2);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write("ok".getBytes());
+            }
+        }, limiter));
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        server.stop(0);
+    }
+
+    private static CompletableFuture<HttpResponse<String>> get() {
+        return client.sendAsync(HttpRequest.newBuilder().uri(URI.create(baseUrl + "/api/x")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. Requisição dentro do limite é atendida")
+    void testAdmitida() throws Exception {
+        HttpResponse<String> response = get().get(10, TimeUnit.SECONDS);
+
+        assertEquals(200, response.statusCode());
+        assertEquals(0, limiter.getMetrics().get("inFlight"));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Acima do limite responde 503 com Retry-After e libera a vaga depois")
+    void testSobrecarga() throws Exception {
+        liberar = new CountDownLatch(1);
+        CompletableFuture<HttpResponse<String>> ocupando = get();
+        while ((int) limiter.getMetrics().get("inFlight") == 0) {
+            Thread.sleep(5);
+        }
+
+        HttpResponse<String> rejeitada = get().get(10, TimeUnit.SECONDS);
+        assertEquals(503, rejeitada.statusCode());
+        assertEquals("1", rejeitada.headers().firstValue("Retry-After").orElse(null));
+        assertTrue(rejeitada.body().contains("503"));
+
+        liberar.countDown();
+        assertEquals(200, ocupando.get(10, TimeUnit.SECONDS).statusCode());
+        assertEquals(200, get().get(10, TimeUnit.SECONDS).statusCode());
+        assertEquals(0, limiter.getMetrics().get("inFlight"));
+    }
+}
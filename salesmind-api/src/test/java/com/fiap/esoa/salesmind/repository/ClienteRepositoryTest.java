@@ -4,8 +4,10 @@ import com.fiap.esoa.salesmind.model.Cliente;
 import com.fiap.esoa.salesmind.model.Empresa;
 import org.junit.jupiter.api.*;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -252,4 +254,71 @@ class ClienteRepositoryTest {
         assertTrue(found.isPresent());
         assertEquals(testClienteId, found.get().getId());
     }
+
+    private List<Cliente> novosClientes(int quantidade, String prefixo) {
+        List<Cliente> clientes = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            Cliente cliente = new Cliente();
+            cliente.setIdEmpresa(testEmpresaId);
+            cliente.setNome(prefixo + " \"Cliente\", " + i);
+            cliente.setEmail(prefixo + i + "@bulk.com");
+            clientes.add(cliente);
+        }
+        return clientes;
+    }
+
+    @Test
+    @Order(14)
+    @DisplayName("14. Inserir em lote com executeBatch preenche ids")
+    void testSaveAll() {
+        List<Cliente> salvos = repository.saveAll(novosClientes(3, "batch"));
+
+        assertEquals(3, salvos.size());
+        salvos.forEach(c -> assertNotNull(c.getId()));
+        assertEquals("batch \"Cliente\", 1", repository.findById(salvos.get(1).getId()).orElseThrow().getNome());
+        assertEquals(3, repository.countByEmpresa(testEmpresaId));
+    }
+
+    @Test
+    @Order(15)
+    @DisplayName("15. Carga via COPY preserva aspas, vírgulas e nulos")
+    void testCopyAll() {
+        long inseridos = repository.copyAll(novosClientes(5, "copy"));
+
+        assertEquals(5, inseridos);
+        List<Cliente> clientes = repository.findByEmpresa(testEmpresaId);
+        assertEquals(5, clientes.size());
+        assertTrue(clientes.stream().anyMatch(c -> "copy \"Cliente\", 0".equals(c.getNome())));
+        assertTrue(clientes.stream().allMatch(c -> c.getCpfCnpj() == null));
+    }
+
+    @Test
+    @Order(16)
+    @DisplayName("16. Identificadores já cadastrados em uma única consulta")
+    void testFindIdentificadoresExistentes() {
+        repository.saveAll(novosClientes(2, "exist"));
+
+        var existentes = repository.findIdentificadoresExistentes(
+                List.of(), List.of("exist0@bulk.com", "novo@bulk.com"), List.of());
+
+        assertEquals(Set.of("exist0@bulk.com"), existentes);
+    }
+
+    @Test
+    @Order(17)
+    @DisplayName("17. Busca por ID restrita à empresa ignora clientes de outra empresa")
+    void testFindByIdAndEmpresa() {
+        Cliente cliente = TestDataBuilder.createCliente(testEmpresaId, "posse");
+        testClienteId = cliente.getId();
+        Empresa outra = TestDataBuilder.createEmpresa("outra" + System.currentTimeMillis());
+
+        assertTrue(repository.findByIdAndEmpresa(testClienteId, testEmpresaId).isPresent());
+        assertTrue(repository.existsByIdAndEmpresa(testClienteId, testEmpresaId));
+
+        assertTrue(repository.findByIdAndEmpresa(testClienteId, outra.getId()).isEmpty());
+        assertFalse(repository.existsByIdAndEmpresa(testClienteId, outra.getId()));
+        assertFalse(repository.existsByIdAndEmpresa(-1L, testEmpresaId));
+
+        empresaRepository.deleteById(outra.getId());
+    }
 }
@@ -1,5 +1,8 @@
 package com.fiap.esoa.salesmind.repository;
 
+import com.fiap.esoa.salesmind.dto.DependenciasEmpresaDTO;
+import com.fiap.esoa.salesmind.dto.EstatisticasEmpresaDTO;
+import com.fiap.esoa.salesmind.enums.StatusVenda;
 import com.fiap.esoa.salesmind.model.Empresa;
 import com.fiap.esoa.salesmind.model.Usuario;
 import com.fiap.esoa.salesmind.model.Cliente;
@@ -13,13 +16,14 @@ import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Testes de integração para EmpresaRepository com PostgreSQL
- * Testa operações CRUD, restrições UNIQUE e exclusões CASCADE
+ * Testa operações CRUD, restrições UNIQUE, exclusões CASCADE e os contadores de estatisticas_empresa
  */
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 class EmpresaRepositoryTest {
 
     private static EmpresaRepository repository;
     private Long testEmpresaId;
+    private Long outraEmpresaId;
 
     @BeforeAll
     static void setupAll() {
@@ -41,6 +45,31 @@ class EmpresaRepositoryTest {
             }
             testEmpresaId = null;
         }
+        if (outraEmpresaId != null) {
+            try {
+                repository.deleteById(outraEmpresaId);
+            } catch (Exception ignored) {
+            }
+            outraEmpresaId = null;
+        }
+    }
+
+    /**
+     * Confere os contadores mantidos por trigger (V3): usuarios, clientes, gravacoes e vendas fechadas
+     */
+    private void assertContadores(Long idEmpresa, long usuarios, long clientes, long gravacoes, long fechadas) {
+        EstatisticasEmpresaDTO estatisticas = repository.getEstatisticas(idEmpresa);
+        assertNotNull(estatisticas, "Empresa deve ter linha em estatisticas_empresa");
+        assertEquals(usuarios, estatisticas.totalUsuarios(), "total_usuarios");
+        assertEquals(clientes, estatisticas.totalClientes(), "total_clientes");
+        assertEquals(gravacoes, estatisticas.totalGravacoes(), "total_gravacoes");
+        assertEquals(fechadas, estatisticas.vendasFechadas(), "vendas_fechadas");
+    }
+
+    private GravacaoCall createGravacaoFechada(Long usuarioId, Long clienteId, String suffix) {
+        GravacaoCall gravacao = TestDataBuilder.createGravacao(usuarioId, clienteId, suffix);
+        gravacao.setStatusVenda(StatusVenda.FECHADO);
+        return new GravacaoCallRepository().save(gravacao);
     }
 
     @Test
@@ -183,4 +212,162 @@ class EmpresaRepositoryTest {
         
         testEmpresaId = null;
     }
+
+    @Test
+    @Order(9)
+    @DisplayName("9. Contadores de estatísticas acompanham inserções")
+    void testEstatisticasInsercao() {
+        Empresa empresa = TestDataBuilder.createEmpresa("stats-ins");
+        testEmpresaId = empresa.getId();
+        assertContadores(testEmpresaId, 0, 0, 0, 0);
+
+        Usuario usuario = TestDataBuilder.createUsuario(testEmpresaId, "stats-ins");
+        Cliente cliente = TestDataBuilder.createCliente(testEmpresaId, "stats-ins");
+        assertContadores(testEmpresaId, 1, 1, 0, 0);
+
+        TestDataBuilder.createGravacao(usuario.getId(), cliente.getId(), "stats-ins1");
+        createGravacaoFechada(usuario.getId(), cliente.getId(), "stats-ins2");
+        assertContadores(testEmpresaId, 1, 1, 2, 1);
+        assertEquals(50.0, repository.getEstatisticas(testEmpresaId).taxaConversao(), 0.01);
+    }
+
+    @Test
+    @Order(10)
+    @DisplayName("10. Mudança de status_venda ajusta só as vendas fechadas")
+    void testEstatisticasStatusVenda() {
+        Empresa empresa = TestDataBuilder.createEmpresa("stats-status");
+        testEmpresaId = empresa.getId();
+        Usuario usuario = TestDataBuilder.createUsuario(testEmpresaId, "stats-status");
+        Cliente cliente = TestDataBuilder.createCliente(testEmpresaId, "stats-status");
+        GravacaoCall gravacao = TestDataBuilder.createGravacao(usuario.getId(), cliente.getId(), "stats-status");
+        GravacaoCallRepository gravacaoRepository = new GravacaoCallRepository();
+
+        gravacao.setStatusVenda(StatusVenda.FECHADO);
+        gravacaoRepository.save(gravacao);
+        assertContadores(testEmpresaId, 1, 1, 1, 1);
+
+        gravacao.setStatusVenda(StatusVenda.PERDIDO);
+        gravacaoRepository.save(gravacao);
+        assertContadores(testEmpresaId, 1, 1, 1, 0);
+    }
+
+    @Test
+    @Order(11)
+    @DisplayName("11. Usuario movido de empresa leva as gravações junto")
+    void testEstatisticasMoverUsuario() {
+        Empresa origem = TestDataBuilder.createEmpresa("stats-usr-a");
+        testEmpresaId = origem.getId();
+        Empresa destino = TestDataBuilder.createEmpresa("stats-usr-b");
+        outraEmpresaId = destino.getId();
+        Usuario usuario = TestDataBuilder.createUsuario(testEmpresaId, "stats-usr");
+        Cliente cliente = TestDataBuilder.createCliente(testEmpresaId, "stats-usr");
+        TestDataBuilder.createGravacao(usuario.getId(), cliente.getId(), "stats-usr1");
+        createGravacaoFechada(usuario.getId(), cliente.getId(), "stats-usr2");
+
+        usuario.setIdEmpresa(outraEmpresaId);
+        new UsuarioRepository().save(usuario);
+
+        assertContadores(testEmpresaId, 0, 1, 0, 0);
+        assertContadores(outraEmpresaId, 1, 0, 2, 1);
+    }
+
+    @Test
+    @Order(12)
+    @DisplayName("12. Cliente movido de empresa não leva as gravações (elas seguem o vendedor)")
+    void testEstatisticasMoverCliente() {
+        Empresa origem = TestDataBuilder.createEmpresa("stats-cli-a");
+        testEmpresaId = origem.getId();
+        Empresa destino = TestDataBuilder.createEmpresa("stats-cli-b");
+        outraEmpresaId = destino.getId();
+        Usuario usuario = TestDataBuilder.createUsuario(testEmpresaId, "stats-cli");
+        Cliente cliente = TestDataBuilder.createCliente(testEmpresaId, "stats-cli");
+        createGravacaoFechada(usuario.getId(), cliente.getId(), "stats-cli");
+
+        cliente.setIdEmpresa(outraEmpresaId);
+        new ClienteRepository().save(cliente);
+
+        assertContadores(testEmpresaId, 1, 0, 1, 1);
+        assertContadores(outraEmpresaId, 0, 1, 0, 0);
+    }
+
+    @Test
+    @Order(13)
+    @DisplayName("13. Excluir usuario desconta o usuario e as gravações removidas em cascata")
+    void testEstatisticasExcluirUsuario() {
+        Empresa empresa = TestDataBuilder.createEmpresa("stats-del-usr");
+        testEmpresaId = empresa.getId();
+        Usuario usuario = TestDataBuilder.createUsuario(testEmpresaId, "stats-del-usr");
+        Usuario outroUsuario = TestDataBuilder.createUsuario(testEmpresaId, "stats-del-usr2");
+        Cliente cliente = TestDataBuilder.createCliente(testEmpresaId, "stats-del-usr");
+        createGravacaoFechada(usuario.getId(), cliente.getId(), "stats-del-usr1");
+        TestDataBuilder.createGravacao(usuario.getId(), cliente.getId(), "stats-del-usr2");
+        TestDataBuilder.createGravacao(outroUsuario.getId(), cliente.getId(), "stats-del-usr3");
+        assertContadores(testEmpresaId, 2, 1, 3, 1);
+
+        new UsuarioRepository().deleteById(usuario.getId());
+
+        assertContadores(testEmpresaId, 1, 1, 1, 0);
+    }
+
+    @Test
+    @Order(14)
+    @DisplayName("14. Excluir cliente desconta o cliente e as gravações removidas em cascata")
+    void testEstatisticasExcluirCliente() {
+        Empresa empresa = TestDataBuilder.createEmpresa("stats-del-cli");
+        testEmpresaId = empresa.getId();
+        Usuario usuario = TestDataBuilder.createUsuario(testEmpresaId, "stats-del-cli");
+        Cliente cliente = TestDataBuilder.createCliente(testEmpresaId, "stats-del-cli");
+        Cliente outroCliente = TestDataBuilder.createCliente(testEmpresaId, "stats-del-cli2");
+        createGravacaoFechada(usuario.getId(), cliente.getId(), "stats-del-cli1");
+        TestDataBuilder.createGravacao(usuario.getId(), outroCliente.getId(), "stats-del-cli2");
+        assertContadores(testEmpresaId, 1, 2, 2, 1);
+
+        new ClienteRepository().deleteById(cliente.getId());
+
+        assertContadores(testEmpresaId, 1, 1, 1, 0);
+    }
+
+    @Test
+    @Order(15)
+    @DisplayName("15. Excluir empresa remove seus contadores e desconta gravações de outra empresa")
+    void testEstatisticasExcluirEmpresa() {
+        Empresa empresa = TestDataBuilder.createEmpresa("stats-del-emp-a");
+        Long empresaId = empresa.getId();
+        Empresa outra = TestDataBuilder.createEmpresa("stats-del-emp-b");
+        outraEmpresaId = outra.getId();
+        Cliente cliente = TestDataBuilder.createCliente(empresaId, "stats-del-emp");
+        Usuario usuario = TestDataBuilder.createUsuario(empresaId, "stats-del-emp");
+        TestDataBuilder.createGravacao(usuario.getId(), cliente.getId(), "stats-del-emp1");
+        // Gravação de vendedor da outra empresa com cliente desta: conta para a empresa do vendedor
+        Usuario vendedorOutra = TestDataBuilder.createUsuario(outraEmpresaId, "stats-del-emp-b");
+        createGravacaoFechada(vendedorOutra.getId(), cliente.getId(), "stats-del-emp2");
+        assertContadores(empresaId, 1, 1, 1, 0);
+        assertContadores(outraEmpresaId, 1, 0, 1, 1);
+
+        repository.deleteById(empresaId);
+
+        assertNull(repository.getEstatisticas(empresaId), "Contadores da empresa excluída devem sair junto");
+        assertContadores(outraEmpresaId, 1, 0, 0, 0);
+    }
+
+    @Test
+    @Order(16)
+    @DisplayName("16. Resumo de dependências em uma única consulta")
+    void testFindDependencias() {
+        Empresa empresa = TestDataBuilder.createEmpresa("deps");
+        testEmpresaId = empresa.getId();
+
+        DependenciasEmpresaDTO vazia = repository.findDependencias(testEmpresaId);
+        assertFalse(vazia.possuiAlguma());
+
+        Usuario usuario = TestDataBuilder.createUsuario(testEmpresaId, "deps");
+        Cliente cliente = TestDataBuilder.createCliente(testEmpresaId, "deps");
+        TestDataBuilder.createGravacao(usuario.getId(), cliente.getId(), "deps");
+
+        DependenciasEmpresaDTO dependencias = repository.findDependencias(testEmpresaId);
+        assertTrue(dependencias.possuiUsuarios());
+        assertTrue(dependencias.possuiClientes());
+        assertTrue(dependencias.possuiGravacoes());
+        assertTrue(dependencias.possuiAlguma());
+    }
 }
@@ -1,12 +1,17 @@
 package com.fiap.esoa.salesmind.repository;
 
+import com.fiap.esoa.salesmind.dto.ProcessamentoConcluidoDTO;
 import com.fiap.esoa.salesmind.enums.StatusProcessamento;
 import com.fiap.esoa.salesmind.enums.StatusVenda;
 import com.fiap.esoa.salesmind.model.*;
+import com.fiap.esoa.salesmind.util.TransactionManager;
+import com.fiap.esoa.salesmind.util.WriteEvent;
+import com.fiap.esoa.salesmind.util.WriteEventBus;
 import org.junit.jupiter.api.*;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -223,4 +228,109 @@ class GravacaoCallRepositoryTest {
 
         repository.deleteById(g2.getId());
     }
+
+    @Test
+    @Order(11)
+    @DisplayName("11. Estatísticas do cliente em uma única consulta")
+    void testGetEstatisticasByCliente() {
+        GravacaoCall g1 = TestDataBuilder.createGravacao(testUsuarioId, testClienteId, "est1");
+        g1.setStatusVenda(StatusVenda.FECHADO);
+        repository.save(g1);
+
+        GravacaoCall g2 = TestDataBuilder.createGravacao(testUsuarioId, testClienteId, "est2");
+
+        testGravacaoId = g1.getId();
+
+        var stats = repository.getEstatisticasByCliente(testClienteId);
+        assertEquals(testClienteId, stats.idCliente());
+        assertEquals(2L, stats.totalGravacoes());
+        assertEquals(1L, stats.vendasFechadas());
+
+        repository.deleteById(g2.getId());
+    }
+
+    @Test
+    @Order(12)
+    @DisplayName("12. Conclusão do processamento com UPDATE ... RETURNING")
+    void testConcluirProcessamento() {
+        GravacaoCall gravacao = TestDataBuilder.createGravacao(testUsuarioId, testClienteId, "proc");
+        testGravacaoId = gravacao.getId();
+
+        GravacaoCall processando = repository.markProcessando(testGravacaoId).orElseThrow();
+        assertEquals(StatusProcessamento.PROCESSANDO, processando.getStatusProcessamento());
+
+        ProcessamentoConcluidoDTO concluido = TransactionManager.executeTransaction(conn -> {
+            try {
+                return repository.concluirProcessamentoWithConnection(conn, testGravacaoId,
+                        "transcrição", "resumo", StatusVenda.QUALIFICADO).orElseThrow();
+            } catch (java.sql.SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        assertEquals(testEmpresaId, concluido.idEmpresa());
+        assertEquals(StatusProcessamento.CONCLUIDO, concluido.gravacao().getStatusProcessamento());
+        assertEquals(StatusVenda.QUALIFICADO, concluido.gravacao().getStatusVenda());
+        assertEquals("transcrição", concluido.gravacao().getTranscricao());
+
+        repository.markErro(testGravacaoId, "falha");
+        GravacaoCall comErro = repository.findById(testGravacaoId).orElseThrow();
+        assertEquals(StatusProcessamento.ERRO, comErro.getStatusProcessamento());
+        assertEquals("falha", comErro.getErroProcessamento());
+    }
+
+    @Test
+    @Order(13)
+    @DisplayName("13. Escritas publicam eventos após o commit e rollback não publica")
+    void testWriteEvents() {
+        List<WriteEvent<GravacaoCall>> eventos = new CopyOnWriteArrayList<>();
+        Runnable cancelar = WriteEventBus.subscribe(GravacaoCall.class, eventos::add);
+        try {
+            GravacaoCall gravacao = TestDataBuilder.createGravacao(testUsuarioId, testClienteId, "evt");
+            assertEquals(1, eventos.size());
+            assertEquals(WriteEvent.Operacao.SAVE, eventos.get(0).operacao());
+
+            assertThrows(RuntimeException.class, () -> TransactionManager.executeTransaction(conn -> {
+                try {
+                    repository.concluirProcessamentoWithConnection(conn, gravacao.getId(),
+                            "t", "r", StatusVenda.QUALIFICADO);
+                } catch (java.sql.SQLException e) {
+                    throw new RuntimeException(e);
+                }
+                throw new IllegalStateException("forçar rollback");
+            }));
+            assertEquals(1, eventos.size());
+
+            repository.deleteById(gravacao.getId());
+            assertEquals(2, eventos.size());
+            WriteEvent<GravacaoCall> exclusao = eventos.get(1);
+            assertEquals(WriteEvent.Operacao.DELETE, exclusao.operacao());
+            assertEquals(gravacao.getId(), exclusao.id());
+            assertEquals(testClienteId, exclusao.entidade().getIdCliente());
+        } finally {
+            cancelar.run();
+        }
+    }
+
+    @Test
+    @Order(14)
+    @DisplayName("14. Busca por ID restrita ao vendedor ignora gravações de outro vendedor")
+    void testFindByIdAndUsuario() {
+        GravacaoCall gravacao = TestDataBuilder.createGravacao(testUsuarioId, testClienteId, "posse");
+        testGravacaoId = gravacao.getId();
+        Usuario outro = TestDataBuilder.createUsuario(testEmpresaId, "outro" + System.currentTimeMillis());
+
+        Optional<GravacaoCall> found = repository.findByIdAndUsuario(testGravacaoId, testUsuarioId);
+        assertTrue(found.isPresent());
+        assertEquals(testClienteId, found.get().getIdCliente());
+        assertTrue(repository.existsByIdAndUsuario(testGravacaoId, testUsuarioId));
+
+        assertTrue(repository.findByIdAndUsuario(testGravacaoId, outro.getId()).isEmpty());
+        assertFalse(repository.existsByIdAndUsuario(testGravacaoId, outro.getId()));
+
+        FeedbackIA feedback = TestDataBuilder.createFeedback(testGravacaoId, testEmpresaId);
+        FeedbackIARepository feedbackRepository = new FeedbackIARepository();
+        assertTrue(feedbackRepository.findByIdAndUsuario(feedback.getId(), testUsuarioId).isPresent());
+        assertTrue(feedbackRepository.findByIdAndUsuario(feedback.getId(), outro.getId()).isEmpty());
+    }
 }
@@ -0,0 +1,112 @@
+package com.fiap.esoa.salesmind.repository;
+
+import com.fiap.esoa.salesmind.config.DatabaseConfig;
+import com.fiap.esoa.salesmind.model.Cliente;
+import com.fiap.esoa.salesmind.model.Empresa;
+import com.fiap.esoa.salesmind.model.Usuario;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark de vazão dos repositórios com o perfil de conexão ativo.
+ * Desligado por padrão; para comparar perfis, rode duas vezes mudando as variáveis, ex.:
+ *   mvn test -Dtest=RepositoryThroughputBenchmarkTest -Dbenchmark=true
+ *   mvn test -Dtest=RepositoryThroughputBenchmarkTest -Dbenchmark=true -DDB_PREPARE_THRESHOLD=5 -DDB_PREPARED_STATEMENT_CACHE_QUERIES=0
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class RepositoryThroughputBenchmarkTest {
+
+    private static final long WARMUP_SECONDS = 3;
+    private static final long MEASURE_SECONDS = 10;
+
+    private static ClienteRepository clienteRepository;
+    private static UsuarioRepository usuarioRepository;
+    private static GravacaoCallRepository gravacaoRepository;
+    private static EmpresaRepository empresaRepository;
+
+    private Long testEmpresaId;
+    private Long testUsuarioId;
+    private List<Long> clienteIds;
+
+    @BeforeAll
+    static void setupAll() {
+        TestDataBuilder.configureTestDatabase();
+        clienteRepository = new ClienteRepository();
+        usuarioRepository = new UsuarioRepository();
+        gravacaoRepository = new GravacaoCallRepository();
+        empresaRepository = new EmpresaRepository();
+    }
+
+    @BeforeEach
+    void setup() {
+        TestDataBuilder.cleanAllData();
+        Empresa empresa = TestDataBuilder.createEmpresa("bench");
+        testEmpresaId = empresa.getId();
+        Usuario usuario = TestDataBuilder.createUsuario(testEmpresaId, "bench");
+        testUsuarioId = usuario.getId();
+
+        List<Cliente> clientes = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Cliente cliente = new Cliente();
+            cliente.setIdEmpresa(testEmpresaId);
+            cliente.setNome("Cliente bench " + i);
+            clientes.add(cliente);
+        }
+        clienteIds = clienteRepository.saveAll(clientes).stream().map(Cliente::getId).toList();
+    }
+
+    @AfterEach
+    void cleanup() {
+        if (testEmpresaId != null) {
+            empresaRepository.deleteById(testEmpresaId);
+            testEmpresaId = null;
+        }
+    }
+
+    @Test
+    @DisplayName("Vazão de leituras típicas dos endpoints (findById, contagens, estatísticas)")
+    void benchmarkLeituras() throws InterruptedException {
+        runFor(WARMUP_SECONDS);
+        long ops = runFor(MEASURE_SECONDS);
+
+        System.out.printf("Repositórios: %.0f ops/s com %d threads (uma por conexão do pool)%n",
+                ops / (double) MEASURE_SECONDS, DatabaseConfig.getMaximumPoolSize());
+        System.out.println("Aquisição de conexão: " + DatabaseConfig.getPoolMetrics().get("connectionAcquire"));
+        assertTrue(ops > 0);
+    }
+
+    private long runFor(long seconds) throws InterruptedException {
+        int threads = DatabaseConfig.getMaximumPoolSize();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        LongAdder ops = new LongAdder();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        for (int t = 0; t < threads; t++) {
+            final int offset = t;
+            executor.submit(() -> {
+                int i = offset;
+                while (System.nanoTime() < deadline) {
+                    Long idCliente = clienteIds.get(i++ % clienteIds.size());
+                    clienteRepository.findById(idCliente);
+                    usuarioRepository.findById(testUsuarioId);
+                    gravacaoRepository.getEstatisticasByCliente(idCliente);
+                    empresaRepository.findDependencias(testEmpresaId);
+                    ops.add(4);
+                }
+            });
+        }
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(seconds + 30, TimeUnit.SECONDS));
+        return ops.sum();
+    }
+}
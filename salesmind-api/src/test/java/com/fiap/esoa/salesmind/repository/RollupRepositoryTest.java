@@ -0,0 +1,125 @@
+package com.fiap.esoa.salesmind.repository;
+
+import com.fiap.esoa.salesmind.dto.SeriePontoDTO;
+import com.fiap.esoa.salesmind.enums.Granularidade;
+import com.fiap.esoa.salesmind.enums.StatusVenda;
+import com.fiap.esoa.salesmind.model.Cliente;
+import com.fiap.esoa.salesmind.model.Empresa;
+import com.fiap.esoa.salesmind.model.GravacaoCall;
+import com.fiap.esoa.salesmind.model.Usuario;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes de integração para RollupRepository (séries mantidas por triggers) com PostgreSQL
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class RollupRepositoryTest {
+
+    private static RollupRepository repository;
+    private static GravacaoCallRepository gravacaoRepository;
+    private static EmpresaRepository empresaRepository;
+
+    private Long testEmpresaId;
+    private Long testUsuarioId;
+    private Long testClienteId;
+
+    @BeforeAll
+    static void setupAll() {
+        TestDataBuilder.configureTestDatabase();
+        repository = new RollupRepository();
+        gravacaoRepository = new GravacaoCallRepository();
+        empresaRepository = new EmpresaRepository();
+    }
+
+    @BeforeEach
+    void setup() {
+        TestDataBuilder.cleanAllData();
+
+        Empresa empresa = TestDataBuilder.createEmpresa(String.valueOf(System.currentTimeMillis()));
+        testEmpresaId = empresa.getId();
+        Usuario usuario = TestDataBuilder.createUsuario(testEmpresaId, "rollup");
+        testUsuarioId = usuario.getId();
+        Cliente cliente = TestDataBuilder.createCliente(testEmpresaId, "rollup");
+        testClienteId = cliente.getId();
+    }
+
+    @AfterEach
+    void cleanup() {
+        if (testEmpresaId != null) {
+            try {
+                empresaRepository.deleteById(testEmpresaId);
+            } catch (Exception ignored) {
+            }
+            testEmpresaId = null;
+        }
+    }
+
+    private List<SeriePontoDTO> serieDeHoje(String escopo, Long idEscopo, Granularidade granularidade) {
+        LocalDate hoje = LocalDate.now();
+        return repository.findSerie(escopo, idEscopo, testEmpresaId, granularidade, hoje.minusDays(7), hoje);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. Feedback inserido entra nas séries de empresa, vendedor e cliente")
+    void testFeedbackAtualizaSeries() {
+        GravacaoCall gravacao = TestDataBuilder.createGravacao(testUsuarioId, testClienteId, "roll1");
+        assertTrue(serieDeHoje(RollupRepository.ESCOPO_EMPRESA, testEmpresaId, Granularidade.DIA).isEmpty());
+
+        TestDataBuilder.createFeedback(gravacao.getId(), testEmpresaId);
+
+        List<SeriePontoDTO> empresa = serieDeHoje(RollupRepository.ESCOPO_EMPRESA, testEmpresaId, Granularidade.DIA);
+        assertEquals(1, empresa.size());
+        assertEquals(1L, empresa.get(0).totalGravacoes());
+        assertEquals(75.0, empresa.get(0).mediaSentiment(), 0.01);
+        assertEquals(60.0, empresa.get(0).mediaProbabilidadeFechamento(), 0.01);
+
+        assertEquals(1, serieDeHoje(RollupRepository.ESCOPO_USUARIO, testUsuarioId, Granularidade.SEMANA).size());
+        assertEquals(1, serieDeHoje(RollupRepository.ESCOPO_CLIENTE, testClienteId, Granularidade.DIA).size());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Mudança de status para FECHADO atualiza vendas fechadas")
+    void testStatusVendaAtualizaFechadas() {
+        GravacaoCall gravacao = TestDataBuilder.createGravacao(testUsuarioId, testClienteId, "roll2");
+        TestDataBuilder.createFeedback(gravacao.getId(), testEmpresaId);
+
+        gravacao.setStatusVenda(StatusVenda.FECHADO);
+        gravacaoRepository.save(gravacao);
+
+        List<SeriePontoDTO> serie = serieDeHoje(RollupRepository.ESCOPO_EMPRESA, testEmpresaId, Granularidade.DIA);
+        assertEquals(1L, serie.get(0).totalGravacoes());
+        assertEquals(1L, serie.get(0).vendasFechadas());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Exclusão da gravação remove sua contribuição")
+    void testExclusaoGravacao() {
+        GravacaoCall gravacao = TestDataBuilder.createGravacao(testUsuarioId, testClienteId, "roll3");
+        TestDataBuilder.createFeedback(gravacao.getId(), testEmpresaId);
+
+        gravacaoRepository.deleteById(gravacao.getId());
+
+        assertTrue(serieDeHoje(RollupRepository.ESCOPO_EMPRESA, testEmpresaId, Granularidade.DIA).isEmpty());
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. Série de outra empresa não é retornada")
+    void testIsolamentoEntreEmpresas() {
+        GravacaoCall gravacao = TestDataBuilder.createGravacao(testUsuarioId, testClienteId, "roll4");
+        TestDataBuilder.createFeedback(gravacao.getId(), testEmpresaId);
+
+        LocalDate hoje = LocalDate.now();
+        List<SeriePontoDTO> serie = repository.findSerie(RollupRepository.ESCOPO_USUARIO, testUsuarioId,
+                testEmpresaId + 1000, Granularidade.DIA, hoje.minusDays(7), hoje);
+        assertTrue(serie.isEmpty());
+    }
+}
@@ -1,7 +1,11 @@
 package com.fiap.esoa.salesmind.repository;
 
+import com.fiap.esoa.salesmind.dto.PerformanceVendedorDTO;
 import com.fiap.esoa.salesmind.enums.Funcao;
+import com.fiap.esoa.salesmind.enums.StatusVenda;
+import com.fiap.esoa.salesmind.model.Cliente;
 import com.fiap.esoa.salesmind.model.Empresa;
+import com.fiap.esoa.salesmind.model.GravacaoCall;
 import com.fiap.esoa.salesmind.model.Usuario;
 import org.junit.jupiter.api.*;
 
@@ -213,4 +217,43 @@ class UsuarioRepositoryTest {
         assertTrue(vendedores.size() > 0);
         assertTrue(vendedores.stream().anyMatch(u -> u.getId().equals(testUsuarioId)));
     }
+
+    @Test
+    @Order(11)
+    @DisplayName("11. Performance de vendedores após refresh da view materializada")
+    void testFindPerformanceByEmpresa() {
+        Usuario vendedor = TestDataBuilder.createUsuario(testEmpresaId, "perf");
+        testUsuarioId = vendedor.getId();
+        Cliente cliente = TestDataBuilder.createCliente(testEmpresaId, "perf");
+        GravacaoCall fechada = TestDataBuilder.createGravacao(testUsuarioId, cliente.getId(), "perf1");
+        fechada.setStatusVenda(StatusVenda.FECHADO);
+        new GravacaoCallRepository().save(fechada);
+        TestDataBuilder.createGravacao(testUsuarioId, cliente.getId(), "perf2");
+
+        repository.refreshPerformanceVendedores();
+        List<PerformanceVendedorDTO> ranking = repository.findPerformanceByEmpresa(testEmpresaId);
+
+        assertEquals(1, ranking.size());
+        assertEquals(testUsuarioId, ranking.get(0).idUsuario());
+        assertEquals(2L, ranking.get(0).totalGravacoes());
+        assertEquals(1L, ranking.get(0).vendasFechadas());
+        assertEquals(50.0, ranking.get(0).taxaConversao(), 0.01);
+    }
+
+    @Test
+    @Order(12)
+    @DisplayName("12. Busca por ID restrita à empresa ignora usuários de outra empresa")
+    void testFindByIdAndEmpresa() {
+        Usuario usuario = TestDataBuilder.createUsuario(testEmpresaId, "posse");
+        testUsuarioId = usuario.getId();
+        Empresa outra = TestDataBuilder.createEmpresa("outra" + System.currentTimeMillis());
+
+        assertTrue(repository.findByIdAndEmpresa(testUsuarioId, testEmpresaId).isPresent());
+        assertTrue(repository.existsByIdAndEmpresa(testUsuarioId, testEmpresaId));
+
+        assertTrue(repository.findByIdAndEmpresa(testUsuarioId, outra.getId()).isEmpty());
+        assertFalse(repository.existsByIdAndEmpresa(testUsuarioId, outra.getId()));
+
+        empresaRepository.deleteById(outra.getId());
+    }
 }
@@ -0,0 +1,153 @@
+package com.fiap.esoa.salesmind.service;
+
+import com.fiap.esoa.salesmind.exception.BusinessException;
+import com.fiap.esoa.salesmind.util.PasswordUtil;
+import org.mindrot.jbcrypt.BCrypt;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do LoginVerificationService (limite de tentativas, saturação do pool e IP do cliente)
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class LoginVerificationServiceTest {
+
+    private final List<LoginVerificationService> services = new ArrayList<>();
+
+    private LoginVerificationService novoServico(int threads, int fila, long timeoutMillis, long janelaMillis) {
+        LoginVerificationService service = new LoginVerificationService(
+                threads, fila, timeoutMillis, 3, 5, janelaMillis, "10.0.0.1, 10.0.0.2");
+        services.add(service);
+        return service;
+    }
+
+    @AfterEach
+    void cleanup() {
+        services.forEach(LoginVerificationService::shutdown);
+    }
+
+    private static int status(Runnable acao) {
+        BusinessException e = assertThrows(BusinessException.class, acao::run);
+        return e.getStatusCode();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. Conta é bloqueada com 429 após o limite de falhas")
+    void testThrottleConta() {
+        LoginVerificationService service = novoServico(1, 10, 5000, 60_000);
+
+        for (int i = 0; i < 3; i++) {
+            service.checkThrottle("Vendedor@Empresa.com", "192.168.0." + i);
+            service.recordFailure("Vendedor@Empresa.com", "192.168.0." + i);
+        }
+
+        assertEquals(429, status(() -> service.checkThrottle("vendedor@empresa.com", "192.168.0.9")));
+        service.checkThrottle("outro@empresa.com", "192.168.0.9");
+        assertEquals(1L, service.getMetrics().get("rejectedThrottled"));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. IP é bloqueado com 429 após o limite de falhas em contas diferentes")
+    void testThrottleIp() {
+        LoginVerificationService service = novoServico(1, 10, 5000, 60_000);
+
+        for (int i = 0; i < 5; i++) {
+            service.recordFailure("conta" + i + "@empresa.com", "192.168.0.50");
+        }
+
+        assertEquals(429, status(() -> service.checkThrottle("nova@empresa.com", "192.168.0.50")));
+        service.checkThrottle("nova@empresa.com", "192.168.0.51");
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Falhas saem da contagem quando a janela vence")
+    void testJanela() throws InterruptedException {
+        LoginVerificationService service = novoServico(1, 10, 5000, 100);
+
+        for (int i = 0; i < 3; i++) {
+            service.recordFailure("vendedor@empresa.com", "192.168.0.1");
+        }
+        assertEquals(429, status(() -> service.checkThrottle("vendedor@empresa.com", null)));
+
+        Thread.sleep(150);
+        service.checkThrottle("vendedor@empresa.com", null);
+        service.pruneExpired();
+        assertEquals(0, service.getMetrics().get("trackedKeys"));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. Pool e fila cheios respondem 503 sem esperar")
+    void testSaturacao() throws Exception {
+        LoginVerificationService service = novoServico(1, 1, 5000, 60_000);
+        String hash = PasswordUtil.hashPassword("senha123");
+
+        // Ocupa a thread e a única vaga da fila com verificações de custo alto
+        String hashLento = BCrypt.hashpw("senha123", BCrypt.gensalt(12));
+        CompletableFuture<Boolean> primeira = CompletableFuture.supplyAsync(() -> service.verify("senha123", hashLento));
+        CompletableFuture<Boolean> segunda = CompletableFuture.supplyAsync(() -> service.verify("senha123", hashLento));
+        while ((int) service.getMetrics().get("queuedVerifications") < 1) {
+            Thread.sleep(5);
+        }
+
+        assertEquals(503, status(() -> service.verify("senha123", hash)));
+        assertEquals(1L, service.getMetrics().get("rejectedSaturated"));
+        assertTrue(primeira.get(30, TimeUnit.SECONDS));
+        assertTrue(segunda.get(30, TimeUnit.SECONDS));
+        assertTrue(service.verify("senha123", hash));
+        assertFalse(service.verify("errada", hash));
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("5. X-Forwarded-For só é usado quando a conexão vem de um proxy confiável")
+    void testResolveClientIp() {
+        LoginVerificationService service = novoServico(1, 10, 5000, 60_000);
+
+        assertEquals("203.0.113.7", service.resolveClientIp("10.0.0.1", "203.0.113.7"));
+        assertEquals("203.0.113.7", service.resolveClientIp("10.0.0.1", "1.2.3.4, 203.0.113.7, 10.0.0.2"));
+        assertEquals("10.0.0.1", service.resolveClientIp("10.0.0.1", null));
+        assertEquals("198.51.100.9", service.resolveClientIp("198.51.100.9", "203.0.113.7"));
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("6. Login com hash de custo antigo gera novo hash no custo configurado")
+    void testRehash() throws InterruptedException {
+        LoginVerificationService service = novoServico(1, 10, 5000, 60_000);
+        int roundsOriginal = PasswordUtil.getRounds();
+        try {
+            PasswordUtil.setRounds(4);
+            String hashAntigo = PasswordUtil.hashPassword("senha123");
+            PasswordUtil.setRounds(5);
+
+            CountDownLatch persistido = new CountDownLatch(1);
+            AtomicReference<String> novoHash = new AtomicReference<>();
+            service.rehashIfNeeded("senha123", hashAntigo, hash -> {
+                novoHash.set(hash);
+                persistido.countDown();
+            });
+
+            assertTrue(persistido.await(10, TimeUnit.SECONDS));
+            assertEquals(5, PasswordUtil.getCost(novoHash.get()));
+            assertTrue(service.verify("senha123", novoHash.get()));
+
+            service.rehashIfNeeded("senha123", novoHash.get(), hash -> fail("Hash no custo atual não deve ser refeito"));
+            Thread.sleep(100);
+            assertEquals(1L, service.getMetrics().get("rehashes"));
+        } finally {
+            PasswordUtil.setRounds(roundsOriginal);
+        }
+    }
+}
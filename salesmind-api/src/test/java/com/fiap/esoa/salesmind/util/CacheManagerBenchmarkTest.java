@@ -0,0 +1,89 @@
+package com.fiap.esoa.salesmind.util;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark de vazão do CacheManager sob contenção (uma thread por núcleo).
+ * Desligado por padrão:
+ *   mvn test -Dtest=CacheManagerBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CacheManagerBenchmarkTest {
+
+    private static final long WARMUP_SECONDS = 3;
+    private static final long MEASURE_SECONDS = 10;
+    private static final int KEYS = 20_000;
+    private static final int MAXIMUM_SIZE = 5_000;
+
+    private CacheManager<Integer, String> cache;
+
+    @BeforeEach
+    void setup() {
+        cache = CacheManager.create(Duration.ofMinutes(15), MAXIMUM_SIZE);
+        for (int i = 0; i < MAXIMUM_SIZE; i++) {
+            cache.put(i, "valor" + i);
+        }
+    }
+
+    @Test
+    @DisplayName("Vazão de get com chaves em distribuição enviesada (100% leituras)")
+    void benchmarkGet() throws InterruptedException {
+        runFor(WARMUP_SECONDS, 0);
+        long ops = runFor(MEASURE_SECONDS, 0);
+        report("get", ops);
+    }
+
+    @Test
+    @DisplayName("Vazão mista (90% get / 10% put)")
+    void benchmarkGetPut() throws InterruptedException {
+        runFor(WARMUP_SECONDS, 10);
+        long ops = runFor(MEASURE_SECONDS, 10);
+        report("get/put", ops);
+        assertTrue(cache.size() <= MAXIMUM_SIZE);
+    }
+
+    private void report(String cenario, long ops) {
+        System.out.printf("CacheManager %s: %.0f ops/s com %d threads%n",
+                cenario, ops / (double) MEASURE_SECONDS, Runtime.getRuntime().availableProcessors());
+        assertTrue(ops > 0);
+    }
+
+    private long runFor(long seconds, int putPercent) throws InterruptedException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        LongAdder ops = new LongAdder();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long count = 0;
+                while ((count & 1023) != 0 || System.nanoTime() < deadline) {
+                    // Mínimo de dois sorteios: chaves baixas são bem mais acessadas
+                    int key = Math.min(random.nextInt(KEYS), random.nextInt(KEYS));
+                    if (random.nextInt(100) < putPercent) {
+                        cache.put(key, "valor" + key);
+                    } else {
+                        cache.get(key);
+                    }
+                    count++;
+                }
+                ops.add(count);
+            });
+        }
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(seconds + 30, TimeUnit.SECONDS));
+        return ops.sum();
+    }
+}
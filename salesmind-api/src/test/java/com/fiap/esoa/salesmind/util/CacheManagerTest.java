@@ -0,0 +1,209 @@
+package com.fiap.esoa.salesmind.util;
+
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do CacheManager (limites de tamanho/peso, admissão TinyLFU, TTL, métricas e carga)
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class CacheManagerTest {
+
+    @Test
+    @Order(1)
+    @DisplayName("1. Número de entradas nunca passa do limite")
+    void testMaximumSize() {
+        CacheManager<Integer, String> cache = CacheManager.create(Duration.ofMinutes(5), 100);
+
+        for (int i = 0; i < 10_000; i++) {
+            cache.put(i, "v" + i);
+        }
+
+        assertTrue(cache.size() <= 100, "Tamanho: " + cache.size());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Peso total nunca passa do limite")
+    void testMaximumWeight() {
+        CacheManager<Integer, String> cache = CacheManager.create(Duration.ofMinutes(5), 1000, 500, String::length);
+
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, "x".repeat(10 + i % 40));
+        }
+
+        assertTrue(cache.weightedSize() <= 500, "Peso: " + cache.weightedSize());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Chaves frequentes sobrevivem a uma varredura de chaves únicas")
+    void testFrequentKeysSurviveScan() {
+        CacheManager<Integer, String> cache = CacheManager.create(Duration.ofMinutes(5), 100);
+
+        for (int round = 0; round < 20; round++) {
+            for (int hot = 0; hot < 50; hot++) {
+                if (cache.get(hot) == null) {
+                    cache.put(hot, "hot" + hot);
+                }
+            }
+        }
+
+        // Três chaves únicas para cada acesso frequente: em LRU puro as frequentes seriam expulsas
+        for (int scan = 1000; scan < 6000; scan++) {
+            cache.put(scan, "scan" + scan);
+            if (scan % 3 != 0) {
+                continue;
+            }
+            int hot = (scan / 3) % 50;
+            if (cache.get(hot) == null) {
+                cache.put(hot, "hot" + hot);
+            }
+        }
+
+        int hotPresentes = 0;
+        for (int hot = 0; hot < 50; hot++) {
+            if (cache.get(hot) != null) {
+                hotPresentes++;
+            }
+        }
+        assertTrue(hotPresentes >= 45, "Chaves frequentes mantidas: " + hotPresentes);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. Entradas expiradas não são retornadas e são removidas")
+    void testExpiration() throws InterruptedException {
+        CacheManager<String, String> cache = CacheManager.create(Duration.ofMillis(50), 10);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        assertEquals("1", cache.get("a"));
+
+        Thread.sleep(100);
+
+        assertNull(cache.get("a"));
+        cache.evictExpired();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("5. Atualizar e invalidar mantêm tamanho e peso consistentes")
+    void testUpdateAndInvalidate() {
+        CacheManager<String, String> cache = CacheManager.create(Duration.ofMinutes(5), 10, 1000, String::length);
+        cache.put("a", "12345");
+        cache.put("a", "12");
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.weightedSize());
+        assertEquals("12", cache.get("a"));
+
+        cache.invalidate("a");
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.weightedSize());
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("6. Métricas contam hits, misses, cargas e remoções por tamanho")
+    void testMetrics() {
+        CacheManager<Integer, String> cache = CacheManager.create("teste-metricas", Duration.ofMinutes(5), 2,
+                Long.MAX_VALUE, value -> 1);
+
+        assertEquals("v1", cache.get(1, key -> "v" + key));
+        assertEquals("v1", cache.get(1, key -> "outro"));
+        assertNull(cache.get(2, key -> null));
+        assertThrows(IllegalStateException.class, () -> cache.get(3, key -> {
+            throw new IllegalStateException("falha");
+        }));
+        cache.put(4, "v4");
+        cache.put(5, "v5");
+
+        Map<String, Object> metrics = cache.getMetrics();
+        assertEquals(1L, metrics.get("hits"));
+        assertEquals(3L, metrics.get("misses"));
+        assertEquals(2L, metrics.get("loads"));
+        assertEquals(1L, metrics.get("loadFailures"));
+        assertEquals(1L, metrics.get("evictions"));
+        assertEquals(0.25, (double) metrics.get("hitRate"), 0.001);
+        assertTrue(CacheManager.getAllMetrics().containsKey("teste-metricas"));
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("7. Misses simultâneos da mesma chave executam uma única carga")
+    void testSingleFlight() throws Exception {
+        CacheManager<Integer, String> cache = CacheManager.create(Duration.ofMinutes(5), 100);
+        AtomicInteger cargas = new AtomicInteger();
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+
+        List<Future<String>> resultados = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            resultados.add(executor.submit(() -> {
+                largada.await();
+                return cache.get(1, key -> {
+                    cargas.incrementAndGet();
+                    try {
+                        Thread.sleep(200);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "v" + key;
+                });
+            }));
+        }
+        largada.countDown();
+
+        for (Future<String> resultado : resultados) {
+            assertEquals("v1", resultado.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        assertEquals(1, cargas.get());
+    }
+
+    @Test
+    @Order(8)
+    @DisplayName("8. Refresh-ahead recarrega em segundo plano sem bloquear a leitura")
+    void testRefreshAhead() throws InterruptedException {
+        CacheManager<String, Integer> cache = CacheManager.<String, Integer>create(Duration.ofMillis(500), 10)
+                .refreshAhead(Duration.ofMillis(400));
+        AtomicInteger versao = new AtomicInteger();
+
+        assertEquals(1, cache.get("k", key -> versao.incrementAndGet()));
+        Thread.sleep(200);
+
+        // Dentro da janela de refresh: devolve o valor atual e recarrega em segundo plano
+        assertEquals(1, cache.get("k", key -> versao.incrementAndGet()));
+
+        long limite = System.currentTimeMillis() + 2000;
+        while (!Integer.valueOf(2).equals(cache.get("k")) && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, cache.get("k"));
+        assertEquals(2, versao.get());
+    }
+
+    @Test
+    @Order(9)
+    @DisplayName("9. Falha da carga chega a todos e não fica em cache")
+    void testLoadFailureNotCached() {
+        CacheManager<Integer, String> cache = CacheManager.create(Duration.ofMinutes(5), 10);
+
+        assertThrows(IllegalStateException.class, () -> cache.get(1, key -> {
+            throw new IllegalStateException("banco indisponível");
+        }));
+        assertEquals("v1", cache.get(1, key -> "v" + key));
+    }
+}
@@ -0,0 +1,113 @@
+package com.fiap.esoa.salesmind.util;
+
+import com.fiap.esoa.salesmind.model.FeedbackIA;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do ClusterInvalidation (recebimento de notificações, sem banco)
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ClusterInvalidationTest {
+
+    private final List<WriteEvent<FeedbackIA>> eventos = new ArrayList<>();
+    private Runnable cancelar;
+    private ClusterInvalidation cluster;
+
+    @BeforeEach
+    void setup() {
+        cancelar = WriteEventBus.subscribe(FeedbackIA.class, eventos::add);
+        cluster = new ClusterInvalidation("salesmind_teste", 100, 1)
+                .register(FeedbackIA.class, FeedbackIA::getIdGravacao, FeedbackIA::new);
+    }
+
+    @AfterEach
+    void teardown() {
+        cancelar.run();
+        cluster.shutdown();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. Notificação de outro nó vira evento remoto com entidade parcial")
+    void testReceber() {
+        cluster.receber("outro-no|FeedbackIA|SAVE|7|42");
+
+        assertEquals(1, eventos.size());
+        WriteEvent<FeedbackIA> evento = eventos.get(0);
+        assertTrue(evento.remoto());
+        assertEquals(WriteEvent.Operacao.SAVE, evento.operacao());
+        assertEquals(7L, evento.id());
+        assertEquals(42L, evento.entidade().getIdGravacao());
+        assertEquals(1L, cluster.getMetrics().get("received"));
+        assertEquals(0, cluster.getMetrics().get("pending"));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Notificações do próprio nó, de tipos desconhecidos ou malformadas são ignoradas")
+    void testIgnorar() {
+        String no = (String) cluster.getMetrics().get("node");
+
+        cluster.receber(no + "|FeedbackIA|SAVE|7|42");
+        cluster.receber("outro-no|Produto|SAVE|7|");
+        cluster.receber("outro-no|FeedbackIA|UPSERT|7|42");
+        cluster.receber("outro-no|FeedbackIA|SAVE|abc|");
+        cluster.receber("lixo");
+
+        assertTrue(eventos.isEmpty());
+        assertEquals(0L, cluster.getMetrics().get("received"));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Escritas locais entram na fila de envio e as remotas não")
+    void testEnfileirar() {
+        WriteEventBus.publishSave(FeedbackIA.class, 8L, new FeedbackIA(8L, 43L));
+        assertEquals(1, cluster.getMetrics().get("pending"));
+
+        cluster.receber("outro-no|FeedbackIA|DELETE|9|");
+        assertEquals(1, cluster.getMetrics().get("pending"));
+        assertNull(eventos.get(1).entidade().getIdGravacao());
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. Canal com caracteres inválidos é recusado")
+    void testCanalInvalido() {
+        assertThrows(IllegalArgumentException.class, () -> new ClusterInvalidation("canal; DROP TABLE", 100, 1));
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("5. Notificação descartada com a fila cheia agenda uma limpeza geral")
+    void testDescarteAgendaLimpeza() {
+        assertEquals(false, cluster.getMetrics().get("clearPending"));
+
+        WriteEventBus.publishSave(FeedbackIA.class, 10L, new FeedbackIA(10L, 44L));
+        WriteEventBus.publishSave(FeedbackIA.class, 11L, new FeedbackIA(11L, 45L));
+
+        assertEquals(1, cluster.getMetrics().get("pending"));
+        assertEquals(1L, cluster.getMetrics().get("dropped"));
+        assertEquals(true, cluster.getMetrics().get("clearPending"));
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("6. Aviso de limpeza de outro nó esvazia os caches locais")
+    void testReceberLimpeza() {
+        CacheManager<Long, String> cache = CacheManager.create(Duration.ofMinutes(5));
+        cache.put(1L, "valor");
+
+        cluster.receber("outro-no|*|CLEAR||");
+
+        assertNull(cache.get(1L));
+        assertEquals(1L, cluster.getMetrics().get("clearsReceived"));
+        assertTrue(eventos.isEmpty());
+    }
+}
@@ -0,0 +1,69 @@
+package com.fiap.esoa.salesmind.util;
+
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do ConcurrencyLimiter (espera curta e rejeição rápida)
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ConcurrencyLimiterTest {
+
+    @Test
+    @Order(1)
+    @DisplayName("1. Acima do limite a chamada é rejeitada após a espera máxima")
+    void testRejeicao() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("teste", 2, 50);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+
+        long inicio = System.nanoTime();
+        assertFalse(limiter.tryAcquire());
+        long esperaMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+        assertTrue(esperaMillis >= 40, "Deve esperar antes de rejeitar: " + esperaMillis + " ms");
+        assertEquals(2L, limiter.getMetrics().get("admitted"));
+        assertEquals(1L, limiter.getMetrics().get("rejected"));
+        assertEquals(2, limiter.getMetrics().get("inFlight"));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Permissão liberada durante a espera é entregue a quem aguarda")
+    void testEspera() throws InterruptedException {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("teste", 1, 5000);
+        assertTrue(limiter.tryAcquire());
+
+        CountDownLatch obteve = new CountDownLatch(1);
+        Thread aguardando = Thread.ofVirtual().start(() -> {
+            if (limiter.tryAcquire()) {
+                obteve.countDown();
+            }
+        });
+        while ((int) limiter.getMetrics().get("waiting") == 0) {
+            Thread.sleep(5);
+        }
+
+        limiter.release();
+        assertTrue(obteve.await(5, TimeUnit.SECONDS));
+        aguardando.join();
+        assertEquals(0L, limiter.getMetrics().get("rejected"));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Sem espera configurada a rejeição é imediata")
+    void testSemEspera() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("teste", 1, 0);
+
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        limiter.release();
+        assertTrue(limiter.tryAcquire());
+    }
+}
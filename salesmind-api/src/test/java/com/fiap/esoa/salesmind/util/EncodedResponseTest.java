@@ -0,0 +1,74 @@
+package com.fiap.esoa.salesmind.util;
+
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do EncodedResponse e da negociação de ETag/gzip em JsonUtil
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class EncodedResponseTest {
+
+    @Test
+    @Order(1)
+    @DisplayName("1. Versão gzip descomprime para o mesmo JSON")
+    void testGzip() throws IOException {
+        List<String> pontos = Collections.nCopies(200, "Cliente demonstrou interesse no plano anual");
+        EncodedResponse response = EncodedResponse.of(Map.of("pontosFortes", pontos));
+
+        assertNotNull(response.gzip());
+        assertTrue(response.gzip().length < response.json().length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.gzip()))) {
+            assertArrayEquals(response.json(), in.readAllBytes());
+        }
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Respostas pequenas não são comprimidas")
+    void testSemGzipParaPequenas() {
+        EncodedResponse response = EncodedResponse.of(Map.of("id", 1));
+
+        assertNull(response.gzip());
+        assertEquals("{\n  \"id\" : 1\n}", new String(response.json(), StandardCharsets.UTF_8)
+                .replace("\r\n", "\n"));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. ETag depende só do conteúdo")
+    void testEtag() {
+        String etag = EncodedResponse.of(Map.of("id", 1)).etag();
+
+        assertEquals(etag, EncodedResponse.of(Map.of("id", 1)).etag());
+        assertNotEquals(etag, EncodedResponse.of(Map.of("id", 2)).etag());
+        assertTrue(etag.startsWith("W/\""));
+
+        assertTrue(JsonUtil.matchesEtag(etag, etag));
+        assertTrue(JsonUtil.matchesEtag("\"outro\", " + etag.substring(2), etag));
+        assertTrue(JsonUtil.matchesEtag("*", etag));
+        assertFalse(JsonUtil.matchesEtag("W/\"outro\"", etag));
+        assertFalse(JsonUtil.matchesEtag(null, etag));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. Accept-Encoding respeita q=0")
+    void testAcceptsGzip() {
+        assertTrue(JsonUtil.acceptsGzip("gzip, deflate, br"));
+        assertTrue(JsonUtil.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+        assertTrue(JsonUtil.acceptsGzip("*"));
+        assertFalse(JsonUtil.acceptsGzip("gzip;q=0"));
+        assertFalse(JsonUtil.acceptsGzip("deflate, br"));
+        assertFalse(JsonUtil.acceptsGzip(null));
+    }
+}
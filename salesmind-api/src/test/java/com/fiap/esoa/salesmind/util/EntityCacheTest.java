@@ -0,0 +1,170 @@
+package com.fiap.esoa.salesmind.util;
+
+import com.fiap.esoa.salesmind.config.ReadYourWrites;
+import com.fiap.esoa.salesmind.model.Cliente;
+import com.fiap.esoa.salesmind.model.Empresa;
+import org.junit.jupiter.api.*;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do EntityCache (read-through, cópias e invalidação por eventos de escrita)
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class EntityCacheTest {
+
+    private EntityCache<Cliente> cache;
+    private AtomicInteger consultas;
+
+    @BeforeEach
+    void setup() {
+        cache = EntityCache.create("teste-cliente", Cliente.class, Cliente::new, Empresa.class);
+        consultas = new AtomicInteger();
+    }
+
+    @AfterEach
+    void cleanup() {
+        cache.close();
+        ReadYourWrites.clear();
+    }
+
+    private Optional<Cliente> buscarNoBanco(Long id) {
+        consultas.incrementAndGet();
+        return Optional.of(new Cliente(id, 1L, "Cliente " + id, null, null, null, null));
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. Buscas repetidas vão ao banco uma vez e devolvem cópias")
+    void testReadThroughComCopias() {
+        Cliente primeiro = cache.findById(10L, this::buscarNoBanco).orElseThrow();
+        primeiro.setNome("alterado sem salvar");
+
+        Cliente segundo = cache.findById(10L, this::buscarNoBanco).orElseThrow();
+
+        assertEquals(1, consultas.get());
+        assertEquals("Cliente 10", segundo.getNome());
+        assertNotSame(primeiro, segundo);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Escrita da entidade invalida apenas o seu ID")
+    void testInvalidacaoPorEscrita() {
+        cache.findById(20L, this::buscarNoBanco);
+        cache.findById(21L, this::buscarNoBanco);
+
+        WriteEventBus.publishSave(Cliente.class, 20L, null);
+        cache.findById(20L, this::buscarNoBanco);
+        cache.findById(21L, this::buscarNoBanco);
+
+        assertEquals(3, consultas.get());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Exclusão da empresa limpa o cache (cascata)")
+    void testInvalidacaoPorCascata() {
+        cache.findById(30L, this::buscarNoBanco);
+
+        WriteEventBus.publishSave(Empresa.class, 1L, null);
+        cache.findById(30L, this::buscarNoBanco);
+        assertEquals(1, consultas.get());
+
+        WriteEventBus.publishDelete(Empresa.class, 1L, null);
+        cache.findById(30L, this::buscarNoBanco);
+        assertEquals(2, consultas.get());
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. Entidade inexistente não fica em cache")
+    void testInexistenteNaoCacheado() {
+        assertTrue(cache.findById(40L, id -> {
+            consultas.incrementAndGet();
+            return Optional.empty();
+        }).isEmpty());
+        cache.findById(40L, this::buscarNoBanco);
+
+        assertEquals(2, consultas.get());
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("5. Busca com escopo usa o cache e checa a empresa em memória")
+    void testFindScoped() {
+        cache.findById(50L, this::buscarNoBanco);
+
+        assertTrue(cache.findScoped(50L, c -> c.getIdEmpresa().equals(1L), id -> Optional.empty()).isPresent());
+        assertTrue(cache.findScoped(50L, c -> c.getIdEmpresa().equals(2L), id -> Optional.empty()).isEmpty());
+        assertFalse(cache.existsScoped(50L, c -> c.getIdEmpresa().equals(2L), id -> true));
+        assertEquals(1, consultas.get());
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("6. Miss na busca com escopo consulta o banco já filtrado e cacheia o resultado")
+    void testFindScopedMiss() {
+        assertTrue(cache.findScoped(60L, c -> true, this::buscarNoBanco).isPresent());
+        assertTrue(cache.existsScoped(60L, c -> c.getIdEmpresa().equals(1L), id -> false));
+        assertTrue(cache.findById(60L, this::buscarNoBanco).isPresent());
+        assertEquals(1, consultas.get());
+
+        assertFalse(cache.existsScoped(61L, c -> true, id -> false));
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("7. Depois de close o cache não recebe mais eventos de escrita")
+    void testCloseCancelaInscricoes() {
+        cache.close();
+        cache.findById(70L, this::buscarNoBanco);
+
+        WriteEventBus.publishSave(Cliente.class, 70L, null);
+        WriteEventBus.publishDelete(Empresa.class, 1L, null);
+        cache.findById(70L, this::buscarNoBanco);
+
+        assertEquals(1, consultas.get());
+    }
+
+    @Test
+    @Order(8)
+    @DisplayName("8. Requisição fixada no primário (escrita) não lê do cache")
+    void testFixadaNoPrimarioIgnoraCache() {
+        cache.findById(80L, this::buscarNoBanco);
+
+        ReadYourWrites.pinToPrimary();
+        cache.findById(80L, this::buscarNoBanco);
+        cache.findScoped(80L, c -> true, this::buscarNoBanco);
+        assertTrue(cache.existsScoped(80L, c -> false, id -> true));
+        assertEquals(3, consultas.get());
+
+        // A carga feita no primário vale para as leituras seguintes
+        ReadYourWrites.clear();
+        cache.findById(80L, this::buscarNoBanco);
+        assertEquals(3, consultas.get());
+    }
+
+    @Test
+    @Order(9)
+    @DisplayName("9. Miss carrega do primário sem deixar a requisição fixada")
+    void testMissCarregaDoPrimario() {
+        AtomicInteger noPrimario = new AtomicInteger();
+        Function<Long, Optional<Cliente>> loader = id -> {
+            if (ReadYourWrites.isPinnedToPrimary()) {
+                noPrimario.incrementAndGet();
+            }
+            return buscarNoBanco(id);
+        };
+
+        cache.findById(90L, loader);
+        cache.findScoped(91L, c -> true, loader);
+
+        assertEquals(2, noPrimario.get());
+        assertFalse(ReadYourWrites.isPinnedToPrimary());
+    }
+}
@@ -0,0 +1,76 @@
+package com.fiap.esoa.salesmind.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.*;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do JwtClaimsCache (expiração pelo claim "exp" e limite de entradas)
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class JwtClaimsCacheTest {
+
+    private static Claims claims(String subject, long expiresInMillis) {
+        return Jwts.claims()
+                .subject(subject)
+                .expiration(new Date(System.currentTimeMillis() + expiresInMillis))
+                .build();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. Token armazenado é devolvido até o exp")
+    void testPutGet() {
+        JwtClaimsCache cache = new JwtClaimsCache(10);
+        cache.put("token-a", claims("a@empresa.com", 60_000));
+
+        assertEquals("a@empresa.com", cache.get("token-a").getSubject());
+        assertNull(cache.get("token-b"));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Token expirado não é devolvido e sai do cache")
+    void testExpiry() throws InterruptedException {
+        JwtClaimsCache cache = new JwtClaimsCache(10);
+        cache.put("expirado", claims("a@empresa.com", -1_000));
+        assertEquals(0, cache.size(), "Token já expirado não deve ser armazenado");
+
+        // "exp" tem precisão de segundos
+        Claims expirando = claims("a@empresa.com", 1_000);
+        cache.put("expirando", expirando);
+        assertNotNull(cache.get("expirando"));
+        Thread.sleep(Math.max(0, expirando.getExpiration().getTime() - System.currentTimeMillis()) + 50);
+
+        assertNull(cache.get("expirando"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Tokens sem exp não são armazenados")
+    void testSemExp() {
+        JwtClaimsCache cache = new JwtClaimsCache(10);
+        cache.put("sem-exp", Jwts.claims().subject("a@empresa.com").build());
+
+        assertNull(cache.get("sem-exp"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. Cache cheio descarta outra entrada e aceita o token novo")
+    void testLimite() {
+        JwtClaimsCache cache = new JwtClaimsCache(100);
+        for (int i = 0; i < 1_000; i++) {
+            cache.put("t" + i, claims(String.valueOf(i), 60_000));
+            assertNotNull(cache.get("t" + i), "Token recém-verificado deve estar no cache");
+        }
+
+        assertTrue(cache.size() <= 100, "Tamanho excedeu o limite: " + cache.size());
+    }
+}
@@ -0,0 +1,69 @@
+package com.fiap.esoa.salesmind.util;
+
+import org.junit.jupiter.api.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do LatencyHistogram (faixas fixas, média e máximo)
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class LatencyHistogramTest {
+
+    private static long millis(long ms) {
+        return TimeUnit.MILLISECONDS.toNanos(ms);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Long> buckets(LatencyHistogram histogram) {
+        return (Map<String, Long>) histogram.snapshot().get("buckets");
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. Sem amostras o snapshot vem zerado")
+    void testVazio() {
+        Map<String, Object> snapshot = new LatencyHistogram().snapshot();
+
+        assertEquals(0L, snapshot.get("count"));
+        assertEquals(0.0, snapshot.get("avgMs"));
+        assertEquals(0.0, snapshot.get("maxMs"));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Cada amostra cai na primeira faixa cujo limite ela não atinge")
+    void testFaixas() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(millis(0));
+        histogram.record(millis(1));
+        histogram.record(millis(4));
+        histogram.record(millis(250));
+        histogram.record(millis(5000));
+        histogram.record(millis(60_000));
+
+        Map<String, Long> buckets = buckets(histogram);
+        assertEquals(1L, buckets.get("<1ms"));
+        assertEquals(2L, buckets.get("<5ms"));
+        assertEquals(1L, buckets.get("<500ms"));
+        assertEquals(2L, buckets.get(">=5000ms"));
+        assertEquals(6L, buckets.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Média e máximo em milissegundos")
+    void testMediaEMaximo() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(millis(10));
+        histogram.record(millis(30));
+
+        Map<String, Object> snapshot = histogram.snapshot();
+        assertEquals(2L, snapshot.get("count"));
+        assertEquals(20.0, (double) snapshot.get("avgMs"), 0.001);
+        assertEquals(30.0, (double) snapshot.get("maxMs"), 0.001);
+    }
+}
@@ -0,0 +1,124 @@
+package com.fiap.esoa.salesmind.util;
+
+import org.junit.jupiter.api.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do OffHeapStore (blocos em memória direta, remoção LRU e limites)
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class OffHeapStoreTest {
+
+    private static byte[] texto(String prefixo, int tamanho) {
+        StringBuilder builder = new StringBuilder(prefixo);
+        while (builder.length() < tamanho) {
+            builder.append(" transcrição ç ã ").append(builder.length());
+        }
+        return Arrays.copyOf(builder.toString().getBytes(StandardCharsets.UTF_8), tamanho);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. Valores de vários blocos voltam idênticos")
+    void testPutGet() {
+        OffHeapStore<Long> store = OffHeapStore.create(null, 1 << 20, 1024);
+        byte[] grande = texto("a", 5000);
+        byte[] pequeno = texto("b", 10);
+
+        assertTrue(store.put(1L, grande));
+        assertTrue(store.put(2L, pequeno));
+        assertTrue(store.put(3L, new byte[0]));
+
+        assertArrayEquals(grande, store.get(1L));
+        assertArrayEquals(pequeno, store.get(2L));
+        assertArrayEquals(new byte[0], store.get(3L));
+        assertNull(store.get(4L));
+        assertEquals(grande.length + pequeno.length, store.storedBytes());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Substituir e invalidar liberam os blocos")
+    void testReplaceAndInvalidate() {
+        OffHeapStore<Long> store = OffHeapStore.create(null, 16 * 1024, 1024);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(store.put(1L, texto("v" + i, 3000)));
+        }
+        assertEquals(1, store.size());
+        assertEquals(3000, store.storedBytes());
+
+        store.invalidate(1L);
+        assertNull(store.get(1L));
+        assertEquals(0, store.storedBytes());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Sem espaço, remove os valores menos recentemente usados")
+    void testLruEviction() {
+        OffHeapStore<Long> store = OffHeapStore.create("teste-offheap", 8 * 1024, 1024);
+
+        store.put(1L, texto("1", 2000));
+        store.put(2L, texto("2", 2000));
+        store.put(3L, texto("3", 2000));
+        store.get(1L);
+        store.put(4L, texto("4", 2000));
+        store.put(5L, texto("5", 2000));
+
+        assertNotNull(store.get(1L));
+        assertNull(store.get(2L));
+        assertNotNull(store.get(5L));
+        assertTrue(store.storedBytes() <= 8 * 1024);
+
+        Map<String, Object> metrics = CacheManager.getAllMetrics();
+        assertTrue(metrics.containsKey("teste-offheap"));
+        assertTrue((long) store.getMetrics().get("evictions") >= 1);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. Valores grandes demais e capacidade zero são recusados")
+    void testRejected() {
+        OffHeapStore<Long> store = OffHeapStore.create(null, 8 * 1024, 1024);
+        store.put(1L, texto("1", 100));
+
+        assertFalse(store.put(2L, texto("2", 3000)));
+        assertNotNull(store.get(1L));
+
+        OffHeapStore<Long> vazio = OffHeapStore.create(null, 0, 1024);
+        assertFalse(vazio.put(1L, texto("1", 10)));
+        assertNull(vazio.get(1L));
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("5. Sem memória direta para novas páginas, continua removendo e aceitando valores")
+    void testFalhaDeAlocacaoReduzCapacidade() {
+        int bloco = 64 << 20;
+        AtomicInteger paginas = new AtomicInteger();
+        // Uma página por bloco; só a primeira é alocada (pequena: os valores do teste cabem nela)
+        OffHeapStore<Long> store = OffHeapStore.create(null, 4L * bloco, bloco, tamanho -> {
+            if (paginas.incrementAndGet() > 1) {
+                throw new OutOfMemoryError("Direct buffer memory");
+            }
+            return ByteBuffer.allocate(64);
+        });
+
+        assertTrue(store.put(1L, texto("1", 10)));
+        assertFalse(store.put(2L, texto("2", 10)));
+        assertEquals((long) bloco, store.getMetrics().get("capacityBytes"));
+
+        assertTrue(store.put(3L, texto("3", 10)));
+        assertNull(store.get(1L));
+        assertArrayEquals(texto("3", 10), store.get(3L));
+        assertEquals(2, paginas.get());
+    }
+}
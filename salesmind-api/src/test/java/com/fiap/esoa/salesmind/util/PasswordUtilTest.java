@@ -0,0 +1,82 @@
+package com.fiap.esoa.salesmind.util;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do PasswordUtil (custo configurável e detecção de hashes a migrar) e do custo mínimo da calibração
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class PasswordUtilTest {
+
+    private int roundsOriginal;
+
+    @BeforeEach
+    void setup() {
+        roundsOriginal = PasswordUtil.getRounds();
+    }
+
+    @AfterEach
+    void cleanup() {
+        PasswordUtil.setRounds(roundsOriginal);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. Hash usa o custo configurado e confere a senha")
+    void testHashPassword() {
+        PasswordUtil.setRounds(5);
+        String hash = PasswordUtil.hashPassword("senha123");
+
+        assertEquals(5, PasswordUtil.getCost(hash));
+        assertTrue(PasswordUtil.checkPassword("senha123", hash));
+        assertFalse(PasswordUtil.checkPassword("senha124", hash));
+        assertFalse(PasswordUtil.checkPassword("senha123", "não-é-bcrypt"));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. needsRehash só para hashes bcrypt com custo menor que o configurado")
+    void testNeedsRehash() {
+        PasswordUtil.setRounds(5);
+        String hash = PasswordUtil.hashPassword("senha123");
+
+        assertFalse(PasswordUtil.needsRehash(hash));
+        PasswordUtil.setRounds(6);
+        assertTrue(PasswordUtil.needsRehash(hash));
+        PasswordUtil.setRounds(4);
+        assertFalse(PasswordUtil.needsRehash(hash), "Hash mais forte não deve ser rebaixado");
+
+        assertFalse(PasswordUtil.needsRehash(null));
+        assertFalse(PasswordUtil.needsRehash("texto-puro"));
+        assertFalse(PasswordUtil.needsRehash("$2a$xx$abc"));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. getCost lê o custo dos prefixos $2a$ e $2b$")
+    void testGetCost() {
+        assertEquals(10, PasswordUtil.getCost("$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy"));
+        assertEquals(12, PasswordUtil.getCost("$2b$12$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy"));
+        assertEquals(-1, PasswordUtil.getCost("$2a$"));
+        assertEquals(-1, PasswordUtil.getCost(""));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. setRounds limita o custo ao intervalo suportado")
+    void testClamp() {
+        PasswordUtil.setRounds(1);
+        assertEquals(PasswordUtil.MIN_BCRYPT_ROUNDS, PasswordUtil.getRounds());
+        PasswordUtil.setRounds(40);
+        assertEquals(PasswordUtil.MAX_BCRYPT_ROUNDS, PasswordUtil.getRounds());
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("5. Calibração não escolhe custo abaixo do mínimo, mesmo com alvo inalcançável")
+    void testCalibracaoMinima() {
+        assertEquals(BcryptCalibrator.MIN_CALIBRATED_ROUNDS, BcryptCalibrator.calibrate(1));
+    }
+}
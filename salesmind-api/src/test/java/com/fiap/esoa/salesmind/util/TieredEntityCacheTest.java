@@ -0,0 +1,155 @@
+package com.fiap.esoa.salesmind.util;
+
+import com.fiap.esoa.salesmind.config.ReadYourWrites;
+import com.fiap.esoa.salesmind.model.FeedbackIA;
+import com.fiap.esoa.salesmind.model.GravacaoCall;
+import com.fiap.esoa.salesmind.model.Usuario;
+import org.junit.jupiter.api.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do TieredEntityCache (parte no heap, transcrição fora do heap)
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TieredEntityCacheTest {
+
+    private static final TieredEntityCache.Separador<GravacaoCall> TRANSCRICAO = new TieredEntityCache.Separador<>() {
+        @Override
+        public byte[] separar(GravacaoCall gravacao) {
+            byte[] bytes = gravacao.getTranscricao().getBytes(StandardCharsets.UTF_8);
+            gravacao.setTranscricao(null);
+            return bytes;
+        }
+
+        @Override
+        public void restaurar(GravacaoCall gravacao, ByteBuffer dados) {
+            byte[] bytes = new byte[dados.remaining()];
+            dados.get(bytes);
+            gravacao.setTranscricao(new String(bytes, StandardCharsets.UTF_8));
+        }
+    };
+
+    private AtomicInteger consultas;
+    private final List<TieredEntityCache<GravacaoCall>> criados = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        consultas = new AtomicInteger();
+    }
+
+    @AfterEach
+    void cleanup() {
+        criados.forEach(TieredEntityCache::close);
+        criados.clear();
+        ReadYourWrites.clear();
+    }
+
+    private TieredEntityCache<GravacaoCall> novoCache(long offHeapBytes) {
+        TieredEntityCache<GravacaoCall> cache = TieredEntityCache.create(null, Duration.ofMinutes(5), 100,
+                offHeapBytes, GravacaoCall.class, GravacaoCall::new, TRANSCRICAO, Usuario.class);
+        criados.add(cache);
+        return cache;
+    }
+
+    private Optional<GravacaoCall> buscarNoBanco(Long id) {
+        consultas.incrementAndGet();
+        GravacaoCall gravacao = new GravacaoCall(id, 1L, 2L, null, null);
+        gravacao.setTranscricao("Transcrição da ligação " + id + " com acentuação");
+        return Optional.of(gravacao);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. Segunda busca remonta a gravação a partir dos dois níveis")
+    void testReadThrough() {
+        TieredEntityCache<GravacaoCall> cache = novoCache(1 << 20);
+
+        GravacaoCall primeira = cache.findScoped(10L, g -> true, this::buscarNoBanco).orElseThrow();
+        primeira.setTranscricao("alterada sem salvar");
+        GravacaoCall segunda = cache.findScoped(10L, g -> true, this::buscarNoBanco).orElseThrow();
+
+        assertEquals(1, consultas.get());
+        assertEquals("Transcrição da ligação 10 com acentuação", segunda.getTranscricao());
+        assertTrue(cache.findScoped(10L, g -> g.getIdUsuario().equals(99L), this::buscarNoBanco).isEmpty());
+        assertFalse(cache.existsScoped(10L, g -> g.getIdUsuario().equals(99L), id -> true));
+        assertEquals(1, consultas.get());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Escrita da gravação e exclusão do usuário invalidam o cache")
+    void testInvalidacao() {
+        TieredEntityCache<GravacaoCall> cache = novoCache(1 << 20);
+        cache.findScoped(20L, g -> true, this::buscarNoBanco);
+
+        WriteEventBus.publishSave(GravacaoCall.class, 20L, null);
+        cache.findScoped(20L, g -> true, this::buscarNoBanco);
+        assertEquals(2, consultas.get());
+
+        WriteEventBus.publishDelete(Usuario.class, 1L, null);
+        cache.findScoped(20L, g -> true, this::buscarNoBanco);
+        assertEquals(3, consultas.get());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Sem capacidade off-heap toda busca vai ao banco")
+    void testDesligado() {
+        TieredEntityCache<GravacaoCall> cache = novoCache(0);
+
+        cache.findScoped(30L, g -> true, this::buscarNoBanco);
+        cache.findScoped(30L, g -> true, this::buscarNoBanco);
+
+        assertFalse(cache.isEnabled());
+        assertEquals(2, consultas.get());
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. Requisição fixada no primário (escrita) não lê do cache")
+    void testFixadaNoPrimarioIgnoraCache() {
+        TieredEntityCache<GravacaoCall> cache = novoCache(1 << 20);
+        cache.findScoped(40L, g -> true, this::buscarNoBanco);
+
+        ReadYourWrites.pinToPrimary();
+        cache.findScoped(40L, g -> true, this::buscarNoBanco);
+        assertTrue(cache.existsScoped(40L, g -> false, id -> true));
+        assertEquals(2, consultas.get());
+
+        ReadYourWrites.clear();
+        cache.findScoped(40L, g -> true, this::buscarNoBanco);
+        assertEquals(2, consultas.get());
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("5. Alterar o feedback da cópia recebida não altera o cache")
+    void testFeedbackCopiado() {
+        TieredEntityCache<GravacaoCall> cache = novoCache(1 << 20);
+        cache.findScoped(50L, g -> true, id -> buscarNoBanco(id).map(gravacao -> {
+            FeedbackIA feedback = new FeedbackIA(5L, id, 1L);
+            feedback.setSentimentScore(80);
+            feedback.getPontosFortes().add("Rapport");
+            gravacao.setFeedback(feedback);
+            return gravacao;
+        }));
+
+        GravacaoCall primeira = cache.findScoped(50L, g -> true, this::buscarNoBanco).orElseThrow();
+        primeira.getFeedback().setSentimentScore(10);
+        primeira.getFeedback().getPontosFortes().clear();
+        GravacaoCall segunda = cache.findScoped(50L, g -> true, this::buscarNoBanco).orElseThrow();
+
+        assertEquals(1, consultas.get());
+        assertEquals(80, segunda.getFeedback().getSentimentScore());
+        assertEquals(1, segunda.getFeedback().getPontosFortes().size());
+    }
+}
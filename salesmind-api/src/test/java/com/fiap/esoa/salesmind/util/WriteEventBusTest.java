@@ -0,0 +1,78 @@
+package com.fiap.esoa.salesmind.util;
+
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do WriteEventBus (entrega imediata, adiada até o commit e descartada no rollback)
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class WriteEventBusTest {
+
+    private record Entidade(Long id) {
+    }
+
+    private final List<WriteEvent<Entidade>> eventos = new CopyOnWriteArrayList<>();
+    private Runnable cancelar;
+
+    @BeforeEach
+    void setup() {
+        cancelar = WriteEventBus.subscribe(Entidade.class, eventos::add);
+    }
+
+    @AfterEach
+    void cleanup() {
+        cancelar.run();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. Fora de transação o evento é entregue na hora")
+    void testPublishSemTransacao() {
+        WriteEventBus.publishSave(Entidade.class, 1L, new Entidade(1L));
+
+        assertEquals(1, eventos.size());
+        assertEquals(WriteEvent.Operacao.SAVE, eventos.get(0).operacao());
+        assertEquals(1L, eventos.get(0).entidade().id());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Dentro de transação o evento só é entregue no commit")
+    void testPublishComCommit() {
+        List<WriteEvent<?>> externa = WriteEventBus.beginTransaction();
+        WriteEventBus.publishDelete(Entidade.class, 2L, null);
+        assertTrue(eventos.isEmpty());
+
+        WriteEventBus.endTransaction(externa, true);
+        assertEquals(1, eventos.size());
+        assertEquals(WriteEvent.Operacao.DELETE, eventos.get(0).operacao());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Rollback descarta os eventos da transação")
+    void testPublishComRollback() {
+        List<WriteEvent<?>> externa = WriteEventBus.beginTransaction();
+        WriteEventBus.publishSave(Entidade.class, 3L, new Entidade(3L));
+        WriteEventBus.endTransaction(externa, false);
+
+        assertTrue(eventos.isEmpty());
+        WriteEventBus.publishSave(Entidade.class, 4L, new Entidade(4L));
+        assertEquals(1, eventos.size());
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. Inscrição cancelada não recebe eventos")
+    void testCancelarInscricao() {
+        cancelar.run();
+        WriteEventBus.publishSave(Entidade.class, 5L, new Entidade(5L));
+
+        assertTrue(eventos.isEmpty());
+    }
+}